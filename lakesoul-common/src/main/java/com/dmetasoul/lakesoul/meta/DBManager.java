@@ -16,6 +16,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -177,6 +178,10 @@ public class DBManager {
         return partitionInfoDao.getPartitionDescByTableId(tableId);
     }
 
+    public List<PartitionInfo> getPartitionsChangedSince(String tableId, long utcMills) {
+        return partitionInfoDao.getPartitionsChangedSince(tableId, utcMills);
+    }
+
     public List<PartitionInfo> getOnePartitionVersions(String tableId, String partitionDesc) {
         return partitionInfoDao.getPartitionVersions(tableId, partitionDesc);
     }
@@ -799,6 +804,15 @@ public class DBManager {
         return dataCommitInfoDao.selectByTableIdPartitionDescCommitList(tableId, partitionDesc, commitList);
     }
 
+    /**
+     * Data commits of the latest version up to utcMills of the given partitions, or of all partitions if
+     * partitionDescList is empty, resolved in a single metadata query.
+     */
+    public List<DataCommitInfo> getPartitionsSnapshotUptoTime(String tableId, List<String> partitionDescList,
+                                                             long utcMills) {
+        return partitionInfoDao.getSnapshotDataCommitInfoUptoTime(tableId, partitionDescList, utcMills);
+    }
+
     public List<PartitionInfo> getIncrementalPartitions(String tableId, String partitionDesc, int startVersion,
                                                         int endVersion) {
         return partitionInfoDao.getPartitionsFromVersion(tableId, partitionDesc, startVersion, endVersion);
@@ -895,6 +909,72 @@ public class DBManager {
         commitData(metaInfo.build(), false, commitOp);
     }
 
+    /**
+     * Commit append data commits of several partitions of one table with one batch insert into data_commit_info and
+     * one partition_info transaction, so that a checkpoint touching many partitions costs a constant number of
+     * metadata round trips. Data commits of the same partition are added into its new version in list order.
+     * <p>
+     * If the batch insert conflicts with existing rows, e.g. when a checkpoint whose data commits were persisted
+     * before a failover is committed again, each data commit falls back to {@link #commitDataCommitInfo} which skips
+     * committed ones. Other failures of the batch insert are thrown.
+     */
+    public void batchCommitAppendDataCommitInfo(String tableId, List<DataCommitInfo> dataCommitInfoList) {
+        if (dataCommitInfoList.isEmpty()) return;
+        String domain = getTableDomain(tableId);
+        List<DataCommitInfo> mappedListData = dataCommitInfoList.stream()
+                .map(item -> item.toBuilder().setDomain(domain).build())
+                .collect(Collectors.toList());
+        boolean inserted;
+        try {
+            inserted = dataCommitInfoDao.batchInsert(mappedListData);
+        } catch (RuntimeException e) {
+            if (!isIntegrityConstraintViolation(e)) {
+                throw e;
+            }
+            LOG.warn("Batch insert of {} data commits of table {} conflicts with existing ones, " +
+                    "committing them one by one", mappedListData.size(), tableId, e);
+            inserted = false;
+        }
+        if (!inserted) {
+            for (DataCommitInfo dataCommitInfo : dataCommitInfoList) {
+                commitDataCommitInfo(dataCommitInfo, null);
+            }
+            return;
+        }
+
+        Map<String, PartitionInfo.Builder> partitionMap = new LinkedHashMap<>();
+        for (DataCommitInfo dataCommitInfo : mappedListData) {
+            partitionMap.computeIfAbsent(dataCommitInfo.getPartitionDesc(), partitionDesc -> PartitionInfo.newBuilder()
+                            .setTableId(tableId)
+                            .setPartitionDesc(partitionDesc)
+                            .setCommitOp(CommitOp.AppendCommit)
+                            .setDomain(domain))
+                    .addSnapshot(dataCommitInfo.getCommitId());
+        }
+        MetaInfo.Builder metaInfo = MetaInfo.newBuilder();
+        metaInfo.setTableInfo(tableInfoDao.selectByTableId(tableId));
+        partitionMap.values().forEach(partitionInfo -> metaInfo.addListPartition(partitionInfo.build()));
+
+        commitData(metaInfo.build(), false, CommitOp.AppendCommit);
+    }
+
+    // whether the error is caused by a violated constraint, e.g. a duplicate key, on jdbc or native metadata client
+    private static boolean isIntegrityConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith("23")) {
+                    return true;
+                }
+            }
+            if (cause.getMessage() != null
+                    && cause.getMessage().contains("duplicate key value violates unique constraint")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     //==============
     //namespace
     //==============
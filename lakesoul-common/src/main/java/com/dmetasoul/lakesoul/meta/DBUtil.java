@@ -47,6 +47,13 @@ public class DBUtil {
 
     private static final String lakeSoulHomeEnv = "LAKESOUL_HOME";
 
+    private static final String nativeMetadataClientPoolSizeEnv = "LAKESOUL_NATIVE_METADATA_CLIENT_POOL_SIZE";
+    public static final String nativeMetadataClientPoolSizeKey = "lakesoul.native.metadata.client.pool.size";
+    private static final String nativeMetadataClientPoolSizeDefault = "4";
+
+    private static final String nativeIOThreadNumEnv = "LAKESOUL_NATIVE_IO_THREAD_NUM";
+    public static final String nativeIOThreadNumKey = "lakesoul.native.io.thread.num";
+
     // Retrieve config value in order: ENV, System Prop, Default Value
     private static String getConfigValue(String envKey, String propKey, String defaultValue) {
         String value = System.getenv(envKey);
@@ -117,6 +124,23 @@ public class DBUtil {
         return getConfigValue(usernameEnv, usernameKey, null);
     }
 
+    /**
+     * Number of native metadata clients, i.e. postgres connections, could be used concurrently in one JVM
+     */
+    public static int getNativeMetadataClientPoolSize() {
+        return Math.max(1, Integer.parseInt(getConfigValue(nativeMetadataClientPoolSizeEnv,
+                nativeMetadataClientPoolSizeKey, nativeMetadataClientPoolSizeDefault)));
+    }
+
+    /**
+     * Number of worker threads of the native io runtime shared by all readers and writers in one JVM, defaults to the
+     * number of available processors
+     */
+    public static int getNativeIOThreadNum() {
+        return Math.max(1, Integer.parseInt(getConfigValue(nativeIOThreadNumEnv,
+                nativeIOThreadNumKey, String.valueOf(Runtime.getRuntime().availableProcessors()))));
+    }
+
     public static void cleanAllTable() {
         String tableInfo = "truncate table table_info";
         String tableNameId = "truncate table table_name_id";
@@ -180,7 +204,9 @@ public class DBUtil {
             String fileOp = dataFileOp.getFileOp().name();
             long size = dataFileOp.getSize();
             String fileExistCols = dataFileOp.getFileExistCols();
-            sb.append(String.format("\"(%s,%s,%s,\\\"%s\\\")\",", path, fileOp, size, fileExistCols));
+            // file stats is base64 encoded, so it could be put into the composite literal without quoting
+            String fileStats = dataFileOp.getFileStats();
+            sb.append(String.format("\"(%s,%s,%s,\\\"%s\\\",%s)\",", path, fileOp, size, fileExistCols, fileStats));
         }
         sb = new StringBuilder(sb.substring(0, sb.length() - 1));
         sb.append("}");
@@ -209,7 +235,8 @@ public class DBUtil {
             tmpElem = tmpElem.substring(tmpElem.indexOf(",") + 1);
             dataFileOp.setSize(Long.parseLong(tmpElem.substring(0, tmpElem.indexOf(","))));
             tmpElem = tmpElem.substring(tmpElem.indexOf(",") + 1);
-            dataFileOp.setFileExistCols(tmpElem);
+            dataFileOp.setFileExistCols(tmpElem.substring(0, tmpElem.lastIndexOf(",")));
+            dataFileOp.setFileStats(tmpElem.substring(tmpElem.lastIndexOf(",") + 1));
             rsList.add(dataFileOp.build());
         }
         return rsList;
@@ -0,0 +1,305 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Row count, null counts and min/max values per column of one data file, which are recorded as
+ * {@link com.dmetasoul.lakesoul.meta.entity.DataFileOp#getFileStats()} at commit time and used by readers to skip
+ * files that could not match the pushed down predicate.
+ *
+ * <p>Values are kept in a type-erased form: integral, date (days since epoch) and timestamp (microseconds since
+ * epoch) values as {@link Long}, floating point values as {@link Double}, decimals as {@link BigDecimal} and strings
+ * as {@link String}. Columns of other types only carry null counts.
+ */
+public class DataFileStats {
+
+    public enum Comparison {
+        EQ, NOT_EQ, LT, LT_EQ, GT, GT_EQ
+    }
+
+    // min/max of longer strings are dropped to keep the commit metadata small
+    public static final int MAX_STRING_STATS_LENGTH = 256;
+
+    private static final String NUM_ROWS = "numRows";
+    private static final String COLUMNS = "columns";
+    private static final String NULL_COUNT = "nullCount";
+    private static final String MIN = "min";
+    private static final String MAX = "max";
+
+    private final long numRows;
+
+    private final Map<String, ColumnStats> columns;
+
+    public DataFileStats(long numRows, Map<String, ColumnStats> columns) {
+        this.numRows = numRows;
+        this.columns = columns;
+    }
+
+    public long getNumRows() {
+        return numRows;
+    }
+
+    public Map<String, ColumnStats> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns false only if no row of this file could satisfy `column op literal`.
+     */
+    public boolean mightMatch(String column, Comparison op, Object literal) {
+        ColumnStats stats = columns.get(column);
+        if (stats == null) return true;
+        if (stats.nullCount >= numRows) {
+            // comparison with null never evaluates to true
+            return false;
+        }
+        Object value = normalize(literal);
+        if (value == null || stats.min == null || stats.max == null) return true;
+        Integer cmpMin = compare(stats.min, value);
+        Integer cmpMax = compare(stats.max, value);
+        if (cmpMin == null || cmpMax == null) return true;
+        switch (op) {
+            case EQ:
+                return cmpMin <= 0 && cmpMax >= 0;
+            case NOT_EQ:
+                return !(cmpMin == 0 && cmpMax == 0);
+            case LT:
+                return cmpMin < 0;
+            case LT_EQ:
+                return cmpMin <= 0;
+            case GT:
+                return cmpMax > 0;
+            case GT_EQ:
+                return cmpMax >= 0;
+            default:
+                return true;
+        }
+    }
+
+    public boolean mightBeNull(String column) {
+        ColumnStats stats = columns.get(column);
+        return stats == null || stats.nullCount > 0;
+    }
+
+    public boolean mightBeNotNull(String column) {
+        ColumnStats stats = columns.get(column);
+        return stats == null || stats.nullCount < numRows;
+    }
+
+    public String encode() {
+        JSONObject cols = new JSONObject();
+        for (Map.Entry<String, ColumnStats> entry : columns.entrySet()) {
+            JSONObject col = new JSONObject();
+            col.put(NULL_COUNT, entry.getValue().nullCount);
+            if (entry.getValue().min != null && entry.getValue().max != null) {
+                col.put(MIN, entry.getValue().min);
+                col.put(MAX, entry.getValue().max);
+            }
+            cols.put(entry.getKey(), col);
+        }
+        JSONObject json = new JSONObject();
+        json.put(NUM_ROWS, numRows);
+        json.put(COLUMNS, cols);
+        return Base64.getEncoder().encodeToString(json.toJSONString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode stats of {@link com.dmetasoul.lakesoul.meta.entity.DataFileOp#getFileStats()}, returns null if the file
+     * has no stats recorded.
+     */
+    public static DataFileStats decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) return null;
+        try {
+            JSONObject json = JSON.parseObject(new String(Base64.getDecoder().decode(encoded),
+                    StandardCharsets.UTF_8));
+            Map<String, ColumnStats> columns = new HashMap<>();
+            JSONObject cols = json.getJSONObject(COLUMNS);
+            if (cols != null) {
+                for (String name : cols.keySet()) {
+                    JSONObject col = cols.getJSONObject(name);
+                    columns.put(name, new ColumnStats(col.getLongValue(NULL_COUNT),
+                            normalize(col.get(MIN)), normalize(col.get(MAX))));
+                }
+            }
+            return new DataFileStats(json.getLongValue(NUM_ROWS), columns);
+        } catch (RuntimeException e) {
+            // stats are only an optimization, a corrupted one should not fail the read
+            return null;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Convert a value to the type-erased form used by stats, returns null if the value is not supported.
+     */
+    public static Object normalize(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return Double.isNaN(d) || Double.isInfinite(d) ? null : d;
+        }
+        if (value instanceof BigDecimal) {
+            return value;
+        }
+        if (value instanceof CharSequence) {
+            return value.toString();
+        }
+        return null;
+    }
+
+    /**
+     * Compare two values in the form of {@link #normalize(Object)}, returns null if they are not comparable.
+     */
+    public static Integer compare(Object left, Object right) {
+        if (left instanceof String && right instanceof String) {
+            return compareCodePoints((String) left, (String) right);
+        }
+        if (left instanceof Number && right instanceof Number) {
+            if (left instanceof Long && right instanceof Long) {
+                return Long.compare((Long) left, (Long) right);
+            }
+            return new BigDecimal(left.toString()).compareTo(new BigDecimal(right.toString()));
+        }
+        return null;
+    }
+
+    /**
+     * Compare strings by code points, which is the byte order of their UTF-8 encoding used by parquet statistics.
+     * {@link String#compareTo(String)} compares UTF-16 chars and orders supplementary characters before U+E000..U+FFFF.
+     */
+    static int compareCodePoints(String left, String right) {
+        int i = 0;
+        int j = 0;
+        while (i < left.length() && j < right.length()) {
+            int l = left.codePointAt(i);
+            int r = right.codePointAt(j);
+            if (l != r) {
+                return Integer.compare(l, r);
+            }
+            i += Character.charCount(l);
+            j += Character.charCount(r);
+        }
+        return Integer.compare(left.length() - i, right.length() - j);
+    }
+
+    public static class ColumnStats {
+        private final long nullCount;
+        private final Object min;
+        private final Object max;
+
+        public ColumnStats(long nullCount, Object min, Object max) {
+            this.nullCount = nullCount;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getNullCount() {
+            return nullCount;
+        }
+
+        public Object getMin() {
+            return min;
+        }
+
+        public Object getMax() {
+            return max;
+        }
+    }
+
+    /**
+     * Accumulates stats of the rows written into one file.
+     */
+    public static class Builder {
+        private long numRows = 0;
+
+        private final Map<String, ColumnStatsBuilder> columns = new HashMap<>();
+
+        public Builder addRows(long rows) {
+            numRows += rows;
+            return this;
+        }
+
+        /**
+         * Update stats of the column with one value, null values are counted as nulls and values of unsupported
+         * types disable min/max of the column.
+         */
+        public Builder update(String column, Object value) {
+            ColumnStatsBuilder builder = columns.computeIfAbsent(column, k -> new ColumnStatsBuilder());
+            if (value == null) {
+                builder.nullCount++;
+                return this;
+            }
+            if (!builder.valid) return this;
+            Object normalized = normalize(value);
+            if (normalized == null
+                    || (normalized instanceof String && ((String) normalized).length() > MAX_STRING_STATS_LENGTH)) {
+                builder.invalidate();
+                return this;
+            }
+            if (builder.min == null) {
+                builder.min = normalized;
+                builder.max = normalized;
+                return this;
+            }
+            Integer cmpMin = compare(normalized, builder.min);
+            Integer cmpMax = compare(normalized, builder.max);
+            if (cmpMin == null || cmpMax == null) {
+                builder.invalidate();
+                return this;
+            }
+            if (cmpMin < 0) builder.min = normalized;
+            if (cmpMax > 0) builder.max = normalized;
+            return this;
+        }
+
+        /**
+         * Disable min/max of the column, e.g. for a column of unsupported type.
+         */
+        public Builder invalidate(String column) {
+            columns.computeIfAbsent(column, k -> new ColumnStatsBuilder()).invalidate();
+            return this;
+        }
+
+        public long getNumRows() {
+            return numRows;
+        }
+
+        public DataFileStats build() {
+            Map<String, ColumnStats> result = new HashMap<>();
+            for (Map.Entry<String, ColumnStatsBuilder> entry : columns.entrySet()) {
+                ColumnStatsBuilder builder = entry.getValue();
+                result.put(entry.getKey(), new ColumnStats(builder.nullCount, builder.min, builder.max));
+            }
+            return new DataFileStats(numRows, result);
+        }
+    }
+
+    private static class ColumnStatsBuilder {
+        long nullCount = 0;
+        Object min = null;
+        Object max = null;
+        boolean valid = true;
+
+        void invalidate() {
+            valid = false;
+            min = null;
+            max = null;
+        }
+    }
+}
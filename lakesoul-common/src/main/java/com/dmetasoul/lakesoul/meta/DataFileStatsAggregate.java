@@ -0,0 +1,196 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sizes, row counts, null counts and min/max values aggregated from the {@link DataFileStats} of data files, from which
+ * engines derive statistics for their planners. Aggregates of partitions could be merged, so that they may be cached
+ * by partition version.
+ *
+ * <p>Row counts sum the rows written into each file. For tables with primary keys, rows upserted by later commits are
+ * counted again, so row counts and null counts are only upper bounds of the rows after merge, while min/max values
+ * remain valid bounds.
+ */
+public class DataFileStatsAggregate {
+
+    private long fileCount = 0;
+
+    private long totalBytes = 0;
+
+    // files, rows and bytes of the files with stats recorded
+    private long filesWithStats = 0;
+
+    private long numRows = 0;
+
+    private long bytesWithStats = 0;
+
+    private final Map<String, ColumnAggregate> columns = new HashMap<>();
+
+    /**
+     * Add a data file of the given size with its encoded {@link DataFileStats}, which may be empty.
+     */
+    public DataFileStatsAggregate addFile(long size, String encodedStats) {
+        fileCount++;
+        totalBytes += size;
+        DataFileStats stats = DataFileStats.decode(encodedStats);
+        if (stats == null) return this;
+        filesWithStats++;
+        numRows += stats.getNumRows();
+        bytesWithStats += size;
+        for (Map.Entry<String, DataFileStats.ColumnStats> entry : stats.getColumns().entrySet()) {
+            columns.computeIfAbsent(entry.getKey(), k -> new ColumnAggregate()).add(entry.getValue(),
+                    stats.getNumRows());
+        }
+        return this;
+    }
+
+    /**
+     * Add the files aggregated by the other aggregate, which is left unchanged.
+     */
+    public DataFileStatsAggregate merge(DataFileStatsAggregate other) {
+        fileCount += other.fileCount;
+        totalBytes += other.totalBytes;
+        filesWithStats += other.filesWithStats;
+        numRows += other.numRows;
+        bytesWithStats += other.bytesWithStats;
+        for (Map.Entry<String, ColumnAggregate> entry : other.columns.entrySet()) {
+            columns.computeIfAbsent(entry.getKey(), k -> new ColumnAggregate()).merge(entry.getValue());
+        }
+        return this;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * Rows of the files with stats recorded.
+     */
+    public long getNumRows() {
+        return numRows;
+    }
+
+    public boolean hasStatsOfAllFiles() {
+        return filesWithStats == fileCount;
+    }
+
+    /**
+     * Row count extrapolated from the files with stats to the others by size, -1 if no file has stats.
+     */
+    public long estimateRowCount() {
+        if (fileCount == 0 || totalBytes == 0) return 0;
+        if (bytesWithStats == 0) return -1;
+        return numRows + Math.round((double) (totalBytes - bytesWithStats) * numRows / bytesWithStats);
+    }
+
+    /**
+     * Aggregated stats of the column over the files having stats of it, null if there is none.
+     */
+    public ColumnAggregate getColumn(String column) {
+        return columns.get(column);
+    }
+
+    /**
+     * Whether every file has stats of the column, so that its null count and min/max cover all rows.
+     */
+    public boolean isComplete(String column) {
+        ColumnAggregate aggregate = columns.get(column);
+        return aggregate != null && aggregate.fileCount == fileCount;
+    }
+
+    public static class ColumnAggregate {
+        private long fileCount = 0;
+
+        private long numRows = 0;
+
+        private long nullCount = 0;
+
+        // bounds of the values which are not null, unknown once a file with values misses them
+        private boolean boundsKnown = true;
+
+        private Object min;
+
+        private Object max;
+
+        void add(DataFileStats.ColumnStats stats, long rows) {
+            fileCount++;
+            numRows += rows;
+            nullCount += stats.getNullCount();
+            if (stats.getNullCount() >= rows) {
+                // all null files carry no bounds and do not affect them
+                return;
+            }
+            mergeBounds(stats.getMin() != null && stats.getMax() != null, stats.getMin(), stats.getMax());
+        }
+
+        void merge(ColumnAggregate other) {
+            fileCount += other.fileCount;
+            numRows += other.numRows;
+            nullCount += other.nullCount;
+            if (!other.boundsKnown || other.min != null) {
+                mergeBounds(other.boundsKnown, other.min, other.max);
+            }
+        }
+
+        private void mergeBounds(boolean known, Object otherMin, Object otherMax) {
+            if (!boundsKnown) return;
+            if (!known) {
+                invalidateBounds();
+                return;
+            }
+            if (min == null) {
+                min = otherMin;
+                max = otherMax;
+                return;
+            }
+            Integer cmpMin = DataFileStats.compare(min, otherMin);
+            Integer cmpMax = DataFileStats.compare(max, otherMax);
+            if (cmpMin == null || cmpMax == null) {
+                invalidateBounds();
+                return;
+            }
+            if (cmpMin > 0) min = otherMin;
+            if (cmpMax < 0) max = otherMax;
+        }
+
+        private void invalidateBounds() {
+            boundsKnown = false;
+            min = null;
+            max = null;
+        }
+
+        /**
+         * Rows of the files having stats of this column.
+         */
+        public long getNumRows() {
+            return numRows;
+        }
+
+        public long getNullCount() {
+            return nullCount;
+        }
+
+        /**
+         * Min value of the column, null if it is unknown or all values are null.
+         */
+        public Object getMin() {
+            return min;
+        }
+
+        /**
+         * Max value of the column, null if it is unknown or all values are null.
+         */
+        public Object getMax() {
+            return max;
+        }
+    }
+}
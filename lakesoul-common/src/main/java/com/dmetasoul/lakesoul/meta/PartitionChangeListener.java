@@ -0,0 +1,102 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens on the channel notified by the partition_info insert trigger and calls back when a new partition version of
+ * the table is committed. Notifications are only a hint to poll earlier, callers should still poll periodically since
+ * notifications sent while the connection is broken are lost.
+ * <p>
+ * Each listener holds one connection of the metadata connection pool for as long as it runs, so the pool has to be
+ * sized for the number of listening readers. The callback is run in the listener thread and should only hand the
+ * notification over to its owner.
+ */
+public class PartitionChangeListener extends Thread {
+    private static final Logger LOG = LoggerFactory.getLogger(PartitionChangeListener.class);
+
+    public static final String NOTIFY_CHANNEL_NAME = "lakesoul_partition_change_notify";
+
+    private static final int POLL_TIMEOUT_MILLS = 1000;
+
+    private static final long RECONNECT_INTERVAL_MILLS = 10000;
+
+    private final String tableId;
+
+    private final Runnable onChange;
+
+    private volatile boolean running = true;
+
+    private Connection conn;
+
+    public PartitionChangeListener(String tableId, Runnable onChange) {
+        super("lakesoul-partition-change-listener-" + tableId);
+        this.tableId = tableId;
+        this.onChange = onChange;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                if (conn == null) {
+                    conn = DBConnector.getConn();
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("LISTEN " + NOTIFY_CHANNEL_NAME);
+                    }
+                    LOG.info("Listening on {} for changes of table {}", NOTIFY_CHANNEL_NAME, tableId);
+                }
+                PGNotification[] notifications = conn.unwrap(PGConnection.class).getNotifications(POLL_TIMEOUT_MILLS);
+                if (notifications == null) continue;
+                for (PGNotification notification : notifications) {
+                    if (tableId.equals(notification.getParameter())) {
+                        onChange.run();
+                        break;
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) break;
+                LOG.warn("Failed to listen on {} for changes of table {}, retry in {} ms", NOTIFY_CHANNEL_NAME,
+                        tableId, RECONNECT_INTERVAL_MILLS, e);
+                closeConnection();
+                try {
+                    Thread.sleep(RECONNECT_INTERVAL_MILLS);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to handle change notification of table {}", tableId, e);
+            }
+        }
+        closeConnection();
+    }
+
+    public void close() {
+        running = false;
+        interrupt();
+    }
+
+    private void closeConnection() {
+        if (conn != null) {
+            // the connection goes back to the pool, do not leave it subscribed
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("UNLISTEN " + NOTIFY_CHANNEL_NAME);
+            } catch (SQLException e) {
+                LOG.debug("Failed to unlisten {}", NOTIFY_CHANNEL_NAME, e);
+            }
+            DBConnector.closeConn(conn);
+            conn = null;
+        }
+    }
+}
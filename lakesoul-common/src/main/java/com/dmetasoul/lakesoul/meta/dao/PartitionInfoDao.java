@@ -327,6 +327,64 @@ public class PartitionInfoDao {
         return version;
     }
 
+    /**
+     * Resolve the latest version up to utcMills of each partition in partitionDescList (all partitions of the table if
+     * the list is empty) and return the data commits of those versions in one round trip, ordered by partition and by
+     * the commit order of each snapshot. Partitions without any version up to utcMills are absent from the result.
+     */
+    public List<DataCommitInfo> getSnapshotDataCommitInfoUptoTime(String tableId, List<String> partitionDescList,
+                                                                  long utcMills) {
+        if (NativeUtils.NATIVE_METADATA_QUERY_ENABLED) {
+            JniWrapper jniWrapper = NativeMetadataJavaClient.query(
+                    NativeUtils.CodedDaoType.ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime,
+                    Arrays.asList(tableId,
+                            String.join(NativeUtils.PARTITION_DESC_DELIM, partitionDescList),
+                            Long.toString(utcMills)));
+            if (jniWrapper == null) return null;
+            return jniWrapper.getDataCommitInfoList();
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        String descFilter = "";
+        if (!partitionDescList.isEmpty()) {
+            descFilter = String.format("and partition_desc in (%s) ",
+                    String.join(",", Collections.nCopies(partitionDescList.size(), "?")));
+        }
+        String sql = String.format(
+                "select d.table_id, d.partition_desc, d.commit_id, d.file_ops, d.commit_op, d.timestamp, " +
+                        "d.committed, d.domain from (" +
+                        "select distinct on (partition_desc) partition_desc, snapshot from partition_info " +
+                        "where table_id = ? and timestamp <= ? %s" +
+                        "order by partition_desc, version desc) p " +
+                        "cross join lateral unnest(p.snapshot) with ordinality as s(commit_id, idx) " +
+                        "join data_commit_info d on d.table_id = ? and d.partition_desc = p.partition_desc " +
+                        "and d.commit_id = s.commit_id " +
+                        "order by p.partition_desc, s.idx",
+                descFilter);
+        List<DataCommitInfo> rsList = new ArrayList<>();
+        try {
+            conn = DBConnector.getConn();
+            pstmt = conn.prepareStatement(sql);
+            int index = 1;
+            pstmt.setString(index++, tableId);
+            pstmt.setLong(index++, utcMills);
+            for (String partitionDesc : partitionDescList) {
+                pstmt.setString(index++, partitionDesc);
+            }
+            pstmt.setString(index, tableId);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                rsList.add(DataCommitInfoDao.dataCommitInfoFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            DBConnector.closeConn(rs, pstmt, conn);
+        }
+        return rsList;
+    }
+
     public long getLastedVersionTimestampUptoTime(String tableId, String partitionDesc, long utcMills) {
         if (NativeUtils.NATIVE_METADATA_QUERY_ENABLED) {
             List<String> result = NativeMetadataJavaClient.queryScalar(
@@ -428,6 +486,43 @@ public class PartitionInfoDao {
         return rsList;
     }
 
+    /**
+     * Latest version of each partition of the table that has any version committed after utcMills, so that streaming
+     * readers only look at partitions changed since their last poll instead of all partitions of the table.
+     */
+    public List<PartitionInfo> getPartitionsChangedSince(String tableId, long utcMills) {
+        if (NativeUtils.NATIVE_METADATA_QUERY_ENABLED) {
+            JniWrapper jniWrapper = NativeMetadataJavaClient.query(
+                    NativeUtils.CodedDaoType.ListPartitionByTableIdChangedSince,
+                    Arrays.asList(tableId, Long.toString(utcMills)));
+            if (jniWrapper == null) return null;
+            return jniWrapper.getPartitionInfoList();
+        }
+        Connection conn = null;
+        PreparedStatement pstmt = null;
+        ResultSet rs = null;
+        List<PartitionInfo> rsList = new ArrayList<>();
+        String sql = "select distinct on (partition_desc) " +
+                "table_id, partition_desc, version, commit_op, snapshot, timestamp, expression, domain " +
+                "from partition_info where table_id = ? and timestamp > ? " +
+                "order by partition_desc, version desc";
+        try {
+            conn = DBConnector.getConn();
+            pstmt = conn.prepareStatement(sql);
+            pstmt.setString(1, tableId);
+            pstmt.setLong(2, utcMills);
+            rs = pstmt.executeQuery();
+            while (rs.next()) {
+                rsList.add(partitionInfoFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            DBConnector.closeConn(rs, pstmt, conn);
+        }
+        return rsList;
+    }
+
     public PartitionInfo findByKey(String tableId, String partitionDesc, int version) {
         if (NativeUtils.NATIVE_METADATA_QUERY_ENABLED) {
             JniWrapper jniWrapper = NativeMetadataJavaClient.query(
@@ -16,15 +16,24 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.dmetasoul.lakesoul.meta.jnr.NativeUtils.*;
@@ -56,8 +65,22 @@ public class NativeMetadataJavaClient implements AutoCloseable {
 
     private static NativeMetadataJavaClient instance = null;
 
+    // idle clients used by the static dao entries, each one owns a postgres connection and its buffers,
+    // so calls leased with different clients run in parallel
+    private static final BlockingQueue<NativeMetadataJavaClient> idleClients = new LinkedBlockingQueue<>();
+
+    private static final AtomicInteger createdClients = new AtomicInteger(0);
+
+    private static final Map<String, CallMetrics> callMetrics = new ConcurrentHashMap<>();
+
+    // log calls waiting longer than this for an idle client
+    private static final long SLOW_WAIT_THRESHOLD_MS = 1000L;
+
     private final ReentrantReadWriteLock lock;
 
+    // set when a call failed after all retries, the client would be dropped instead of returned to pool
+    private volatile boolean broken = false;
+
     private static DataBaseProperty dataBaseProperty = null;
 
     public static void setDataBaseProperty(DataBaseProperty dataBaseProperty) {
@@ -82,17 +105,126 @@ public class NativeMetadataJavaClient implements AutoCloseable {
         initialize();
     }
 
-    public static NativeMetadataJavaClient getInstance() {
+    public static synchronized NativeMetadataJavaClient getInstance() {
         if (instance == null) {
             instance = new NativeMetadataJavaClient();
         }
         return instance;
     }
 
-    public static void shutDownInstance() {
+    public static synchronized void shutDownInstance() {
         instance = null;
     }
 
+    private void invalidate() {
+        broken = true;
+        synchronized (NativeMetadataJavaClient.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Lease an idle client from pool, creating one if the pool is not full, otherwise wait for a client returned by
+     * other threads.
+     */
+    private static NativeMetadataJavaClient borrowClient() throws InterruptedException {
+        NativeMetadataJavaClient client = idleClients.poll();
+        if (client != null) return client;
+        int poolSize = DBUtil.getNativeMetadataClientPoolSize();
+        while (true) {
+            int created = createdClients.get();
+            if (created >= poolSize) {
+                return idleClients.take();
+            }
+            if (createdClients.compareAndSet(created, created + 1)) {
+                try {
+                    return new NativeMetadataJavaClient();
+                } catch (RuntimeException e) {
+                    createdClients.decrementAndGet();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void returnClient(NativeMetadataJavaClient client) {
+        if (client.broken) {
+            createdClients.decrementAndGet();
+            client.close();
+        } else {
+            idleClients.offer(client);
+        }
+    }
+
+    // number of pooled clients created and not closed yet
+    static int createdClientCount() {
+        return createdClients.get();
+    }
+
+    // number of pooled clients not leased by any call
+    static int idleClientCount() {
+        return idleClients.size();
+    }
+
+    private static <T> T withPooledClient(NativeUtils.CodedDaoType daoType,
+                                          Function<NativeMetadataJavaClient, T> call) {
+        long startWait = System.nanoTime();
+        NativeMetadataJavaClient client;
+        try {
+            client = borrowClient();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        long waitNanos = System.nanoTime() - startWait;
+        if (waitNanos > TimeUnit.MILLISECONDS.toNanos(SLOW_WAIT_THRESHOLD_MS)) {
+            LOG.warn("{} waited {} ms for an idle native metadata client", daoType,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+        long startCall = System.nanoTime();
+        try {
+            return call.apply(client);
+        } finally {
+            callMetrics.computeIfAbsent(daoType.name(), k -> new CallMetrics())
+                    .record(waitNanos, System.nanoTime() - startCall);
+            returnClient(client);
+        }
+    }
+
+    /**
+     * Wait time for an idle client and execution time of native metadata calls per dao type since start of JVM.
+     */
+    public static Map<String, String> getCallMetrics() {
+        Map<String, String> result = new TreeMap<>();
+        callMetrics.forEach((name, metrics) -> result.put(name, metrics.toString()));
+        return result;
+    }
+
+    static class CallMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder execNanos = new LongAdder();
+
+        void record(long wait, long exec) {
+            calls.increment();
+            waitNanos.add(wait);
+            execNanos.add(exec);
+        }
+
+        @Override
+        public String toString() {
+            long count = calls.sum();
+            return String.format("calls=%d, totalWaitMs=%.3f, avgWaitMs=%.3f, totalExecMs=%.3f, avgExecMs=%.3f",
+                    count,
+                    waitNanos.sum() / 1e6,
+                    count == 0 ? 0.0 : waitNanos.sum() / 1e6 / count,
+                    execNanos.sum() / 1e6,
+                    count == 0 ? 0.0 : execNanos.sum() / 1e6 / count);
+        }
+    }
+
 
     public Pointer getTokioPostgresClient() {
         return tokioPostgresClient;
@@ -287,7 +419,7 @@ public class NativeMetadataJavaClient implements AutoCloseable {
 
                 } catch (InvalidProtocolBufferException | InterruptedException | ExecutionException e) {
                     if (retryCounter == 0) {
-                        shutDownInstance();
+                        invalidate();
                         throw new RuntimeException(e);
                     } else {
                         enlargeTimeout();
@@ -369,7 +501,7 @@ public class NativeMetadataJavaClient implements AutoCloseable {
                     return future.get(timeout, TimeUnit.MILLISECONDS);
                 } catch (InterruptedException | ExecutionException e) {
                     if (retryCounter == 0) {
-                        shutDownInstance();
+                        invalidate();
                         throw new RuntimeException(e);
                     } else {
                         enlargeTimeout();
@@ -416,7 +548,7 @@ public class NativeMetadataJavaClient implements AutoCloseable {
                     return future.get(timeout, TimeUnit.MILLISECONDS);
                 } catch (InterruptedException | ExecutionException e) {
                     if (retryCounter == 0) {
-                        shutDownInstance();
+                        invalidate();
                         throw new RuntimeException(e);
                     } else {
                         enlargeTimeout();
@@ -465,7 +597,7 @@ public class NativeMetadataJavaClient implements AutoCloseable {
                     return Arrays.stream(result.split(PARAM_DELIM)).collect(Collectors.toList());
                 } catch (InterruptedException | ExecutionException e) {
                     if (retryCounter == 0) {
-                        shutDownInstance();
+                        invalidate();
                         throw new RuntimeException(e);
                     } else {
                         enlargeTimeout();
@@ -488,34 +620,41 @@ public class NativeMetadataJavaClient implements AutoCloseable {
     }
 
     public static Integer insert(NativeUtils.CodedDaoType insertType, JniWrapper jniWrapper) {
-        return getInstance().executeInsert(insertType.getCode(), jniWrapper);
+        return withPooledClient(insertType, client -> client.executeInsert(insertType.getCode(), jniWrapper));
     }
 
     public static JniWrapper query(NativeUtils.CodedDaoType queryType, List<String> params) {
         if (params.size() != queryType.getParamsNum()) {
             throw new RuntimeException("Params Num mismatch for " + queryType.name() + ", params=" + params + " paramsNum=" + params.size());
         }
-        return getInstance().executeQuery(queryType.getCode(), params);
+        return withPooledClient(queryType, client -> client.executeQuery(queryType.getCode(), params));
     }
 
     public static Integer update(NativeUtils.CodedDaoType updateType, List<String> params) {
         if (params.size() != updateType.getParamsNum()) {
             throw new RuntimeException("Params Num mismatch for " + updateType.name() + ", params=" + params + " paramsNum=" + params.size());
         }
-        return getInstance().executeUpdate(updateType.getCode(), params);
+        return withPooledClient(updateType, client -> client.executeUpdate(updateType.getCode(), params));
     }
 
     public static List<String> queryScalar(NativeUtils.CodedDaoType queryScalarType, List<String> params) {
         if (params.size() != queryScalarType.getParamsNum()) {
             throw new RuntimeException("Params Num mismatch for " + queryScalarType.name() + ", params=" + params + " paramsNum=" + params.size());
         }
-        return getInstance().executeQueryScalar(queryScalarType.getCode(), params);
+        return withPooledClient(queryScalarType,
+                client -> client.executeQueryScalar(queryScalarType.getCode(), params));
     }
 
     public static int cleanMeta() {
         final CompletableFuture<Integer> future = new CompletableFuture<>();
 
-        NativeMetadataJavaClient instance = getInstance();
+        NativeMetadataJavaClient instance;
+        try {
+            instance = borrowClient();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
         instance.getWriteLock();
         try {
             instance.getLibLakeSoulMetaData().clean_meta_for_test(
@@ -537,6 +676,7 @@ public class NativeMetadataJavaClient implements AutoCloseable {
             throw new RuntimeException(e);
         } finally {
             instance.unlockWriteLock();
+            returnClient(instance);
         }
     }
 
@@ -556,11 +696,17 @@ public class NativeMetadataJavaClient implements AutoCloseable {
         }
     }
 
-    public static void closeAll() {
+    public static synchronized void closeAll() {
         if (instance != null) {
             instance.close();
             instance = null;
         }
+        List<NativeMetadataJavaClient> clients = new ArrayList<>();
+        idleClients.drainTo(clients);
+        for (NativeMetadataJavaClient client : clients) {
+            createdClients.decrementAndGet();
+            client.close();
+        }
     }
 
 
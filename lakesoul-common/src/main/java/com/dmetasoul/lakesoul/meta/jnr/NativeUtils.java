@@ -53,9 +53,11 @@ public class NativeUtils {
         ListPartitionVersionByTableIdAndPartitionDescAndVersionRange(DAO_TYPE_QUERY_LIST_OFFSET + 7, 4),
         ListPartitionVersionByTableIdAndPartitionDescAndTimestampRange(DAO_TYPE_QUERY_LIST_OFFSET + 8, 4),
         ListCommitOpsBetweenVersions(DAO_TYPE_QUERY_LIST_OFFSET + 9, 4),
+        ListPartitionByTableIdChangedSince(DAO_TYPE_QUERY_LIST_OFFSET + 12, 2),
 
         // Query DataCommitInfo List
         ListDataCommitInfoByTableIdAndPartitionDescAndCommitList(DAO_TYPE_QUERY_LIST_OFFSET + 10, 3),
+        ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime(DAO_TYPE_QUERY_LIST_OFFSET + 11, 3),
 
         // ==== Insert One ====
         InsertNamespace(DAO_TYPE_INSERT_ONE_OFFSET),
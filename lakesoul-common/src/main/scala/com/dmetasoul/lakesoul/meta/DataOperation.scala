@@ -34,7 +34,7 @@ object BucketingUtils {
 }
 
 case class DataFileInfo(range_partitions: String, path: String, file_op: String, size: Long,
-                        modification_time: Long = -1L, file_exist_cols: String = "") {
+                        modification_time: Long = -1L, file_exist_cols: String = "", file_stats: String = "") {
 
   lazy val file_bucket_id: Int = BucketingUtils.getBucketId(new Path(path).getName)
     .getOrElse(sys.error(s"Invalid bucket file $path"))
@@ -122,7 +122,7 @@ object DataOperation {
       val fileOps = data_commit_info.getFileOpsList.asScala.toArray
       fileOps.foreach(file => {
         file_arr_buf += DataFileInfo(data_commit_info.getPartitionDesc, file.getPath, file.getFileOp.name, file.getSize,
-          data_commit_info.getTimestamp, file.getFileExistCols)
+          data_commit_info.getTimestamp, file.getFileExistCols, file.getFileStats)
       })
     })
     filterFiles(file_arr_buf)
@@ -141,7 +141,7 @@ object DataOperation {
       val fileOps = metaDataCommitInfo.getFileOpsList.asScala.toArray
       for (file <- fileOps) {
         file_arr_buf += DataFileInfo(partition_info.range_value, file.getPath, file.getFileOp.name, file.getSize,
-          metaDataCommitInfo.getTimestamp, file.getFileExistCols)
+          metaDataCommitInfo.getTimestamp, file.getFileExistCols, file.getFileStats)
       }
     }
     filterFiles(file_arr_buf)
@@ -160,21 +160,17 @@ object DataOperation {
     getSinglePartitionDataInfo(table_id, partition_desc, startTimestamp, endTime, readType).toArray
   }
 
+  def getSnapshotPartitionsDataInfo(table_id: String, partition_descs: util.List[String],
+                                    endTimestamp: Long): Array[DataFileInfo] = {
+    val endTime = if (endTimestamp == 0) Long.MaxValue else endTimestamp
+    getPartitionsSnapshotDataInfo(table_id, partition_descs.asScala, endTime).toArray
+  }
+
   def getSinglePartitionDataInfo(table_id: String, partition_desc: String, startTimestamp: Long,
                                  endTimestamp: Long, readType: String): ArrayBuffer[DataFileInfo] = {
     val files_all_partitions_buf = new ArrayBuffer[DataFileInfo]()
     if (readType.equals(LakeSoulOptions.ReadType.SNAPSHOT_READ)) {
-      if (null == partition_desc || "".equals(partition_desc)) {
-        val partitions = dbManager.getTableAllPartitionDesc(table_id)
-        partitions.forEach(partition => {
-          val version = dbManager.getLastedVersionUptoTime(table_id, partition, endTimestamp)
-          files_all_partitions_buf ++= getSinglePartitionDataInfo(table_id, partition, version)
-        })
-        files_all_partitions_buf
-      } else {
-        val version = dbManager.getLastedVersionUptoTime(table_id, partition_desc, endTimestamp)
-        getSinglePartitionDataInfo(table_id, partition_desc, version)
-      }
+      getPartitionsSnapshotDataInfo(table_id, Seq(partition_desc), endTimestamp)
     } else if (readType.equals(LakeSoulOptions.ReadType.INCREMENTAL_READ)) {
       if (null == partition_desc || "".equals(partition_desc)) {
         val partitions = dbManager.getTableAllPartitionDesc(table_id)
@@ -203,6 +199,27 @@ object DataOperation {
     }
   }
 
+  /**
+    * Get files of the snapshot up to endTimestamp of the given partitions, all partitions of the table if
+    * `partition_descs` is empty or contains an empty desc. Versions and data commits of all partitions are resolved
+    * by one metadata query instead of several round trips per partition.
+    */
+  def getPartitionsSnapshotDataInfo(table_id: String, partition_descs: Seq[String],
+                                    endTimestamp: Long): ArrayBuffer[DataFileInfo] = {
+    val descs =
+      if (partition_descs.exists(desc => null == desc || "".equals(desc))) Seq.empty[String]
+      else partition_descs.distinct
+    val commitsByPartition = new mutable.LinkedHashMap[String, ArrayBuffer[DataCommitInfo]]()
+    dbManager.getPartitionsSnapshotUptoTime(table_id, descs.asJava, endTimestamp).forEach(dataCommitInfo =>
+      commitsByPartition.getOrElseUpdate(dataCommitInfo.getPartitionDesc, new ArrayBuffer[DataCommitInfo]()) += dataCommitInfo
+    )
+    val files_all_partitions_buf = new ArrayBuffer[DataFileInfo]()
+    commitsByPartition.values.foreach(dataCommitInfoList =>
+      files_all_partitions_buf ++= fillFiles(new ArrayBuffer[DataFileInfo](), dataCommitInfoList.toArray)
+    )
+    files_all_partitions_buf
+  }
+
   def getSinglePartitionIncrementalDataInfos(table_id: String, partition_desc: String,
                                              startVersionTimestamp: Long,
                                              endVersionTimestamp: Long): ArrayBuffer[DataFileInfo] = {
@@ -30,10 +30,21 @@ object LakeSoulOptions {
   val READ_TYPE = "readtype"
   val TIME_ZONE = "timezone"
   val DISCOVERY_INTERVAL = "discoveryinterval"
+  /** How streaming reads discover new data, either by listing all partitions or only partitions changed since last poll. */
+  val DISCOVERY_MODE = "discoverymode"
+  /** Whether streaming reads in incremental discovery mode are woken up early by change notifications of metadata. */
+  val DISCOVERY_LISTEN = "discoverylisten"
+  /** How far back in milliseconds incremental discovery looks for versions committed by long running transactions. */
+  val DISCOVERY_LOOKBACK = "discoverylookback"
 
   object ReadType extends Enumeration {
     val FULL_READ = "fullread"
     val SNAPSHOT_READ = "snapshot"
     val INCREMENTAL_READ = "incremental"
   }
+
+  object DiscoveryMode extends Enumeration {
+    val FULL = "full"
+    val INCREMENTAL = "incremental"
+  }
 }
\ No newline at end of file
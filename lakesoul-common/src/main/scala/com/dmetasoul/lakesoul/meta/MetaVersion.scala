@@ -189,6 +189,10 @@ object MetaVersion {
     dbManager.getAllPartitionInfo(table_id)
   }
 
+  def getPartitionsChangedSince(table_id: String, utcMills: Long): util.List[PartitionInfo] = {
+    dbManager.getPartitionsChangedSince(table_id, utcMills)
+  }
+
   def convertPartitionInfoScala(partitionList: util.List[PartitionInfo]): Array[PartitionInfoScala] = {
     val partitionVersionBuffer = new ArrayBuffer[PartitionInfoScala]()
     val res_itr = partitionList.iterator()
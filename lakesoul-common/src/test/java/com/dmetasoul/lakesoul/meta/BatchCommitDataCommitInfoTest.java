@@ -0,0 +1,139 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.meta.dao.DataCommitInfoDao;
+import com.dmetasoul.lakesoul.meta.dao.PartitionInfoDao;
+import com.dmetasoul.lakesoul.meta.entity.CommitOp;
+import com.dmetasoul.lakesoul.meta.entity.DataCommitInfo;
+import com.dmetasoul.lakesoul.meta.entity.DataFileOp;
+import com.dmetasoul.lakesoul.meta.entity.FileOp;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchCommitDataCommitInfoTest {
+
+    private static final String TEST_TABLE_ID = "table_batch_commit_test";
+
+    private static final String TEST_TABLE_NAME = "batch_commit_test";
+
+    private static final String TEST_TABLE_PATH = "file:///tmp/lakesoul/batch_commit_test";
+
+    private final DBManager dbManager = new DBManager();
+
+    private final PartitionInfoDao partitionInfoDao = DBFactory.getPartitionInfoDao();
+
+    private final DataCommitInfoDao dataCommitInfoDao = DBFactory.getDataCommitInfoDao();
+
+    @Before
+    public void createTable() {
+        dbManager.createNewTable(TEST_TABLE_ID, "default", TEST_TABLE_NAME, TEST_TABLE_PATH, "schema",
+                new JSONObject(), "region;");
+    }
+
+    private static DataCommitInfo dataCommit(String partitionDesc) {
+        UUID commitId = UUID.randomUUID();
+        return DataCommitInfo.newBuilder()
+                .setTableId(TEST_TABLE_ID)
+                .setPartitionDesc(partitionDesc)
+                .setCommitId(DBUtil.toProtoUuid(commitId))
+                .addFileOps(DataFileOp.newBuilder()
+                        .setPath("file:///tmp/" + commitId + ".parquet")
+                        .setFileOp(FileOp.add)
+                        .setSize(1)
+                        .setFileExistCols("")
+                        .build())
+                .setCommitOp(CommitOp.AppendCommit)
+                .setTimestamp(System.currentTimeMillis())
+                .setCommitted(false)
+                .build();
+    }
+
+    private PartitionInfo latestVersion(String partitionDesc) {
+        return dbManager.getSinglePartitionInfo(TEST_TABLE_ID, partitionDesc);
+    }
+
+    private static List<UUID> commitIds(DataCommitInfo... dataCommitInfos) {
+        return Arrays.stream(dataCommitInfos).map(info -> DBUtil.toJavaUUID(info.getCommitId()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<UUID> snapshot(PartitionInfo partitionInfo) {
+        return partitionInfo.getSnapshotList().stream().map(DBUtil::toJavaUUID).collect(Collectors.toList());
+    }
+
+    private boolean committed(DataCommitInfo dataCommitInfo) {
+        return dataCommitInfoDao.selectByPrimaryKey(TEST_TABLE_ID, dataCommitInfo.getPartitionDesc(),
+                DBUtil.toJavaUUID(dataCommitInfo.getCommitId()).toString()).getCommitted();
+    }
+
+    @Test
+    public void testBatchCommitOfManyPartitions() {
+        DataCommitInfo a1 = dataCommit("region=a");
+        DataCommitInfo a2 = dataCommit("region=a");
+        DataCommitInfo b1 = dataCommit("region=b");
+        dbManager.batchCommitAppendDataCommitInfo(TEST_TABLE_ID, Arrays.asList(a1, b1, a2));
+
+        // one new version per partition, holding its data commits in list order
+        PartitionInfo partitionA = latestVersion("region=a");
+        assertEquals(0, partitionA.getVersion());
+        assertEquals(commitIds(a1, a2), snapshot(partitionA));
+        PartitionInfo partitionB = latestVersion("region=b");
+        assertEquals(0, partitionB.getVersion());
+        assertEquals(commitIds(b1), snapshot(partitionB));
+        assertTrue(committed(a1) && committed(a2) && committed(b1));
+    }
+
+    @Test
+    public void testFallbackWhenDataCommitsExist() {
+        // data commit persisted by an attempt failed before committing its partition version
+        DataCommitInfo a1 = dataCommit("region=a");
+        dataCommitInfoDao.insert(a1.toBuilder().setDomain("public").build());
+        DataCommitInfo a2 = dataCommit("region=a");
+
+        dbManager.batchCommitAppendDataCommitInfo(TEST_TABLE_ID, Arrays.asList(a1, a2));
+        assertEquals(commitIds(a1, a2), snapshot(latestVersion("region=a")));
+        assertTrue(committed(a1) && committed(a2));
+    }
+
+    @Test
+    public void testRecommitIsSkipped() {
+        DataCommitInfo a1 = dataCommit("region=a");
+        DataCommitInfo b1 = dataCommit("region=b");
+        dbManager.batchCommitAppendDataCommitInfo(TEST_TABLE_ID, Arrays.asList(a1, b1));
+
+        // committing the same data commits again, e.g. after a failover, adds no version
+        dbManager.batchCommitAppendDataCommitInfo(TEST_TABLE_ID, Arrays.asList(a1, b1));
+        assertEquals(0, latestVersion("region=a").getVersion());
+        assertEquals(commitIds(a1), snapshot(latestVersion("region=a")));
+        assertEquals(0, latestVersion("region=b").getVersion());
+        assertEquals(commitIds(b1), snapshot(latestVersion("region=b")));
+    }
+
+    @Test
+    public void testEmptyBatch() {
+        dbManager.batchCommitAppendDataCommitInfo(TEST_TABLE_ID, Collections.emptyList());
+        assertTrue(dbManager.getAllPartitionInfo(TEST_TABLE_ID).isEmpty());
+    }
+
+    @After
+    public void clean() {
+        dbManager.deleteTableInfo(TEST_TABLE_PATH, TEST_TABLE_ID, "default");
+        partitionInfoDao.deleteByTableId(TEST_TABLE_ID);
+        dataCommitInfoDao.deleteByTableId(TEST_TABLE_ID);
+    }
+}
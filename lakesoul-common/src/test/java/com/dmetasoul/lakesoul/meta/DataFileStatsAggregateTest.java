@@ -0,0 +1,83 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DataFileStatsAggregateTest {
+
+    private static String stats(long rows, Object... idValues) {
+        DataFileStats.Builder builder = DataFileStats.builder().addRows(rows);
+        for (Object value : idValues) {
+            builder.update("id", value);
+        }
+        return builder.build().encode();
+    }
+
+    @Test
+    public void testAggregateFiles() {
+        DataFileStatsAggregate aggregate = new DataFileStatsAggregate()
+                .addFile(100, stats(2, 5, 9))
+                .addFile(100, stats(2, null, null))
+                .addFile(100, stats(2, 1, null));
+        assertEquals(300, aggregate.getTotalBytes());
+        assertEquals(6, aggregate.getNumRows());
+        assertEquals(6, aggregate.estimateRowCount());
+        assertTrue(aggregate.isComplete("id"));
+        DataFileStatsAggregate.ColumnAggregate id = aggregate.getColumn("id");
+        assertEquals(3, id.getNullCount());
+        // the all null file does not affect bounds
+        assertEquals(1L, id.getMin());
+        assertEquals(9L, id.getMax());
+    }
+
+    @Test
+    public void testFilesWithoutColumnStats() {
+        DataFileStatsAggregate aggregate = new DataFileStatsAggregate()
+                .addFile(100, stats(4, 1, 2, 3, 4))
+                // row count only, e.g. a file whose column stats could not be derived
+                .addFile(100, new DataFileStats(4, Collections.emptyMap()).encode())
+                // no stats at all
+                .addFile(200, "");
+        assertFalse(aggregate.hasStatsOfAllFiles());
+        assertEquals(8, aggregate.getNumRows());
+        // the file without stats is assumed to have the same row size as the others
+        assertEquals(16, aggregate.estimateRowCount());
+        assertFalse(aggregate.isComplete("id"));
+        assertEquals(4, aggregate.getColumn("id").getNumRows());
+        assertNull(aggregate.getColumn("missing"));
+
+        assertEquals(-1, new DataFileStatsAggregate().addFile(100, "").estimateRowCount());
+        assertEquals(0, new DataFileStatsAggregate().estimateRowCount());
+    }
+
+    @Test
+    public void testMergeKeepsMergedAggregateUnchanged() {
+        DataFileStatsAggregate partition1 = new DataFileStatsAggregate().addFile(100, stats(2, 3, 4));
+        DataFileStatsAggregate partition2 = new DataFileStatsAggregate().addFile(100, stats(2, 7, null));
+        DataFileStatsAggregate total = new DataFileStatsAggregate().merge(partition1).merge(partition2);
+        assertEquals(4, total.getNumRows());
+        assertEquals(3L, total.getColumn("id").getMin());
+        assertEquals(7L, total.getColumn("id").getMax());
+        assertEquals(1, total.getColumn("id").getNullCount());
+        assertEquals(4L, partition1.getColumn("id").getMax());
+        assertEquals(2, partition1.getNumRows());
+
+        // bounds become unknown once a file with values has none
+        DataFileStatsAggregate unknown = new DataFileStatsAggregate()
+                .addFile(100, DataFileStats.builder().addRows(1).update("id", 1).invalidate("id").build().encode());
+        total.merge(unknown);
+        assertNull(total.getColumn("id").getMin());
+        assertNull(total.getColumn("id").getMax());
+        assertTrue(total.isComplete("id"));
+    }
+}
@@ -0,0 +1,106 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import com.dmetasoul.lakesoul.meta.entity.DataFileOp;
+import com.dmetasoul.lakesoul.meta.entity.FileOp;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DataFileStatsTest {
+
+    private static DataFileStats sampleStats() {
+        return DataFileStats.builder()
+                .addRows(3)
+                .update("id", 10).update("id", 20).update("id", 15)
+                .update("name", "b").update("name", null).update("name", "d")
+                .update("price", new BigDecimal("1.50")).update("price", new BigDecimal("3.25"))
+                .update("price", null)
+                .update("flag", null).update("flag", null).update("flag", null)
+                .invalidate("bin")
+                .build();
+    }
+
+    @Test
+    public void testComparison() {
+        DataFileStats stats = sampleStats();
+        assertTrue(stats.mightMatch("id", DataFileStats.Comparison.EQ, 15));
+        assertFalse(stats.mightMatch("id", DataFileStats.Comparison.EQ, 21L));
+        assertFalse(stats.mightMatch("id", DataFileStats.Comparison.LT, 10));
+        assertTrue(stats.mightMatch("id", DataFileStats.Comparison.LT_EQ, 10));
+        assertFalse(stats.mightMatch("id", DataFileStats.Comparison.GT, 20));
+        assertTrue(stats.mightMatch("id", DataFileStats.Comparison.GT_EQ, 19.5));
+        assertFalse(stats.mightMatch("name", DataFileStats.Comparison.EQ, "a"));
+        assertTrue(stats.mightMatch("name", DataFileStats.Comparison.EQ, "c"));
+        assertFalse(stats.mightMatch("price", DataFileStats.Comparison.GT, new BigDecimal("3.25")));
+        // all values are null
+        assertFalse(stats.mightMatch("flag", DataFileStats.Comparison.EQ, 1));
+        assertFalse(stats.mightBeNotNull("flag"));
+        assertFalse(stats.mightBeNull("id"));
+        assertTrue(stats.mightBeNull("name"));
+        // unknown columns, unsupported types and literals are never pruned
+        assertTrue(stats.mightMatch("bin", DataFileStats.Comparison.EQ, "x"));
+        assertTrue(stats.mightMatch("missing", DataFileStats.Comparison.EQ, 1));
+        assertTrue(stats.mightMatch("id", DataFileStats.Comparison.EQ, "15"));
+        assertTrue(stats.mightMatch("id", DataFileStats.Comparison.EQ, true));
+    }
+
+    @Test
+    public void testStringsComparedInUtf8Order() {
+        // U+1F600 is encoded as a surrogate pair in UTF-16 but sorts after U+FF61 in UTF-8
+        String emoji = new String(Character.toChars(0x1F600));
+        String halfwidth = "\uFF61";
+        assertTrue(DataFileStats.compare(emoji, halfwidth) > 0);
+        assertTrue(DataFileStats.compare("ab", "abc") < 0);
+        assertEquals(0, (int) DataFileStats.compare(emoji, emoji));
+
+        DataFileStats stats = DataFileStats.builder()
+                .addRows(2)
+                .update("s", emoji)
+                .update("s", halfwidth)
+                .build();
+        assertEquals(halfwidth, stats.getColumns().get("s").getMin());
+        assertEquals(emoji, stats.getColumns().get("s").getMax());
+        assertFalse(stats.mightMatch("s", DataFileStats.Comparison.GT, emoji));
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        DataFileStats decoded = DataFileStats.decode(sampleStats().encode());
+        assertEquals(3, decoded.getNumRows());
+        assertEquals(1, decoded.getColumns().get("name").getNullCount());
+        assertEquals("b", decoded.getColumns().get("name").getMin());
+        assertEquals(20L, decoded.getColumns().get("id").getMax());
+        assertNull(decoded.getColumns().get("bin").getMin());
+        assertFalse(decoded.mightMatch("price", DataFileStats.Comparison.LT, new BigDecimal("1.5")));
+        assertNull(DataFileStats.decode(""));
+        assertNull(DataFileStats.decode("not base64 json"));
+    }
+
+    @Test
+    public void testDataFileOpStringConversion() {
+        String stats = sampleStats().encode();
+        DataFileOp op = DataFileOp.newBuilder()
+                .setPath("s3://bucket/table/part-0.parquet")
+                .setFileOp(FileOp.add)
+                .setSize(1024)
+                .setFileExistCols("id,name,price")
+                .setFileStats(stats)
+                .build();
+        List<DataFileOp> ops = DBUtil.changeStringToDataFileOpList(
+                DBUtil.changeDataFileOpListToString(Collections.singletonList(op)));
+        assertEquals(1, ops.size());
+        assertEquals("id,name,price", ops.get(0).getFileExistCols());
+        assertEquals(stats, ops.get(0).getFileStats());
+    }
+}
@@ -0,0 +1,96 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import com.dmetasoul.lakesoul.meta.dao.PartitionInfoDao;
+import com.dmetasoul.lakesoul.meta.entity.CommitOp;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionChangeTest {
+
+    private static final String TEST_TABLE_ID = "table_partition_change_test";
+
+    private static final String OTHER_TABLE_ID = "table_partition_change_test_other";
+
+    private final PartitionInfoDao partitionInfoDao = DBFactory.getPartitionInfoDao();
+
+    private void commit(String tableId, String partitionDesc, int version) {
+        partitionInfoDao.insert(PartitionInfo.newBuilder()
+                .setTableId(tableId)
+                .setPartitionDesc(partitionDesc)
+                .setVersion(version)
+                .setCommitOp(CommitOp.AppendCommit)
+                .setExpression("")
+                .setDomain("public")
+                .build());
+    }
+
+    private static long maxTimestamp(List<PartitionInfo> partitionInfoList) {
+        return partitionInfoList.stream().mapToLong(PartitionInfo::getTimestamp).max().orElse(-1);
+    }
+
+    @Test
+    public void testPartitionsChangedSince() throws InterruptedException {
+        commit(TEST_TABLE_ID, "date=2023-01-01", 0);
+        commit(TEST_TABLE_ID, "date=2023-01-02", 0);
+        commit(OTHER_TABLE_ID, "date=2023-01-01", 0);
+        long lastSeen = maxTimestamp(partitionInfoDao.getPartitionDescByTableId(TEST_TABLE_ID));
+        // versions are stamped in milliseconds
+        Thread.sleep(10);
+        commit(TEST_TABLE_ID, "date=2023-01-01", 1);
+        commit(TEST_TABLE_ID, "date=2023-01-01", 2);
+        commit(OTHER_TABLE_ID, "date=2023-01-02", 0);
+
+        List<PartitionInfo> changed = partitionInfoDao.getPartitionsChangedSince(TEST_TABLE_ID, lastSeen);
+        // only the latest version of the changed partition of this table
+        assertEquals(1, changed.size());
+        assertEquals("date=2023-01-01", changed.get(0).getPartitionDesc());
+        assertEquals(2, changed.get(0).getVersion());
+
+        assertEquals(2, partitionInfoDao.getPartitionsChangedSince(TEST_TABLE_ID, lastSeen - 60000).size());
+        assertTrue(partitionInfoDao.getPartitionsChangedSince(TEST_TABLE_ID, maxTimestamp(changed)).isEmpty());
+    }
+
+    @Test
+    public void testListenPartitionChanges() throws InterruptedException {
+        CountDownLatch notified = new CountDownLatch(1);
+        AtomicInteger otherTableNotified = new AtomicInteger();
+        PartitionChangeListener listener = new PartitionChangeListener(TEST_TABLE_ID, notified::countDown);
+        PartitionChangeListener otherListener =
+                new PartitionChangeListener(OTHER_TABLE_ID, otherTableNotified::incrementAndGet);
+        listener.start();
+        otherListener.start();
+        try {
+            // notifications sent before the listener subscribed are lost, keep committing until one arrives
+            int version = 0;
+            while (!notified.await(500, TimeUnit.MILLISECONDS)) {
+                assertTrue("no change notification received", version < 20);
+                commit(TEST_TABLE_ID, "date=2023-01-01", version++);
+            }
+            assertEquals(0, otherTableNotified.get());
+        } finally {
+            listener.close();
+            otherListener.close();
+            listener.join(10000);
+            otherListener.join(10000);
+        }
+    }
+
+    @After
+    public void clean() {
+        partitionInfoDao.deleteByTableId(TEST_TABLE_ID);
+        partitionInfoDao.deleteByTableId(OTHER_TABLE_ID);
+    }
+}
@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta;
+
+import com.dmetasoul.lakesoul.meta.dao.DataCommitInfoDao;
+import com.dmetasoul.lakesoul.meta.dao.PartitionInfoDao;
+import com.dmetasoul.lakesoul.meta.entity.CommitOp;
+import com.dmetasoul.lakesoul.meta.entity.DataCommitInfo;
+import com.dmetasoul.lakesoul.meta.entity.DataFileOp;
+import com.dmetasoul.lakesoul.meta.entity.FileOp;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PartitionSnapshotTest {
+
+    private static final String TEST_TABLE_ID = "table_partition_snapshot_test";
+
+    private final DBManager dbManager = new DBManager();
+
+    private final PartitionInfoDao partitionInfoDao = DBFactory.getPartitionInfoDao();
+
+    private final DataCommitInfoDao dataCommitInfoDao = DBFactory.getDataCommitInfoDao();
+
+    private UUID dataCommit(String partitionDesc) {
+        UUID commitId = UUID.randomUUID();
+        dataCommitInfoDao.insert(DataCommitInfo.newBuilder()
+                .setTableId(TEST_TABLE_ID)
+                .setPartitionDesc(partitionDesc)
+                .setCommitId(DBUtil.toProtoUuid(commitId))
+                .addFileOps(DataFileOp.newBuilder()
+                        .setPath("file:///tmp/" + commitId + ".parquet")
+                        .setFileOp(FileOp.add)
+                        .setSize(1)
+                        .setFileExistCols("")
+                        .build())
+                .setCommitOp(CommitOp.AppendCommit)
+                .setTimestamp(System.currentTimeMillis())
+                .setCommitted(true)
+                .setDomain("public")
+                .build());
+        return commitId;
+    }
+
+    private void partitionVersion(String partitionDesc, int version, UUID... snapshot) {
+        partitionInfoDao.insert(PartitionInfo.newBuilder()
+                .setTableId(TEST_TABLE_ID)
+                .setPartitionDesc(partitionDesc)
+                .setVersion(version)
+                .setCommitOp(CommitOp.AppendCommit)
+                .addAllSnapshot(Arrays.stream(snapshot).map(DBUtil::toProtoUuid).collect(Collectors.toList()))
+                .setExpression("")
+                .setDomain("public")
+                .build());
+    }
+
+    private static List<UUID> commitIds(List<DataCommitInfo> dataCommitInfoList) {
+        return dataCommitInfoList.stream().map(info -> DBUtil.toJavaUUID(info.getCommitId()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSnapshotOfManyPartitions() throws InterruptedException {
+        UUID a1 = dataCommit("region=a");
+        UUID a2 = dataCommit("region=a");
+        UUID b1 = dataCommit("region=b");
+        partitionVersion("region=a", 0, a1);
+        partitionVersion("region=b", 0, b1);
+        long firstVersionsTime = partitionInfoDao.findByKey(TEST_TABLE_ID, "region=a", 0).getTimestamp();
+        // versions are stamped in milliseconds
+        Thread.sleep(10);
+        // commits are returned in snapshot order, not in insertion order
+        partitionVersion("region=a", 1, a2, a1);
+
+        // all partitions of the table
+        assertEquals(Arrays.asList(a2, a1, b1),
+                commitIds(dbManager.getPartitionsSnapshotUptoTime(TEST_TABLE_ID, Collections.emptyList(),
+                        Long.MAX_VALUE)));
+        assertEquals(Collections.singletonList(b1),
+                commitIds(dbManager.getPartitionsSnapshotUptoTime(TEST_TABLE_ID,
+                        Collections.singletonList("region=b"), Long.MAX_VALUE)));
+        // the version up to the given time
+        assertEquals(Collections.singletonList(a1),
+                commitIds(dbManager.getPartitionsSnapshotUptoTime(TEST_TABLE_ID,
+                        Collections.singletonList("region=a"), firstVersionsTime)));
+        // partitions without versions are absent
+        assertTrue(dbManager.getPartitionsSnapshotUptoTime(TEST_TABLE_ID, Arrays.asList("region=a", "region=c"),
+                firstVersionsTime - 60000).isEmpty());
+
+        // same commits as resolving each partition on its own
+        List<DataCommitInfo> expected = new ArrayList<>();
+        expected.addAll(dbManager.getPartitionSnapshot(TEST_TABLE_ID, "region=a", 1));
+        expected.addAll(dbManager.getPartitionSnapshot(TEST_TABLE_ID, "region=b", 0));
+        assertEquals(expected, dbManager.getPartitionsSnapshotUptoTime(TEST_TABLE_ID,
+                Arrays.asList("region=a", "region=b"), Long.MAX_VALUE));
+    }
+
+    @After
+    public void clean() {
+        partitionInfoDao.deleteByTableId(TEST_TABLE_ID);
+        dataCommitInfoDao.deleteByTableId(TEST_TABLE_ID);
+    }
+}
@@ -0,0 +1,90 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.meta.jnr;
+
+import com.dmetasoul.lakesoul.meta.DBUtil;
+import com.dmetasoul.lakesoul.meta.entity.JniWrapper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class NativeMetadataClientPoolTest {
+
+    private static final NativeUtils.CodedDaoType DAO_TYPE = NativeUtils.CodedDaoType.SelectNamespaceByNamespace;
+
+    private static JniWrapper queryDefaultNamespace() {
+        return NativeMetadataJavaClient.query(DAO_TYPE, Collections.singletonList("default"));
+    }
+
+    private static long calls() {
+        String metrics = NativeMetadataJavaClient.getCallMetrics().get(DAO_TYPE.name());
+        if (metrics == null) {
+            return 0;
+        }
+        return Long.parseLong(metrics.substring("calls=".length(), metrics.indexOf(',')));
+    }
+
+    @Test
+    public void testConcurrentCallsShareBoundedPool() throws Exception {
+        int poolSize = DBUtil.getNativeMetadataClientPoolSize();
+        int threads = poolSize * 4;
+        long callsBefore = calls();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<JniWrapper>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return queryDefaultNamespace();
+                }));
+            }
+            start.countDown();
+            for (Future<JniWrapper> result : results) {
+                assertNotNull(result.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // calls beyond the pool size waited for a returned client instead of opening more connections
+        assertTrue(NativeMetadataJavaClient.createdClientCount() <= poolSize);
+        assertTrue(NativeMetadataJavaClient.createdClientCount() > 0);
+        // every leased client is back in the pool
+        assertEquals(NativeMetadataJavaClient.createdClientCount(), NativeMetadataJavaClient.idleClientCount());
+        assertEquals(callsBefore + threads, calls());
+    }
+
+    @Test
+    public void testCloseAllReleasesPooledClients() {
+        assertNotNull(queryDefaultNamespace());
+        assertTrue(NativeMetadataJavaClient.idleClientCount() > 0);
+
+        NativeMetadataJavaClient.closeAll();
+        assertEquals(0, NativeMetadataJavaClient.createdClientCount());
+        assertEquals(0, NativeMetadataJavaClient.idleClientCount());
+
+        // clients are created again on demand
+        assertNotNull(queryDefaultNamespace());
+        assertEquals(1, NativeMetadataJavaClient.createdClientCount());
+    }
+
+    @After
+    public void clean() {
+        NativeMetadataJavaClient.closeAll();
+    }
+}
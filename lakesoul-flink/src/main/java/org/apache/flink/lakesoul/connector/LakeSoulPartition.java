@@ -7,6 +7,7 @@ package org.apache.flink.lakesoul.connector;
 import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.core.fs.Path;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.List;
 
@@ -20,10 +21,20 @@ public class LakeSoulPartition implements Serializable {
     private final List<String> partitionKeys;
     private final List<String> partitionValues;
 
+    // columns written into the files, null if the files hold all columns of the table
+    @Nullable
+    private final List<String> existColumns;
+
     public LakeSoulPartition(List<Path> paths, List<String> partitionKeys, List<String> partitionValues) {
+        this(paths, partitionKeys, partitionValues, null);
+    }
+
+    public LakeSoulPartition(List<Path> paths, List<String> partitionKeys, List<String> partitionValues,
+                             @Nullable List<String> existColumns) {
         this.paths = paths;
         this.partitionKeys = partitionKeys;
         this.partitionValues = partitionValues;
+        this.existColumns = existColumns;
     }
 
     public List<Path> getPaths() {
@@ -37,4 +48,9 @@ public class LakeSoulPartition implements Serializable {
     public List<String> getPartitionValues() {
         return partitionValues;
     }
+
+    @Nullable
+    public List<String> getExistColumns() {
+        return existColumns;
+    }
 }
@@ -32,7 +32,6 @@ public class LakeSoulPartitionReader implements PartitionReader<LakeSoulPartitio
     private final RowType schema;
     private final int capacity;
     private final Configuration conf;
-    private final int awaitTimeout;
     private transient VectorSchemaRoot currentVSR;
     private ArrowReader curArrowReader;
     private int curRecordId = -1;
@@ -48,7 +47,6 @@ public class LakeSoulPartitionReader implements PartitionReader<LakeSoulPartitio
         this.schema = schema;
         this.capacity = conf.getInteger(LakeSoulOptions.LAKESOUL_NATIVE_IO_BATCH_SIZE);
         this.conf = new Configuration(conf);;
-        this.awaitTimeout = 10000;
         this.curPartitionId = -1;
     }
     /**
@@ -126,7 +124,7 @@ public class LakeSoulPartitionReader implements PartitionReader<LakeSoulPartitio
         nativeIOReader.setBatchSize(capacity);
         nativeIOReader.initializeReader();
 
-        lakesoulArrowReader = new LakeSoulArrowReader(nativeIOReader, awaitTimeout);
+        lakesoulArrowReader = new LakeSoulArrowReader(nativeIOReader);
     }
 
     /**
@@ -136,7 +134,9 @@ public class LakeSoulPartitionReader implements PartitionReader<LakeSoulPartitio
      */
     @Override
     public void close() throws IOException {
+        // the current batch is owned and closed by the arrow reader
+        currentVSR = null;
         if (lakesoulArrowReader != null) lakesoulArrowReader.close();
-        if (currentVSR != null) currentVSR.close();
+        lakesoulArrowReader = null;
     }
 }
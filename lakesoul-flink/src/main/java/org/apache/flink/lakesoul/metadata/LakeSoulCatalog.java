@@ -6,6 +6,7 @@ package org.apache.flink.lakesoul.metadata;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.meta.DBConfig;
 import com.dmetasoul.lakesoul.meta.DBManager;
 import com.dmetasoul.lakesoul.meta.DBUtil;
 import com.dmetasoul.lakesoul.meta.entity.Namespace;
@@ -532,56 +533,135 @@ public class LakeSoulCatalog implements Catalog {
     }
 
     @Override
-    public CatalogTableStatistics getTableStatistics(ObjectPath tablePath) {
-        return null;
+    public CatalogTableStatistics getTableStatistics(ObjectPath tablePath)
+            throws TableNotExistException, CatalogException {
+        TableInfo tableInfo = getTableInfoOrThrow(tablePath);
+        if (FlinkUtil.isView(tableInfo)) {
+            return CatalogTableStatistics.UNKNOWN;
+        }
+        return statisticsOf(tableInfo, null).toTableStatistics();
     }
 
     @Override
-    public CatalogColumnStatistics getTableColumnStatistics(ObjectPath tablePath) throws CatalogException {
-        return null;
+    public CatalogColumnStatistics getTableColumnStatistics(ObjectPath tablePath)
+            throws TableNotExistException, CatalogException {
+        TableInfo tableInfo = getTableInfoOrThrow(tablePath);
+        if (FlinkUtil.isView(tableInfo)) {
+            return CatalogColumnStatistics.UNKNOWN;
+        }
+        return statisticsOf(tableInfo, null).toColumnStatistics(FlinkUtil.toRowType(tableInfo));
     }
 
     @Override
     public CatalogTableStatistics getPartitionStatistics(ObjectPath tablePath,
                                                          CatalogPartitionSpec catalogPartitionSpec)
-            throws CatalogException {
-        return null;
+            throws PartitionNotExistException, CatalogException {
+        TableInfo tableInfo = getPartitionTableInfoOrThrow(tablePath, catalogPartitionSpec);
+        return statisticsOf(tableInfo, DBUtil.formatPartitionDesc(catalogPartitionSpec.getPartitionSpec()))
+                .toTableStatistics();
     }
 
     @Override
     public CatalogColumnStatistics getPartitionColumnStatistics(ObjectPath tablePath,
                                                                 CatalogPartitionSpec catalogPartitionSpec)
-            throws CatalogException {
-        return null;
+            throws PartitionNotExistException, CatalogException {
+        TableInfo tableInfo = getPartitionTableInfoOrThrow(tablePath, catalogPartitionSpec);
+        return statisticsOf(tableInfo, DBUtil.formatPartitionDesc(catalogPartitionSpec.getPartitionSpec()))
+                .toColumnStatistics(FlinkUtil.toRowType(tableInfo));
     }
 
     @Override
-    public void alterTableStatistics(ObjectPath tablePath, CatalogTableStatistics catalogTableStatistics, boolean b)
-            throws CatalogException {
-        throw new CatalogException("not supported now");
-
+    public void alterTableStatistics(ObjectPath tablePath, CatalogTableStatistics catalogTableStatistics,
+                                     boolean ignoreIfNotExists) throws TableNotExistException, CatalogException {
+        saveAnalyzedStatistics(tablePath, DBConfig.LAKESOUL_NON_PARTITION_TABLE_PART_DESC, catalogTableStatistics,
+                null, ignoreIfNotExists);
     }
 
     @Override
     public void alterTableColumnStatistics(ObjectPath tablePath, CatalogColumnStatistics catalogColumnStatistics,
-                                           boolean b) throws CatalogException {
-        throw new CatalogException("not supported now");
-
+                                           boolean ignoreIfNotExists)
+            throws TableNotExistException, CatalogException {
+        saveAnalyzedStatistics(tablePath, DBConfig.LAKESOUL_NON_PARTITION_TABLE_PART_DESC, null,
+                catalogColumnStatistics, ignoreIfNotExists);
     }
 
     @Override
     public void alterPartitionStatistics(ObjectPath tablePath, CatalogPartitionSpec catalogPartitionSpec,
-                                         CatalogTableStatistics catalogTableStatistics, boolean b)
-            throws CatalogException {
-        throw new CatalogException("not supported now");
-
+                                         CatalogTableStatistics catalogTableStatistics, boolean ignoreIfNotExists)
+            throws PartitionNotExistException, CatalogException {
+        try {
+            saveAnalyzedStatistics(tablePath, DBUtil.formatPartitionDesc(catalogPartitionSpec.getPartitionSpec()),
+                    catalogTableStatistics, null, ignoreIfNotExists);
+        } catch (TableNotExistException e) {
+            throw new PartitionNotExistException(CATALOG_NAME, tablePath, catalogPartitionSpec, e);
+        }
     }
 
     @Override
     public void alterPartitionColumnStatistics(ObjectPath tablePath, CatalogPartitionSpec catalogPartitionSpec,
-                                               CatalogColumnStatistics catalogColumnStatistics, boolean b)
-            throws CatalogException {
-        throw new CatalogException("not supported now");
+                                               CatalogColumnStatistics catalogColumnStatistics,
+                                               boolean ignoreIfNotExists)
+            throws PartitionNotExistException, CatalogException {
+        try {
+            saveAnalyzedStatistics(tablePath, DBUtil.formatPartitionDesc(catalogPartitionSpec.getPartitionSpec()),
+                    null, catalogColumnStatistics, ignoreIfNotExists);
+        } catch (TableNotExistException e) {
+            throw new PartitionNotExistException(CATALOG_NAME, tablePath, catalogPartitionSpec, e);
+        }
+    }
+
+    private TableInfo getTableInfoOrThrow(ObjectPath tablePath) throws TableNotExistException {
+        TableInfo tableInfo =
+                dbManager.getTableInfoByNameAndNamespace(tablePath.getObjectName(), tablePath.getDatabaseName());
+        if (tableInfo == null) {
+            throw new TableNotExistException(CATALOG_NAME, tablePath);
+        }
+        return tableInfo;
+    }
+
+    private TableInfo getPartitionTableInfoOrThrow(ObjectPath tablePath, CatalogPartitionSpec catalogPartitionSpec)
+            throws PartitionNotExistException {
+        try {
+            return getTableInfoOrThrow(tablePath);
+        } catch (TableNotExistException e) {
+            throw new PartitionNotExistException(CATALOG_NAME, tablePath, catalogPartitionSpec, e);
+        }
+    }
+
+    private LakeSoulStatistics statisticsOf(TableInfo tableInfo, String partitionDesc) {
+        DBUtil.TablePartitionKeys partitionKeys = DBUtil.parseTableInfoPartitions(tableInfo.getPartitions());
+        List<PartitionInfo> partitionInfos;
+        if (partitionDesc == null) {
+            partitionInfos = dbManager.getAllPartitionInfo(tableInfo.getTableId());
+        } else {
+            PartitionInfo partitionInfo = dbManager.getSinglePartitionInfo(tableInfo.getTableId(), partitionDesc);
+            partitionInfos = partitionInfo == null
+                    ? Collections.emptyList()
+                    : Collections.singletonList(partitionInfo);
+        }
+        JSONObject properties = JSON.parseObject(tableInfo.getProperties());
+        return LakeSoulStatistics.of(partitionInfos, partitionKeys.rangeKeys, !partitionKeys.primaryKeys.isEmpty(),
+                properties.getJSONObject(LakeSoulStatistics.STATISTICS_PROPERTY));
+    }
+
+    /**
+     * Keeps statistics computed by ANALYZE TABLE in table properties, only the distinct value counts are used
+     * since the others are derived from up-to-date commit metadata.
+     */
+    private void saveAnalyzedStatistics(ObjectPath tablePath, String partitionDesc,
+                                        CatalogTableStatistics tableStatistics,
+                                        CatalogColumnStatistics columnStatistics,
+                                        boolean ignoreIfNotExists) throws TableNotExistException {
+        TableInfo tableInfo =
+                dbManager.getTableInfoByNameAndNamespace(tablePath.getObjectName(), tablePath.getDatabaseName());
+        if (tableInfo == null) {
+            if (ignoreIfNotExists) return;
+            throw new TableNotExistException(CATALOG_NAME, tablePath);
+        }
+        JSONObject properties = JSON.parseObject(tableInfo.getProperties());
+        LakeSoulStatistics.putAnalyzed(properties, partitionDesc, tableStatistics, columnStatistics);
+        dbManager.updateTableProperties(tableInfo.getTableId(), properties.toJSONString());
+        LOG.info("Saved statistics of partition {} of table {}", partitionDesc, tablePath);
     }
 
     public String getName() {
@@ -0,0 +1,303 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.metadata;
+
+import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import com.dmetasoul.lakesoul.meta.DBUtil;
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStatsAggregate;
+import com.dmetasoul.lakesoul.meta.DataOperation;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import org.apache.flink.shaded.guava30.com.google.common.cache.Cache;
+import org.apache.flink.shaded.guava30.com.google.common.cache.CacheBuilder;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatistics;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataBase;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataBoolean;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataDate;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataDouble;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataLong;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataString;
+import org.apache.flink.table.catalog.stats.CatalogTableStatistics;
+import org.apache.flink.table.catalog.stats.Date;
+import org.apache.flink.table.plan.stats.TableStats;
+import org.apache.flink.table.planner.utils.CatalogTableStatisticsConverter;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Table and column statistics of LakeSoul tables for the Flink planner. Row counts, sizes, null counts and min/max
+ * values are derived from the file stats recorded at commit time, so they are always up to date. They are aggregated
+ * per partition version and cached, so planning only lists files of partitions committed since. Distinct value
+ * counts, which could not be merged from per file stats, are taken from the results of `ANALYZE TABLE` kept in table
+ * properties.
+ *
+ * <p>Rows upserted into tables with primary keys are counted once per commit, so for such tables row counts are taken
+ * from results of `ANALYZE TABLE` only, and null counts of columns are not reported.
+ */
+public class LakeSoulStatistics {
+
+    // table property holding results of ANALYZE TABLE by partition desc
+    public static final String STATISTICS_PROPERTY = "lakesoul_statistics";
+
+    private static final String ROW_COUNT = "rowCount";
+    private static final String COLUMNS = "columns";
+    private static final String NDV = "ndv";
+    private static final String NULL_COUNT = "nullCount";
+
+    private static final long MAX_CACHED_PARTITIONS = 100000;
+
+    private static final Cache<String, DataFileStatsAggregate> partitionStatsCache =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PARTITIONS).build();
+
+    private final DataFileStatsAggregate total = new DataFileStatsAggregate();
+
+    private final boolean hasPrimaryKeys;
+
+    private final Map<String, Set<String>> partitionValues = new HashMap<>();
+
+    private final Map<String, Long> nullPartitionRows = new HashMap<>();
+
+    private final Map<String, Long> analyzedNdv = new HashMap<>();
+
+    private long analyzedRowCount = -1;
+
+    private LakeSoulStatistics(boolean hasPrimaryKeys) {
+        this.hasPrimaryKeys = hasPrimaryKeys;
+    }
+
+    /**
+     * Statistics of the given partition versions of a table. Results of ANALYZE TABLE are only used for these
+     * partitions.
+     */
+    public static LakeSoulStatistics of(List<PartitionInfo> partitionInfos,
+                                        List<String> partitionColumns,
+                                        boolean hasPrimaryKeys,
+                                        @Nullable JSONObject analyzed) {
+        LakeSoulStatistics statistics = new LakeSoulStatistics(hasPrimaryKeys);
+        Set<String> partitionDescs = new HashSet<>();
+        for (PartitionInfo partitionInfo : partitionInfos) {
+            DataFileStatsAggregate stats = getPartitionStats(partitionInfo);
+            partitionDescs.add(partitionInfo.getPartitionDesc());
+            statistics.total.merge(stats);
+            if (!partitionColumns.isEmpty()) {
+                statistics.addPartition(partitionInfo.getPartitionDesc(), stats.getNumRows());
+            }
+        }
+        if (analyzed != null) {
+            statistics.addAnalyzed(analyzed, partitionDescs);
+        }
+        return statistics;
+    }
+
+    // a partition version never changes, so its stats are cached and only partitions committed since the last
+    // planning are listed again
+    private static DataFileStatsAggregate getPartitionStats(PartitionInfo partitionInfo) {
+        String key = partitionInfo.getTableId() + "/" + partitionInfo.getPartitionDesc() + "@"
+                + partitionInfo.getVersion();
+        try {
+            return partitionStatsCache.get(key, () -> loadPartitionStats(partitionInfo));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static DataFileStatsAggregate loadPartitionStats(PartitionInfo partitionInfo) {
+        DataFileStatsAggregate stats = new DataFileStatsAggregate();
+        for (DataFileInfo dataFileInfo : DataOperation.getTableDataInfo(Collections.singletonList(partitionInfo))) {
+            stats.addFile(dataFileInfo.size(), dataFileInfo.file_stats());
+        }
+        return stats;
+    }
+
+    public CatalogTableStatistics toTableStatistics() {
+        return new CatalogTableStatistics(estimateRowCount(), (int) total.getFileCount(), total.getTotalBytes(), -1);
+    }
+
+    public CatalogColumnStatistics toColumnStatistics(RowType rowType) {
+        Map<String, CatalogColumnStatisticsDataBase> data = new HashMap<>();
+        for (RowType.RowField field : rowType.getFields()) {
+            CatalogColumnStatisticsDataBase columnData = toColumnData(field.getName(), field.getType());
+            if (columnData != null) {
+                data.put(field.getName(), columnData);
+            }
+        }
+        return new CatalogColumnStatistics(data);
+    }
+
+    public TableStats toTableStats(RowType rowType) {
+        return CatalogTableStatisticsConverter.convertToTableStats(toTableStatistics(), toColumnStatistics(rowType));
+    }
+
+    /**
+     * Keeps results of ANALYZE TABLE for a partition, or for the whole table if the partition desc is
+     * {@link DBConfig#LAKESOUL_NON_PARTITION_TABLE_PART_DESC}, in the given table properties.
+     */
+    public static void putAnalyzed(JSONObject properties,
+                                   String partitionDesc,
+                                   @Nullable CatalogTableStatistics tableStatistics,
+                                   @Nullable CatalogColumnStatistics columnStatistics) {
+        JSONObject statistics = properties.getJSONObject(STATISTICS_PROPERTY);
+        if (statistics == null) {
+            statistics = new JSONObject();
+        }
+        JSONObject partition = statistics.getJSONObject(partitionDesc);
+        if (partition == null) {
+            partition = new JSONObject();
+        }
+        if (tableStatistics != null) {
+            partition.put(ROW_COUNT, tableStatistics.getRowCount());
+        }
+        if (columnStatistics != null) {
+            JSONObject columns = new JSONObject();
+            for (Map.Entry<String, CatalogColumnStatisticsDataBase> entry :
+                    columnStatistics.getColumnStatisticsData().entrySet()) {
+                JSONObject column = new JSONObject();
+                Long ndv = ndvOf(entry.getValue());
+                if (ndv != null) column.put(NDV, ndv);
+                if (entry.getValue().getNullCount() != null) column.put(NULL_COUNT, entry.getValue().getNullCount());
+                columns.put(entry.getKey(), column);
+            }
+            partition.put(COLUMNS, columns);
+        }
+        statistics.put(partitionDesc, partition);
+        properties.put(STATISTICS_PROPERTY, statistics);
+    }
+
+    private void addPartition(String partitionDesc, long rows) {
+        for (Map.Entry<String, String> entry : DBUtil.parsePartitionDesc(partitionDesc).entrySet()) {
+            partitionValues.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).add(entry.getValue());
+            if (entry.getValue().equals(DBConfig.LAKESOUL_NULL_STRING)) {
+                nullPartitionRows.merge(entry.getKey(), rows, Long::sum);
+            }
+        }
+    }
+
+    private void addAnalyzed(JSONObject analyzed, Set<String> partitionDescs) {
+        long rowCount = 0;
+        boolean allAnalyzed = true;
+        for (String partitionDesc : partitionDescs) {
+            JSONObject partition = analyzed.getJSONObject(partitionDesc);
+            if (partition == null) {
+                allAnalyzed = false;
+                continue;
+            }
+            if (partition.containsKey(ROW_COUNT)) {
+                rowCount += partition.getLongValue(ROW_COUNT);
+            } else {
+                allAnalyzed = false;
+            }
+            mergeAnalyzedNdv(partition);
+        }
+        JSONObject table = analyzed.getJSONObject(DBConfig.LAKESOUL_NON_PARTITION_TABLE_PART_DESC);
+        if (table != null) {
+            mergeAnalyzedNdv(table);
+        }
+        if (allAnalyzed && !partitionDescs.isEmpty()) {
+            analyzedRowCount = rowCount;
+        }
+    }
+
+    private void mergeAnalyzedNdv(JSONObject partition) {
+        JSONObject columns = partition.getJSONObject(COLUMNS);
+        if (columns == null) return;
+        for (String column : columns.keySet()) {
+            JSONObject stats = columns.getJSONObject(column);
+            if (stats.containsKey(NDV)) {
+                // values of different partitions might overlap, so the largest count is the safe estimate
+                analyzedNdv.merge(column, stats.getLongValue(NDV), Math::max);
+            }
+        }
+    }
+
+    private long estimateRowCount() {
+        if (total.getTotalBytes() == 0) return 0;
+        if (hasPrimaryKeys) return analyzedRowCount;
+        // files without stats are assumed to have the same row size as the others
+        long rowCount = total.estimateRowCount();
+        return rowCount < 0 ? analyzedRowCount : rowCount;
+    }
+
+    @Nullable
+    private CatalogColumnStatisticsDataBase toColumnData(String column, LogicalType type) {
+        Long ndv = analyzedNdv.get(column);
+        Long nullCount = null;
+        Object min = null;
+        Object max = null;
+        if (partitionValues.containsKey(column)) {
+            ndv = (long) partitionValues.get(column).size();
+            if (!hasPrimaryKeys) {
+                nullCount = nullPartitionRows.getOrDefault(column, 0L);
+            }
+        } else if (total.isComplete(column)) {
+            // null counts and bounds are only known if every file has stats of the column
+            DataFileStatsAggregate.ColumnAggregate agg = total.getColumn(column);
+            if (!hasPrimaryKeys) {
+                nullCount = agg.getNullCount();
+            }
+            min = agg.getMin();
+            max = agg.getMax();
+        }
+        if (ndv == null && nullCount == null && min == null && max == null) {
+            return null;
+        }
+        switch (type.getTypeRoot()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return new CatalogColumnStatisticsDataLong(
+                        min instanceof Long ? (Long) min : null,
+                        max instanceof Long ? (Long) max : null,
+                        ndv, nullCount);
+            case FLOAT:
+            case DOUBLE:
+            case DECIMAL:
+                return new CatalogColumnStatisticsDataDouble(toDouble(min), toDouble(max), ndv, nullCount);
+            case DATE:
+                return new CatalogColumnStatisticsDataDate(
+                        min instanceof Long ? new Date((Long) min) : null,
+                        max instanceof Long ? new Date((Long) max) : null,
+                        ndv, nullCount);
+            case CHAR:
+            case VARCHAR:
+                return new CatalogColumnStatisticsDataString(null, null, ndv, nullCount);
+            case BOOLEAN:
+                return new CatalogColumnStatisticsDataBoolean(null, null, nullCount);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static Double toDouble(Object value) {
+        if (value instanceof Double) return (Double) value;
+        if (value instanceof BigDecimal) return ((BigDecimal) value).doubleValue();
+        return null;
+    }
+
+    @Nullable
+    private static Long ndvOf(CatalogColumnStatisticsDataBase data) {
+        if (data instanceof CatalogColumnStatisticsDataLong) return ((CatalogColumnStatisticsDataLong) data).getNdv();
+        if (data instanceof CatalogColumnStatisticsDataDouble) {
+            return ((CatalogColumnStatisticsDataDouble) data).getNdv();
+        }
+        if (data instanceof CatalogColumnStatisticsDataString) {
+            return ((CatalogColumnStatisticsDataString) data).getNdv();
+        }
+        if (data instanceof CatalogColumnStatisticsDataDate) return ((CatalogColumnStatisticsDataDate) data).getNdv();
+        return null;
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.flink.table.types.logical.RowType;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.BUCKET_CHECK_INTERVAL;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.BUCKET_PARALLELISM;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.DYNAMIC_BUCKETING;
+import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.FILE_ROLLING_ON_CHECKPOINT;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.FILE_ROLLING_SIZE;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.FILE_ROLLING_TIME;
 
@@ -62,6 +63,7 @@ public class LakeSoulMultiTableSinkStreamBuilder {
         context.conf.set(DYNAMIC_BUCKETING, false);
         LakeSoulRollingPolicyImpl<RowData> rollingPolicy = new LakeSoulRollingPolicyImpl<>(
                 context.conf.getLong(FILE_ROLLING_SIZE), context.conf.getLong(FILE_ROLLING_TIME));
+        rollingPolicy.setRollOnCheckpoint(context.conf.getBoolean(FILE_ROLLING_ON_CHECKPOINT));
         OutputFileConfig fileNameConfig = OutputFileConfig.builder()
                 .withPartSuffix(".parquet")
                 .build();
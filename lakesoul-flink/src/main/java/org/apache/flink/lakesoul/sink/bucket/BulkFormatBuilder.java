@@ -99,6 +99,7 @@ public abstract class BulkFormatBuilder<IN, OUT, T extends BulkFormatBuilder<IN,
     public SimpleVersionedSerializer<LakeSoulWriterBucketState> getWriterStateSerializer()
             throws IOException {
         return new LakeSoulWriterBucketStateSerializer(
+                NativeParquetWriter.NativeInProgressFileRecoverableSerializer.INSTANCE,
                 NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE);
     }
 
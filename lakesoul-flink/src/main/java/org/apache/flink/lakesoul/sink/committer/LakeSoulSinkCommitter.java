@@ -5,6 +5,7 @@
 package org.apache.flink.lakesoul.sink.committer;
 
 import com.dmetasoul.lakesoul.meta.DBManager;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
 import com.dmetasoul.lakesoul.meta.DBUtil;
 import com.dmetasoul.lakesoul.meta.entity.*;
 import org.apache.flink.api.connector.sink.Committer;
@@ -23,9 +24,14 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static com.dmetasoul.lakesoul.meta.DBConfig.*;
+import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.BATCH_COMMIT;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.SORT_FIELD;
 
 /**
@@ -41,7 +47,17 @@ public class LakeSoulSinkCommitter implements Committer<LakeSoulMultiTableSinkCo
     public static final LakeSoulSinkCommitter INSTANCE = new LakeSoulSinkCommitter();
     private static final Logger LOG = LoggerFactory.getLogger(LakeSoulSinkCommitter.class);
 
+    // max concurrent stat calls for pending files without flushed size
+    private static final int FILE_STATUS_PARALLELISM = 16;
+
+    private final boolean batchCommit;
+
     public LakeSoulSinkCommitter() {
+        this(BATCH_COMMIT.defaultValue());
+    }
+
+    public LakeSoulSinkCommitter(boolean batchCommit) {
+        this.batchCommit = batchCommit;
     }
 
     @Override
@@ -51,20 +67,33 @@ public class LakeSoulSinkCommitter implements Committer<LakeSoulMultiTableSinkCo
         // commit by file creation time in ascending order
         committables.sort(LakeSoulMultiTableSinkCommittable::compareTo);
 
+        Map<String, Long> fileSizes = collectFileSizes(committables);
         DBManager lakeSoulDBManager = new DBManager();
+        // append commits waiting to be committed together, by table id
+        Map<String, List<DataCommitInfo>> batchedDataCommitInfo = new LinkedHashMap<>();
         for (LakeSoulMultiTableSinkCommittable committable : committables) {
             LOG.info("Committing {}", committable);
+            TableSchemaIdentity identity = committable.getIdentity();
+            TableNameId tableNameId = null;
             for (Map.Entry<String, List<InProgressFileWriter.PendingFileRecoverable>> entry : committable.getPendingFilesMap().entrySet()) {
                 List<InProgressFileWriter.PendingFileRecoverable> pendingFiles = entry.getValue();
 
                 // pending files to commit
                 List<String> files = new ArrayList<>();
+                Map<String, String> fileStats = new HashMap<>();
                 for (InProgressFileWriter.PendingFileRecoverable pendingFileRecoverable :
                         pendingFiles) {
                     if (pendingFileRecoverable instanceof NativeParquetWriter.NativeWriterPendingFileRecoverable) {
                         NativeParquetWriter.NativeWriterPendingFileRecoverable recoverable =
                                 (NativeParquetWriter.NativeWriterPendingFileRecoverable) pendingFileRecoverable;
                         files.add(recoverable.path);
+                        if (recoverable.fileStats != null && !recoverable.fileStats.isEmpty()) {
+                            fileStats.put(recoverable.path, recoverable.fileStats);
+                        } else if (recoverable.numRows >= 0) {
+                            // keep row count for files without column stats, e.g. written before stats were derived
+                            fileStats.put(recoverable.path,
+                                    new DataFileStats(recoverable.numRows, Collections.emptyMap()).encode());
+                        }
                     }
                 }
 
@@ -75,7 +104,6 @@ public class LakeSoulSinkCommitter implements Committer<LakeSoulMultiTableSinkCo
                 }
 
                 // commit LakeSoul Meta
-                TableSchemaIdentity identity = committable.getIdentity();
                 List<DataFileOp> dataFileOpList = new ArrayList<>();
                 String fileExistCols =
                         identity.rowType.getFieldNames().stream().filter(name -> !name.equals(SORT_FIELD))
@@ -84,20 +112,19 @@ public class LakeSoulSinkCommitter implements Committer<LakeSoulMultiTableSinkCo
                     DataFileOp.Builder dataFileOp = DataFileOp.newBuilder();
                     dataFileOp.setFileOp(FileOp.add);
                     dataFileOp.setPath(file);
-                    Path path = new Path(file);
-                    FileStatus fileStatus = FileSystem.get(path.toUri()).getFileStatus(path);
-                    dataFileOp.setSize(fileStatus.getLen());
+                    dataFileOp.setSize(fileSizes.get(file));
                     dataFileOp.setFileExistCols(fileExistCols);
+                    dataFileOp.setFileStats(fileStats.getOrDefault(file, ""));
                     dataFileOpList.add(dataFileOp.build());
                 }
                 String partition = entry.getKey();
                 List<PartitionInfo> readPartitionInfoList = null;
 
 
-                TableNameId tableNameId =
-                        lakeSoulDBManager.shortTableName(identity.tableId.table(), identity.tableId.schema());
-                if (identity.tableId.schema() == null) {
-                    tableNameId = lakeSoulDBManager.shortTableName(identity.tableId.table(), identity.tableId.catalog());
+                if (tableNameId == null) {
+                    tableNameId = identity.tableId.schema() == null ?
+                            lakeSoulDBManager.shortTableName(identity.tableId.table(), identity.tableId.catalog()) :
+                            lakeSoulDBManager.shortTableName(identity.tableId.table(), identity.tableId.schema());
                 }
 
                 DataCommitInfo.Builder dataCommitInfo = DataCommitInfo.newBuilder();
@@ -136,14 +163,112 @@ public class LakeSoulSinkCommitter implements Committer<LakeSoulMultiTableSinkCo
                             dataCommitInfo.getTimestamp(), dataCommitInfo.getCommitId().toString());
                 }
 
-                lakeSoulDBManager.commitDataCommitInfo(dataCommitInfo.build(), readPartitionInfoList);
+                String tableId = tableNameId.getTableId();
+                if (batchCommit && dataCommitInfo.getCommitOp() == CommitOp.AppendCommit
+                        && readPartitionInfoList == null) {
+                    batchedDataCommitInfo.computeIfAbsent(tableId, k -> new ArrayList<>()).add(dataCommitInfo.build());
+                } else {
+                    // keep commit order of the table
+                    commitBatch(lakeSoulDBManager, tableId, batchedDataCommitInfo.remove(tableId));
+                    lakeSoulDBManager.commitDataCommitInfo(dataCommitInfo.build(), readPartitionInfoList);
+                }
             }
             LOG.info("Committing done, committable={} ", committable);
         }
+        for (Map.Entry<String, List<DataCommitInfo>> entry : batchedDataCommitInfo.entrySet()) {
+            commitBatch(lakeSoulDBManager, entry.getKey(), entry.getValue());
+        }
+        deleteMergedSegments(committables);
 
         return Collections.emptyList();
     }
 
+    /**
+     * Deletes staged segments concatenated into the committed files. Failures are only logged since segments are
+     * never referenced by LakeSoul meta.
+     */
+    private void deleteMergedSegments(List<LakeSoulMultiTableSinkCommittable> committables) {
+        for (LakeSoulMultiTableSinkCommittable committable : committables) {
+            for (List<InProgressFileWriter.PendingFileRecoverable> pendingFiles :
+                    committable.getPendingFilesMap().values()) {
+                for (InProgressFileWriter.PendingFileRecoverable pendingFileRecoverable : pendingFiles) {
+                    if (!(pendingFileRecoverable instanceof NativeParquetWriter.NativeWriterPendingFileRecoverable)) {
+                        continue;
+                    }
+                    for (String segment :
+                            ((NativeParquetWriter.NativeWriterPendingFileRecoverable) pendingFileRecoverable)
+                                    .mergedSegments) {
+                        Path path = new Path(segment);
+                        try {
+                            FileSystem.get(path.toUri()).delete(path, false);
+                        } catch (IOException e) {
+                            LOG.warn("Failed to delete merged segment {}", segment, e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sizes of all pending files to commit. Sizes reported by native writer at flush are used directly, files
+     * restored from state written by older versions are stat'ed concurrently.
+     */
+    private Map<String, Long> collectFileSizes(List<LakeSoulMultiTableSinkCommittable> committables)
+            throws IOException {
+        Map<String, Long> fileSizes = new HashMap<>();
+        List<String> unknownSizeFiles = new ArrayList<>();
+        for (LakeSoulMultiTableSinkCommittable committable : committables) {
+            for (List<InProgressFileWriter.PendingFileRecoverable> pendingFiles :
+                    committable.getPendingFilesMap().values()) {
+                for (InProgressFileWriter.PendingFileRecoverable pendingFileRecoverable : pendingFiles) {
+                    if (pendingFileRecoverable instanceof NativeParquetWriter.NativeWriterPendingFileRecoverable) {
+                        NativeParquetWriter.NativeWriterPendingFileRecoverable recoverable =
+                                (NativeParquetWriter.NativeWriterPendingFileRecoverable) pendingFileRecoverable;
+                        if (recoverable.fileSize >= 0) {
+                            fileSizes.put(recoverable.path, recoverable.fileSize);
+                        } else {
+                            unknownSizeFiles.add(recoverable.path);
+                        }
+                    }
+                }
+            }
+        }
+        if (unknownSizeFiles.isEmpty()) return fileSizes;
+
+        LOG.info("Getting status of {} files without flushed size", unknownSizeFiles.size());
+        ExecutorService executor =
+                Executors.newFixedThreadPool(Math.min(unknownSizeFiles.size(), FILE_STATUS_PARALLELISM));
+        try {
+            List<Future<Long>> futures = new ArrayList<>(unknownSizeFiles.size());
+            for (String file : unknownSizeFiles) {
+                futures.add(executor.submit(() -> {
+                    Path path = new Path(file);
+                    FileStatus fileStatus = FileSystem.get(path.toUri()).getFileStatus(path);
+                    return fileStatus.getLen();
+                }));
+            }
+            for (int i = 0; i < unknownSizeFiles.size(); i++) {
+                fileSizes.put(unknownSizeFiles.get(i), futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return fileSizes;
+    }
+
+    private void commitBatch(DBManager lakeSoulDBManager, String tableId, List<DataCommitInfo> dataCommitInfoList) {
+        if (dataCommitInfoList == null || dataCommitInfoList.isEmpty()) return;
+        LOG.info("Batch committing {} data commits of {} partitions to table {}", dataCommitInfoList.size(),
+                dataCommitInfoList.stream().map(DataCommitInfo::getPartitionDesc).distinct().count(), tableId);
+        lakeSoulDBManager.batchCommitAppendDataCommitInfo(tableId, dataCommitInfoList);
+    }
+
     @Override
     public void close() throws Exception {
         // Do nothing.
@@ -60,7 +60,7 @@ public class LakeSoulSinkGlobalCommitter
     private final boolean logicallyDropColumn;
 
     public LakeSoulSinkGlobalCommitter(Configuration conf) {
-        committer = LakeSoulSinkCommitter.INSTANCE;
+        committer = new LakeSoulSinkCommitter(conf.getBoolean(BATCH_COMMIT));
         dbManager = new DBManager();
         this.conf = conf;
         isBounded = conf.get(IS_BOUNDED).equals("true");
@@ -9,6 +9,7 @@ import org.apache.flink.lakesoul.sink.writer.LakeSoulWriterBucket;
 import org.apache.flink.lakesoul.types.TableSchemaIdentity;
 import org.apache.flink.streaming.api.functions.sink.filesystem.InProgressFileWriter;
 
+import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +34,12 @@ public class LakeSoulWriterBucketState {
 
     private final Map<String, List<InProgressFileWriter.PendingFileRecoverable>> pendingFileRecoverableMap;
 
+    /**
+     * The part file kept open across checkpoint, null if part files are closed on checkpoint.
+     */
+    @Nullable
+    private final InProgressFileWriter.InProgressFileRecoverable inProgressFileRecoverable;
+
     public LakeSoulWriterBucketState(
             TableSchemaIdentity identity,
             String bucketId,
@@ -44,6 +51,7 @@ public class LakeSoulWriterBucketState {
         this.bucketPath = bucketPath;
         this.pendingFileRecoverableMap = new HashMap<>();
         this.pendingFileRecoverableMap.put(bucketId, pendingFileRecoverableList);
+        this.inProgressFileRecoverable = null;
     }
 
     public LakeSoulWriterBucketState(
@@ -61,6 +69,21 @@ public class LakeSoulWriterBucketState {
         this.bucketPath = bucketPath;
 
         this.pendingFileRecoverableMap = pendingFileRecoverableMap;
+        this.inProgressFileRecoverable = null;
+    }
+
+    public LakeSoulWriterBucketState(
+            TableSchemaIdentity identity,
+            String bucketId,
+            Path bucketPath,
+            Map<String, List<InProgressFileWriter.PendingFileRecoverable>> pendingFileRecoverableMap,
+            @Nullable InProgressFileWriter.InProgressFileRecoverable inProgressFileRecoverable
+    ) {
+        this.identity = identity;
+        this.bucketId = bucketId;
+        this.bucketPath = bucketPath;
+        this.pendingFileRecoverableMap = pendingFileRecoverableMap;
+        this.inProgressFileRecoverable = inProgressFileRecoverable;
     }
 
     public String getBucketId() {
@@ -81,8 +104,9 @@ public class LakeSoulWriterBucketState {
                 " and identity=" +
                 identity +
                 " and pendingFilesMap=" +
-                pendingFileRecoverableMap.entrySet().stream().map(Object::toString).collect(Collectors.joining("; "))
-                ;
+                pendingFileRecoverableMap.entrySet().stream().map(Object::toString).collect(Collectors.joining("; ")) +
+                " and inProgressFile=" +
+                inProgressFileRecoverable;
     }
 
     public TableSchemaIdentity getIdentity() {
@@ -96,4 +120,13 @@ public class LakeSoulWriterBucketState {
     public Map<String, List<InProgressFileWriter.PendingFileRecoverable>> getPendingFileRecoverableMap() {
         return pendingFileRecoverableMap;
     }
+
+    @Nullable
+    public InProgressFileWriter.InProgressFileRecoverable getInProgressFileRecoverable() {
+        return inProgressFileRecoverable;
+    }
+
+    public boolean hasInProgressFileRecoverable() {
+        return inProgressFileRecoverable != null;
+    }
 }
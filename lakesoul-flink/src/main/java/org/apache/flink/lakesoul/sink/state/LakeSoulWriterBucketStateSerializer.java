@@ -13,7 +13,6 @@ import org.apache.flink.core.memory.DataOutputSerializer;
 import org.apache.flink.core.memory.DataOutputView;
 import org.apache.flink.lakesoul.types.TableSchemaIdentity;
 import org.apache.flink.streaming.api.functions.sink.filesystem.InProgressFileWriter;
-import org.apache.flink.util.function.FunctionWithException;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -36,9 +35,14 @@ public class LakeSoulWriterBucketStateSerializer
 
     private final SimpleVersionedSerializer<InProgressFileWriter.PendingFileRecoverable> pendingFileRecoverableSimpleVersionedSerializer;
 
+    private final SimpleVersionedSerializer<InProgressFileWriter.InProgressFileRecoverable> inProgressFileRecoverableSerializer;
+
     public LakeSoulWriterBucketStateSerializer(
+            SimpleVersionedSerializer<InProgressFileWriter.InProgressFileRecoverable>
+                    inProgressFileRecoverableSerializer,
             SimpleVersionedSerializer<InProgressFileWriter.PendingFileRecoverable>
                     pendingFileRecoverableSimpleVersionedSerializer) {
+        this.inProgressFileRecoverableSerializer = checkNotNull(inProgressFileRecoverableSerializer);
         this.pendingFileRecoverableSimpleVersionedSerializer =
                 checkNotNull(pendingFileRecoverableSimpleVersionedSerializer);
         this.tableSchemaIdentitySerializer = new TableSchemaIdentitySerializer();
@@ -46,7 +50,7 @@ public class LakeSoulWriterBucketStateSerializer
 
     @Override
     public int getVersion() {
-        return 1;
+        return 2;
     }
 
     @Override
@@ -61,52 +65,81 @@ public class LakeSoulWriterBucketStateSerializer
     public LakeSoulWriterBucketState deserialize(int version, byte[] serialized) throws IOException {
         DataInputDeserializer in = new DataInputDeserializer(serialized);
         validateMagicNumber(in);
-        return deserialize(in);
+        switch (version) {
+            case 1:
+                return deserializeV1(in);
+            case 2:
+                return deserializeV2(in);
+            default:
+                throw new IOException("Unrecognized version or corrupt state: " + version);
+        }
     }
 
     private void serialize(LakeSoulWriterBucketState state, DataOutputView dataOutputView)
             throws IOException {
-//        dataOutputView.writeUTF(state.getBucketId());
+        dataOutputView.writeUTF(state.getBucketId());
         dataOutputView.writeUTF(state.getBucketPath().toString());
 
         SimpleVersionedSerialization.writeVersionAndSerialize(
                 tableSchemaIdentitySerializer, state.getIdentity(), dataOutputView);
 
-
         dataOutputView.writeInt(state.getPendingFileRecoverableMap().entrySet().size());
         for (Map.Entry<String, List<InProgressFileWriter.PendingFileRecoverable>> entry : state.getPendingFileRecoverableMap().entrySet()) {
             dataOutputView.writeUTF(entry.getKey());
             dataOutputView.writeInt(entry.getValue().size());
-            for (int i = 0; i < state.getPendingFileRecoverableMap().size(); ++i) {
+            for (InProgressFileWriter.PendingFileRecoverable pendingFile : entry.getValue()) {
                 SimpleVersionedSerialization.writeVersionAndSerialize(
-                        pendingFileRecoverableSimpleVersionedSerializer, entry.getValue().get(i),
+                        pendingFileRecoverableSimpleVersionedSerializer, pendingFile,
                         dataOutputView
                 );
             }
         }
 
+        dataOutputView.writeBoolean(state.hasInProgressFileRecoverable());
+        if (state.hasInProgressFileRecoverable()) {
+            SimpleVersionedSerialization.writeVersionAndSerialize(
+                    inProgressFileRecoverableSerializer, state.getInProgressFileRecoverable(), dataOutputView);
+        }
     }
 
-    private LakeSoulWriterBucketState deserialize(DataInputView in) throws IOException {
-        return internalDeserialize(
-                in,
-                dataInputView ->
-                        SimpleVersionedSerialization.readVersionAndDeSerialize(
-                                pendingFileRecoverableSimpleVersionedSerializer, dataInputView));
-    }
+    private LakeSoulWriterBucketState deserializeV1(DataInputView dataInputView) throws IOException {
+        String bucketPathStr = dataInputView.readUTF();
 
-    private LakeSoulWriterBucketState internalDeserialize(
-            DataInputView dataInputView,
-            FunctionWithException<DataInputView, InProgressFileWriter.PendingFileRecoverable, IOException>
-                    pendingFileDeser)
-            throws IOException {
+        TableSchemaIdentity identity = SimpleVersionedSerialization.readVersionAndDeSerialize(
+                tableSchemaIdentitySerializer, dataInputView);
+
+        return new LakeSoulWriterBucketState(
+                identity,
+                new Path(bucketPathStr),
+                deserializePendingFiles(dataInputView));
+    }
 
-//        String bucketId = dataInputView.readUTF();
+    private LakeSoulWriterBucketState deserializeV2(DataInputView dataInputView) throws IOException {
+        String bucketId = dataInputView.readUTF();
         String bucketPathStr = dataInputView.readUTF();
 
         TableSchemaIdentity identity = SimpleVersionedSerialization.readVersionAndDeSerialize(
                 tableSchemaIdentitySerializer, dataInputView);
 
+        HashMap<String, List<InProgressFileWriter.PendingFileRecoverable>> pendingFileRecoverableMap =
+                deserializePendingFiles(dataInputView);
+
+        InProgressFileWriter.InProgressFileRecoverable inProgressFileRecoverable = null;
+        if (dataInputView.readBoolean()) {
+            inProgressFileRecoverable = SimpleVersionedSerialization.readVersionAndDeSerialize(
+                    inProgressFileRecoverableSerializer, dataInputView);
+        }
+
+        return new LakeSoulWriterBucketState(
+                identity,
+                bucketId,
+                new Path(bucketPathStr),
+                pendingFileRecoverableMap,
+                inProgressFileRecoverable);
+    }
+
+    private HashMap<String, List<InProgressFileWriter.PendingFileRecoverable>> deserializePendingFiles(
+            DataInputView dataInputView) throws IOException {
         int mapEntryNum = dataInputView.readInt();
         HashMap<String, List<InProgressFileWriter.PendingFileRecoverable>> pendingFileRecoverableMap = new HashMap<>();
         for (int i = 0; i < mapEntryNum; i++) {
@@ -115,15 +148,12 @@ public class LakeSoulWriterBucketStateSerializer
             int pendingFileNum = dataInputView.readInt();
             List<InProgressFileWriter.PendingFileRecoverable> pendingFileRecoverableList = new ArrayList<>();
             for (int j = 0; j < pendingFileNum; ++j) {
-                pendingFileRecoverableList.add(pendingFileDeser.apply(dataInputView));
+                pendingFileRecoverableList.add(SimpleVersionedSerialization.readVersionAndDeSerialize(
+                        pendingFileRecoverableSimpleVersionedSerializer, dataInputView));
             }
             pendingFileRecoverableMap.put(bucketId, pendingFileRecoverableList);
         }
-
-        return new LakeSoulWriterBucketState(
-                identity,
-                new Path(bucketPathStr),
-                pendingFileRecoverableMap);
+        return pendingFileRecoverableMap;
     }
 
     private void validateMagicNumber(DataInputView in) throws IOException {
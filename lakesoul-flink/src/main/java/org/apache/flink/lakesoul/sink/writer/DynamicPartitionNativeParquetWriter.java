@@ -20,13 +20,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.DYNAMIC_BUCKET;
+import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.FILE_ROLLING_ON_CHECKPOINT;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.MAX_ROW_GROUP_SIZE;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.SORT_FIELD;
 
@@ -57,12 +60,37 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
 
     private long totalRows = 0;
 
+    // files of tables with primary keys are sorted by native writer, so they could not be concatenated
+    private final boolean persistable;
+
+    // segments staged by persist for each partition, concatenated into one file per partition on close
+    private final Map<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> segments =
+            new HashMap<>();
+
+    private long rowsInSegment = 0;
+
     public DynamicPartitionNativeParquetWriter(RowType rowType,
                                                List<String> primaryKeys,
                                                List<String> rangeColumns,
                                                Path path,
                                                long creationTime,
                                                Configuration conf) throws IOException {
+        this(rowType, primaryKeys, rangeColumns, path, creationTime, conf, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a writer resuming the partition files whose segments have been staged before.
+     */
+    public DynamicPartitionNativeParquetWriter(RowType rowType,
+                                               List<String> primaryKeys,
+                                               List<String> rangeColumns,
+                                               Path path,
+                                               long creationTime,
+                                               Configuration conf,
+                                               Map<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> segments)
+            throws IOException {
+        this.persistable = primaryKeys.isEmpty() && !conf.getBoolean(FILE_ROLLING_ON_CHECKPOINT);
+        segments.forEach((partition, list) -> this.segments.put(partition, new ArrayList<>(list)));
         this.maxRowGroupRows = conf.getInteger(MAX_ROW_GROUP_SIZE);
         this.creationTime = creationTime;
         this.rowsInBatch = 0;
@@ -86,6 +114,7 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
         nativeWriter.setHashBucketNum(conf.getInteger(LakeSoulSinkOptions.HASH_BUCKET_NUM));
 
         nativeWriter.setRowGroupRowNumber(this.maxRowGroupRows);
+        nativeWriter.setMaxInFlightBatches(conf.getInteger(LakeSoulSinkOptions.MAX_IN_FLIGHT_BATCHES));
         batch = VectorSchemaRoot.create(arrowSchema, nativeWriter.getAllocator());
         arrowWriter = ArrowUtils.createRowDataArrowWriter(batch, rowType);
 
@@ -103,11 +132,13 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
         this.lastUpdateTime = currentTime;
         this.arrowWriter.write(element);
         this.rowsInBatch++;
+        this.rowsInSegment++;
         this.totalRows++;
         if (this.rowsInBatch >= this.maxRowGroupRows) {
             this.arrowWriter.finish();
-            this.nativeWriter.write(this.batch);
-            // in native writer, batch may be kept in memory for sorting,
+            // encoded and uploaded in background while following rows are converted
+            this.nativeWriter.writeAsync(this.batch);
+            // in native writer, batch may be kept in memory for sorting or writing,
             // so we have to release ownership in java
             this.batch.clear();
             this.arrowWriter.reset();
@@ -115,10 +146,28 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
         }
     }
 
+    /**
+     * Stages files written since last persist as segments of their partitions, or returns null if files could not
+     * be persisted and should be closed instead.
+     */
     @Override
     public InProgressFileRecoverable persist() throws IOException {
-        // we currently do not support persist
-        return null;
+        if (!persistable) {
+            return null;
+        }
+        if (this.rowsInSegment > 0) {
+            for (Map.Entry<String, List<PendingFileRecoverable>> entry : flushNativeWriter().entrySet()) {
+                List<NativeParquetWriter.NativeWriterPendingFileRecoverable> partitionSegments =
+                        segments.computeIfAbsent(entry.getKey(), key -> new ArrayList<>());
+                for (PendingFileRecoverable file : entry.getValue()) {
+                    partitionSegments.add((NativeParquetWriter.NativeWriterPendingFileRecoverable) file);
+                }
+            }
+            LOG.info("Staged segments of {} partitions under {}", segments.size(), prefix);
+        }
+        Map<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> staged = new HashMap<>();
+        segments.forEach((partition, list) -> staged.put(partition, new ArrayList<>(list)));
+        return new NativeParquetWriter.NativeWriterInProgressFileRecoverable(prefix, creationTime, staged);
     }
 
 
@@ -141,33 +190,75 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
     }
 
     public Map<String, List<PendingFileRecoverable>> closeForCommitWithRecoverableMap() throws IOException {
+        Map<String, List<PendingFileRecoverable>> recoverableMap = new HashMap<>();
+        if (this.rowsInSegment > 0) {
+            recoverableMap = flushNativeWriter();
+        }
+        if (!segments.isEmpty()) {
+            recoverableMap = concatSegments(recoverableMap);
+        }
+        LOG.info("CloseForCommitWithRecoverableMap done, recoverableMap={}", recoverableMap);
+        return recoverableMap;
+    }
+
+    /**
+     * Flushes native writer and starts a new one, returns the files written for each partition.
+     */
+    private Map<String, List<PendingFileRecoverable>> flushNativeWriter() throws IOException {
         this.arrowWriter.finish();
         Map<String, List<PendingFileRecoverable>> recoverableMap = new HashMap<>();
-        if (this.batch.getRowCount() > 0) {
-            this.nativeWriter.write(this.batch);
-            HashMap<String, List<String>> partitionDescAndFilesMap = this.nativeWriter.flush();
-            for (Map.Entry<String, List<String>> entry : partitionDescAndFilesMap.entrySet()) {
-                recoverableMap.put(
-                        entry.getKey(),
-                        entry.getValue()
-                                .stream()
-                                .map(path -> new NativeParquetWriter.NativeWriterPendingFileRecoverable(path,
-                                        creationTime))
-                                .collect(Collectors.toList())
-                );
+        this.nativeWriter.write(this.batch);
+        HashMap<String, List<NativeIOWriter.FlushResult>> partitionDescAndFilesMap =
+                this.nativeWriter.flushWithResult();
+        for (Map.Entry<String, List<NativeIOWriter.FlushResult>> entry : partitionDescAndFilesMap.entrySet()) {
+            recoverableMap.put(
+                    entry.getKey(),
+                    entry.getValue()
+                            .stream()
+                            .map(result -> NativeParquetWriter.NativeWriterPendingFileRecoverable
+                                    .fromFlushResult(result, creationTime))
+                            .collect(Collectors.toList())
+            );
+        }
+        this.arrowWriter.reset();
+        this.rowsInBatch = 0;
+        this.rowsInSegment = 0;
+        this.batch.clear();
+        this.batch.close();
+        try {
+            this.nativeWriter.close();
+            initNativeWriter();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return recoverableMap;
+    }
+
+    /**
+     * Concatenates staged segments and the flushed files of each partition into one file of the partition.
+     */
+    private Map<String, List<PendingFileRecoverable>> concatSegments(
+            Map<String, List<PendingFileRecoverable>> flushedFiles) throws IOException {
+        Map<String, List<PendingFileRecoverable>> recoverableMap = new HashMap<>(flushedFiles);
+        for (Map.Entry<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> entry :
+                segments.entrySet()) {
+            List<String> inputs = new ArrayList<>();
+            for (NativeParquetWriter.NativeWriterPendingFileRecoverable segment : entry.getValue()) {
+                inputs.add(segment.path);
             }
-            this.arrowWriter.reset();
-            this.rowsInBatch = 0;
-            this.batch.clear();
-            this.batch.close();
-            try {
-                this.nativeWriter.close();
-                initNativeWriter();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
+            for (PendingFileRecoverable file : flushedFiles.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                inputs.add(((NativeParquetWriter.NativeWriterPendingFileRecoverable) file).path);
             }
+            Path output = new Path(new Path(inputs.get(0)).getParent(),
+                    "part-" + UUID.randomUUID() + "_0000.parquet");
+            NativeIOWriter.FlushResult result =
+                    NativeParquetWriter.concatFiles(rowType, inputs, output.toString(), conf);
+            NativeParquetWriter.NativeWriterPendingFileRecoverable recoverable =
+                    NativeParquetWriter.NativeWriterPendingFileRecoverable.fromFlushResult(result, creationTime);
+            recoverable.mergedSegments = inputs;
+            recoverableMap.put(entry.getKey(), Collections.singletonList(recoverable));
         }
-        LOG.info("CloseForCommitWithRecoverableMap done, recoverableMap={}", recoverableMap);
+        segments.clear();
         return recoverableMap;
     }
 
@@ -214,6 +305,7 @@ public class DynamicPartitionNativeParquetWriter implements InProgressFileWriter
                 ", rowsInBatch=" + rowsInBatch +
                 ", lastUpdateTime=" + lastUpdateTime +
                 ", prefix='" + prefix + '\'' +
+                ", segments=" + segments.size() +
                 ", totalRows=" + totalRows +
                 '}';
     }
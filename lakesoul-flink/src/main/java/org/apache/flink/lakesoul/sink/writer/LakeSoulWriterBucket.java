@@ -71,6 +71,10 @@ public class LakeSoulWriterBucket {
     @Nullable
     private InProgressFileWriter<RowData, String> inProgressPartWriter;
 
+    // in-progress part file persisted on checkpoint instead of being closed
+    @Nullable
+    private InProgressFileWriter.InProgressFileRecoverable inProgressFileRecoverable;
+
     private final TableSchemaIdentity tableId;
 
     /**
@@ -127,6 +131,12 @@ public class LakeSoulWriterBucket {
                 .entrySet()) {
             pendingFilesMap.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
         }
+        if (state.hasInProgressFileRecoverable()) {
+            InProgressFileWriter.InProgressFileRecoverable recoverable = state.getInProgressFileRecoverable();
+            LOG.info("Resuming in-progress part file {} for bucket id={}.", recoverable, getBucketId());
+            inProgressPartWriter = bucketWriter.resumeInProgressFileFrom(
+                    getBucketId(), recoverable, System.currentTimeMillis());
+        }
     }
 
     public String getBucketId() {
@@ -171,12 +181,20 @@ public class LakeSoulWriterBucket {
 
     List<LakeSoulMultiTableSinkCommittable> prepareCommit(boolean flush, String dmlType, String sourcePartitionInfo)
             throws IOException {
-        // we always close part file and do not keep in-progress file
-        // since the native parquet writer doesn't support resume
+        // part file is kept open only if rolling policy allows and the writer could persist it,
+        // otherwise it is closed and committed with this checkpoint
         if (inProgressPartWriter != null) {
-            LOG.info(
-                    "Closing in-progress part file for bucket id={} on checkpoint.", getBucketId());
-            closePartFile();
+            if (!flush && !rollingPolicy.shouldRollOnCheckpoint(inProgressPartWriter)) {
+                inProgressFileRecoverable = inProgressPartWriter.persist();
+            }
+            if (inProgressFileRecoverable == null) {
+                LOG.info(
+                        "Closing in-progress part file for bucket id={} on checkpoint.", getBucketId());
+                closePartFile();
+            } else {
+                LOG.info(
+                        "Persisted in-progress part file for bucket id={} on checkpoint.", getBucketId());
+            }
         }
 
         List<LakeSoulMultiTableSinkCommittable> committables = new ArrayList<>();
@@ -209,11 +227,14 @@ public class LakeSoulWriterBucket {
     }
 
     LakeSoulWriterBucketState snapshotState() throws IOException {
-        if (inProgressPartWriter != null) {
+        if (inProgressPartWriter != null && inProgressFileRecoverable == null) {
             closePartFile();
         }
 
-        return new LakeSoulWriterBucketState(tableId, bucketPath, new HashMap<>(pendingFilesMap));
+        LakeSoulWriterBucketState state = new LakeSoulWriterBucketState(tableId, bucketId, bucketPath,
+                new HashMap<>(pendingFilesMap), inProgressFileRecoverable);
+        inProgressFileRecoverable = null;
+        return state;
     }
 
     void onProcessingTime(long timestamp) throws IOException {
@@ -278,6 +299,7 @@ public class LakeSoulWriterBucket {
     }
 
     private void closePartFile() throws IOException {
+        inProgressFileRecoverable = null;
         if (inProgressPartWriter != null) {
             long start = System.currentTimeMillis();
             if (inProgressPartWriter instanceof DynamicPartitionNativeParquetWriter) {
@@ -299,6 +321,7 @@ public class LakeSoulWriterBucket {
     }
 
     void disposePartFile() {
+        inProgressFileRecoverable = null;
         if (inProgressPartWriter != null) {
             inProgressPartWriter.dispose();
             inProgressPartWriter = null;
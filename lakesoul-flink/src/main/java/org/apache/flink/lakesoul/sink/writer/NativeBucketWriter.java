@@ -16,6 +16,7 @@ import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.types.logical.RowType;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.DYNAMIC_BUCKET;
@@ -49,15 +50,23 @@ public class NativeBucketWriter implements BucketWriter<RowData, String> {
             String s,
             InProgressFileWriter.InProgressFileRecoverable inProgressFileSnapshot,
             long creationTime) throws IOException {
-        throw new UnsupportedOperationException("NativeBucketWriter does not support resume");
+        NativeParquetWriter.NativeWriterInProgressFileRecoverable recoverable =
+                (NativeParquetWriter.NativeWriterInProgressFileRecoverable) inProgressFileSnapshot;
+        Path path = new Path(recoverable.path);
+        if (DYNAMIC_BUCKET.equals(s)) {
+            return new DynamicPartitionNativeParquetWriter(rowType, primaryKeys, partitionKeys, path,
+                    recoverable.creationTime, conf, recoverable.segments);
+        }
+        return new NativeParquetWriter(rowType, primaryKeys, s, path, recoverable.creationTime, conf,
+                recoverable.segments.getOrDefault(s, Collections.emptyList()));
     }
 
     @Override
     public WriterProperties getProperties() {
         return new WriterProperties(
-                UnsupportedInProgressFileRecoverableSerializable.INSTANCE,
+                NativeParquetWriter.NativeInProgressFileRecoverableSerializer.INSTANCE,
                 NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE,
-                false
+                true
         );
     }
 
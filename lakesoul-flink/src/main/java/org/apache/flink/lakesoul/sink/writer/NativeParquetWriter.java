@@ -8,7 +8,9 @@ import com.dmetasoul.lakesoul.lakesoul.io.NativeIOWriter;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.fs.FileSystem;
 import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.io.SimpleVersionedSerialization;
 import org.apache.flink.core.io.SimpleVersionedSerializer;
 import org.apache.flink.core.memory.DataInputDeserializer;
 import org.apache.flink.core.memory.DataOutputSerializer;
@@ -25,35 +27,62 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
+import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.FILE_ROLLING_ON_CHECKPOINT;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.MAX_ROW_GROUP_SIZE;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.SORT_FIELD;
 
+/**
+ * Writes one part file with the native writer. For tables without primary keys the file could be kept open across
+ * checkpoints: on {@link #persist()} rows written so far are closed into a staged segment file, and all segments are
+ * concatenated into the part file by copying their row groups when it is finally closed.
+ */
 public class NativeParquetWriter implements InProgressFileWriter<RowData, String> {
 
     private static final Logger LOG = LoggerFactory.getLogger(NativeParquetWriter.class);
 
-    private final ArrowWriter<RowData> arrowWriter;
+    private ArrowWriter<RowData> arrowWriter;
 
     private NativeIOWriter nativeWriter;
 
+    private final RowType rowType;
+
+    private final List<String> primaryKeys;
+
+    private final Configuration conf;
+
     private final int maxRowGroupRows;
 
     private final long creationTime;
 
-    private final VectorSchemaRoot batch;
+    private VectorSchemaRoot batch;
 
     private final String bucketID;
 
+    // files of tables with primary keys are sorted by native writer, so they could not be concatenated
+    private final boolean persistable;
+
+    // segments staged by persist, concatenated into path on close
+    private final List<NativeWriterPendingFileRecoverable> segments;
+
     private int rowsInBatch;
 
+    private long rowsInSegment = 0;
+
     long lastUpdateTime;
 
     Path path;
 
+    // file written by current native writer, either path or the segment to stage
+    private Path segmentPath;
+
     private long totalRows = 0;
 
     public NativeParquetWriter(RowType rowType,
@@ -62,12 +91,65 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
                                Path path,
                                long creationTime,
                                Configuration conf) throws IOException {
+        this(rowType, primaryKeys, bucketID, path, creationTime, conf, Collections.emptyList(), false);
+    }
+
+    /**
+     * Creates a writer resuming the part file whose segments have been staged before.
+     */
+    public NativeParquetWriter(RowType rowType,
+                               List<String> primaryKeys,
+                               String bucketID,
+                               Path path,
+                               long creationTime,
+                               Configuration conf,
+                               List<NativeWriterPendingFileRecoverable> segments) throws IOException {
+        this(rowType, primaryKeys, bucketID, path, creationTime, conf, segments, true);
+    }
+
+    private NativeParquetWriter(RowType rowType,
+                                List<String> primaryKeys,
+                                String bucketID,
+                                Path path,
+                                long creationTime,
+                                Configuration conf,
+                                List<NativeWriterPendingFileRecoverable> segments,
+                                boolean resumed) throws IOException {
         this.maxRowGroupRows = conf.getInteger(MAX_ROW_GROUP_SIZE);
         this.creationTime = creationTime;
         this.bucketID = bucketID;
         this.rowsInBatch = 0;
+        this.rowType = rowType;
+        this.primaryKeys = primaryKeys;
+        this.conf = conf;
+        this.persistable = primaryKeys.isEmpty() && !conf.getBoolean(FILE_ROLLING_ON_CHECKPOINT);
+        this.segments = new ArrayList<>(segments);
+        for (NativeWriterPendingFileRecoverable segment : segments) {
+            totalRows += Math.max(segment.numRows, 0);
+        }
 
         ArrowUtils.setLocalTimeZone(FlinkUtil.getLocalTimeZone(conf));
+        this.path = path.makeQualified(path.getFileSystem());
+        if (resumed) {
+            deleteUnstagedSegments();
+        }
+        initNativeWriter();
+    }
+
+    /**
+     * Deletes segments written after the checkpoint resumed from. They were staged by the failed attempt and are
+     * neither recorded in state nor concatenated later. Segments are numbered in order, so the first missing number
+     * ends the search.
+     */
+    private void deleteUnstagedSegments() throws IOException {
+        FileSystem fs = path.getFileSystem();
+        for (int n = segments.size(); fs.exists(segmentPath(n)); n++) {
+            LOG.info("Deleting segment {} of part file {} not staged in state", segmentPath(n), path);
+            fs.delete(segmentPath(n), false);
+        }
+    }
+
+    private void initNativeWriter() throws IOException {
         Schema arrowSchema = ArrowUtils.toArrowSchema(rowType);
         nativeWriter = new NativeIOWriter(arrowSchema);
         nativeWriter.setPrimaryKeys(primaryKeys);
@@ -75,25 +157,40 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
             nativeWriter.setAuxSortColumns(Collections.singletonList(SORT_FIELD));
         }
         nativeWriter.setRowGroupRowNumber(this.maxRowGroupRows);
+        nativeWriter.setMaxInFlightBatches(conf.getInteger(LakeSoulSinkOptions.MAX_IN_FLIGHT_BATCHES));
         batch = VectorSchemaRoot.create(arrowSchema, nativeWriter.getAllocator());
         arrowWriter = ArrowUtils.createRowDataArrowWriter(batch, rowType);
-        this.path = path.makeQualified(path.getFileSystem());
-        nativeWriter.addFile(this.path.toUri().toString());
+        segmentPath = persistable || !segments.isEmpty() ? segmentPath(segments.size()) : this.path;
+        nativeWriter.addFile(segmentPath.toUri().toString());
 
         FlinkUtil.setFSConfigs(conf, this.nativeWriter);
         this.nativeWriter.initializeWriter();
     }
 
+    /**
+     * Path of the n-th staged segment, e.g. part-xxx_00000.c000-0.parquet for part-xxx_00000.c000.parquet.
+     */
+    private Path segmentPath(int n) {
+        String name = path.getName();
+        int dot = name.lastIndexOf('.');
+        String segmentName = dot > 0
+                ? name.substring(0, dot) + "-" + n + name.substring(dot)
+                : name + "-" + n;
+        return new Path(path.getParent(), segmentName);
+    }
+
     @Override
     public void write(RowData element, long currentTime) throws IOException {
         this.lastUpdateTime = currentTime;
         this.arrowWriter.write(element);
         this.rowsInBatch++;
+        this.rowsInSegment++;
         this.totalRows++;
         if (this.rowsInBatch >= this.maxRowGroupRows) {
             this.arrowWriter.finish();
-            this.nativeWriter.write(this.batch);
-            // in native writer, batch may be kept in memory for sorting,
+            // encoded and uploaded in background while following rows are converted
+            this.nativeWriter.writeAsync(this.batch);
+            // in native writer, batch may be kept in memory for sorting or writing,
             // so we have to release ownership in java
             this.batch.clear();
             this.arrowWriter.reset();
@@ -101,10 +198,135 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
         }
     }
 
+    /**
+     * Stages rows written since last persist as a segment and continues with a new segment, or returns null if the
+     * file could not be persisted and should be closed instead.
+     */
     @Override
     public InProgressFileRecoverable persist() throws IOException {
-        // we currently do not support persist
-        return null;
+        if (!persistable) {
+            return null;
+        }
+        if (rowsInSegment > 0) {
+            NativeWriterPendingFileRecoverable segment = closeNativeWriter();
+            LOG.info("Staged segment {} of part file {}", segment, path);
+            segments.add(segment);
+            rowsInSegment = 0;
+            initNativeWriter();
+        }
+        return new NativeWriterInProgressFileRecoverable(path.toString(), creationTime,
+                Collections.singletonMap(bucketID, new ArrayList<>(segments)));
+    }
+
+    /**
+     * Concatenates row groups of the files into the output file with native writer, without decoding them.
+     */
+    static NativeIOWriter.FlushResult concatFiles(RowType rowType, List<String> files, String output,
+                                                  Configuration conf) throws IOException {
+        try (NativeIOWriter concatWriter = new NativeIOWriter(ArrowUtils.toArrowSchema(rowType))) {
+            for (String file : files) {
+                concatWriter.addFile(new Path(file).toUri().toString());
+            }
+            concatWriter.addFile(new Path(output).toUri().toString());
+            FlinkUtil.setFSConfigs(conf, concatWriter);
+            return concatWriter.concatFiles();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    public static class NativeInProgressFileRecoverableSerializer
+            implements SimpleVersionedSerializer<InProgressFileRecoverable> {
+
+        public static final NativeInProgressFileRecoverableSerializer INSTANCE =
+                new NativeInProgressFileRecoverableSerializer();
+
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public byte[] serialize(InProgressFileRecoverable obj) throws IOException {
+            if (!(obj instanceof NativeWriterInProgressFileRecoverable)) {
+                throw new UnsupportedOperationException(
+                        "Only NativeParquetWriter.NativeWriterInProgressFileRecoverable is supported.");
+            }
+            DataOutputSerializer out = new DataOutputSerializer(256);
+            NativeWriterInProgressFileRecoverable recoverable = (NativeWriterInProgressFileRecoverable) obj;
+            out.writeUTF(recoverable.path);
+            out.writeLong(recoverable.creationTime);
+            out.writeInt(recoverable.segments.size());
+            for (Map.Entry<String, List<NativeWriterPendingFileRecoverable>> entry :
+                    recoverable.segments.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (NativeWriterPendingFileRecoverable segment : entry.getValue()) {
+                    SimpleVersionedSerialization.writeVersionAndSerialize(
+                            NativePendingFileRecoverableSerializer.INSTANCE, segment, out);
+                }
+            }
+            return out.getCopyOfBuffer();
+        }
+
+        @Override
+        public InProgressFileRecoverable deserialize(int version, byte[] serialized) throws IOException {
+            DataInputDeserializer in = new DataInputDeserializer(serialized);
+            String path = in.readUTF();
+            long time = in.readLong();
+            int partitionNum = in.readInt();
+            Map<String, List<NativeWriterPendingFileRecoverable>> segments = new HashMap<>();
+            for (int i = 0; i < partitionNum; i++) {
+                String partition = in.readUTF();
+                int segmentNum = in.readInt();
+                List<NativeWriterPendingFileRecoverable> list = new ArrayList<>(segmentNum);
+                for (int j = 0; j < segmentNum; j++) {
+                    list.add((NativeWriterPendingFileRecoverable) SimpleVersionedSerialization
+                            .readVersionAndDeSerialize(NativePendingFileRecoverableSerializer.INSTANCE, in));
+                }
+                segments.put(partition, list);
+            }
+            return new NativeWriterInProgressFileRecoverable(path, time, segments);
+        }
+    }
+
+    /**
+     * Staged segments of an in-progress part file. The path is the part file of {@link NativeParquetWriter} or the
+     * prefix of {@link DynamicPartitionNativeParquetWriter}, segments are grouped by bucket id or partition desc.
+     */
+    static public class NativeWriterInProgressFileRecoverable implements InProgressFileRecoverable, Serializable {
+        public String path;
+
+        public long creationTime;
+
+        public Map<String, List<NativeWriterPendingFileRecoverable>> segments;
+
+        public NativeWriterInProgressFileRecoverable(String path, long creationTime,
+                                                     Map<String, List<NativeWriterPendingFileRecoverable>> segments) {
+            this.path = path;
+            this.creationTime = creationTime;
+            this.segments = segments;
+        }
+
+        @Override
+        public String toString() {
+            return "InProgressFile(" +
+                    path + ", " + creationTime + ", " + segments + ")";
+        }
+
+        @Nullable
+        @Override
+        public Path getPath() {
+            return new Path(path);
+        }
+
+        @Override
+        public long getSize() {
+            return segments.values().stream().flatMap(List::stream)
+                    .mapToLong(NativeWriterPendingFileRecoverable::getSize).sum();
+        }
     }
 
     public static class NativePendingFileRecoverableSerializer
@@ -115,7 +337,7 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
 
         @Override
         public int getVersion() {
-            return 0;
+            return 3;
         }
 
         @Override
@@ -129,6 +351,15 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
                     (NativeParquetWriter.NativeWriterPendingFileRecoverable) obj;
             out.writeUTF(recoverable.path);
             out.writeLong(recoverable.creationTime);
+            byte[] fileStats = recoverable.fileStats.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(fileStats.length);
+            out.write(fileStats);
+            out.writeLong(recoverable.fileSize);
+            out.writeLong(recoverable.numRows);
+            out.writeInt(recoverable.mergedSegments.size());
+            for (String segment : recoverable.mergedSegments) {
+                out.writeUTF(segment);
+            }
             return out.getCopyOfBuffer();
         }
 
@@ -138,7 +369,30 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
             DataInputDeserializer in = new DataInputDeserializer(serialized);
             String path = in.readUTF();
             long time = in.readLong();
-            return new NativeParquetWriter.NativeWriterPendingFileRecoverable(path, time);
+            String fileStats = "";
+            if (version >= 1) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                fileStats = new String(bytes, StandardCharsets.UTF_8);
+            }
+            long fileSize = -1;
+            long numRows = -1;
+            if (version >= 2) {
+                fileSize = in.readLong();
+                numRows = in.readLong();
+            }
+            NativeParquetWriter.NativeWriterPendingFileRecoverable recoverable =
+                    new NativeParquetWriter.NativeWriterPendingFileRecoverable(path, time, fileStats, fileSize,
+                            numRows);
+            if (version >= 3) {
+                int segmentNum = in.readInt();
+                List<String> mergedSegments = new ArrayList<>(segmentNum);
+                for (int i = 0; i < segmentNum; i++) {
+                    mergedSegments.add(in.readUTF());
+                }
+                recoverable.mergedSegments = mergedSegments;
+            }
+            return recoverable;
         }
     }
 
@@ -147,15 +401,44 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
 
         public long creationTime;
 
+        // encoded DataFileStats of this file, empty if not collected by the writer
+        public String fileStats;
+
+        // size in bytes and row count reported by native writer at flush, -1 if unknown
+        public long fileSize;
+
+        public long numRows;
+
+        // staged segments concatenated into this file, to be deleted once it is committed
+        public List<String> mergedSegments = Collections.emptyList();
+
         public NativeWriterPendingFileRecoverable(String path, long creationTime) {
+            this(path, creationTime, "");
+        }
+
+        public NativeWriterPendingFileRecoverable(String path, long creationTime, String fileStats) {
+            this(path, creationTime, fileStats, -1, -1);
+        }
+
+        public NativeWriterPendingFileRecoverable(String path, long creationTime, String fileStats, long fileSize,
+                                                  long numRows) {
             this.path = path;
             this.creationTime = creationTime;
+            this.fileStats = fileStats;
+            this.fileSize = fileSize;
+            this.numRows = numRows;
+        }
+
+        public static NativeWriterPendingFileRecoverable fromFlushResult(NativeIOWriter.FlushResult flushResult,
+                                                                         long creationTime) {
+            return new NativeWriterPendingFileRecoverable(flushResult.getFilePath(), creationTime,
+                    flushResult.getFileStats(), flushResult.getFileSize(), flushResult.getFileRowCount());
         }
 
         @Override
         public String toString() {
             return "PendingFile(" +
-                    path + ", " + creationTime + ")";
+                    path + ", " + creationTime + ", " + fileSize + ")";
         }
 
         @Nullable
@@ -166,7 +449,7 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
 
         @Override
         public long getSize() {
-            return 0;
+            return Math.max(fileSize, 0);
         }
 
         @Override
@@ -177,9 +460,33 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
 
     @Override
     public PendingFileRecoverable closeForCommit() throws IOException {
+        NativeWriterPendingFileRecoverable lastSegment = closeNativeWriter();
+        if (segments.isEmpty()) {
+            return lastSegment;
+        }
+        List<String> inputs = new ArrayList<>(segments.size() + 1);
+        for (NativeWriterPendingFileRecoverable segment : segments) {
+            inputs.add(segment.path);
+        }
+        inputs.add(lastSegment.path);
+        long start = System.currentTimeMillis();
+        NativeIOWriter.FlushResult result = concatFiles(rowType, inputs, this.path.toString(), conf);
+        LOG.info("Concatenated {} segments into part file {} for {}ms", inputs.size(), path,
+                System.currentTimeMillis() - start);
+        segments.clear();
+        NativeWriterPendingFileRecoverable recoverable = new NativeWriterPendingFileRecoverable(this.path.toString(),
+                this.creationTime, result.getFileStats(), result.getFileSize(), result.getFileRowCount());
+        recoverable.mergedSegments = inputs;
+        return recoverable;
+    }
+
+    /**
+     * Writes remaining rows and closes current native writer, returns the file it has written.
+     */
+    private NativeWriterPendingFileRecoverable closeNativeWriter() throws IOException {
         this.arrowWriter.finish();
         this.nativeWriter.write(this.batch);
-        this.nativeWriter.flush();
+        HashMap<String, List<NativeIOWriter.FlushResult>> flushResults = this.nativeWriter.flushWithResult();
         this.arrowWriter.reset();
         this.rowsInBatch = 0;
         this.batch.clear();
@@ -190,7 +497,20 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
-        return new NativeWriterPendingFileRecoverable(this.path.toString(), this.creationTime);
+        String fileStats = "";
+        long fileSize = -1;
+        long numRows = -1;
+        if (flushResults != null) {
+            for (List<NativeIOWriter.FlushResult> results : flushResults.values()) {
+                for (NativeIOWriter.FlushResult result : results) {
+                    fileStats = result.getFileStats();
+                    fileSize = result.getFileSize();
+                    numRows = result.getFileRowCount();
+                }
+            }
+        }
+        return new NativeWriterPendingFileRecoverable(this.segmentPath.toString(), this.creationTime, fileStats,
+                fileSize, numRows);
     }
 
     @Override
@@ -233,6 +553,7 @@ public class NativeParquetWriter implements InProgressFileWriter<RowData, String
                 ", rowsInBatch=" + rowsInBatch +
                 ", lastUpdateTime=" + lastUpdateTime +
                 ", path=" + path +
+                ", segments=" + segments.size() +
                 ", totalRows=" + totalRows +
                 '}';
     }
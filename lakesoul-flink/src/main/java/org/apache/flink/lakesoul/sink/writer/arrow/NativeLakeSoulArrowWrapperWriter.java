@@ -117,13 +117,15 @@ public class NativeLakeSoulArrowWrapperWriter implements InProgressFileWriter<La
     public Map<String, List<PendingFileRecoverable>> closeForCommitWithRecoverableMap() throws IOException {
         Map<String, List<PendingFileRecoverable>> recoverableMap = new HashMap<>();
 
-        HashMap<String, List<String>> partitionDescAndFilesMap = this.nativeWriter.flush();
-        for (Map.Entry<String, List<String>> entry : partitionDescAndFilesMap.entrySet()) {
+        HashMap<String, List<NativeIOWriter.FlushResult>> partitionDescAndFilesMap =
+                this.nativeWriter.flushWithResult();
+        for (Map.Entry<String, List<NativeIOWriter.FlushResult>> entry : partitionDescAndFilesMap.entrySet()) {
             recoverableMap.put(
                     entry.getKey(),
                     entry.getValue()
                             .stream()
-                            .map(path -> new NativeParquetWriter.NativeWriterPendingFileRecoverable(path, creationTime))
+                            .map(result -> NativeParquetWriter.NativeWriterPendingFileRecoverable
+                                    .fromFlushResult(result, creationTime))
                             .collect(Collectors.toList())
             );
         }
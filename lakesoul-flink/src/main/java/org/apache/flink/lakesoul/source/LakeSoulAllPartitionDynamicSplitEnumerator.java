@@ -9,6 +9,7 @@ import com.dmetasoul.lakesoul.meta.DataFileInfo;
 import com.dmetasoul.lakesoul.meta.DataOperation;
 import com.dmetasoul.lakesoul.meta.LakeSoulOptions;
 import com.dmetasoul.lakesoul.meta.MetaVersion;
+import com.dmetasoul.lakesoul.meta.PartitionChangeListener;
 import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
 import com.dmetasoul.lakesoul.meta.entity.TableInfo;
 import io.substrait.proto.Plan;
@@ -29,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerator<LakeSoulPartitionSplit, LakeSoulPendingSplits> {
@@ -39,6 +41,7 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
     private final LakeSoulDynSplitAssigner splitAssigner;
     private final long discoveryInterval;
     private final Map<String, Long> partitionLatestTimestamp;
+    private final Map<String, Integer> partitionLatestVersion;
     private final Set<Integer> taskIdsAwaitingSplit;
     private final Plan partitionFilters;
     private final List<String> partitionColumns;
@@ -47,6 +50,17 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
     private long startTime;
     private long nextStartTime;
     private int hashBucketNum = -1;
+    private final boolean incrementalDiscovery;
+    private final boolean listenChanges;
+    // partition versions are stamped at transaction start, so a version committed after the last poll may carry an
+    // older timestamp than the ones already seen. Incremental discovery looks back this long, and lists all
+    // partitions once per this period to catch versions of transactions running even longer.
+    private final long changeLookback;
+    // latest partition version timestamp seen, -1 before the first poll
+    private long lastDiscoveredTimestamp = -1;
+    private long lastFullDiscoveryTime = -1;
+    private final AtomicBoolean discoveryScheduled = new AtomicBoolean(false);
+    private PartitionChangeListener changeListener;
 
     protected Schema partitionArrowSchema;
 
@@ -58,7 +72,10 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
                                                       String tableId,
                                                       String hashBucketNum,
                                                       List<String> partitionColumns,
-                                                      Plan partitionFilters) {
+                                                      Plan partitionFilters,
+                                                      boolean incrementalDiscovery,
+                                                      boolean listenChanges,
+                                                      long changeLookback) {
         this.context = context;
         this.splitAssigner = splitAssigner;
         this.discoveryInterval = discoveryInterval;
@@ -67,6 +84,7 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
         this.hashBucketNum = Integer.parseInt(hashBucketNum);
         this.taskIdsAwaitingSplit = Sets.newConcurrentHashSet();
         this.partitionLatestTimestamp = Maps.newConcurrentMap();
+        this.partitionLatestVersion = Maps.newConcurrentMap();
         this.partitionColumns = partitionColumns;
 
         Schema tableSchema = ArrowUtils.toArrowSchema(rowType);
@@ -74,6 +92,9 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
 
         this.partitionArrowSchema = new Schema(partitionFields);
         this.partitionFilters = partitionFilters;
+        this.incrementalDiscovery = incrementalDiscovery;
+        this.listenChanges = listenChanges;
+        this.changeLookback = changeLookback;
         tableInfo = DataOperation.dbManager().getTableInfoByTableId(tableId);
     }
 
@@ -81,6 +102,23 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
     public void start() {
         context.callAsync(this::enumerateSplits, this::processDiscoveredSplits, discoveryInterval,
                 discoveryInterval);
+        if (incrementalDiscovery && listenChanges) {
+            // the listener thread only hands the notification over, discovery is scheduled from the coordinator thread
+            changeListener = new PartitionChangeListener(tableId,
+                    () -> context.runInCoordinatorThread(this::requestDiscovery));
+            changeListener.start();
+        }
+    }
+
+    // discover right away when a change of the table is notified instead of waiting for the next interval. Runs in
+    // the coordinator thread, notifications arriving while a discovery is pending are merged into it.
+    private void requestDiscovery() {
+        if (discoveryScheduled.compareAndSet(false, true)) {
+            context.callAsync(() -> {
+                discoveryScheduled.set(false);
+                return enumerateSplits();
+            }, this::processDiscoveredSplits);
+        }
     }
 
     @Override
@@ -121,7 +159,9 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
 
     @Override
     public void close() throws IOException {
-
+        if (changeListener != null) {
+            changeListener.close();
+        }
     }
 
     private void processDiscoveredSplits(Collection<LakeSoulPartitionSplit> splits, Throwable error) {
@@ -141,9 +181,21 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
         }
     }
 
-    public Collection<LakeSoulPartitionSplit> enumerateSplits() {
-        List<PartitionInfo> allPartitionInfo = MetaVersion.getAllPartitionInfo(tableId);
-        LOG.info("allPartitionInfo={}", allPartitionInfo);
+    public synchronized Collection<LakeSoulPartitionSplit> enumerateSplits() {
+        List<PartitionInfo> allPartitionInfo;
+        long now = System.currentTimeMillis();
+        if (incrementalDiscovery && lastDiscoveredTimestamp >= 0 && now - lastFullDiscoveryTime < changeLookback) {
+            allPartitionInfo = MetaVersion.getPartitionsChangedSince(tableId,
+                    lastDiscoveredTimestamp - changeLookback);
+            LOG.info("changedPartitionInfo={}", allPartitionInfo);
+        } else {
+            allPartitionInfo = MetaVersion.getAllPartitionInfo(tableId);
+            lastFullDiscoveryTime = now;
+            LOG.info("allPartitionInfo={}", allPartitionInfo);
+        }
+        for (PartitionInfo partitionInfo : allPartitionInfo) {
+            lastDiscoveredTimestamp = Math.max(lastDiscoveredTimestamp, partitionInfo.getTimestamp());
+        }
         List<PartitionInfo> filteredPartition = SubstraitUtil.applyPartitionFilters(allPartitionInfo, partitionArrowSchema, partitionFilters);
         LOG.info("filteredPartition={}, filter={}", filteredPartition, partitionFilters);
 
@@ -153,10 +205,15 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
             String partitionDesc = partitionInfo.getPartitionDesc();
             long latestTimestamp = partitionInfo.getTimestamp() + 1;
             this.nextStartTime = Math.max(latestTimestamp, this.nextStartTime);
+            Integer lastVersion = partitionLatestVersion.get(partitionDesc);
+            if (lastVersion != null && lastVersion >= partitionInfo.getVersion()) {
+                // no new version of this partition since last poll
+                continue;
+            }
+            Long lastTimestamp = partitionLatestTimestamp.get(partitionDesc);
 
             DataFileInfo[] dataFileInfos;
-            if (partitionLatestTimestamp.containsKey(partitionDesc)) {
-                Long lastTimestamp = partitionLatestTimestamp.get(partitionDesc);
+            if (lastTimestamp != null) {
                 LOG.info("getIncrementalPartitionDataInfo, startTime={}, endTime={}", lastTimestamp, latestTimestamp);
                 dataFileInfos =
                         DataOperation.getIncrementalPartitionDataInfo(tableId, partitionDesc, lastTimestamp, latestTimestamp, "incremental");
@@ -173,7 +230,9 @@ public class LakeSoulAllPartitionDynamicSplitEnumerator implements SplitEnumerat
                     }
                 }
             }
-            partitionLatestTimestamp.put(partitionDesc, latestTimestamp);
+            partitionLatestTimestamp.put(partitionDesc,
+                    lastTimestamp == null ? latestTimestamp : Math.max(lastTimestamp, latestTimestamp));
+            partitionLatestVersion.put(partitionDesc, partitionInfo.getVersion());
         }
         LOG.info("partitionLatestTimestamp={}", partitionLatestTimestamp);
 
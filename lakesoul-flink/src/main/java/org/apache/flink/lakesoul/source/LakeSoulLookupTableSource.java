@@ -4,8 +4,12 @@
 
 package org.apache.flink.lakesoul.source;
 
+import com.dmetasoul.lakesoul.meta.BucketingUtils;
 import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DBUtil;
 import com.dmetasoul.lakesoul.meta.DataOperation;
+import com.dmetasoul.lakesoul.meta.LakeSoulOptions;
+import com.dmetasoul.lakesoul.meta.entity.CommitOp;
 import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
 import com.dmetasoul.lakesoul.meta.entity.TableInfo;
 import org.apache.flink.configuration.Configuration;
@@ -15,9 +19,12 @@ import org.apache.flink.core.fs.Path;
 import org.apache.flink.lakesoul.connector.LakeSoulPartition;
 import org.apache.flink.lakesoul.connector.LakeSoulPartitionFetcherContextBase;
 import org.apache.flink.lakesoul.connector.LakeSoulPartitionReader;
+import org.apache.flink.lakesoul.table.LakeSoulLookupBucketSelector;
+import org.apache.flink.lakesoul.table.LakeSoulLookupDeltaFetcher;
 import org.apache.flink.lakesoul.table.LakeSoulTableLookupFunction;
 import org.apache.flink.lakesoul.table.LakeSoulTableSource;
 import org.apache.flink.lakesoul.tool.FlinkUtil;
+import org.apache.flink.lakesoul.tool.LakeSoulKeyGen;
 import org.apache.flink.lakesoul.types.TableId;
 import org.apache.flink.table.catalog.ResolvedCatalogTable;
 import org.apache.flink.table.connector.source.DynamicTableSource;
@@ -26,22 +33,41 @@ import org.apache.flink.table.connector.source.TableFunctionProvider;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.table.functions.TableFunction;
 import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.util.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import scala.Option;
 
+import javax.annotation.Nullable;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static com.dmetasoul.lakesoul.meta.DBConfig.LAKESOUL_FILE_EXISTS_COLUMN_SPLITTER;
 import static com.dmetasoul.lakesoul.meta.DBConfig.LAKESOUL_RANGE_PARTITION_SPLITTER;
 import static org.apache.flink.lakesoul.tool.JobOptions.*;
 
 public class LakeSoulLookupTableSource extends LakeSoulTableSource implements LookupTableSource {
 
+    private static final Logger LOG = LoggerFactory.getLogger(LakeSoulLookupTableSource.class);
+
+    // primary key types hashed by LakeSoulKeyGen the same way as the native writer buckets data files
+    private static final Set<LogicalTypeRoot> BUCKET_HASH_TYPES = EnumSet.of(LogicalTypeRoot.VARCHAR,
+            LogicalTypeRoot.INTEGER, LogicalTypeRoot.BIGINT, LogicalTypeRoot.SMALLINT, LogicalTypeRoot.FLOAT,
+            LogicalTypeRoot.DOUBLE, LogicalTypeRoot.DATE, LogicalTypeRoot.BOOLEAN);
+
     private final Configuration configuration;
     protected DataType producedDataType;
     protected ResolvedCatalogTable catalogTable;
@@ -189,12 +215,83 @@ public class LakeSoulLookupTableSource extends LakeSoulTableSource implements Lo
                         readFields(),
                         this.pkColumns);
 
+        int[] primaryKeys = getPrimaryKeyIndices();
+        LakeSoulLookupDeltaFetcher<LakeSoulPartition> deltaFetcher = null;
+        // with only the latest partitions cached, the set of cached partitions changes over time
+        boolean readingLatestPartitions = !catalogTable.getPartitionKeys().isEmpty() && isStreamingSource() &&
+                isReadingLatest();
+        if (primaryKeys != null && !readingLatestPartitions &&
+                configuration.get(LOOKUP_JOIN_CACHE_INCREMENTAL_REFRESH)) {
+            deltaFetcher = new LakeSoulTableDeltaFetcher(tableId, catalogTable.getPartitionKeys());
+        }
+
+        long offHeapCacheBytes = configuration.get(LOOKUP_JOIN_CACHE_OFF_HEAP) ?
+                configuration.get(LOOKUP_JOIN_CACHE_MAX_BYTES).getBytes() : 0;
+
+        LakeSoulLookupBucketSelector<LakeSoulPartition> bucketSelector = null;
+        if (configuration.get(LOOKUP_JOIN_CACHE_PARTIAL_BUCKET_LOAD)) {
+            bucketSelector = createBucketSelector(keys, primaryKeys);
+        }
+
         return new LakeSoulTableLookupFunction<>(partitionFetcher,
                 fetcherContext,
                 partitionReader,
                 readFields(),
                 keys,
-                lakeSoulTableReloadInterval);
+                lakeSoulTableReloadInterval,
+                offHeapCacheBytes,
+                primaryKeys,
+                deltaFetcher,
+                bucketSelector);
+    }
+
+    /**
+     * Bucket selector of the lookup keys, null if buckets could not be derived from them, in which case the whole table
+     * is cached.
+     */
+    private LakeSoulTableBucketSelector createBucketSelector(int[] keys, int[] primaryKeys) {
+        int hashBucketNum = Integer.parseInt(configuration.getString(LakeSoulOptions.HASH_BUCKET_NUM(), "-1"));
+        int[] sortedKeys = keys.clone();
+        int[] sortedPrimaryKeys = primaryKeys == null ? null : primaryKeys.clone();
+        if (sortedPrimaryKeys != null) {
+            Arrays.sort(sortedKeys);
+            Arrays.sort(sortedPrimaryKeys);
+        }
+        if (hashBucketNum <= 0 || !Arrays.equals(sortedKeys, sortedPrimaryKeys)) {
+            LOG.warn("Lookup keys of table {} are not its hash bucket keys, '{}' is ignored", tableId,
+                    LOOKUP_JOIN_CACHE_PARTIAL_BUCKET_LOAD.key());
+            return null;
+        }
+        RowType readFields = readFields();
+        LogicalType[] keyTypes = new LogicalType[keys.length];
+        String[] keyNames = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            keyTypes[i] = readFields.getTypeAt(keys[i]);
+            keyNames[i] = readFields.getFieldNames().get(keys[i]);
+            if (!BUCKET_HASH_TYPES.contains(keyTypes[i].getTypeRoot())) {
+                LOG.warn("Hash bucket of primary key type {} of table {} is not supported, '{}' is ignored",
+                        keyTypes[i], tableId, LOOKUP_JOIN_CACHE_PARTIAL_BUCKET_LOAD.key());
+                return null;
+            }
+        }
+        // rows are hashed by primary keys in the order of the table definition
+        LakeSoulKeyGen keyGen = new LakeSoulKeyGen(RowType.of(keyTypes, keyNames), pkColumns.toArray(new String[0]));
+        return new LakeSoulTableBucketSelector(keyGen, hashBucketNum);
+    }
+
+    /**
+     * Positions of primary key columns in the read fields, null if the table has no primary keys or they are not all
+     * read.
+     */
+    private int[] getPrimaryKeyIndices() {
+        if (pkColumns.isEmpty()) return null;
+        RowType readFields = readFields();
+        int[] primaryKeys = new int[pkColumns.size()];
+        for (int i = 0; i < pkColumns.size(); i++) {
+            primaryKeys[i] = readFields.getFieldIndex(pkColumns.get(i));
+            if (primaryKeys[i] < 0) return null;
+        }
+        return primaryKeys;
     }
 
     protected List<String> getPartitionKeys() {
@@ -240,6 +337,10 @@ public class LakeSoulLookupTableSource extends LakeSoulTableSource implements Lo
         newInstance.pushedFilters = this.pushedFilters;
         newInstance.modificationContext = this.modificationContext;
         newInstance.partitionFilters = this.partitionFilters;
+        newInstance.limit = this.limit;
+        newInstance.aggregatedRows = this.aggregatedRows;
+        newInstance.aggregatedRowType = this.aggregatedRowType;
+        newInstance.dynamicFilterFields = this.dynamicFilterFields;
         return newInstance;
     }
 
@@ -251,6 +352,156 @@ public class LakeSoulLookupTableSource extends LakeSoulTableSource implements Lo
         return null;
     }
 
+    /**
+     * {@link LakeSoulLookupDeltaFetcher} of all partitions of a primary key table, which tracks the loaded version of
+     * each partition and fetches the files committed after it.
+     */
+    static class LakeSoulTableDeltaFetcher implements LakeSoulLookupDeltaFetcher<LakeSoulPartition> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TableId tableId;
+
+        private final List<String> partitionKeys;
+
+        private transient String tableInfoId;
+
+        private transient Map<String, PartitionInfo> loadedPartitions;
+
+        public LakeSoulTableDeltaFetcher(TableId tableId, List<String> partitionKeys) {
+            this.tableId = tableId;
+            this.partitionKeys = partitionKeys;
+        }
+
+        @Override
+        public void markLoaded() {
+            loadedPartitions = latestPartitions();
+        }
+
+        @Override
+        public List<LakeSoulPartition> fetchDelta() {
+            if (loadedPartitions == null) return null;
+            Map<String, PartitionInfo> latestPartitions = latestPartitions();
+            if (!latestPartitions.keySet().containsAll(loadedPartitions.keySet())) {
+                return null;
+            }
+            List<LakeSoulPartition> delta = new ArrayList<>();
+            for (PartitionInfo partitionInfo : latestPartitions.values()) {
+                String partitionDesc = partitionInfo.getPartitionDesc();
+                PartitionInfo loaded = loadedPartitions.get(partitionDesc);
+                // files of the whole partition are read if it is new
+                long startTimestamp = 0;
+                if (loaded != null) {
+                    if (loaded.getVersion() == partitionInfo.getVersion()) continue;
+                    List<PartitionInfo> versions = DataOperation.dbManager().getIncrementalPartitions(tableInfoId,
+                            partitionDesc, loaded.getVersion() + 1, partitionInfo.getVersion());
+                    for (PartitionInfo version : versions) {
+                        if (version.getCommitOp() == CommitOp.UpdateCommit ||
+                                version.getCommitOp() == CommitOp.DeleteCommit) {
+                            return null;
+                        }
+                    }
+                    startTimestamp = loaded.getTimestamp();
+                }
+                DataFileInfo[] dataFileInfos = DataOperation.getIncrementalPartitionDataInfo(tableInfoId,
+                        partitionDesc, startTimestamp, partitionInfo.getTimestamp() + 1,
+                        LakeSoulOptions.ReadType$.MODULE$.INCREMENTAL_READ());
+                if (dataFileInfos.length == 0) continue;
+                List<String> partValues = new ArrayList<>();
+                if (!partitionKeys.isEmpty()) {
+                    Map<String, String> descMap = DBUtil.parsePartitionDesc(partitionDesc);
+                    for (String key : partitionKeys) partValues.add(descMap.get(key));
+                }
+                // consecutive files of the same columns are read together, so that columns missing from some of the
+                // commits could be merged with the cached rows in commit order
+                int start = 0;
+                for (int i = 1; i <= dataFileInfos.length; i++) {
+                    if (i < dataFileInfos.length &&
+                            dataFileInfos[i].file_exist_cols().equals(dataFileInfos[start].file_exist_cols())) {
+                        continue;
+                    }
+                    List<Path> paths = new ArrayList<>();
+                    for (int j = start; j < i; j++) paths.add(new Path(dataFileInfos[j].path()));
+                    delta.add(new LakeSoulPartition(paths, partitionKeys, partValues,
+                            existColumns(dataFileInfos[start].file_exist_cols())));
+                    start = i;
+                }
+            }
+            loadedPartitions = latestPartitions;
+            return delta;
+        }
+
+        @Override
+        public Collection<String> existColumns(LakeSoulPartition partition) {
+            return partition.getExistColumns();
+        }
+
+        @Nullable
+        private List<String> existColumns(String fileExistCols) {
+            if (fileExistCols.isEmpty()) return null;
+            List<String> columns =
+                    new ArrayList<>(Arrays.asList(fileExistCols.split(LAKESOUL_FILE_EXISTS_COLUMN_SPLITTER)));
+            // values of partition columns are taken from the partition desc
+            columns.addAll(partitionKeys);
+            return columns;
+        }
+
+        private Map<String, PartitionInfo> latestPartitions() {
+            if (tableInfoId == null) {
+                tableInfoId = DataOperation.dbManager().getTableInfoByNameAndNamespace(tableId.table(),
+                        tableId.schema()).getTableId();
+            }
+            Map<String, PartitionInfo> partitions = new HashMap<>();
+            for (PartitionInfo partitionInfo : DataOperation.dbManager().getAllPartitionInfo(tableInfoId)) {
+                partitions.put(partitionInfo.getPartitionDesc(), partitionInfo);
+            }
+            return partitions;
+        }
+    }
+
+    /**
+     * {@link LakeSoulLookupBucketSelector} of a primary key table, which selects data files by the bucket id in their
+     * names.
+     */
+    static class LakeSoulTableBucketSelector implements LakeSoulLookupBucketSelector<LakeSoulPartition> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final LakeSoulKeyGen keyGen;
+
+        private final int hashBucketNum;
+
+        public LakeSoulTableBucketSelector(LakeSoulKeyGen keyGen, int hashBucketNum) {
+            this.keyGen = keyGen;
+            this.hashBucketNum = hashBucketNum;
+        }
+
+        @Override
+        public int getBucket(RowData lookupKey) {
+            return LakeSoulKeyGen.getBucketId(keyGen.getRePartitionHash(lookupKey), hashBucketNum);
+        }
+
+        @Override
+        public List<LakeSoulPartition> selectBuckets(List<LakeSoulPartition> partitions, Set<Integer> buckets) {
+            List<LakeSoulPartition> selected = new ArrayList<>();
+            for (LakeSoulPartition partition : partitions) {
+                List<Path> paths = new ArrayList<>();
+                for (Path path : partition.getPaths()) {
+                    Option<Object> bucketId = BucketingUtils.getBucketId(path.getName());
+                    // files not written by buckets could hold rows of any bucket
+                    if (bucketId.isEmpty() || buckets.contains((Integer) bucketId.get())) {
+                        paths.add(path);
+                    }
+                }
+                if (!paths.isEmpty()) {
+                    selected.add(new LakeSoulPartition(paths, partition.getPartitionKeys(),
+                            partition.getPartitionValues(), partition.getExistColumns()));
+                }
+            }
+            return selected;
+        }
+    }
+
     /**
      * PartitionFetcher.Context for {@link LakeSoulPartition}.
      */
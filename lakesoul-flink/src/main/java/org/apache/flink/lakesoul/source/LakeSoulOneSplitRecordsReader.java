@@ -8,7 +8,8 @@ import com.dmetasoul.lakesoul.LakeSoulArrowReader;
 import com.dmetasoul.lakesoul.lakesoul.io.NativeIOReader;
 import com.dmetasoul.lakesoul.meta.DBUtil;
 import io.substrait.proto.Plan;
-import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -16,18 +17,20 @@ import org.apache.flink.configuration.Configuration;
 import org.apache.flink.connector.base.source.reader.RecordsWithSplitIds;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.lakesoul.tool.FlinkUtil;
+import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
 import org.apache.flink.table.data.RowData;
-import org.apache.flink.table.data.StringData;
-import org.apache.flink.table.runtime.arrow.ArrowReader;
+import org.apache.flink.table.data.columnar.ColumnarRowData;
+import org.apache.flink.table.data.columnar.vector.ColumnVector;
+import org.apache.flink.table.data.columnar.vector.VectorizedColumnBatch;
 import org.apache.flink.table.runtime.arrow.ArrowUtils;
 import org.apache.flink.table.types.logical.RowType;
-import org.apache.flink.table.types.logical.VarCharType;
 import org.apache.flink.types.RowKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -35,6 +38,12 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
 
     private static final Logger LOG = LoggerFactory.getLogger(LakeSoulOneSplitRecordsReader.class);
 
+    private static final byte[] CDC_INSERT = LakeSoulSinkOptions.INSERT.getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CDC_UPDATE = LakeSoulSinkOptions.UPDATE.getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] CDC_DELETE = LakeSoulSinkOptions.DELETE.getBytes(StandardCharsets.UTF_8);
+
     private final LakeSoulPartitionSplit split;
 
     private final Configuration conf;
@@ -47,6 +56,9 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
 
     private final long skipRecords;
 
+    // whether native reader starts from skipRecords by itself
+    private boolean seekToSkipRecords = false;
+
     private final Set<String> finishedSplit;
     private final List<String> partitionColumns;
     private final RowType tableRowType;
@@ -60,7 +72,8 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
 
     String cdcColumn;
 
-    RowData.FieldGetter cdcFieldGetter;
+    // index of cdc column in native reader's schema, -1 if there is no cdc column
+    private int cdcFieldIndex = -1;
 
     private String splitId;
 
@@ -71,14 +84,21 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
     // record index in current arrow batch (currentVCR)
     private int curRecordIdx = 0;
 
-    // arrow batch -> row, returned by native reader
-    private ArrowReader curArrowReader;
+    // row over vectors of the requested columns of current arrow batch, reused for all rows of the batch
+    private ColumnarRowData currentRow;
 
-    // arrow batch -> row, with requested schema
-    private ArrowReader curArrowReaderRequestedSchema;
+    // cdc column of current arrow batch, null if there is no cdc column
+    @Nullable
+    private BaseVariableWidthVector currentCdcVector;
 
     private final Plan filter;
 
+    // max number of rows to return from this split, unlimited if null
+    @Nullable
+    private final Long limit;
+
+    private long returnedRows = 0;
+
     public LakeSoulOneSplitRecordsReader(Configuration conf,
                                          LakeSoulPartitionSplit split,
                                          RowType tableRowType,
@@ -88,7 +108,8 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
                                          boolean isBounded,
                                          String cdcColumn,
                                          List<String> partitionColumns,
-                                         Plan filter)
+                                         Plan filter,
+                                         @Nullable Long limit)
             throws Exception {
         this.split = split;
         this.skipRecords = split.getSkipRecord();
@@ -108,6 +129,7 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
         this.partitionSchema = new Schema(partitionFields);
         this.partitionValues = DBUtil.parsePartitionDesc(split.getPartitionDesc());
         this.filter = filter;
+        this.limit = limit;
         initializeReader();
         recoverFromSkipRecord();
     }
@@ -130,8 +152,7 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
         reader.setPartitionSchema(partitionSchema);
 
         if (!cdcColumn.isEmpty()) {
-            int cdcField = projectedRowTypeWithPk.getFieldIndex(cdcColumn);
-            cdcFieldGetter = RowData.createFieldGetter(new VarCharType(), cdcField);
+            cdcFieldIndex = projectedRowTypeWithPk.getFieldIndex(cdcColumn);
         }
 
         for (Map.Entry<String, String> partition : this.partitionValues.entrySet()) {
@@ -142,6 +163,23 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
             reader.addFilterProto(this.filter);
         }
 
+        if (split.hasRange()) {
+            reader.setFileRange(split.getRangeStart(), split.getRangeEnd());
+        }
+
+        // without primary key merging and filtering, rows are read as stored, so native reader could locate the
+        // position to recover from by file metadata instead of reading and discarding all rows before it
+        if (skipRecords > 0 && pkColumns.isEmpty() && filter == null) {
+            reader.setSkipRows(skipRecords);
+            seekToSkipRecords = true;
+        }
+
+        // rows of cdc deletes are dropped after reading, so native reader could not stop at the limit by itself.
+        // Rows skipped by seeking are not returned by native reader, while skipped rows replayed here are.
+        if (limit != null && cdcColumn.isEmpty()) {
+            reader.setLimit(seekToSkipRecords ? limit : skipRecords + limit);
+        }
+
         LOG.info("Initializing reader for split {}, pk={}, partitions={}," +
                         " actual read cols={}, cdc column={}, filter={}",
                 split,
@@ -151,28 +189,58 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
                 cdcColumn,
                 filter);
         reader.initializeReader();
-        this.reader = new LakeSoulArrowReader(reader,
-                10000);
+        this.reader = new LakeSoulArrowReader(reader);
+    }
+
+    // final returned row should only contain requested schema in query, which does not include cdc column
+    // and may not include pk columns. Only vectors of requested columns are wrapped, and the cdc column is
+    // read from its arrow buffers directly.
+    private void makeCurrentRow() {
+        ColumnVector[] columns = new ColumnVector[projectedRowType.getFieldCount()];
+        for (int i = 0; i < columns.length; i++) {
+            int index = projectedRowTypeWithPk.getFieldIndex(projectedRowType.getFieldNames().get(i));
+            columns[i] = ArrowUtils.createColumnVector(currentVCR.getVector(index), projectedRowType.getTypeAt(i));
+        }
+        this.currentRow = new ColumnarRowData(new VectorizedColumnBatch(columns));
+        this.currentCdcVector =
+                cdcFieldIndex < 0 ? null : (BaseVariableWidthVector) currentVCR.getVector(cdcFieldIndex);
+    }
+
+    // row kind by cdc operation of the row, null if the operation is unknown
+    @Nullable
+    private RowKind cdcRowKind(int rowId) {
+        if (currentCdcVector.isNull(rowId)) {
+            return null;
+        }
+        if (cdcOperationEquals(rowId, CDC_INSERT)) {
+            return RowKind.INSERT;
+        }
+        if (cdcOperationEquals(rowId, CDC_UPDATE)) {
+            return RowKind.UPDATE_AFTER;
+        }
+        if (cdcOperationEquals(rowId, CDC_DELETE)) {
+            return RowKind.DELETE;
+        }
+        return null;
     }
 
-    // final returned row should only contain requested schema in query
-    private void makeCurrentArrowReader() {
-        this.curArrowReader = ArrowUtils.createArrowReader(currentVCR,
-                this.projectedRowTypeWithPk);
-        // this.schema contains only requested fields, which does not include cdc column
-        // and may not include pk columns
-        ArrayList<FieldVector> requestedVectors = new ArrayList<>();
-        for (String fieldName : projectedRowType.getFieldNames()) {
-            int index = projectedRowTypeWithPk.getFieldIndex(fieldName);
-            requestedVectors.add(currentVCR.getVector(index));
+    private boolean cdcOperationEquals(int rowId, byte[] operation) {
+        int start = currentCdcVector.getStartOffset(rowId);
+        if (currentCdcVector.getEndOffset(rowId) - start != operation.length) {
+            return false;
+        }
+        ArrowBuf data = currentCdcVector.getDataBuffer();
+        for (int i = 0; i < operation.length; i++) {
+            if (data.getByte(start + i) != operation[i]) {
+                return false;
+            }
         }
-        this.curArrowReaderRequestedSchema =
-                ArrowUtils.createArrowReader(new VectorSchemaRoot(requestedVectors), projectedRowType);
+        return true;
     }
 
     private void recoverFromSkipRecord() throws Exception {
-        LOG.info("Recover from skip record={} for split={}", skipRecords, split);
-        if (skipRecords > 0) {
+        LOG.info("Recover from skip record={} for split={}, seek={}", skipRecords, split, seekToSkipRecords);
+        if (skipRecords > 0 && !seekToSkipRecords) {
             long skipRowCount = 0;
             while (skipRowCount <= skipRecords) {
                 boolean hasNext = this.reader.hasNext();
@@ -200,7 +268,7 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
                 return;
             }
         }
-        makeCurrentArrowReader();
+        makeCurrentRow();
     }
 
     @Nullable
@@ -217,11 +285,15 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
         if (reader == null) {
             return null;
         }
+        if (limit != null && returnedRows >= limit) {
+            LOG.info("Reach limit {} of split {}", limit, split);
+            return null;
+        }
         while (true) {
             if (curRecordIdx >= currentVCR.getRowCount()) {
                 if (this.reader.hasNext()) {
                     this.currentVCR = this.reader.nextResultVectorSchemaRoot();
-                    makeCurrentArrowReader();
+                    makeCurrentRow();
                     curRecordIdx = 0;
                 } else {
                     this.reader.close();
@@ -230,40 +302,25 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
                 }
             }
 
-            RowData rd = null;
+            int rowId = curRecordIdx;
+            curRecordIdx++;
+            // row kind by default is insert
             RowKind rk = RowKind.INSERT;
-            int rowId = 0;
-
-            while (curRecordIdx < currentVCR.getRowCount()) {
-                rowId = curRecordIdx;
-                curRecordIdx++;
-                // row kind by default is insert
-                rd = this.curArrowReader.read(rowId);
-                if (!cdcColumn.isEmpty()) {
-                    if (!this.isBounded) {
-                        // set rowkind according to cdc row kind field value
-                        rk = FlinkUtil.operationToRowKind((StringData) cdcFieldGetter.getFieldOrNull(rd));
-                        LOG.debug("Set RowKind to {}", rk);
-                    } else {
-                        if (FlinkUtil.isCDCDelete((StringData) cdcFieldGetter.getFieldOrNull(rd))) {
-                            // batch read from cdc table should filter delete rows
-                            rd = null;
-                            continue;
-                        }
-                    }
+            if (currentCdcVector != null) {
+                if (!this.isBounded) {
+                    // set rowkind according to cdc row kind field value
+                    rk = cdcRowKind(rowId);
+                } else if (cdcRowKind(rowId) == RowKind.DELETE) {
+                    // batch read from cdc table should filter delete rows
+                    continue;
                 }
-                break;
-            }
-
-            if (rd == null) {
-                continue;
             }
 
             // we have get one valid row, return row with requested schema
-            rd = this.curArrowReaderRequestedSchema.read(rowId);
-            // change rowkind if needed
-            rd.setRowKind(rk);
-            return rd;
+            currentRow.setRowId(rowId);
+            currentRow.setRowKind(rk);
+            returnedRows++;
+            return currentRow;
         }
     }
 
@@ -275,10 +332,8 @@ public class LakeSoulOneSplitRecordsReader implements RecordsWithSplitIds<RowDat
 
     @Override
     public void close() throws Exception {
-        if (this.currentVCR != null) {
-            this.currentVCR.close();
-            this.currentVCR = null;
-        }
+        // the current batch is owned and closed by the arrow reader
+        this.currentVCR = null;
         if (this.reader != null) {
             this.reader.close();
             this.reader = null;
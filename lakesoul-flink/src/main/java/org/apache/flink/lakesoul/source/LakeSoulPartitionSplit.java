@@ -25,6 +25,10 @@ public class LakeSoulPartitionSplit implements SourceSplit, Serializable {
 
     private final String partitionDesc;
 
+    // byte range [rangeStart, rangeEnd) of the single file to read, the whole files if rangeStart is -1
+    private long rangeStart = -1;
+    private long rangeEnd = -1;
+
     public LakeSoulPartitionSplit(String id, List<Path> files, long skipRecord, String partitionDesc) {
         assert id != null;
         this.id = id;
@@ -42,6 +46,13 @@ public class LakeSoulPartitionSplit implements SourceSplit, Serializable {
         this.partitionDesc = partitionDesc;
     }
 
+    public LakeSoulPartitionSplit(String id, List<Path> files, long skipRecord, int bucketId, String partitionDesc,
+                                  long rangeStart, long rangeEnd) {
+        this(id, files, skipRecord, bucketId, partitionDesc);
+        this.rangeStart = rangeStart;
+        this.rangeEnd = rangeEnd;
+    }
+
     @Override
     public String splitId() {
         return id;
@@ -65,7 +76,8 @@ public class LakeSoulPartitionSplit implements SourceSplit, Serializable {
                 "[" +
                 files.stream().map(Object::toString)
                         .collect(Collectors.joining(", ")) +
-                "]";
+                "]" +
+                (hasRange() ? "@[" + rangeStart + ", " + rangeEnd + ")" : "");
     }
 
     public long getSkipRecord() {
@@ -75,4 +87,16 @@ public class LakeSoulPartitionSplit implements SourceSplit, Serializable {
     public int getBucketId() {
         return this.bucketId;
     }
+
+    public boolean hasRange() {
+        return rangeStart >= 0;
+    }
+
+    public long getRangeStart() {
+        return rangeStart;
+    }
+
+    public long getRangeEnd() {
+        return rangeEnd;
+    }
 }
@@ -29,7 +29,9 @@ public class LakeSoulRowDataSource extends LakeSoulSource<RowData> {
                                  Map<String, String> optionParams,
                                  @Nullable List<Map<String, String>> remainingPartitions,
                                  @Nullable Plan pushedFilter,
-                                 @Nullable Plan partitionFilters
+                                 @Nullable Plan partitionFilters,
+                                 @Nullable Long limit,
+                                 @Nullable List<String> dynamicFilterFields
     ) {
         super(tableId,
                 tableRowType,
@@ -41,7 +43,9 @@ public class LakeSoulRowDataSource extends LakeSoulSource<RowData> {
                 optionParams,
                 remainingPartitions,
                 pushedFilter,
-                partitionFilters
+                partitionFilters,
+                limit,
+                dynamicFilterFields
         );
     }
 
@@ -60,7 +64,8 @@ public class LakeSoulRowDataSource extends LakeSoulSource<RowData> {
                         this.isBounded,
                         this.optionParams.getOrDefault(LakeSoulSinkOptions.CDC_CHANGE_COLUMN, ""),
                         this.partitionColumns,
-                        this.pushedFilter),
+                        this.pushedFilter,
+                        this.isBounded ? this.limit : null),
                 new LakeSoulRecordEmitter(),
                 readerContext.getConfiguration(),
                 readerContext);
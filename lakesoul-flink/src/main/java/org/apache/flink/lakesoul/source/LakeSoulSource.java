@@ -4,8 +4,10 @@
 
 package org.apache.flink.lakesoul.source;
 
+import com.dmetasoul.lakesoul.lakesoul.io.substrait.SubstraitStatsFilter;
 import com.dmetasoul.lakesoul.meta.DBUtil;
 import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
 import com.dmetasoul.lakesoul.meta.DataOperation;
 import com.dmetasoul.lakesoul.meta.LakeSoulOptions;
 import com.dmetasoul.lakesoul.meta.entity.TableInfo;
@@ -15,11 +17,16 @@ import org.apache.flink.api.connector.source.Source;
 import org.apache.flink.api.connector.source.SplitEnumerator;
 import org.apache.flink.api.connector.source.SplitEnumeratorContext;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.configuration.Configuration;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.core.io.SimpleVersionedSerializer;
 import org.apache.flink.lakesoul.tool.FlinkUtil;
+import org.apache.flink.lakesoul.tool.JobOptions;
+import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
 import org.apache.flink.lakesoul.types.TableId;
 import org.apache.flink.table.types.logical.RowType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.time.LocalDateTime;
@@ -27,11 +34,20 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.stream.Collectors;
 
 public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartitionSplit, LakeSoulPendingSplits> {
+    private static final Logger LOG = LoggerFactory.getLogger(LakeSoulSource.class);
+
     final TableId tableId;
 
     protected final RowType projectedRowType;
@@ -56,6 +72,14 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
     @Nullable final Plan partitionFilters;
     protected final RowType tableRowType;
 
+    // max number of rows to read in batch mode, unlimited if null
+    @Nullable
+    protected final Long limit;
+
+    // partition columns whose values are sent by the dynamic filtering event, null if not applied
+    @Nullable
+    protected final List<String> dynamicFilterFields;
+
     public LakeSoulSource(TableId tableId,
                           RowType tableRowType,
                           RowType projectedRowType,
@@ -66,7 +90,9 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
                           Map<String, String> optionParams,
                           @Nullable List<Map<String, String>> remainingPartitions,
                           @Nullable Plan pushedFilter,
-                          @Nullable Plan partitionFilters
+                          @Nullable Plan partitionFilters,
+                          @Nullable Long limit,
+                          @Nullable List<String> dynamicFilterFields
     ) {
         this.tableId = tableId;
         this.tableRowType = tableRowType;
@@ -79,6 +105,8 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
         this.remainingPartitions = remainingPartitions;
         this.pushedFilter = pushedFilter;
         this.partitionFilters = partitionFilters;
+        this.limit = limit;
+        this.dynamicFilterFields = dynamicFilterFields;
     }
 
     @Override
@@ -109,7 +137,10 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
                     tableInfo.getTableId(),
                     optionParams.getOrDefault(LakeSoulOptions.HASH_BUCKET_NUM(), "-1"),
                     partitionColumns,
-                    partitionFilters);
+                    partitionFilters,
+                    isIncrementalDiscovery(),
+                    isListenDiscovery(),
+                    getDiscoveryLookback());
 
         } else {
             return staticSplitEnumerator(enumContext,
@@ -128,7 +159,7 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
                 Arrays.asList(optionParams.getOrDefault(LakeSoulOptions.READ_END_TIME(), ""),
                         optionParams.getOrDefault(LakeSoulOptions.TIME_ZONE(), ""));
         List<DataFileInfo> dataFileInfoList;
-        if (readType.equals("") || readType.equals("fullread")) {
+        if (FlinkUtil.isFullRead(optionParams)) {
             dataFileInfoList = Arrays.asList(getTargetDataFileInfo(tableInfo));
         } else {
             dataFileInfoList = new ArrayList<>();
@@ -142,44 +173,159 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
             } else {
                 partDescs.add(partitionDescOpt);
             }
-            for (String desc : partDescs) {
+            if (readType.equals(LakeSoulOptions.ReadType$.MODULE$.SNAPSHOT_READ())) {
+                // resolve snapshots of all partitions at once instead of per partition round trips
                 dataFileInfoList.addAll(
-                        Arrays.asList(DataOperation.getIncrementalPartitionDataInfo(tableInfo.getTableId(),
-                                desc,
-                                convertTimeFormatWithTimeZone(readStartTimestampWithTimeZone),
-                                convertTimeFormatWithTimeZone(readEndTimestampWithTimeZone),
-                                readType)));
+                        Arrays.asList(DataOperation.getSnapshotPartitionsDataInfo(tableInfo.getTableId(),
+                                partDescs,
+                                convertTimeFormatWithTimeZone(readEndTimestampWithTimeZone))));
+            } else {
+                for (String desc : partDescs) {
+                    dataFileInfoList.addAll(
+                            Arrays.asList(DataOperation.getIncrementalPartitionDataInfo(tableInfo.getTableId(),
+                                    desc,
+                                    convertTimeFormatWithTimeZone(readStartTimestampWithTimeZone),
+                                    convertTimeFormatWithTimeZone(readEndTimestampWithTimeZone),
+                                    readType)));
+                }
             }
         }
-        int capacity = 100;
-        ArrayList<LakeSoulPartitionSplit> splits = new ArrayList<>(capacity);
+        dataFileInfoList = pruneDataFileInfo(dataFileInfoList);
+        dataFileInfoList = limitDataFileInfo(dataFileInfoList);
+        // splits with the bytes they read
+        List<Tuple2<LakeSoulPartitionSplit, Long>> sizedSplits;
         if (!FlinkUtil.isExistHashPartition(tableInfo)) {
+            sizedSplits = planSizeAwareSplits(dataFileInfoList);
+        } else {
+            Map<String, Long> fileSizes = new HashMap<>();
             for (DataFileInfo dataFileInfo : dataFileInfoList) {
-                ArrayList<Path> tmp = new ArrayList<>();
-                tmp.add(new Path(dataFileInfo.path()));
-                splits.add(new LakeSoulPartitionSplit(String.valueOf(dataFileInfo.hashCode()),
-                        tmp,
-                        0,
-                        dataFileInfo.range_partitions()));
+                fileSizes.put(new Path(dataFileInfo.path()).toString(), dataFileInfo.size());
             }
-        } else {
+            sizedSplits = new ArrayList<>();
             Map<String, Map<Integer, List<Path>>> splitByRangeAndHashPartition =
                     FlinkUtil.splitDataInfosToRangeAndHashPartition(tableInfo,
                             dataFileInfoList.toArray(new DataFileInfo[0]));
             for (Map.Entry<String, Map<Integer, List<Path>>> entry : splitByRangeAndHashPartition.entrySet()) {
                 for (Map.Entry<Integer, List<Path>> split : entry.getValue().entrySet()) {
-                    splits.add(new LakeSoulPartitionSplit(String.valueOf(split.hashCode()),
+                    long size = split.getValue().stream()
+                            .mapToLong(path -> fileSizes.getOrDefault(path.toString(), 0L))
+                            .sum();
+                    sizedSplits.add(Tuple2.of(new LakeSoulPartitionSplit(String.valueOf(split.hashCode()),
                             split.getValue(),
                             0,
-                            entry.getKey()));
+                            entry.getKey()), size));
                 }
             }
         }
+        // assign largest splits first, so that small ones fill in the gaps at the end instead of a large one
+        // becoming the straggler
+        List<LakeSoulPartitionSplit> splits = sizedSplits.stream()
+                .sorted(Comparator.comparing((Tuple2<LakeSoulPartitionSplit, Long> split) -> split.f1).reversed())
+                .map(split -> split.f0)
+                .collect(Collectors.toList());
         return new LakeSoulStaticSplitEnumerator(enumContext,
-                new LakeSoulSimpleSplitAssigner(splits));
+                new LakeSoulSimpleSplitAssigner(splits),
+                dynamicFilterFields);
     }
 
 
+    /**
+     * Plans splits of about the target size for tables without primary keys, whose files could be read in any
+     * grouping. Small files of a partition are packed into one split, and large files are split into byte ranges
+     * covering the file. The native reader reads the row groups whose first column chunk has its file_offset in the
+     * range, so each row group is read by exactly one split.
+     */
+    private List<Tuple2<LakeSoulPartitionSplit, Long>> planSizeAwareSplits(List<DataFileInfo> dataFileInfoList) {
+        Configuration conf = Configuration.fromMap(optionParams);
+        long targetSize = Math.max(1, conf.get(JobOptions.SOURCE_SPLIT_TARGET_SIZE).getBytes());
+        long openFileCost = conf.get(JobOptions.SOURCE_SPLIT_OPEN_FILE_COST).getBytes();
+        Map<String, List<DataFileInfo>> filesByPartition = dataFileInfoList.stream()
+                .collect(Collectors.groupingBy(DataFileInfo::range_partitions, LinkedHashMap::new,
+                        Collectors.toList()));
+        List<Tuple2<LakeSoulPartitionSplit, Long>> splits = new ArrayList<>();
+        for (Map.Entry<String, List<DataFileInfo>> entry : filesByPartition.entrySet()) {
+            String partitionDesc = entry.getKey();
+            List<Path> packed = new ArrayList<>();
+            long packedSize = 0;
+            for (DataFileInfo dataFileInfo : entry.getValue()) {
+                long size = dataFileInfo.size();
+                if (size > targetSize) {
+                    long numRanges = (size + targetSize - 1) / targetSize;
+                    long rangeSize = (size + numRanges - 1) / numRanges;
+                    for (long start = 0; start < size; start += rangeSize) {
+                        long end = Math.min(size, start + rangeSize);
+                        splits.add(Tuple2.of(new LakeSoulPartitionSplit(dataFileInfo.hashCode() + "-" + start,
+                                Collections.singletonList(new Path(dataFileInfo.path())),
+                                0,
+                                -1,
+                                partitionDesc,
+                                start,
+                                end), end - start));
+                    }
+                    continue;
+                }
+                long cost = Math.max(size, openFileCost);
+                if (!packed.isEmpty() && packedSize + cost > targetSize) {
+                    splits.add(Tuple2.of(
+                            new LakeSoulPartitionSplit(String.valueOf(packed.hashCode()), packed, 0, partitionDesc),
+                            packedSize));
+                    packed = new ArrayList<>();
+                    packedSize = 0;
+                }
+                packed.add(new Path(dataFileInfo.path()));
+                packedSize += cost;
+            }
+            if (!packed.isEmpty()) {
+                splits.add(Tuple2.of(
+                        new LakeSoulPartitionSplit(String.valueOf(packed.hashCode()), packed, 0, partitionDesc),
+                        packedSize));
+            }
+        }
+        LOG.info("Planned {} splits from {} files of table {} with target size {}", splits.size(),
+                dataFileInfoList.size(), tableId, targetSize);
+        return splits;
+    }
+
+    /**
+     * Skip files whose column stats could not match the pushed filter. For tables with primary keys, rows of one key
+     * may be merged across files, so only stats of primary key columns are safe to use.
+     */
+    private List<DataFileInfo> pruneDataFileInfo(List<DataFileInfo> dataFileInfoList) {
+        Set<String> statsColumns = new HashSet<>(pkColumns.isEmpty() ? tableRowType.getFieldNames() : pkColumns);
+        SubstraitStatsFilter statsFilter = SubstraitStatsFilter.of(pushedFilter, statsColumns);
+        if (statsFilter == null) return dataFileInfoList;
+        List<DataFileInfo> pruned = dataFileInfoList.stream()
+                .filter(dataFileInfo -> statsFilter.mightMatch(DataFileStats.decode(dataFileInfo.file_stats())))
+                .collect(Collectors.toList());
+        LOG.info("Pruned {} of {} files of table {} by file stats", dataFileInfoList.size() - pruned.size(),
+                dataFileInfoList.size(), tableId);
+        return pruned;
+    }
+
+    /**
+     * Keep only the leading files holding enough rows for the pushed limit. Only applies when each file is read as is,
+     * i.e. no primary key merging, no cdc deletes and no row filter, so that file stats count the rows to return.
+     */
+    private List<DataFileInfo> limitDataFileInfo(List<DataFileInfo> dataFileInfoList) {
+        if (limit == null || !pkColumns.isEmpty() || pushedFilter != null ||
+                !optionParams.getOrDefault(LakeSoulSinkOptions.CDC_CHANGE_COLUMN, "").isEmpty()) {
+            return dataFileInfoList;
+        }
+        long rows = 0;
+        List<DataFileInfo> limited = new ArrayList<>();
+        for (DataFileInfo dataFileInfo : dataFileInfoList) {
+            if (rows >= limit) break;
+            limited.add(dataFileInfo);
+            DataFileStats stats = DataFileStats.decode(dataFileInfo.file_stats());
+            if (stats != null) {
+                rows += stats.getNumRows();
+            }
+        }
+        LOG.info("Limit {} of table {} is satisfied by {} of {} files", limit, tableId, limited.size(),
+                dataFileInfoList.size());
+        return limited;
+    }
+
     private DataFileInfo[] getTargetDataFileInfo(TableInfo tableInfo) {
         return FlinkUtil.getTargetDataFileInfo(tableInfo,
                 this.remainingPartitions);
@@ -214,10 +360,26 @@ public abstract class LakeSoulSource<OUT> implements Source<OUT, LakeSoulPartiti
                 checkpoint.getTableId(),
                 String.valueOf(checkpoint.getHashBucketNum()),
                 this.partitionColumns,
-                this.partitionFilters
+                this.partitionFilters,
+                isIncrementalDiscovery(),
+                isListenDiscovery(),
+                getDiscoveryLookback()
         );
     }
 
+    private boolean isIncrementalDiscovery() {
+        return LakeSoulOptions.DiscoveryMode$.MODULE$.INCREMENTAL().equals(
+                optionParams.getOrDefault(LakeSoulOptions.DISCOVERY_MODE(), LakeSoulOptions.DiscoveryMode$.MODULE$.FULL()));
+    }
+
+    private boolean isListenDiscovery() {
+        return Boolean.parseBoolean(optionParams.getOrDefault(LakeSoulOptions.DISCOVERY_LISTEN(), "false"));
+    }
+
+    private long getDiscoveryLookback() {
+        return Long.parseLong(optionParams.getOrDefault(LakeSoulOptions.DISCOVERY_LOOKBACK(), "60000"));
+    }
+
     @Override
     public SimpleVersionedSerializer<LakeSoulPartitionSplit> getSplitSerializer() {
         return new SimpleLakeSoulSerializer();
@@ -15,6 +15,7 @@ import org.apache.flink.table.types.logical.RowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.List;
@@ -42,6 +43,9 @@ public class LakeSoulSplitReader implements SplitReader<RowData, LakeSoulPartiti
 
     Plan filter;
 
+    @Nullable
+    Long limit;
+
     private LakeSoulOneSplitRecordsReader lastSplitReader;
 
     public LakeSoulSplitReader(Configuration conf,
@@ -52,7 +56,8 @@ public class LakeSoulSplitReader implements SplitReader<RowData, LakeSoulPartiti
                                boolean isBounded,
                                String cdcColumn,
                                List<String> partitionColumns,
-                               Plan filter) {
+                               Plan filter,
+                               @Nullable Long limit) {
         this.conf = conf;
         this.splits = new ArrayDeque<>();
         this.tableRowType = tableRowType;
@@ -63,6 +68,7 @@ public class LakeSoulSplitReader implements SplitReader<RowData, LakeSoulPartiti
         this.cdcColumn = cdcColumn;
         this.partitionColumns = partitionColumns;
         this.filter = filter;
+        this.limit = limit;
     }
 
     @Override
@@ -79,7 +85,8 @@ public class LakeSoulSplitReader implements SplitReader<RowData, LakeSoulPartiti
                             this.isBounded,
                             this.cdcColumn,
                             this.partitionColumns,
-                            this.filter
+                            this.filter,
+                            this.limit
                     );
             return lastSplitReader;
         } catch (Exception e) {
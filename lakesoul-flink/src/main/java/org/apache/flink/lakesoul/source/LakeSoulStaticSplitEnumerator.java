@@ -4,14 +4,22 @@
 
 package org.apache.flink.lakesoul.source;
 
+import com.dmetasoul.lakesoul.meta.DBUtil;
+import org.apache.flink.api.connector.source.SourceEvent;
 import org.apache.flink.api.connector.source.SplitEnumerator;
 import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.lakesoul.tool.FlinkUtil;
+import org.apache.flink.table.connector.source.DynamicFilteringData;
+import org.apache.flink.table.connector.source.DynamicFilteringEvent;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.types.logical.RowType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class LakeSoulStaticSplitEnumerator implements SplitEnumerator<LakeSoulPartitionSplit, LakeSoulPendingSplits> {
@@ -22,10 +30,21 @@ public class LakeSoulStaticSplitEnumerator implements SplitEnumerator<LakeSoulPa
 
     private final LakeSoulSimpleSplitAssigner splitAssigner;
 
+    // partition columns of the rows in dynamic filtering data, null if dynamic filtering is not applied
+    @Nullable
+    private final List<String> dynamicFilterFields;
+
     public LakeSoulStaticSplitEnumerator(SplitEnumeratorContext<LakeSoulPartitionSplit> context,
                                          LakeSoulSimpleSplitAssigner splitAssigner) {
+        this(context, splitAssigner, null);
+    }
+
+    public LakeSoulStaticSplitEnumerator(SplitEnumeratorContext<LakeSoulPartitionSplit> context,
+                                         LakeSoulSimpleSplitAssigner splitAssigner,
+                                         @Nullable List<String> dynamicFilterFields) {
         this.context = context;
         this.splitAssigner = splitAssigner;
+        this.dynamicFilterFields = dynamicFilterFields;
     }
 
     @Override
@@ -60,6 +79,49 @@ public class LakeSoulStaticSplitEnumerator implements SplitEnumerator<LakeSoulPa
     public void addReader(int subtaskId) {
     }
 
+    /**
+     * Prunes splits of partitions not in the dynamic filtering data, i.e. partitions having no matching rows on the
+     * other side of the join. The fact side is scheduled after the dimension side finishes, so the event normally
+     * arrives before any split is assigned; splits already assigned are read as usual and dropped by the join.
+     */
+    @Override
+    public void handleSourceEvent(int subtaskId, SourceEvent sourceEvent) {
+        if (!(sourceEvent instanceof DynamicFilteringEvent)) {
+            LOG.warn("Unrecognized source event from subtask {}: {}", subtaskId, sourceEvent);
+            return;
+        }
+        DynamicFilteringData data = ((DynamicFilteringEvent) sourceEvent).getData();
+        if (dynamicFilterFields == null || !data.isFiltering()) {
+            LOG.info("Dynamic filtering does not filter any split");
+            return;
+        }
+        List<LakeSoulPartitionSplit> remainingSplits = splitAssigner.remainingSplits();
+        int total = remainingSplits.size();
+        remainingSplits.removeIf(split -> !mightMatch(split, data));
+        LOG.info("Pruned {} of {} remaining splits by dynamic filtering on {}", total - remainingSplits.size(), total,
+                dynamicFilterFields);
+    }
+
+    private boolean mightMatch(LakeSoulPartitionSplit split, DynamicFilteringData data) {
+        Map<String, String> partitionValues = DBUtil.parsePartitionDesc(split.getPartitionDesc());
+        RowType rowType = data.getRowType();
+        GenericRowData row = new GenericRowData(dynamicFilterFields.size());
+        for (int i = 0; i < dynamicFilterFields.size(); i++) {
+            String value = partitionValues.get(dynamicFilterFields.get(i));
+            if (value == null) {
+                return true;
+            }
+            try {
+                row.setField(i, FlinkUtil.convertPartitionValueToInternalValue(value, rowType.getTypeAt(i)));
+            } catch (RuntimeException e) {
+                LOG.warn("Could not convert value {} of partition {} for dynamic filtering", value,
+                        split.getPartitionDesc(), e);
+                return true;
+            }
+        }
+        return data.contains(row);
+    }
+
     @Override
     public LakeSoulPendingSplits snapshotState(long checkpointId) throws Exception {
         LOG.info("LakeSoulStaticSplitEnumerator snapshotState");
@@ -17,7 +17,7 @@ import java.util.Map;
 public class SimpleLakeSoulPendingSplitsSerializer implements SimpleVersionedSerializer<LakeSoulPendingSplits> {
     private static final ThreadLocal<DataOutputSerializer> SERIALIZER_CACHE =
             ThreadLocal.withInitial(() -> new DataOutputSerializer(64));
-    private static final int VERSION = 2;
+    private static final int VERSION = 3;
 
     @Override
     public int getVersion() {
@@ -40,6 +40,8 @@ public class SimpleLakeSoulPendingSplitsSerializer implements SimpleVersionedSer
             out.writeLong(split.getSkipRecord());
             out.writeInt(split.getBucketId());
             out.writeUTF(split.getPartitionDesc());
+            out.writeLong(split.getRangeStart());
+            out.writeLong(split.getRangeEnd());
         }
         out.writeUTF(splits.getTableId());
         out.writeUTF(splits.getParDesc());
@@ -52,7 +54,7 @@ public class SimpleLakeSoulPendingSplitsSerializer implements SimpleVersionedSer
 
     @Override
     public LakeSoulPendingSplits deserialize(int version, byte[] serialized) throws IOException {
-        if (version == 2) {
+        if (version == 2 || version == 3) {
             final DataInputDeserializer in = new DataInputDeserializer(serialized);
             final long startReadTime = in.readLong();
             final int splitSize = in.readInt();
@@ -68,7 +70,15 @@ public class SimpleLakeSoulPendingSplitsSerializer implements SimpleVersionedSer
                 final long skipRecord = in.readLong();
                 final int bucketID = in.readInt();
                 final String partitionDesc = in.readUTF();
-                lsplits[j] = new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketID, partitionDesc);
+                if (version == 2) {
+                    lsplits[j] = new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketID,
+                            partitionDesc);
+                } else {
+                    final long rangeStart = in.readLong();
+                    final long rangeEnd = in.readLong();
+                    lsplits[j] = new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketID,
+                            partitionDesc, rangeStart, rangeEnd);
+                }
             }
             final String tableid = in.readUTF();
             final String parDesc = in.readUTF();
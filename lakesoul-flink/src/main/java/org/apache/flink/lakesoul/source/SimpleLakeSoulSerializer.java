@@ -16,7 +16,7 @@ import java.util.List;
 public class SimpleLakeSoulSerializer implements SimpleVersionedSerializer<LakeSoulPartitionSplit> {
     private static final ThreadLocal<DataOutputSerializer> SERIALIZER_CACHE =
             ThreadLocal.withInitial(() -> new DataOutputSerializer(64));
-    private static final int VERSION = 1;
+    private static final int VERSION = 2;
 
     @Override
     public int getVersion() {
@@ -36,6 +36,8 @@ public class SimpleLakeSoulSerializer implements SimpleVersionedSerializer<LakeS
         out.writeLong(split.getSkipRecord());
         out.writeInt(split.getBucketId());
         out.writeUTF(split.getPartitionDesc());
+        out.writeLong(split.getRangeStart());
+        out.writeLong(split.getRangeEnd());
         final byte[] result = out.getCopyOfBuffer();
         out.clear();
         return result;
@@ -44,7 +46,7 @@ public class SimpleLakeSoulSerializer implements SimpleVersionedSerializer<LakeS
 
     @Override
     public LakeSoulPartitionSplit deserialize(int version, byte[] serialized) throws IOException {
-        if (version == 1) {
+        if (version == 1 || version == 2) {
             final DataInputDeserializer in = new DataInputDeserializer(serialized);
 
             final String id = in.readUTF();
@@ -57,7 +59,13 @@ public class SimpleLakeSoulSerializer implements SimpleVersionedSerializer<LakeS
             final long skipRecord = in.readLong();
             final int bucketid = in.readInt();
             final String partitionDesc = in.readUTF();
-            return new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketid, partitionDesc);
+            if (version == 1) {
+                return new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketid, partitionDesc);
+            }
+            final long rangeStart = in.readLong();
+            final long rangeEnd = in.readLong();
+            return new LakeSoulPartitionSplit(id, Arrays.asList(paths), skipRecord, bucketid, partitionDesc,
+                    rangeStart, rangeEnd);
         }
         throw new IOException("Unknown version: " + version);
     }
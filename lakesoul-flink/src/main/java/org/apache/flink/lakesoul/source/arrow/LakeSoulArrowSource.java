@@ -60,6 +60,8 @@ public class LakeSoulArrowSource extends LakeSoulSource<LakeSoulArrowWrapper> {
                 optionParams,
                 null,
                 null,
+                null,
+                null,
                 null
         );
         this.encodedTableInfo = tableInfo.toByteArray();
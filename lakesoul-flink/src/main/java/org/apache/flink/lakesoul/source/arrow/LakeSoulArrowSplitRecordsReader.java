@@ -165,8 +165,7 @@ public class LakeSoulArrowSplitRecordsReader implements RecordsWithSplitIds<Lake
                 cdcColumn,
                 filter);
         reader.initializeReader();
-        this.reader = new LakeSoulArrowReader(reader,
-                10000);
+        this.reader = new LakeSoulArrowReader(reader);
     }
 
     private void recoverFromSkipRecord() throws Exception {
@@ -209,7 +208,9 @@ public class LakeSoulArrowSplitRecordsReader implements RecordsWithSplitIds<Lake
             this.currentVCR = this.reader.nextResultVectorSchemaRoot();
             return new LakeSoulArrowWrapper(tableInfo, currentVCR);
         } else {
+            this.currentVCR = null;
             this.reader.close();
+            this.reader = null;
             LOG.info("Reach end of split file {}", split);
             return null;
         }
@@ -223,10 +224,8 @@ public class LakeSoulArrowSplitRecordsReader implements RecordsWithSplitIds<Lake
 
     @Override
     public void close() throws Exception {
-        if (this.currentVCR != null) {
-            this.currentVCR.close();
-            this.currentVCR = null;
-        }
+        // the current batch is owned and closed by the arrow reader
+        this.currentVCR = null;
         if (this.reader != null) {
             this.reader.close();
             this.reader = null;
@@ -0,0 +1,216 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.runtime.typeutils.InternalSerializers;
+import org.apache.flink.table.types.logical.RowType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.flink.lakesoul.table.LakeSoulLookupCache.extractKey;
+import static org.apache.flink.lakesoul.table.LakeSoulLookupCache.mergeMissingFields;
+
+/**
+ * {@link LakeSoulLookupCache} keeping deep copied rows on heap, limited by the number of lookup keys. A refreshed
+ * cache shares the unchanged row lists with the one it is refreshed from and copies the lists it changes.
+ */
+public class LakeSoulHeapLookupCache implements LakeSoulLookupCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LakeSoulHeapLookupCache.class);
+
+    private final Settings settings;
+
+    private final Map<RowData, List<RowData>> rows;
+
+    // row of each primary key, only kept when lookup keys are not the primary keys
+    @Nullable
+    private final Map<RowData, RowData> rowsByPrimaryKey;
+
+    // lookup keys whose row lists are already copied from the previous cache, null if all lists are owned
+    @Nullable
+    private final Set<RowData> copiedKeys;
+
+    private LakeSoulHeapLookupCache(Settings settings, Map<RowData, List<RowData>> rows,
+                                    @Nullable Map<RowData, RowData> rowsByPrimaryKey,
+                                    @Nullable Set<RowData> copiedKeys) {
+        this.settings = settings;
+        this.rows = rows;
+        this.rowsByPrimaryKey = rowsByPrimaryKey;
+        this.copiedKeys = copiedKeys;
+    }
+
+    public static Builder builder(RowType rowType,
+                                  RowData.FieldGetter[] lookupKeyGetters,
+                                  @Nullable RowData.FieldGetter[] primaryKeyGetters,
+                                  boolean lookupByPrimaryKey,
+                                  long maxKeys) {
+        TypeSerializer<RowData> serializer = InternalSerializers.create(rowType);
+        Settings settings = new Settings(LakeSoulLookupCache.fieldGetters(rowType), lookupKeyGetters,
+                primaryKeyGetters, lookupByPrimaryKey, maxKeys);
+        LakeSoulHeapLookupCache cache = new LakeSoulHeapLookupCache(settings, new HashMap<>(),
+                primaryKeyGetters != null && !lookupByPrimaryKey ? new HashMap<>() : null,
+                null);
+        return new Builder() {
+            private long count = 0;
+
+            @Override
+            public boolean add(RowData row) {
+                if (cache.rows.size() >= maxKeys) {
+                    LOG.warn(
+                            String.format(
+                                    "Lookup Cache has cached %d records with %d rows, other rows will not be cached",
+                                    cache.rows.size(),
+                                    count)
+                    );
+                    return false;
+                }
+                count++;
+                RowData rowData = serializer.copy(row);
+                cache.rows.computeIfAbsent(extractKey(rowData, lookupKeyGetters), k -> new ArrayList<>()).add(rowData);
+                if (cache.rowsByPrimaryKey != null) {
+                    cache.rowsByPrimaryKey.put(extractKey(rowData, primaryKeyGetters), rowData);
+                }
+                return true;
+            }
+
+            @Override
+            public LakeSoulLookupCache build() {
+                return cache;
+            }
+
+            @Override
+            public void discard() {
+            }
+        };
+    }
+
+    @Nullable
+    @Override
+    public List<RowData> get(RowData lookupKey) {
+        return rows.get(lookupKey);
+    }
+
+    @Override
+    public LakeSoulLookupCache upsert(Map<RowData, RowData> changedRows, Map<RowData, BitSet> missingFields) {
+        if (settings.primaryKeyGetters == null) {
+            throw new IllegalStateException("Lookup cache without primary keys could not be upserted");
+        }
+        LakeSoulHeapLookupCache updated = new LakeSoulHeapLookupCache(settings, new HashMap<>(rows),
+                rowsByPrimaryKey == null ? null : new HashMap<>(rowsByPrimaryKey),
+                new HashSet<>());
+        long dropped = 0;
+        for (Map.Entry<RowData, RowData> entry : changedRows.entrySet()) {
+            RowData rowData = entry.getValue();
+            BitSet missing = missingFields.get(entry.getKey());
+            RowData key = extractKey(rowData, settings.lookupKeyGetters);
+            if (settings.lookupByPrimaryKey) {
+                List<RowData> previousRows = updated.rows.get(key);
+                if (missing != null && previousRows != null) {
+                    rowData = mergeMissingFields(previousRows.get(0), rowData, missing, settings.fieldGetters);
+                }
+                if (previousRows != null || updated.rows.size() < settings.maxKeys) {
+                    List<RowData> keyRows = new ArrayList<>(1);
+                    keyRows.add(rowData);
+                    updated.rows.put(key, keyRows);
+                } else {
+                    dropped++;
+                }
+                continue;
+            }
+            RowData previous = updated.rowsByPrimaryKey.remove(entry.getKey());
+            if (previous != null) {
+                if (missing != null) {
+                    rowData = mergeMissingFields(previous, rowData, missing, settings.fieldGetters);
+                    // lookup keys missing from the files are kept as well
+                    key = extractKey(rowData, settings.lookupKeyGetters);
+                }
+                RowData previousKey = extractKey(previous, settings.lookupKeyGetters);
+                List<RowData> keyRows = updated.mutableRows(previousKey);
+                keyRows.removeIf(r -> r == previous);
+                if (keyRows.isEmpty()) {
+                    updated.rows.remove(previousKey);
+                }
+            }
+            if (updated.rows.containsKey(key) || updated.rows.size() < settings.maxKeys) {
+                updated.mutableRows(key).add(rowData);
+                updated.rowsByPrimaryKey.put(entry.getKey(), rowData);
+            } else {
+                dropped++;
+            }
+        }
+        warnDropped(updated.rows.size(), dropped);
+        return updated;
+    }
+
+    @Override
+    public void addAll(Collection<RowData> newRows) {
+        long dropped = 0;
+        for (RowData rowData : newRows) {
+            RowData key = extractKey(rowData, settings.lookupKeyGetters);
+            if (!rows.containsKey(key) && rows.size() >= settings.maxKeys) {
+                dropped++;
+                continue;
+            }
+            mutableRows(key).add(rowData);
+            if (rowsByPrimaryKey != null) {
+                rowsByPrimaryKey.put(extractKey(rowData, settings.primaryKeyGetters), rowData);
+            }
+        }
+        warnDropped(rows.size(), dropped);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static void warnDropped(int keys, long dropped) {
+        if (dropped > 0) {
+            LOG.warn("Lookup Cache has cached {} keys, {} other rows are not cached", keys, dropped);
+        }
+    }
+
+    private List<RowData> mutableRows(RowData key) {
+        List<RowData> keyRows = rows.get(key);
+        if (keyRows == null) {
+            keyRows = new ArrayList<>();
+            rows.put(key, keyRows);
+            if (copiedKeys != null) copiedKeys.add(key);
+        } else if (copiedKeys != null && copiedKeys.add(key)) {
+            keyRows = new ArrayList<>(keyRows);
+            rows.put(key, keyRows);
+        }
+        return keyRows;
+    }
+
+    private static class Settings {
+        private final RowData.FieldGetter[] fieldGetters;
+        private final RowData.FieldGetter[] lookupKeyGetters;
+        @Nullable
+        private final RowData.FieldGetter[] primaryKeyGetters;
+        private final boolean lookupByPrimaryKey;
+        private final long maxKeys;
+
+        Settings(RowData.FieldGetter[] fieldGetters, RowData.FieldGetter[] lookupKeyGetters,
+                 @Nullable RowData.FieldGetter[] primaryKeyGetters, boolean lookupByPrimaryKey, long maxKeys) {
+            this.fieldGetters = fieldGetters;
+            this.lookupKeyGetters = lookupKeyGetters;
+            this.primaryKeyGetters = primaryKeyGetters;
+            this.lookupByPrimaryKey = lookupByPrimaryKey;
+            this.maxKeys = maxKeys;
+        }
+    }
+}
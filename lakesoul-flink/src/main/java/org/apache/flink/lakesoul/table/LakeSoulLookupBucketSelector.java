@@ -0,0 +1,28 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import org.apache.flink.table.data.RowData;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maps lookup keys of a hash bucketed table to its buckets, so that the lookup join cache only loads the buckets of
+ * the keys it is probed with.
+ */
+public interface LakeSoulLookupBucketSelector<P> extends Serializable {
+
+    /**
+     * Hash bucket holding the rows of the lookup key.
+     */
+    int getBucket(RowData lookupKey);
+
+    /**
+     * The given partitions with only the files of the given buckets, partitions left without files are dropped.
+     */
+    List<P> selectBuckets(List<P> partitions, Set<Integer> buckets);
+}
@@ -0,0 +1,91 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.RowType;
+
+import javax.annotation.Nullable;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows of a lookup join table grouped by lookup key. Refreshing a cache creates a new cache while the current one keeps
+ * serving lookups, and a cache is only closed by the thread doing the lookups after it has been replaced. Only rows of
+ * newly loaded hash buckets are added in place, by the thread doing the lookups while no refresh is running.
+ */
+public interface LakeSoulLookupCache {
+
+    /**
+     * Rows of the lookup key, null if there is none.
+     */
+    @Nullable
+    List<RowData> get(RowData lookupKey);
+
+    /**
+     * Returns a new cache with the rows of the given primary keys replaced or added, this cache is left unchanged.
+     * Fields of a row in {@code missingFields}, which are missing from the files the row is read from, keep the values
+     * of the cached row of its primary key, the same as merging on read.
+     */
+    LakeSoulLookupCache upsert(Map<RowData, RowData> rowsByPrimaryKey, Map<RowData, BitSet> missingFields)
+            throws Exception;
+
+    /**
+     * Add rows of primary keys that are not in this cache yet, e.g. rows of a hash bucket not loaded before, to this
+     * cache in place.
+     */
+    void addAll(Collection<RowData> rows);
+
+    /**
+     * Release the memory held by this cache.
+     */
+    void close();
+
+    interface Builder {
+        /**
+         * Add a row, which may be reused by the caller afterward. Returns false if the cache is full and the row is
+         * not added.
+         */
+        boolean add(RowData row);
+
+        LakeSoulLookupCache build();
+
+        /**
+         * Release the memory held by a cache that failed to load.
+         */
+        void discard();
+    }
+
+    /**
+     * Returns the changed row with its missing fields taken from the previous row of the same primary key.
+     */
+    static RowData mergeMissingFields(RowData previous, RowData changed, BitSet missingFields,
+                                      RowData.FieldGetter[] fieldGetters) {
+        GenericRowData merged = new GenericRowData(changed.getRowKind(), fieldGetters.length);
+        for (int i = 0; i < fieldGetters.length; i++) {
+            merged.setField(i, fieldGetters[i].getFieldOrNull(missingFields.get(i) ? previous : changed));
+        }
+        return merged;
+    }
+
+    static RowData.FieldGetter[] fieldGetters(RowType rowType) {
+        RowData.FieldGetter[] fieldGetters = new RowData.FieldGetter[rowType.getFieldCount()];
+        for (int i = 0; i < fieldGetters.length; i++) {
+            fieldGetters[i] = RowData.createFieldGetter(rowType.getTypeAt(i), i);
+        }
+        return fieldGetters;
+    }
+
+    static RowData extractKey(RowData row, RowData.FieldGetter[] fieldGetters) {
+        GenericRowData key = new GenericRowData(fieldGetters.length);
+        for (int i = 0; i < fieldGetters.length; i++) {
+            key.setField(i, fieldGetters[i].getFieldOrNull(row));
+        }
+        return key;
+    }
+}
@@ -0,0 +1,36 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Fetches the partitions holding the rows of a primary key table upserted since the last fetch, so that the lookup
+ * join cache could be refreshed by applying the changes instead of reloading the whole table.
+ */
+public interface LakeSoulLookupDeltaFetcher<P> extends Serializable {
+
+    /**
+     * Remember the current versions of the table, called right before the cache is fully loaded.
+     */
+    void markLoaded() throws Exception;
+
+    /**
+     * Returns the partitions with the files committed since the last call or {@link #markLoaded()}, or null if the
+     * changes could not be applied as upserts, e.g. a partition was overwritten or dropped.
+     */
+    @Nullable
+    List<P> fetchDelta() throws Exception;
+
+    /**
+     * Columns written into the files of a partition returned by {@link #fetchDelta()}, null if they hold all columns.
+     * Partitions whose files miss columns hold files of the same columns, and are returned in commit order.
+     */
+    @Nullable
+    Collection<String> existColumns(P partition);
+}
@@ -0,0 +1,221 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import com.dmetasoul.lakesoul.meta.DBUtil;
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
+import org.apache.flink.lakesoul.tool.FlinkUtil;
+import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.expressions.AggregateExpression;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.flink.table.planner.functions.aggfunctions.Count1AggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.CountAggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.MaxAggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.MinAggFunction;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.LogicalTypeRoot;
+import org.apache.flink.table.types.logical.RowType;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes aggregates from LakeSoul metadata instead of data files: COUNT from the row counts recorded in commit-time
+ * file stats, and MIN/MAX/COUNT of range partition columns from partition values. Results are grouped by range
+ * partition columns only, and each aggregate yields the partial result the local aggregate would have produced.
+ */
+public class LakeSoulMetadataAggregator {
+
+    public enum Kind {
+        COUNT_STAR, COUNT, MIN, MAX
+    }
+
+    private final RowType tableRowType;
+
+    private final List<String> groupingColumns;
+
+    private final List<Kind> kinds;
+
+    // argument column of each aggregate, null for COUNT(*)
+    private final List<String> arguments;
+
+    public LakeSoulMetadataAggregator(RowType tableRowType, List<String> groupingColumns) {
+        this.tableRowType = tableRowType;
+        this.groupingColumns = groupingColumns;
+        this.kinds = new ArrayList<>();
+        this.arguments = new ArrayList<>();
+    }
+
+    /**
+     * Creates the aggregator answering the pushed down aggregates of a bounded read, or returns null if they could
+     * not be answered from metadata: time travel reads, tables whose rows are merged or changed on read, filters on
+     * non partition columns, grouping by or aggregating other columns than range partition columns.
+     */
+    @Nullable
+    public static LakeSoulMetadataAggregator forPushDown(RowType tableRowType,
+                                                         RowType readFields,
+                                                         List<String> partitionColumns,
+                                                         List<String> pkColumns,
+                                                         Map<String, String> optionParams,
+                                                         boolean hasNonPartitionFilters,
+                                                         List<int[]> groupingSets,
+                                                         List<AggregateExpression> aggregateExpressions) {
+        // metadata of the latest snapshot is all there is to answer from
+        if (!FlinkUtil.isFullRead(optionParams) || groupingSets.size() != 1 || hasNonPartitionFilters ||
+                !optionParams.getOrDefault(LakeSoulSinkOptions.CDC_CHANGE_COLUMN, "").isEmpty()) {
+            return null;
+        }
+        List<String> groupingColumns = new ArrayList<>();
+        for (int index : groupingSets.get(0)) {
+            String column = readFields.getFieldNames().get(index);
+            if (!isRestorablePartitionColumn(tableRowType, partitionColumns, column)) return null;
+            groupingColumns.add(column);
+        }
+        LakeSoulMetadataAggregator aggregator = new LakeSoulMetadataAggregator(tableRowType, groupingColumns);
+        for (AggregateExpression expression : aggregateExpressions) {
+            if (expression.getFilterExpression().isPresent() || expression.isApproximate()) return null;
+            FunctionDefinition function = expression.getFunctionDefinition();
+            if (function instanceof Count1AggFunction) {
+                // rows of primary key tables are merged on read, so file row counts do not add up
+                if (!pkColumns.isEmpty()) return null;
+                aggregator.addAggregate(Kind.COUNT_STAR, null);
+                continue;
+            }
+            if (expression.getArgs().size() != 1) return null;
+            String argument = expression.getArgs().get(0).getName();
+            if (!isRestorablePartitionColumn(tableRowType, partitionColumns, argument)) return null;
+            if (function instanceof CountAggFunction && !expression.isDistinct() && pkColumns.isEmpty()) {
+                aggregator.addAggregate(Kind.COUNT, argument);
+            } else if (function instanceof MinAggFunction) {
+                aggregator.addAggregate(Kind.MIN, argument);
+            } else if (function instanceof MaxAggFunction) {
+                aggregator.addAggregate(Kind.MAX, argument);
+            } else {
+                return null;
+            }
+        }
+        return aggregator;
+    }
+
+    public void addAggregate(Kind kind, @Nullable String argument) {
+        kinds.add(kind);
+        arguments.add(argument);
+    }
+
+    /**
+     * Aggregates the given files, or returns null if the files lack the stats to do so.
+     */
+    @Nullable
+    public List<RowData> aggregate(DataFileInfo[] dataFileInfos, List<String> partitionColumns) {
+        // partition desc -> number of rows, null if unknown
+        Map<String, Long> partitionRows = new LinkedHashMap<>();
+        for (DataFileInfo dataFileInfo : dataFileInfos) {
+            DataFileStats stats = DataFileStats.decode(dataFileInfo.file_stats());
+            Long rows = stats == null ? null : stats.getNumRows();
+            String partitionDesc = dataFileInfo.range_partitions();
+            if (partitionRows.containsKey(partitionDesc)) {
+                Long current = partitionRows.get(partitionDesc);
+                partitionRows.put(partitionDesc, current == null || rows == null ? null : current + rows);
+            } else {
+                partitionRows.put(partitionDesc, rows);
+            }
+        }
+
+        Map<List<Object>, Object[]> groups = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : partitionRows.entrySet()) {
+            Long rows = entry.getValue();
+            if (rows == null && kinds.stream().anyMatch(kind -> kind == Kind.COUNT_STAR || kind == Kind.COUNT)) {
+                return null;
+            }
+            if (rows != null && rows == 0) continue;
+            Map<String, String> partitionValues = partitionColumns.isEmpty()
+                    ? new LinkedHashMap<>() : DBUtil.parsePartitionDesc(entry.getKey());
+            List<Object> groupKey = new ArrayList<>();
+            for (String column : groupingColumns) {
+                groupKey.add(partitionValue(partitionValues, column));
+            }
+            Object[] accumulators = groups.computeIfAbsent(groupKey, k -> new Object[kinds.size()]);
+            for (int i = 0; i < kinds.size(); i++) {
+                accumulators[i] = accumulate(kinds.get(i), accumulators[i],
+                        arguments.get(i) == null ? null : partitionValue(partitionValues, arguments.get(i)),
+                        rows);
+            }
+        }
+
+        List<RowData> result = new ArrayList<>();
+        for (Map.Entry<List<Object>, Object[]> group : groups.entrySet()) {
+            GenericRowData row = new GenericRowData(groupingColumns.size() + kinds.size());
+            int pos = 0;
+            for (Object key : group.getKey()) {
+                row.setField(pos++, key);
+            }
+            for (int i = 0; i < kinds.size(); i++) {
+                Object value = group.getValue()[i];
+                if (value == null && (kinds.get(i) == Kind.COUNT_STAR || kinds.get(i) == Kind.COUNT)) {
+                    value = 0L;
+                }
+                row.setField(pos++, value);
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    /**
+     * Whether values of the column could be restored from partition descs.
+     */
+    public static boolean isSupportedPartitionType(LogicalType type) {
+        LogicalTypeRoot root = type.getTypeRoot();
+        return root == LogicalTypeRoot.VARCHAR || root == LogicalTypeRoot.BOOLEAN || root == LogicalTypeRoot.TINYINT
+                || root == LogicalTypeRoot.SMALLINT || root == LogicalTypeRoot.INTEGER || root == LogicalTypeRoot.DATE
+                || root == LogicalTypeRoot.BIGINT || root == LogicalTypeRoot.FLOAT || root == LogicalTypeRoot.DOUBLE
+                || root == LogicalTypeRoot.TIMESTAMP_WITHOUT_TIME_ZONE;
+    }
+
+    /**
+     * Whether the column is a range partition column whose values could be restored from partition descs.
+     */
+    public static boolean isRestorablePartitionColumn(RowType tableRowType, List<String> partitionColumns,
+                                                      String column) {
+        return partitionColumns.contains(column) &&
+                isSupportedPartitionType(tableRowType.getTypeAt(tableRowType.getFieldIndex(column)));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object accumulate(Kind kind, Object accumulator, Object value, Long rows) {
+        switch (kind) {
+            case COUNT_STAR:
+                return (accumulator == null ? 0L : (Long) accumulator) + rows;
+            case COUNT:
+                return (accumulator == null ? 0L : (Long) accumulator) + (value == null ? 0L : rows);
+            case MIN:
+                if (value == null) return accumulator;
+                return accumulator == null || ((Comparable) value).compareTo(accumulator) < 0 ? value : accumulator;
+            default:
+                if (value == null) return accumulator;
+                return accumulator == null || ((Comparable) value).compareTo(accumulator) > 0 ? value : accumulator;
+        }
+    }
+
+    private Object partitionValue(Map<String, String> partitionValues, String column) {
+        LogicalType type = tableRowType.getTypeAt(tableRowType.getFieldIndex(column));
+        return FlinkUtil.convertPartitionValueToInternalValue(partitionValues.get(column), type);
+    }
+
+    @Override
+    public String toString() {
+        return "LakeSoulMetadataAggregator{" +
+                "groupingColumns=" + groupingColumns +
+                ", aggregates=" + kinds +
+                ", arguments=" + arguments +
+                '}';
+    }
+}
@@ -0,0 +1,396 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.table;
+
+import org.apache.flink.core.memory.MemorySegment;
+import org.apache.flink.core.memory.MemorySegmentFactory;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.binary.BinaryRowData;
+import org.apache.flink.table.data.binary.BinarySegmentUtils;
+import org.apache.flink.table.runtime.typeutils.RowDataSerializer;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.flink.lakesoul.table.LakeSoulLookupCache.extractKey;
+import static org.apache.flink.lakesoul.table.LakeSoulLookupCache.mergeMissingFields;
+
+/**
+ * {@link LakeSoulLookupCache} keeping rows serialized in off-heap memory segments, so that large dimension tables do
+ * not put pressure on GC. Rows of the same lookup key are chained in insertion order, and the head and tail of each
+ * chain are kept in an open addressing hash table of primitive record addresses.
+ *
+ * <p>Memory is bounded by a byte budget covering both the records and the hash table. The budget is shared by the
+ * cache serving lookups and the one being reloaded or upserted from it, and released when a cache is closed, so
+ * refreshing never holds more than the budget. Loading a table that does not fit fails with
+ * {@link MemoryBudgetExceededException} instead of silently caching part of it.
+ *
+ * <p>Record layout: next record address (8 bytes), key size (4 bytes), row size (4 bytes), key bytes, row bytes. Key
+ * and row are {@link BinaryRowData}, whose bytes are equal for equal keys.
+ */
+public class LakeSoulOffHeapLookupCache implements LakeSoulLookupCache {
+
+    private static final int PAGE_SIZE = 4 * 1024 * 1024;
+
+    private static final int RECORD_HEADER_SIZE = 16;
+
+    private static final long NO_RECORD = -1L;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Settings settings;
+
+    private final RowDataSerializer keySerializer;
+
+    private final RowDataSerializer rowSerializer;
+
+    private final List<MemorySegment> pages = new ArrayList<>();
+
+    // position to write the next record in the last page
+    private int pagePosition = PAGE_SIZE;
+
+    private long allocatedBytes = 0;
+
+    private int[] hashes;
+
+    private long[] heads;
+
+    private long[] tails;
+
+    private int numKeys = 0;
+
+    private long numRows = 0;
+
+    private boolean closed = false;
+
+    private LakeSoulOffHeapLookupCache(Settings settings) {
+        this.settings = settings;
+        this.keySerializer = new RowDataSerializer(settings.keyType);
+        this.rowSerializer = new RowDataSerializer(settings.rowType);
+        allocateIndex(INITIAL_CAPACITY);
+    }
+
+    public static Builder builder(RowType rowType,
+                                  int[] lookupKeys,
+                                  RowData.FieldGetter[] lookupKeyGetters,
+                                  @Nullable RowData.FieldGetter[] primaryKeyGetters,
+                                  MemoryBudget budget) {
+        LogicalType[] keyTypes = Arrays.stream(lookupKeys).mapToObj(rowType::getTypeAt).toArray(LogicalType[]::new);
+        return new CacheBuilder(new Settings(rowType, RowType.of(keyTypes), lookupKeyGetters, primaryKeyGetters,
+                budget));
+    }
+
+    @Nullable
+    @Override
+    public List<RowData> get(RowData lookupKey) {
+        BinaryRowData key = keySerializer.toBinaryRow(lookupKey);
+        int slot = findSlot(key, mix(key.hashCode()));
+        long address = heads[slot];
+        if (address == NO_RECORD) return null;
+        List<RowData> rows = new ArrayList<>();
+        while (address != NO_RECORD) {
+            rows.add(readRow(address));
+            address = nextOf(address);
+        }
+        return rows;
+    }
+
+    @Override
+    public LakeSoulLookupCache upsert(Map<RowData, RowData> rowsByPrimaryKey, Map<RowData, BitSet> missingFields) {
+        if (settings.primaryKeyGetters == null) {
+            throw new IllegalStateException("Lookup cache without primary keys could not be upserted");
+        }
+        Map<RowData, RowData> upsertedRows = missingFields.isEmpty() ? rowsByPrimaryKey :
+                new LinkedHashMap<>(rowsByPrimaryKey);
+        // records are packed without free space, so the cache is rewritten without the replaced rows, within the
+        // budget left by this cache
+        CacheBuilder builder = new CacheBuilder(settings);
+        try {
+            for (int slot = 0; slot < heads.length; slot++) {
+                long address = heads[slot];
+                while (address != NO_RECORD) {
+                    RowData row = readRow(address);
+                    RowData primaryKey = extractKey(row, settings.primaryKeyGetters);
+                    RowData upserted = upsertedRows.get(primaryKey);
+                    if (upserted == null) {
+                        builder.add(row);
+                    } else if (missingFields.containsKey(primaryKey)) {
+                        upsertedRows.put(primaryKey, mergeMissingFields(row, upserted, missingFields.get(primaryKey),
+                                settings.fieldGetters));
+                    }
+                    address = nextOf(address);
+                }
+            }
+            for (RowData row : upsertedRows.values()) {
+                builder.add(row);
+            }
+            return builder.build();
+        } catch (RuntimeException e) {
+            builder.discard();
+            throw e;
+        }
+    }
+
+    @Override
+    public void addAll(Collection<RowData> rows) {
+        for (RowData row : rows) {
+            add(row);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (MemorySegment page : pages) {
+            page.free();
+        }
+        pages.clear();
+        settings.budget.release(getAllocatedBytes());
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes + indexBytes(heads.length);
+    }
+
+    private void add(RowData row) {
+        insert(keySerializer.toBinaryRow(extractKey(row, settings.lookupKeyGetters)), rowSerializer.toBinaryRow(row));
+    }
+
+    private void insert(BinaryRowData key, BinaryRowData row) {
+        if ((numKeys + 1) * 2L > heads.length) {
+            resizeIndex(heads.length * 2);
+        }
+        int hash = mix(key.hashCode());
+        long address = writeRecord(key, row);
+        int slot = findSlot(key, hash);
+        if (heads[slot] == NO_RECORD) {
+            hashes[slot] = hash;
+            heads[slot] = address;
+            numKeys++;
+        } else {
+            setNext(tails[slot], address);
+        }
+        tails[slot] = address;
+        numRows++;
+    }
+
+    private int findSlot(BinaryRowData key, int hash) {
+        int mask = heads.length - 1;
+        int slot = hash & mask;
+        while (heads[slot] != NO_RECORD) {
+            if (hashes[slot] == hash && keyEquals(heads[slot], key)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private boolean keyEquals(long address, BinaryRowData key) {
+        MemorySegment page = pageOf(address);
+        int offset = offsetOf(address);
+        int keySize = page.getInt(offset + 8);
+        return keySize == key.getSizeInBytes() &&
+                BinarySegmentUtils.equals(new MemorySegment[]{page}, offset + RECORD_HEADER_SIZE,
+                        key.getSegments(), key.getOffset(), keySize);
+    }
+
+    private long writeRecord(BinaryRowData key, BinaryRowData row) {
+        int keySize = key.getSizeInBytes();
+        int rowSize = row.getSizeInBytes();
+        int recordSize = RECORD_HEADER_SIZE + keySize + rowSize;
+        if (pagePosition + recordSize > PAGE_SIZE || pages.isEmpty()) {
+            // records larger than a page get a segment of their own
+            allocatePage(Math.max(PAGE_SIZE, recordSize));
+        }
+        int pageIndex = pages.size() - 1;
+        MemorySegment page = pages.get(pageIndex);
+        int offset = pagePosition;
+        page.putLong(offset, NO_RECORD);
+        page.putInt(offset + 8, keySize);
+        page.putInt(offset + 12, rowSize);
+        copy(key, page, offset + RECORD_HEADER_SIZE);
+        copy(row, page, offset + RECORD_HEADER_SIZE + keySize);
+        pagePosition += recordSize;
+        return ((long) pageIndex << 32) | offset;
+    }
+
+    private RowData readRow(long address) {
+        MemorySegment page = pageOf(address);
+        int offset = offsetOf(address);
+        int keySize = page.getInt(offset + 8);
+        int rowSize = page.getInt(offset + 12);
+        // rows are copied on heap since they may outlive this cache
+        byte[] bytes = new byte[rowSize];
+        page.get(offset + RECORD_HEADER_SIZE + keySize, bytes);
+        BinaryRowData row = new BinaryRowData(settings.rowType.getFieldCount());
+        row.pointTo(MemorySegmentFactory.wrap(bytes), 0, rowSize);
+        return row;
+    }
+
+    private long nextOf(long address) {
+        return pageOf(address).getLong(offsetOf(address));
+    }
+
+    private void setNext(long address, long next) {
+        pageOf(address).putLong(offsetOf(address), next);
+    }
+
+    private MemorySegment pageOf(long address) {
+        return pages.get((int) (address >>> 32));
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    private void allocatePage(int size) {
+        reserve(size);
+        pages.add(MemorySegmentFactory.allocateOffHeapUnsafeMemory(size));
+        allocatedBytes += size;
+        pagePosition = 0;
+    }
+
+    private void allocateIndex(int capacity) {
+        reserve(indexBytes(capacity) - (heads == null ? 0 : indexBytes(heads.length)));
+        hashes = new int[capacity];
+        heads = new long[capacity];
+        tails = new long[capacity];
+        Arrays.fill(heads, NO_RECORD);
+    }
+
+    private void resizeIndex(int capacity) {
+        int[] oldHashes = hashes;
+        long[] oldHeads = heads;
+        long[] oldTails = tails;
+        allocateIndex(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] == NO_RECORD) continue;
+            int slot = oldHashes[i] & mask;
+            while (heads[slot] != NO_RECORD) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[i];
+            heads[slot] = oldHeads[i];
+            tails[slot] = oldTails[i];
+        }
+    }
+
+    private void reserve(long bytes) {
+        if (!settings.budget.tryReserve(bytes)) {
+            throw new MemoryBudgetExceededException(String.format(
+                    "Lookup join cache exceeds its memory budget of %d bytes after caching %d rows of %d keys, " +
+                            "please increase 'lookup.join.cache.max-bytes'",
+                    settings.budget.maxBytes, numRows, numKeys));
+        }
+    }
+
+    private static long indexBytes(int capacity) {
+        return capacity * (4L + 8L + 8L);
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void copy(BinaryRowData from, MemorySegment to, int offset) {
+        MemorySegment[] segments = from.getSegments();
+        if (segments.length == 1) {
+            segments[0].copyTo(from.getOffset(), to, offset, from.getSizeInBytes());
+        } else {
+            byte[] bytes = BinarySegmentUtils.copyToBytes(segments, from.getOffset(), from.getSizeInBytes());
+            to.put(offset, bytes);
+        }
+    }
+
+    /**
+     * Byte budget shared by the caches of a lookup function.
+     */
+    public static class MemoryBudget {
+        private final long maxBytes;
+
+        private long usedBytes = 0;
+
+        public MemoryBudget(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        // caches are built by the reload thread and closed by the lookup thread
+        synchronized boolean tryReserve(long bytes) {
+            if (usedBytes + bytes > maxBytes) return false;
+            usedBytes += bytes;
+            return true;
+        }
+
+        synchronized void release(long bytes) {
+            usedBytes -= bytes;
+        }
+
+        public synchronized long getUsedBytes() {
+            return usedBytes;
+        }
+    }
+
+    public static class MemoryBudgetExceededException extends FlinkRuntimeException {
+        public MemoryBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private static class CacheBuilder implements Builder {
+        private final LakeSoulOffHeapLookupCache cache;
+
+        CacheBuilder(Settings settings) {
+            this.cache = new LakeSoulOffHeapLookupCache(settings);
+        }
+
+        @Override
+        public boolean add(RowData row) {
+            cache.add(row);
+            return true;
+        }
+
+        @Override
+        public LakeSoulLookupCache build() {
+            return cache;
+        }
+
+        @Override
+        public void discard() {
+            cache.close();
+        }
+    }
+
+    private static class Settings {
+        private final RowType rowType;
+        private final RowType keyType;
+        private final RowData.FieldGetter[] fieldGetters;
+        private final RowData.FieldGetter[] lookupKeyGetters;
+        @Nullable
+        private final RowData.FieldGetter[] primaryKeyGetters;
+        private final MemoryBudget budget;
+
+        Settings(RowType rowType, RowType keyType, RowData.FieldGetter[] lookupKeyGetters,
+                 @Nullable RowData.FieldGetter[] primaryKeyGetters, MemoryBudget budget) {
+            this.rowType = rowType;
+            this.keyType = keyType;
+            this.fieldGetters = LakeSoulLookupCache.fieldGetters(rowType);
+            this.lookupKeyGetters = lookupKeyGetters;
+            this.primaryKeyGetters = primaryKeyGetters;
+            this.budget = budget;
+        }
+    }
+}
@@ -18,11 +18,23 @@ import org.apache.flink.util.FlinkRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
 
@@ -37,6 +49,8 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
 
     private final TypeSerializer<RowData> serializer;
 
+    private final RowData.FieldGetter[] fieldGetters;
+
     private final RowData.FieldGetter[] lookupFieldGetters;
     private final Duration reloadInterval;
 
@@ -47,12 +61,45 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
 
     private final PartitionReader<P, RowData> partitionReader;
 
-    // cache for lookup data
-    private transient Map<RowData, List<RowData>> cache;
+    private final int[] lookupKeys;
+
+    // byte budget of the off-heap cache, rows are cached on heap if not positive
+    private final long offHeapCacheBytes;
+
+    // fetches changes of primary key tables for incremental refresh, null to always reload the whole table
+    @Nullable
+    private final LakeSoulLookupDeltaFetcher<P> deltaFetcher;
+
+    @Nullable
+    private final RowData.FieldGetter[] primaryKeyGetters;
+
+    // whether rows are looked up by exactly the primary keys, so that each lookup key holds at most one row
+    private final boolean lookupByPrimaryKey;
+
+    // maps lookup keys to hash buckets so that only the probed buckets are cached, null to cache the whole table
+    @Nullable
+    private final LakeSoulLookupBucketSelector<P> bucketSelector;
+
+    // cache for lookup data, swapped as a whole when a reload finishes
+    private transient LakeSoulLookupCache cache;
+
+    // reloaded cache waiting to be swapped in by the lookup thread
+    private transient volatile LakeSoulLookupCache reloadedCache;
 
     // timestamp when cache expires
-    private transient long nextLoadTime;
+    private transient volatile long nextLoadTime;
+
+    private transient ExecutorService reloadExecutor;
+
+    private transient Future<?> reloadFuture;
 
+    private transient volatile Throwable reloadError;
+
+    // hash buckets in the cache, only changed by the lookup thread while no reload is running
+    private transient Set<Integer> loadedBuckets;
+
+    // shared by the off-heap cache serving lookups and the one being reloaded
+    private transient LakeSoulOffHeapLookupCache.MemoryBudget offHeapBudget;
 
     public LakeSoulTableLookupFunction(
             PartitionFetcher<P> partitionFetcher,
@@ -61,31 +108,80 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
             RowType rowType,
             int[] lookupKeys,
             Duration reloadInterval) {
+        this(partitionFetcher, fetcherContext, partitionReader, rowType, lookupKeys, reloadInterval, 0, null, null,
+                null);
+    }
+
+    public LakeSoulTableLookupFunction(
+            PartitionFetcher<P> partitionFetcher,
+            PartitionFetcher.Context<P> fetcherContext,
+            PartitionReader<P, RowData> partitionReader,
+            RowType rowType,
+            int[] lookupKeys,
+            Duration reloadInterval,
+            long offHeapCacheBytes,
+            @Nullable int[] primaryKeys,
+            @Nullable LakeSoulLookupDeltaFetcher<P> deltaFetcher,
+            @Nullable LakeSoulLookupBucketSelector<P> bucketSelector) {
         this.rowType = rowType;
         this.reloadInterval = reloadInterval;
         this.fetcherContext = fetcherContext;
         this.partitionFetcher = partitionFetcher;
         this.partitionReader = partitionReader;
+        this.lookupKeys = lookupKeys;
+        this.offHeapCacheBytes = offHeapCacheBytes;
         this.lookupFieldGetters = new RowData.FieldGetter[lookupKeys.length];
         for (int i = 0; i < lookupKeys.length; i++) {
             lookupFieldGetters[i] =
                     RowData.createFieldGetter(rowType.getTypeAt(lookupKeys[i]), lookupKeys[i]);
         }
         this.serializer = InternalSerializers.create(rowType);
+        this.fieldGetters = LakeSoulLookupCache.fieldGetters(rowType);
+        if (primaryKeys != null && (deltaFetcher != null || bucketSelector != null)) {
+            this.deltaFetcher = deltaFetcher;
+            this.primaryKeyGetters = new RowData.FieldGetter[primaryKeys.length];
+            for (int i = 0; i < primaryKeys.length; i++) {
+                primaryKeyGetters[i] = RowData.createFieldGetter(rowType.getTypeAt(primaryKeys[i]), primaryKeys[i]);
+            }
+            int[] sortedLookupKeys = lookupKeys.clone();
+            int[] sortedPrimaryKeys = primaryKeys.clone();
+            Arrays.sort(sortedLookupKeys);
+            Arrays.sort(sortedPrimaryKeys);
+            this.lookupByPrimaryKey = Arrays.equals(sortedLookupKeys, sortedPrimaryKeys);
+        } else {
+            this.deltaFetcher = null;
+            this.primaryKeyGetters = null;
+            this.lookupByPrimaryKey = false;
+        }
+        // buckets are derived from primary keys, and loaded buckets are merged into the cache by upserting
+        this.bucketSelector = lookupByPrimaryKey ? bucketSelector : null;
     }
 
 
     @Override
     public void open(FunctionContext context) throws Exception {
         super.open(context);
-        cache = new HashMap<>();
+        cache = null;
+        reloadedCache = null;
         nextLoadTime = -1L;
+        reloadFuture = null;
+        reloadError = null;
+        loadedBuckets = new HashSet<>();
+        offHeapBudget = offHeapCacheBytes > 0 ? new LakeSoulOffHeapLookupCache.MemoryBudget(offHeapCacheBytes) : null;
+        reloadExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lakesoul-lookup-cache-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
         fetcherContext.open();
     }
 
     public void eval(Object... values) {
         checkCacheReload();
         RowData lookupKey = GenericRowData.of(values);
+        if (bucketSelector != null) {
+            checkBucketLoaded(bucketSelector.getBucket(lookupKey));
+        }
         List<RowData> matchedRows = cache.get(lookupKey);
         if (matchedRows != null) {
             for (RowData matchedRow : matchedRows) {
@@ -95,48 +191,122 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
     }
 
     private void checkCacheReload() {
-        if (nextLoadTime > System.currentTimeMillis()) {
+        swapReloadedCache();
+        if (cache == null) {
+            // nothing to serve lookups with yet, so the first load blocks
+            LOG.info("Populating lookup join cache");
+            cache = loadCache(null, loadedBuckets);
             return;
         }
-        if (nextLoadTime > 0) {
-            LOG.info(
-                    "Lookup join cache has expired after {} minute(s), reloading",
-                    reloadInterval.toMinutes());
-        } else {
-            LOG.info("Populating lookup join cache");
+        if (nextLoadTime > System.currentTimeMillis() || (reloadFuture != null && !reloadFuture.isDone()) ||
+                reloadedCache != null) {
+            return;
+        }
+        LOG.info(
+                "Lookup join cache has expired after {} minute(s), reloading in background",
+                reloadInterval.toMinutes());
+        LakeSoulLookupCache current = cache;
+        Set<Integer> buckets = new HashSet<>(loadedBuckets);
+        // lookups keep being served by the current cache until the reloaded one is swapped in
+        reloadFuture = reloadExecutor.submit(() -> {
+            try {
+                reloadedCache = loadCache(current, buckets);
+            } catch (Throwable t) {
+                reloadError = t;
+            }
+        });
+    }
+
+    private void swapReloadedCache() {
+        if (reloadError instanceof LakeSoulOffHeapLookupCache.MemoryBudgetExceededException) {
+            // the current cache and the reloaded one do not fit into the budget together, so release the current one
+            // and reload in the foreground
+            LOG.warn("Lookup join cache could not be reloaded in background within its memory budget, reloading " +
+                    "in foreground", reloadError);
+            reloadError = null;
+            LakeSoulLookupCache replaced = cache;
+            // a failed foreground reload is retried by the next lookup instead of serving a closed cache
+            cache = null;
+            replaced.close();
+            cache = loadCache(null, loadedBuckets);
+            return;
+        }
+        if (reloadError != null) {
+            throw new FlinkRuntimeException("Failed to reload lookup join cache", reloadError);
+        }
+        LakeSoulLookupCache reloaded = reloadedCache;
+        if (reloaded != null) {
+            // the replaced cache is released here since no lookup could be using it any more
+            reloadedCache = null;
+            LakeSoulLookupCache replaced = cache;
+            cache = reloaded;
+            replaced.close();
+        }
+    }
+
+    /**
+     * Load the hash bucket into the cache if it is not loaded yet, the buckets of a table are loaded on demand so that
+     * a subtask probed by keys partitioned the same way as the buckets only caches its share of the table.
+     */
+    private void checkBucketLoaded(int bucket) {
+        if (loadedBuckets.contains(bucket)) return;
+        if (reloadFuture != null) {
+            // a reload is unaware of this bucket and would drop it, so wait for it to be swapped in first
+            try {
+                reloadFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FlinkRuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new FlinkRuntimeException(e);
+            }
+            swapReloadedCache();
         }
+        LOG.info("Loading hash bucket {} into lookup join cache", bucket);
+        Set<Integer> buckets = Collections.singleton(bucket);
+        // rows are read before touching the cache, so that a failed attempt leaves nothing to roll back
+        List<RowData> rows = withRetries(numRetry ->
+                readRows(bucketSelector.selectBuckets(partitionFetcher.fetch(fetcherContext), buckets)));
+        // primary keys of the bucket are not in the cache yet, so its rows are added without copying the cache
+        cache.addAll(rows);
+        loadedBuckets.add(bucket);
+        LOG.info("Loaded {} row(s) of hash bucket {} into lookup join cache", rows.size(), bucket);
+    }
+
+    /**
+     * Load the table, or only the given buckets of it, into a new cache, by applying the changes since the current
+     * cache was loaded if possible.
+     */
+    private LakeSoulLookupCache loadCache(@Nullable LakeSoulLookupCache current, Set<Integer> buckets) {
+        return withRetries(numRetry -> {
+            LakeSoulLookupCache loaded = null;
+            // the delta fetcher may have moved past the changes of a failed attempt, so reload everything on retry
+            if (numRetry == 0 && current != null && deltaFetcher != null) {
+                List<P> delta = deltaFetcher.fetchDelta();
+                if (delta != null) {
+                    if (bucketSelector != null) {
+                        delta = bucketSelector.selectBuckets(delta, buckets);
+                    }
+                    loaded = upsertRows(current, delta);
+                }
+            }
+            if (loaded == null) {
+                loaded = loadAll(buckets);
+            }
+            nextLoadTime = System.currentTimeMillis() + reloadInterval.toMillis();
+            return loaded;
+        });
+    }
+
+    private <T> T withRetries(CacheLoader<T> loader) {
         int numRetry = 0;
         // load data from lakesoul to cache
         while (true) {
-            cache.clear();
             try {
-                long count = 0;
-                GenericRowData reuse = new GenericRowData(rowType.getFieldCount());
-//                List<LakeSoulPartition> partitionList = (List<LakeSoulPartition>) partitionFetcher.fetch(fetcherContext);
-                partitionReader.
-                        open(partitionFetcher.fetch(fetcherContext));
-                RowData row;
-                while ((row = partitionReader.read(reuse)) != null) {
-                    count++;
-                    RowData rowData = serializer.copy(row);
-                    RowData key = extractLookupKey(rowData);
-                    List<RowData> rows = cache.computeIfAbsent(key, k -> new ArrayList<>());
-                    rows.add(rowData);
-
-                    if (cache.size() >= CACHE_MAX_SIZE) {
-                        LOG.warn(
-                                String.format(
-                                        "Lookup Cache has cached %d records with %d rows, other rows will not be cached",
-                                        cache.size(),
-                                        count)
-                                );
-                        break;
-                    }
-                }
-                partitionReader.close();
-                nextLoadTime = System.currentTimeMillis() + reloadInterval.toMillis();
-                LOG.info("Loaded {} row(s) into lookup join cache", count);
-                return;
+                return loader.load(numRetry);
+            } catch (LakeSoulOffHeapLookupCache.MemoryBudgetExceededException e) {
+                // retrying would not make the table fit
+                throw e;
             } catch (Exception e) {
                 if (numRetry >= MAX_RETRIES) {
                     throw new FlinkRuntimeException(
@@ -161,16 +331,130 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
         }
     }
 
-    private RowData extractLookupKey(RowData row) {
-        GenericRowData key = new GenericRowData(lookupFieldGetters.length);
-        for (int i = 0; i < lookupFieldGetters.length; i++) {
-            key.setField(i, lookupFieldGetters[i].getFieldOrNull(row));
+    private LakeSoulLookupCache loadAll(Set<Integer> buckets) throws Exception {
+        if (deltaFetcher != null) {
+            deltaFetcher.markLoaded();
+        }
+        LakeSoulLookupCache.Builder builder = offHeapCacheBytes > 0 ?
+                LakeSoulOffHeapLookupCache.builder(rowType, lookupKeys, lookupFieldGetters, primaryKeyGetters,
+                        offHeapBudget) :
+                LakeSoulHeapLookupCache.builder(rowType, lookupFieldGetters, primaryKeyGetters, lookupByPrimaryKey,
+                        CACHE_MAX_SIZE);
+        try {
+            long count = 0;
+            List<P> partitions = partitionFetcher.fetch(fetcherContext);
+            if (bucketSelector != null) {
+                partitions = bucketSelector.selectBuckets(partitions, buckets);
+            }
+            GenericRowData reuse = new GenericRowData(rowType.getFieldCount());
+            partitionReader.open(partitions);
+            RowData row;
+            while ((row = partitionReader.read(reuse)) != null) {
+                if (!builder.add(row)) break;
+                count++;
+            }
+            partitionReader.close();
+            LOG.info("Loaded {} row(s) into lookup join cache", count);
+            return builder.build();
+        } catch (Exception e) {
+            builder.discard();
+            throw e;
+        }
+    }
+
+    private List<RowData> readRows(List<P> partitions) throws Exception {
+        List<RowData> rows = new ArrayList<>();
+        GenericRowData reuse = new GenericRowData(rowType.getFieldCount());
+        partitionReader.open(partitions);
+        RowData row;
+        while ((row = partitionReader.read(reuse)) != null) {
+            rows.add(serializer.copy(row));
         }
-        return key;
+        partitionReader.close();
+        return rows;
+    }
+
+    private LakeSoulLookupCache upsertRows(LakeSoulLookupCache current, List<P> partitions) throws Exception {
+        // the latest row of each primary key
+        Map<RowData, RowData> changedRows = new LinkedHashMap<>();
+        // fields of the changed rows missing from all the files they are read from, taken from the cached rows
+        Map<RowData, BitSet> missingFields = new HashMap<>();
+        List<BitSet> missingFieldsOfPartitions = new ArrayList<>();
+        boolean allFieldsExist = true;
+        for (P partition : partitions) {
+            BitSet missing = missingFields(deltaFetcher.existColumns(partition));
+            missingFieldsOfPartitions.add(missing);
+            allFieldsExist &= missing.isEmpty();
+        }
+        if (allFieldsExist) {
+            readChangedRows(partitions, new BitSet(), changedRows, missingFields);
+        } else {
+            // partitions are read one by one in commit order to merge rows of different columns like merge on read
+            for (int i = 0; i < partitions.size(); i++) {
+                readChangedRows(Collections.singletonList(partitions.get(i)), missingFieldsOfPartitions.get(i),
+                        changedRows, missingFields);
+            }
+        }
+        LakeSoulLookupCache updated = current.upsert(changedRows, missingFields);
+        LOG.info("Upserted {} row(s) from {} partition(s) into lookup join cache", changedRows.size(),
+                partitions.size());
+        return updated;
+    }
+
+    private void readChangedRows(List<P> partitions, BitSet missing, Map<RowData, RowData> changedRows,
+                                 Map<RowData, BitSet> missingFields) throws Exception {
+        GenericRowData reuse = new GenericRowData(rowType.getFieldCount());
+        partitionReader.open(partitions);
+        RowData row;
+        while ((row = partitionReader.read(reuse)) != null) {
+            RowData rowData = serializer.copy(row);
+            RowData key = LakeSoulLookupCache.extractKey(rowData, primaryKeyGetters);
+            RowData previous = changedRows.get(key);
+            if (missing.isEmpty()) {
+                missingFields.remove(key);
+            } else if (previous == null) {
+                missingFields.put(key, missing);
+            } else {
+                rowData = LakeSoulLookupCache.mergeMissingFields(previous, rowData, missing, fieldGetters);
+                BitSet previousMissing = missingFields.get(key);
+                if (previousMissing != null) {
+                    BitSet stillMissing = (BitSet) previousMissing.clone();
+                    stillMissing.and(missing);
+                    if (stillMissing.isEmpty()) {
+                        missingFields.remove(key);
+                    } else {
+                        missingFields.put(key, stillMissing);
+                    }
+                }
+            }
+            changedRows.put(key, rowData);
+        }
+        partitionReader.close();
+    }
+
+    private BitSet missingFields(@Nullable Collection<String> existColumns) {
+        BitSet missing = new BitSet();
+        if (existColumns == null) return missing;
+        List<String> fieldNames = rowType.getFieldNames();
+        for (int i = 0; i < fieldNames.size(); i++) {
+            if (!existColumns.contains(fieldNames.get(i))) {
+                missing.set(i);
+            }
+        }
+        return missing;
     }
 
     @Override
     public void close() throws Exception {
+        if (reloadExecutor != null) {
+            reloadExecutor.shutdownNow();
+        }
+        if (cache != null) {
+            cache.close();
+        }
+        if (reloadedCache != null) {
+            reloadedCache.close();
+        }
         this.fetcherContext.close();
     }
 
@@ -193,4 +477,9 @@ public class LakeSoulTableLookupFunction<P> extends TableFunction<RowData> {
     public PartitionReader<P, RowData> getPartitionReader() {
         return partitionReader;
     }
+
+    @FunctionalInterface
+    private interface CacheLoader<T> {
+        T load(int numRetry) throws Exception;
+    }
 }
@@ -135,6 +135,7 @@ public class LakeSoulTableSink implements DynamicTableSink, SupportsPartitioning
         //file rolling rule
         LakeSoulRollingPolicyImpl rollingPolicy = new LakeSoulRollingPolicyImpl(flinkConf.getLong(FILE_ROLLING_SIZE),
                 flinkConf.getLong(FILE_ROLLING_TIME));
+        rollingPolicy.setRollOnCheckpoint(flinkConf.getBoolean(FILE_ROLLING_ON_CHECKPOINT));
         //rowData sink fileSystem Task
         LakeSoulMultiTablesSink<RowData, RowData> sink = LakeSoulMultiTablesSink.forOneTableBulkFormat(path,
                         new TableSchemaIdentity(new TableId(io.debezium.relational.TableId.parse(summaryName)), rowType,
@@ -4,6 +4,8 @@
 
 package org.apache.flink.lakesoul.table;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
 import com.dmetasoul.lakesoul.meta.DBConfig;
 import com.dmetasoul.lakesoul.meta.DBManager;
 import com.dmetasoul.lakesoul.meta.DBUtil;
@@ -14,21 +16,34 @@ import io.substrait.expression.Expression;
 import io.substrait.proto.Plan;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.flink.api.java.io.CollectionInputFormat;
 import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.lakesoul.metadata.LakeSoulStatistics;
 import org.apache.flink.lakesoul.source.LakeSoulRowDataSource;
 import org.apache.flink.lakesoul.substrait.SubstraitFlinkUtil;
+import org.apache.flink.lakesoul.tool.FlinkUtil;
 import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
 import org.apache.flink.lakesoul.types.TableId;
 import org.apache.flink.table.connector.ChangelogMode;
 import org.apache.flink.table.connector.RowLevelModificationScanContext;
 import org.apache.flink.table.connector.source.DynamicTableSource;
+import org.apache.flink.table.connector.source.InputFormatProvider;
 import org.apache.flink.table.connector.source.ScanTableSource;
 import org.apache.flink.table.connector.source.SourceProvider;
+import org.apache.flink.table.connector.source.abilities.SupportsAggregatePushDown;
+import org.apache.flink.table.connector.source.abilities.SupportsDynamicFiltering;
 import org.apache.flink.table.connector.source.abilities.SupportsFilterPushDown;
+import org.apache.flink.table.connector.source.abilities.SupportsLimitPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsProjectionPushDown;
 import org.apache.flink.table.connector.source.abilities.SupportsRowLevelModificationScan;
+import org.apache.flink.table.connector.source.abilities.SupportsStatisticReport;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.expressions.AggregateExpression;
 import org.apache.flink.table.expressions.ResolvedExpression;
+import org.apache.flink.table.plan.stats.TableStats;
 import org.apache.flink.table.runtime.arrow.ArrowUtils;
+import org.apache.flink.table.runtime.typeutils.InternalSerializers;
+import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.table.types.logical.RowType;
 import org.apache.flink.table.types.logical.VarCharType;
@@ -46,7 +61,8 @@ import static com.dmetasoul.lakesoul.lakesoul.io.substrait.SubstraitUtil.not;
 import static com.dmetasoul.lakesoul.lakesoul.io.substrait.SubstraitUtil.substraitExprToProto;
 
 public class LakeSoulTableSource
-        implements SupportsFilterPushDown, SupportsProjectionPushDown, ScanTableSource,
+        implements SupportsFilterPushDown, SupportsProjectionPushDown, SupportsLimitPushDown,
+        SupportsAggregatePushDown, SupportsStatisticReport, SupportsDynamicFiltering, ScanTableSource,
         SupportsRowLevelModificationScan {
 
     private static final Logger LOG = LoggerFactory.getLogger(LakeSoulTableSource.class);
@@ -74,6 +90,20 @@ public class LakeSoulTableSource
     protected LakeSoulRowLevelModificationScanContext modificationContext;
     protected Plan partitionFilters;
 
+    @Nullable
+    protected Long limit;
+
+    // rows of pushed down aggregates answered from metadata
+    @Nullable
+    protected List<RowData> aggregatedRows;
+
+    @Nullable
+    protected RowType aggregatedRowType;
+
+    // partition columns to prune splits by at runtime with values of the other join side
+    @Nullable
+    protected List<String> dynamicFilterFields;
+
 
     public LakeSoulTableSource(TableId tableId,
                                RowType rowType,
@@ -101,6 +131,10 @@ public class LakeSoulTableSource
         newInstance.projectedFields = this.projectedFields;
         newInstance.remainingPartitions = this.remainingPartitions;
         newInstance.pushedFilters = this.pushedFilters;
+        newInstance.limit = this.limit;
+        newInstance.aggregatedRows = this.aggregatedRows;
+        newInstance.aggregatedRowType = this.aggregatedRowType;
+        newInstance.dynamicFilterFields = this.dynamicFilterFields;
         return newInstance;
     }
 
@@ -233,6 +267,84 @@ public class LakeSoulTableSource
         this.projectedFields = projectedFields;
     }
 
+    @Override
+    public void applyLimit(long limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public boolean applyAggregates(List<int[]> groupingSets, List<AggregateExpression> aggregateExpressions,
+                                   DataType producedDataType) {
+        if (!isBounded || isDelete()) {
+            return false;
+        }
+        LakeSoulMetadataAggregator aggregator = LakeSoulMetadataAggregator.forPushDown(tableRowType, readFields(),
+                partitionColumns, pkColumns, optionParams, pushedFilters != null, groupingSets,
+                aggregateExpressions);
+        if (aggregator == null) {
+            return false;
+        }
+        TableInfo tableInfo =
+                new DBManager().getTableInfoByNameAndNamespace(tableId.table(), tableId.schema());
+        List<RowData> rows = aggregator.aggregate(
+                FlinkUtil.getTargetDataFileInfo(tableInfo, remainingPartitions), partitionColumns);
+        if (rows == null) {
+            LOG.info("Could not push down {} for files without stats of table {}", aggregator, tableId);
+            return false;
+        }
+        LOG.info("Pushed down {}, answered with {} rows from metadata of table {}", aggregator, rows.size(),
+                tableId);
+        this.aggregatedRows = rows;
+        this.aggregatedRowType = (RowType) producedDataType.getLogicalType();
+        return true;
+    }
+
+    @Override
+    public List<String> listAcceptedFilterFields() {
+        if (!isBounded) {
+            return Collections.emptyList();
+        }
+        return partitionColumns.stream()
+                .filter(this::isRestorablePartitionColumn)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void applyDynamicFiltering(List<String> candidateFilterFields) {
+        LOG.info("Applied dynamic filtering on partition columns {} of table {}", candidateFilterFields, tableId);
+        this.dynamicFilterFields = candidateFilterFields;
+    }
+
+    @Override
+    public TableStats reportStatistics() {
+        if (aggregatedRows != null) {
+            return new TableStats(aggregatedRows.size());
+        }
+        // statistics describe the latest snapshot, not the files of time travel reads
+        if (!isBounded || !FlinkUtil.isFullRead(optionParams)) {
+            return TableStats.UNKNOWN;
+        }
+        // statistics of the partitions left after partition pruning
+        DBManager dbManager = new DBManager();
+        TableInfo tableInfo = dbManager.getTableInfoByNameAndNamespace(tableId.table(), tableId.schema());
+        List<PartitionInfo> partitionInfos = dbManager.getAllPartitionInfo(tableInfo.getTableId());
+        if (remainingPartitions != null) {
+            Set<String> remainingPartitionDescs =
+                    remainingPartitions.stream().map(DBUtil::formatPartitionDesc).collect(Collectors.toSet());
+            partitionInfos = partitionInfos.stream()
+                    .filter(partitionInfo -> remainingPartitionDescs.contains(partitionInfo.getPartitionDesc()))
+                    .collect(Collectors.toList());
+        }
+        JSONObject properties = JSON.parseObject(tableInfo.getProperties());
+        return LakeSoulStatistics.of(partitionInfos, partitionColumns, !pkColumns.isEmpty(),
+                        properties.getJSONObject(LakeSoulStatistics.STATISTICS_PROPERTY))
+                .toTableStats(tableRowType);
+    }
+
+    private boolean isRestorablePartitionColumn(String column) {
+        return LakeSoulMetadataAggregator.isRestorablePartitionColumn(tableRowType, partitionColumns, column);
+    }
+
     private List<PartitionInfo> listPartitionInfo() {
         DBManager dbManager = new DBManager();
         TableInfo tableInfo =
@@ -295,6 +407,10 @@ public class LakeSoulTableSource
 
     @Override
     public ScanRuntimeProvider getScanRuntimeProvider(ScanContext scanContext) {
+        if (aggregatedRows != null) {
+            return InputFormatProvider.of(
+                    new CollectionInputFormat<>(aggregatedRows, InternalSerializers.create(aggregatedRowType)));
+        }
         String cdcColumn = optionParams.getOrDefault(LakeSoulSinkOptions.CDC_CHANGE_COLUMN,
                 "");
 
@@ -310,7 +426,9 @@ public class LakeSoulTableSource
                         this.optionParams,
                         this.remainingPartitions,
                         this.pushedFilters,
-                        this.partitionFilters
+                        this.partitionFilters,
+                        this.limit,
+                        this.dynamicFilterFields
                 ));
     }
 
@@ -328,6 +446,9 @@ public class LakeSoulTableSource
                 ", pushedFilters=" + pushedFilters +
                 ", modificationContext=" + modificationContext +
                 ", partitionFilters=" + partitionFilters +
+                ", limit=" + limit +
+                ", aggregatedRows=" + aggregatedRows +
+                ", dynamicFilterFields=" + dynamicFilterFields +
                 '}';
     }
 
@@ -22,6 +22,7 @@ import org.apache.flink.configuration.GlobalConfiguration;
 import org.apache.flink.core.fs.FileSystem;
 import org.apache.flink.core.fs.Path;
 import org.apache.flink.core.fs.SafetyNetWrapperFileSystem;
+import org.apache.flink.lakesoul.metadata.LakeSoulStatistics;
 import org.apache.flink.runtime.fs.hdfs.HadoopFileSystem;
 import org.apache.flink.runtime.util.HadoopUtils;
 import org.apache.flink.table.api.DataTypes;
@@ -69,6 +70,8 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
+import static com.dmetasoul.lakesoul.meta.DBConfig.LAKESOUL_EMPTY_STRING;
+import static com.dmetasoul.lakesoul.meta.DBConfig.LAKESOUL_NULL_STRING;
 import static java.time.ZoneId.SHORT_IDS;
 import static org.apache.flink.lakesoul.tool.JobOptions.*;
 import static org.apache.flink.lakesoul.tool.LakeSoulSinkOptions.*;
@@ -216,11 +219,8 @@ public class FlinkUtil {
         }
     }
 
-    public static CatalogBaseTable toFlinkCatalog(TableInfo tableInfo) {
+    public static RowType toRowType(TableInfo tableInfo) {
         String tableSchema = tableInfo.getTableSchema();
-        JSONObject properties = JSON.parseObject(tableInfo.getProperties());
-        properties.put(CATALOG_PATH.key(), tableInfo.getTablePath());
-
         org.apache.arrow.vector.types.pojo.Schema arrowSchema = null;
         if (TableInfoDao.isArrowKindSchema(tableSchema)) {
             try {
@@ -232,7 +232,16 @@ public class FlinkUtil {
             StructType struct = (StructType) org.apache.spark.sql.types.DataType.fromJson(tableSchema);
             arrowSchema = org.apache.spark.sql.arrow.ArrowUtils.toArrowSchema(struct, ZoneId.of("UTC").toString());
         }
-        RowType rowType = ArrowUtils.fromArrowSchema(arrowSchema);
+        return ArrowUtils.fromArrowSchema(arrowSchema);
+    }
+
+    public static CatalogBaseTable toFlinkCatalog(TableInfo tableInfo) {
+        JSONObject properties = JSON.parseObject(tableInfo.getProperties());
+        properties.put(CATALOG_PATH.key(), tableInfo.getTablePath());
+        // statistics are reported by catalog instead of being table options
+        properties.remove(LakeSoulStatistics.STATISTICS_PROPERTY);
+
+        RowType rowType = toRowType(tableInfo);
         Builder bd = Schema.newBuilder();
 
         String lakesoulCdcColumnName = properties.getString(CDC_CHANGE_COLUMN);
@@ -425,6 +434,28 @@ public class FlinkUtil {
         }
     }
 
+    /**
+     * Converts a value of partition desc, which might be a null or empty string placeholder, to internal value.
+     */
+    public static Object convertPartitionValueToInternalValue(String valStr, LogicalType type) {
+        if (valStr == null || valStr.equals(LAKESOUL_NULL_STRING)) {
+            return null;
+        }
+        if (valStr.equals(LAKESOUL_EMPTY_STRING)) {
+            return StringData.fromString("");
+        }
+        return convertStringToInternalValue(valStr, type);
+    }
+
+    /**
+     * Whether a bounded read of the given options reads the latest snapshot, which is what
+     * {@link #getTargetDataFileInfo} resolves. Snapshot and incremental reads resolve other files.
+     */
+    public static boolean isFullRead(Map<String, String> optionParams) {
+        String readType = optionParams.getOrDefault(LakeSoulOptions.READ_TYPE(), "");
+        return readType.isEmpty() || readType.equals(LakeSoulOptions.ReadType$.MODULE$.FULL_READ());
+    }
+
     public static DataFileInfo[] getTargetDataFileInfo(TableInfo tif, List<Map<String, String>> remainingPartitions) {
         if (remainingPartitions == null) {
             return DataOperation.getTableDataInfo(tif.getTableId());
@@ -6,6 +6,7 @@ package org.apache.flink.lakesoul.tool;
 
 import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
+import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.description.Description;
 
 import java.time.Duration;
@@ -45,6 +46,59 @@ public class JobOptions {
             .withDescription(
                     "The cache TTL (e.g. 10min) for the build table in lookup join.");
 
+    public static final ConfigOption<Boolean> LOOKUP_JOIN_CACHE_INCREMENTAL_REFRESH = ConfigOptions
+            .key("lookup.join.cache.incremental-refresh")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription(
+                    "Whether to refresh the lookup join cache of a primary key table by applying the files committed " +
+                            "since last load instead of reloading the whole table. Overwrites and deletes of " +
+                            "partitions still cause a full reload.");
+
+    public static final ConfigOption<Boolean> LOOKUP_JOIN_CACHE_OFF_HEAP = ConfigOptions
+            .key("lookup.join.cache.off-heap")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription(
+                    "Whether to keep rows of the lookup join cache serialized in off-heap memory, which is bounded " +
+                            "by 'lookup.join.cache.max-bytes' instead of a number of keys. The off-heap memory " +
+                            "should be reserved by 'taskmanager.memory.task.off-heap.size'.");
+
+    public static final ConfigOption<MemorySize> LOOKUP_JOIN_CACHE_MAX_BYTES = ConfigOptions
+            .key("lookup.join.cache.max-bytes")
+            .memoryType()
+            .defaultValue(MemorySize.ofMebiBytes(1024))
+            .withDescription(
+                    "Memory budget of the off-heap lookup join cache of each subtask. Loading a table exceeding the " +
+                            "budget fails. A background reload shares the budget with the previous cache, and " +
+                            "falls back to releasing the previous cache and reloading in the foreground if both " +
+                            "do not fit.");
+
+    public static final ConfigOption<Boolean> LOOKUP_JOIN_CACHE_PARTIAL_BUCKET_LOAD = ConfigOptions
+            .key("lookup.join.cache.partial-bucket-load")
+            .booleanType()
+            .defaultValue(false)
+            .withDescription(
+                    "Whether to load hash buckets of a primary key table into the lookup join cache only when they " +
+                            "are probed, which requires the lookup keys to be the primary keys. If the probe side is " +
+                            "partitioned by the same hash as the table, each subtask only caches its own buckets.");
+
+    public static final ConfigOption<MemorySize> SOURCE_SPLIT_TARGET_SIZE = ConfigOptions
+            .key("source.split.target-size")
+            .memoryType()
+            .defaultValue(MemorySize.ofMebiBytes(128))
+            .withDescription(
+                    "Target size of a split in batch read of tables without primary keys. Smaller files of a " +
+                            "partition are packed into one split, and larger files are split by row group ranges.");
+
+    public static final ConfigOption<MemorySize> SOURCE_SPLIT_OPEN_FILE_COST = ConfigOptions
+            .key("source.split.open-file-cost")
+            .memoryType()
+            .defaultValue(MemorySize.ofMebiBytes(4))
+            .withDescription(
+                    "Estimated cost of opening a file in bytes, counted as the minimum size of a file when packing " +
+                            "small files into splits, so that a split does not hold too many tiny files.");
+
     public static final ConfigOption<Boolean> STREAMING_SOURCE_ENABLE =
             key("streaming-source.enable")
                     .booleanType()
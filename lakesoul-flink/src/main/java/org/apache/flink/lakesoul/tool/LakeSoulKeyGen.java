@@ -53,6 +53,14 @@ public class LakeSoulKeyGen implements Serializable {
     }
   }
 
+  /**
+   * Hash bucket of a hash computed by {@link #getRePartitionHash}, the same as the bucket id the native writer gives to
+   * data files, which takes the 32-bit hash as unsigned.
+   */
+  public static int getBucketId(long hash, int hashBucketNum) {
+    return Integer.remainderUnsigned((int) hash, hashBucketNum);
+  }
+
   public static long getHash(LogicalType type, Object field, long seed) {
 
     switch (type.getTypeRoot()) {
@@ -99,6 +99,14 @@ public class LakeSoulSinkOptions {
             .defaultValue(DEFAULT_BUCKET_ROLLING_TIME)
             .withDescription("file rolling time in milliseconds");
 
+    public static final ConfigOption<Boolean> FILE_ROLLING_ON_CHECKPOINT = ConfigOptions
+            .key("lakesoul.file.rolling.on_checkpoint")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription("If false, part files of tables without primary keys are kept open across " +
+                    "checkpoints and only roll by rows or time. Data written before a checkpoint is staged " +
+                    "and becomes visible once the file rolls");
+
     public static final ConfigOption<Long> BUCKET_CHECK_INTERVAL = ConfigOptions
             .key("lakesoul.rolling.check.interval")
             .longType()
@@ -178,6 +186,13 @@ public class LakeSoulSinkOptions {
             .defaultValue(250000)
             .withDescription("Max row group size for LakeSoul writer");
 
+    public static final ConfigOption<Integer> MAX_IN_FLIGHT_BATCHES = ConfigOptions
+            .key("lakesoul.file.max_in_flight_batches")
+            .intType()
+            .defaultValue(2)
+            .withDescription("Max number of row groups handed to native writer and not yet written, " +
+                    "writer blocks once it is reached");
+
     public static final ConfigOption<String> SOURCE_DB_SCHEMA_TABLES = ConfigOptions
             .key("source_db.schema_tables")
             .stringType()
@@ -214,6 +229,13 @@ public class LakeSoulSinkOptions {
             .defaultValue(false)
             .withDescription("If true, lakesoul source will infer schema from files");
 
+    public static final ConfigOption<Boolean> BATCH_COMMIT = ConfigOptions
+            .key("lakesoul.sink.batch_commit")
+            .booleanType()
+            .defaultValue(true)
+            .withDescription("If true, lakesoul sink commits appended files of all partitions of a table " +
+                    "in one checkpoint with a single metadata transaction");
+
 }
 
 
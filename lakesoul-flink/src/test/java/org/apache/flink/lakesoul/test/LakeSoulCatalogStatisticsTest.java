@@ -0,0 +1,127 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import com.dmetasoul.lakesoul.meta.DBManager;
+import org.apache.flink.lakesoul.metadata.LakeSoulStatistics;
+import org.apache.flink.lakesoul.test.flinkSource.TestUtils;
+import org.apache.flink.table.api.TableEnvironment;
+import org.apache.flink.table.catalog.Catalog;
+import org.apache.flink.table.catalog.CatalogPartitionSpec;
+import org.apache.flink.table.catalog.ObjectPath;
+import org.apache.flink.table.catalog.exceptions.TableNotExistException;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatistics;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataLong;
+import org.apache.flink.table.catalog.stats.CatalogColumnStatisticsDataString;
+import org.apache.flink.table.catalog.stats.CatalogTableStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LakeSoulCatalogStatisticsTest extends AbstractTestBase {
+
+    private static final ObjectPath TABLE_PATH = new ObjectPath("default", "catalog_statistics_test");
+
+    private static final CatalogPartitionSpec CHINA =
+            new CatalogPartitionSpec(Collections.singletonMap("region", "China"));
+
+    private TableEnvironment tEnv;
+
+    private Catalog catalog;
+
+    @Before
+    public void before() throws ExecutionException, InterruptedException {
+        tEnv = TestUtils.createTableEnv(TestUtils.BATCH_TYPE);
+        catalog = tEnv.getCatalog(tEnv.getCurrentCatalog()).get();
+        tEnv.executeSql("DROP TABLE if exists catalog_statistics_test");
+        tEnv.executeSql("create table catalog_statistics_test (id BIGINT, name STRING, region STRING) " +
+                "PARTITIONED BY (region) WITH ('format'='lakesoul', " +
+                String.format("'path'='%s')", getTempDirUri("/lakeSource/catalog_statistics_test")));
+        tEnv.executeSql("INSERT INTO catalog_statistics_test VALUES (1, 'a', 'China'), " +
+                "(2, cast(null as STRING), 'China'), (3, 'c', 'UK')").await();
+    }
+
+    private JSONObject analyzedProperty() {
+        String properties = new DBManager().getTableInfoByNameAndNamespace(TABLE_PATH.getObjectName(),
+                TABLE_PATH.getDatabaseName()).getProperties();
+        return JSON.parseObject(properties).getJSONObject(LakeSoulStatistics.STATISTICS_PROPERTY);
+    }
+
+    @Test
+    public void testStatisticsFromCommitMetadata() throws Exception {
+        CatalogTableStatistics tableStatistics = catalog.getTableStatistics(TABLE_PATH);
+        assertThat(tableStatistics.getRowCount()).isEqualTo(3);
+        assertThat(tableStatistics.getFileCount()).isGreaterThanOrEqualTo(2);
+        assertThat(tableStatistics.getTotalSize()).isGreaterThan(0);
+
+        CatalogColumnStatistics columnStatistics = catalog.getTableColumnStatistics(TABLE_PATH);
+        CatalogColumnStatisticsDataLong id =
+                (CatalogColumnStatisticsDataLong) columnStatistics.getColumnStatisticsData().get("id");
+        assertThat(id.getMin()).isEqualTo(1L);
+        assertThat(id.getMax()).isEqualTo(3L);
+        assertThat(id.getNullCount()).isEqualTo(0L);
+        assertThat(columnStatistics.getColumnStatisticsData().get("name").getNullCount()).isEqualTo(1L);
+        // distinct values of partition columns are the partitions
+        assertThat(((CatalogColumnStatisticsDataString) columnStatistics.getColumnStatisticsData().get("region"))
+                .getNdv()).isEqualTo(2L);
+
+        assertThat(catalog.getPartitionStatistics(TABLE_PATH, CHINA).getRowCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testStatisticsFollowNewCommits() throws Exception {
+        assertThat(catalog.getTableStatistics(TABLE_PATH).getRowCount()).isEqualTo(3);
+        tEnv.executeSql("INSERT INTO catalog_statistics_test VALUES (4, 'd', 'China')").await();
+        // stats of the new partition version are loaded instead of the cached ones
+        assertThat(catalog.getTableStatistics(TABLE_PATH).getRowCount()).isEqualTo(4);
+        assertThat(catalog.getPartitionStatistics(TABLE_PATH, CHINA).getRowCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testKeepAnalyzedStatistics() throws Exception {
+        catalog.alterTableColumnStatistics(TABLE_PATH, new CatalogColumnStatistics(Collections.singletonMap("name",
+                new CatalogColumnStatisticsDataString(1L, 1.0, 2L, 1L))), false);
+        catalog.alterPartitionStatistics(TABLE_PATH, CHINA,
+                new CatalogTableStatistics(2, 1, 100, -1), false);
+
+        JSONObject analyzed = analyzedProperty();
+        assertThat(analyzed.getJSONObject(DBConfig.LAKESOUL_NON_PARTITION_TABLE_PART_DESC)
+                .getJSONObject("columns").getJSONObject("name").getLongValue("ndv")).isEqualTo(2);
+        assertThat(analyzed.getJSONObject("region=China").getLongValue("rowCount")).isEqualTo(2);
+
+        // only distinct value counts are taken from the analyzed results
+        CatalogColumnStatisticsDataString name = (CatalogColumnStatisticsDataString)
+                catalog.getTableColumnStatistics(TABLE_PATH).getColumnStatisticsData().get("name");
+        assertThat(name.getNdv()).isEqualTo(2L);
+        assertThat(catalog.getTableStatistics(TABLE_PATH).getRowCount()).isEqualTo(3);
+
+        // the property is not exposed as a table option
+        assertThat(catalog.getTable(TABLE_PATH).getOptions())
+                .doesNotContainKey(LakeSoulStatistics.STATISTICS_PROPERTY);
+    }
+
+    @Test
+    public void testStatisticsOfMissingTable() throws Exception {
+        ObjectPath missing = new ObjectPath("default", "catalog_statistics_missing");
+        assertThatThrownBy(() -> catalog.getTableStatistics(missing)).isInstanceOf(TableNotExistException.class);
+        assertThatThrownBy(() -> catalog.alterTableStatistics(missing, CatalogTableStatistics.UNKNOWN, false))
+                .isInstanceOf(TableNotExistException.class);
+        catalog.alterTableStatistics(missing, CatalogTableStatistics.UNKNOWN, true);
+    }
+
+    @After
+    public void after() {
+        tEnv.executeSql("DROP TABLE if exists catalog_statistics_test");
+    }
+}
@@ -0,0 +1,103 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test;
+
+import org.apache.flink.api.connector.source.ReaderInfo;
+import org.apache.flink.api.connector.source.SourceEvent;
+import org.apache.flink.api.connector.source.SourceSplit;
+import org.apache.flink.api.connector.source.SplitEnumeratorContext;
+import org.apache.flink.api.connector.source.SplitsAssignment;
+import org.apache.flink.metrics.groups.SplitEnumeratorMetricGroup;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Split enumerator context running everything in the calling thread. Periodic calls are not scheduled, tests trigger
+ * the enumerator directly.
+ */
+public class MockSplitEnumeratorContext<SplitT extends SourceSplit> implements SplitEnumeratorContext<SplitT> {
+
+    private final int parallelism;
+
+    private final Map<Integer, ReaderInfo> registeredReaders = new HashMap<>();
+
+    private final Map<Integer, List<SplitT>> assignedSplits = new HashMap<>();
+
+    private final List<Integer> noMoreSplits = new ArrayList<>();
+
+    public MockSplitEnumeratorContext(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public void registerReader(int subtaskId) {
+        registeredReaders.put(subtaskId, new ReaderInfo(subtaskId, "localhost"));
+    }
+
+    public List<SplitT> getAssignedSplits(int subtaskId) {
+        return assignedSplits.getOrDefault(subtaskId, new ArrayList<>());
+    }
+
+    public List<Integer> getNoMoreSplits() {
+        return noMoreSplits;
+    }
+
+    @Override
+    public SplitEnumeratorMetricGroup metricGroup() {
+        return UnregisteredMetricsGroup.createSplitEnumeratorMetricGroup();
+    }
+
+    @Override
+    public void sendEventToSourceReader(int subtaskId, SourceEvent event) {
+    }
+
+    @Override
+    public int currentParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public Map<Integer, ReaderInfo> registeredReaders() {
+        return registeredReaders;
+    }
+
+    @Override
+    public void assignSplits(SplitsAssignment<SplitT> newSplitAssignments) {
+        newSplitAssignments.assignment().forEach((subtaskId, splits) ->
+                assignedSplits.computeIfAbsent(subtaskId, id -> new ArrayList<>()).addAll(splits));
+    }
+
+    @Override
+    public void signalNoMoreSplits(int subtask) {
+        noMoreSplits.add(subtask);
+    }
+
+    @Override
+    public <T> void callAsync(Callable<T> callable, BiConsumer<T, Throwable> handler) {
+        T result = null;
+        Throwable error = null;
+        try {
+            result = callable.call();
+        } catch (Throwable t) {
+            error = t;
+        }
+        handler.accept(result, error);
+    }
+
+    @Override
+    public <T> void callAsync(Callable<T> callable, BiConsumer<T, Throwable> handler, long initialDelay,
+                              long period) {
+    }
+
+    @Override
+    public void runInCoordinatorThread(Runnable runnable) {
+        runnable.run();
+    }
+}
@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import com.dmetasoul.lakesoul.meta.DataOperation;
+import org.apache.flink.lakesoul.source.LakeSoulAllPartitionDynamicSplitEnumerator;
+import org.apache.flink.lakesoul.source.LakeSoulDynSplitAssigner;
+import org.apache.flink.lakesoul.source.LakeSoulPartitionSplit;
+import org.apache.flink.lakesoul.test.AbstractTestBase;
+import org.apache.flink.lakesoul.test.MockSplitEnumeratorContext;
+import org.apache.flink.lakesoul.test.flinkSource.TestUtils;
+import org.apache.flink.table.api.TableEnvironment;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LakeSoulDynamicSplitEnumeratorTest extends AbstractTestBase {
+
+    private static final RowType ROW_TYPE = RowType.of(
+            new LogicalType[]{new IntType(), new VarCharType(VarCharType.MAX_LENGTH)},
+            new String[]{"id", "region"});
+
+    private TableEnvironment tEnv;
+
+    private String tableId;
+
+    @Before
+    public void before() throws ExecutionException, InterruptedException {
+        tEnv = TestUtils.createTableEnv(TestUtils.BATCH_TYPE);
+        tEnv.executeSql("DROP TABLE if exists dynamic_enumerator_test");
+        tEnv.executeSql("create table dynamic_enumerator_test (id INT, region STRING) " +
+                "PARTITIONED BY (region) WITH ('format'='lakesoul', " +
+                String.format("'path'='%s')", getTempDirUri("/lakeSource/dynamic_enumerator_test")));
+        tEnv.executeSql("INSERT INTO dynamic_enumerator_test VALUES (1, 'China'), (2, 'UK')").await();
+        tableId = DataOperation.dbManager().getTableInfoByNameAndNamespace("dynamic_enumerator_test", "default")
+                .getTableId();
+    }
+
+    private LakeSoulAllPartitionDynamicSplitEnumerator enumerator(boolean incrementalDiscovery, long changeLookback) {
+        return new LakeSoulAllPartitionDynamicSplitEnumerator(new MockSplitEnumeratorContext<>(1),
+                new LakeSoulDynSplitAssigner("-1"), ROW_TYPE, 1000, 0, tableId, "-1",
+                Collections.singletonList("region"), null, incrementalDiscovery, false, changeLookback);
+    }
+
+    private static Collection<String> partitionsOf(Collection<LakeSoulPartitionSplit> splits) {
+        return splits.stream().map(LakeSoulPartitionSplit::getPartitionDesc).collect(Collectors.toSet());
+    }
+
+    private void assertSkipsUnchangedPartitions(LakeSoulAllPartitionDynamicSplitEnumerator enumerator)
+            throws ExecutionException, InterruptedException {
+        assertThat(partitionsOf(enumerator.enumerateSplits())).containsExactlyInAnyOrder("region=China", "region=UK");
+        assertThat(enumerator.enumerateSplits()).isEmpty();
+
+        tEnv.executeSql("INSERT INTO dynamic_enumerator_test VALUES (3, 'UK')").await();
+        Collection<LakeSoulPartitionSplit> splits = enumerator.enumerateSplits();
+        assertThat(partitionsOf(splits)).containsExactly("region=UK");
+        assertThat(enumerator.enumerateSplits()).isEmpty();
+    }
+
+    @Test
+    public void testFullDiscoverySkipsUnchangedPartitions() throws ExecutionException, InterruptedException {
+        assertSkipsUnchangedPartitions(enumerator(false, 60000));
+    }
+
+    @Test
+    public void testIncrementalDiscoverySkipsUnchangedPartitions() throws ExecutionException, InterruptedException {
+        assertSkipsUnchangedPartitions(enumerator(true, 60000));
+    }
+
+    @Test
+    public void testIncrementalDiscoveryWithoutLookback() throws ExecutionException, InterruptedException {
+        // every discovery lists all partitions, versions already read are still skipped
+        assertSkipsUnchangedPartitions(enumerator(true, 0));
+    }
+}
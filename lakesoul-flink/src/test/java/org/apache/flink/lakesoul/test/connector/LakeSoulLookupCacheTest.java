@@ -0,0 +1,207 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import org.apache.flink.lakesoul.table.LakeSoulHeapLookupCache;
+import org.apache.flink.lakesoul.table.LakeSoulLookupCache;
+import org.apache.flink.lakesoul.table.LakeSoulOffHeapLookupCache;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LakeSoulLookupCacheTest {
+
+    // id is the primary key, rows are looked up by grp
+    private static final RowType ROW_TYPE = RowType.of(
+            new BigIntType(), new VarCharType(VarCharType.MAX_LENGTH), new IntType());
+
+    private static final RowData.FieldGetter[] LOOKUP_KEY_GETTERS =
+            {RowData.createFieldGetter(new IntType(), 2)};
+
+    private static final RowData.FieldGetter[] PRIMARY_KEY_GETTERS =
+            {RowData.createFieldGetter(new BigIntType(), 0)};
+
+    private static final long MB = 1024 * 1024;
+
+    private static RowData row(long id, String name, int grp) {
+        return GenericRowData.of(id, StringData.fromString(name), grp);
+    }
+
+    private static List<String> names(LakeSoulLookupCache cache, int grp) {
+        List<RowData> rows = cache.get(GenericRowData.of(grp));
+        if (rows == null) return null;
+        return rows.stream().map(r -> r.getString(1).toString()).collect(Collectors.toList());
+    }
+
+    private static LakeSoulLookupCache.Builder offHeapBuilder(LakeSoulOffHeapLookupCache.MemoryBudget budget) {
+        return LakeSoulOffHeapLookupCache.builder(ROW_TYPE, new int[]{2}, LOOKUP_KEY_GETTERS, PRIMARY_KEY_GETTERS,
+                budget);
+    }
+
+    @Test
+    public void testOffHeapChainsRowsOfKeyInInsertionOrder() {
+        LakeSoulOffHeapLookupCache.MemoryBudget budget = new LakeSoulOffHeapLookupCache.MemoryBudget(64 * MB);
+        LakeSoulLookupCache.Builder builder = offHeapBuilder(budget);
+        // enough keys to resize the hash table several times
+        int numKeys = 5000;
+        for (int i = 0; i < 3; i++) {
+            for (int grp = 0; grp < numKeys; grp++) {
+                builder.add(row((long) i * numKeys + grp, grp + "-" + i, grp));
+            }
+        }
+        LakeSoulLookupCache cache = builder.build();
+        for (int grp = 0; grp < numKeys; grp++) {
+            assertThat(names(cache, grp)).containsExactly(grp + "-0", grp + "-1", grp + "-2");
+        }
+        assertThat(names(cache, numKeys)).isNull();
+        cache.close();
+        assertThat(budget.getUsedBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testOffHeapUpsertReplacesRowsOfPrimaryKeys() throws Exception {
+        LakeSoulOffHeapLookupCache.MemoryBudget budget = new LakeSoulOffHeapLookupCache.MemoryBudget(64 * MB);
+        LakeSoulLookupCache.Builder builder = offHeapBuilder(budget);
+        builder.add(row(1, "a", 1));
+        builder.add(row(2, "b", 1));
+        builder.add(row(3, "c", 2));
+        LakeSoulLookupCache cache = builder.build();
+
+        Map<RowData, RowData> changed = new LinkedHashMap<>();
+        // row 2 moves to another lookup key, row 3 is updated in place and row 4 is new
+        changed.put(GenericRowData.of(2L), row(2, "b2", 3));
+        changed.put(GenericRowData.of(3L), row(3, "c2", 2));
+        changed.put(GenericRowData.of(4L), row(4, "d", 1));
+        LakeSoulLookupCache upserted = cache.upsert(changed, Collections.emptyMap());
+
+        assertThat(names(upserted, 1)).containsExactly("a", "d");
+        assertThat(names(upserted, 2)).containsExactly("c2");
+        assertThat(names(upserted, 3)).containsExactly("b2");
+        // the cache upserted from is left unchanged
+        assertThat(names(cache, 1)).containsExactly("a", "b");
+        assertThat(names(cache, 3)).isNull();
+
+        cache.close();
+        upserted.close();
+        assertThat(budget.getUsedBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testOffHeapUpsertKeepsMissingFields() throws Exception {
+        LakeSoulOffHeapLookupCache.MemoryBudget budget = new LakeSoulOffHeapLookupCache.MemoryBudget(64 * MB);
+        LakeSoulLookupCache.Builder builder = offHeapBuilder(budget);
+        builder.add(row(1, "a", 1));
+        builder.add(row(2, "b", 1));
+        LakeSoulLookupCache cache = builder.build();
+        assertUpsertKeepsMissingFields(cache);
+        cache.close();
+    }
+
+    @Test
+    public void testHeapUpsertKeepsMissingFields() throws Exception {
+        LakeSoulLookupCache.Builder builder = LakeSoulHeapLookupCache.builder(ROW_TYPE, LOOKUP_KEY_GETTERS,
+                PRIMARY_KEY_GETTERS, false, 100);
+        builder.add(row(1, "a", 1));
+        builder.add(row(2, "b", 1));
+        assertUpsertKeepsMissingFields(builder.build());
+    }
+
+    private static void assertUpsertKeepsMissingFields(LakeSoulLookupCache cache) throws Exception {
+        // names are missing from the files of the changes, as if written by a partial update
+        BitSet nameMissing = new BitSet();
+        nameMissing.set(1);
+        Map<RowData, RowData> changed = new LinkedHashMap<>();
+        changed.put(GenericRowData.of(2L), row(2, null, 2));
+        changed.put(GenericRowData.of(3L), row(3, null, 2));
+        Map<RowData, BitSet> missingFields = new HashMap<>();
+        missingFields.put(GenericRowData.of(2L), nameMissing);
+        missingFields.put(GenericRowData.of(3L), nameMissing);
+        LakeSoulLookupCache upserted = cache.upsert(changed, missingFields);
+
+        assertThat(names(upserted, 1)).containsExactly("a");
+        List<RowData> rows = upserted.get(GenericRowData.of(2));
+        assertThat(rows).hasSize(2);
+        // the cached name is kept, and a new row without a cached one has no name
+        assertThat(rows.stream().map(r -> r.isNullAt(1) ? null : r.getString(1).toString()))
+                .containsExactlyInAnyOrder("b", null);
+        upserted.close();
+    }
+
+    @Test
+    public void testOffHeapCachesShareBudget() {
+        // one page of each cache fits, two do not
+        LakeSoulOffHeapLookupCache.MemoryBudget budget = new LakeSoulOffHeapLookupCache.MemoryBudget(6 * MB);
+        LakeSoulLookupCache.Builder builder = offHeapBuilder(budget);
+        builder.add(row(1, "a", 1));
+        LakeSoulLookupCache cache = builder.build();
+        long used = budget.getUsedBytes();
+        assertThat(used).isEqualTo(((LakeSoulOffHeapLookupCache) cache).getAllocatedBytes());
+
+        assertThatThrownBy(() -> cache.upsert(Collections.singletonMap(GenericRowData.of(2L), row(2, "b", 1)),
+                Collections.emptyMap()))
+                .isInstanceOf(LakeSoulOffHeapLookupCache.MemoryBudgetExceededException.class);
+        // the failed cache is released, the current one keeps serving lookups
+        assertThat(budget.getUsedBytes()).isEqualTo(used);
+        assertThat(names(cache, 1)).containsExactly("a");
+
+        cache.close();
+        assertThat(budget.getUsedBytes()).isEqualTo(0);
+        LakeSoulLookupCache.Builder reload = offHeapBuilder(budget);
+        reload.add(row(1, "a", 1));
+        reload.build().close();
+    }
+
+    @Test
+    public void testOffHeapRejectsTableExceedingBudget() {
+        LakeSoulOffHeapLookupCache.MemoryBudget budget = new LakeSoulOffHeapLookupCache.MemoryBudget(MB);
+        LakeSoulLookupCache.Builder builder = offHeapBuilder(budget);
+        assertThatThrownBy(() -> builder.add(row(1, "a", 1)))
+                .isInstanceOf(LakeSoulOffHeapLookupCache.MemoryBudgetExceededException.class);
+        builder.discard();
+        assertThat(budget.getUsedBytes()).isEqualTo(0);
+    }
+
+    @Test
+    public void testHeapCacheLimitsKeys() throws Exception {
+        LakeSoulLookupCache.Builder builder = LakeSoulHeapLookupCache.builder(ROW_TYPE, LOOKUP_KEY_GETTERS,
+                PRIMARY_KEY_GETTERS, false, 2);
+        assertThat(builder.add(row(1, "a", 1))).isTrue();
+        assertThat(builder.add(row(2, "b", 2))).isTrue();
+        assertThat(builder.add(row(3, "c", 3))).isFalse();
+        LakeSoulLookupCache cache = builder.build();
+        assertThat(names(cache, 1)).containsExactly("a");
+        assertThat(names(cache, 3)).isNull();
+
+        // rows of cached keys are still added
+        List<RowData> rows = new ArrayList<>(Arrays.asList(row(4, "d", 2), row(5, "e", 4)));
+        cache.addAll(rows);
+        assertThat(names(cache, 2)).containsExactly("b", "d");
+        assertThat(names(cache, 4)).isNull();
+
+        LakeSoulLookupCache upserted = cache.upsert(Collections.singletonMap(GenericRowData.of(1L), row(1, "a2", 4)),
+                Collections.emptyMap());
+        assertThat(names(upserted, 1)).isNull();
+        assertThat(names(upserted, 4)).isNull();
+        assertThat(names(cache, 1)).containsExactly("a");
+    }
+}
@@ -0,0 +1,181 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
+import com.dmetasoul.lakesoul.meta.LakeSoulOptions;
+import org.apache.flink.lakesoul.table.LakeSoulMetadataAggregator;
+import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.expressions.AggregateExpression;
+import org.apache.flink.table.expressions.FieldReferenceExpression;
+import org.apache.flink.table.functions.FunctionDefinition;
+import org.apache.flink.table.planner.functions.aggfunctions.Count1AggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.CountAggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.MaxAggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.MinAggFunction;
+import org.apache.flink.table.planner.functions.aggfunctions.SumAggFunction;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.apache.flink.table.types.utils.TypeConversions;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LakeSoulMetadataAggregatorTest {
+
+    // partitioned by date and hour
+    private static final RowType TABLE_TYPE = RowType.of(
+            new LogicalType[]{new BigIntType(),
+                    new VarCharType(VarCharType.MAX_LENGTH), new VarCharType(VarCharType.MAX_LENGTH), new IntType()},
+            new String[]{"id", "name", "date", "hour"});
+
+    private static final List<String> PARTITION_COLUMNS = Arrays.asList("date", "hour");
+
+    private static final int[] GROUP_BY_DATE = {2};
+
+    private static DataFileInfo file(String partitionDesc, long rows) {
+        return new DataFileInfo(partitionDesc, "file:///tmp/" + partitionDesc + "/" + rows + ".parquet", "add",
+                rows * 10, -1L, "", new DataFileStats(rows, Collections.emptyMap()).encode());
+    }
+
+    private static DataFileInfo fileWithoutStats(String partitionDesc) {
+        return new DataFileInfo(partitionDesc, "file:///tmp/" + partitionDesc + "/nostats.parquet", "add", 10, -1L,
+                "", "");
+    }
+
+    private static AggregateExpression aggregate(FunctionDefinition function, String... args) {
+        List<FieldReferenceExpression> references = Arrays.stream(args)
+                .map(arg -> new FieldReferenceExpression(arg,
+                        TypeConversions.fromLogicalToDataType(TABLE_TYPE.getTypeAt(TABLE_TYPE.getFieldIndex(arg))),
+                        0, TABLE_TYPE.getFieldIndex(arg)))
+                .collect(Collectors.toList());
+        return new AggregateExpression(function, references, null, DataTypes.BIGINT(), false, false, false);
+    }
+
+    private static LakeSoulMetadataAggregator forPushDown(List<String> pkColumns, Map<String, String> options,
+                                                          boolean hasNonPartitionFilters, int[] groupingSet,
+                                                          AggregateExpression... aggregates) {
+        return LakeSoulMetadataAggregator.forPushDown(TABLE_TYPE, TABLE_TYPE, PARTITION_COLUMNS, pkColumns, options,
+                hasNonPartitionFilters, Collections.singletonList(groupingSet), Arrays.asList(aggregates));
+    }
+
+    private static LakeSoulMetadataAggregator countMinMaxByDate(List<String> pkColumns, Map<String, String> options,
+                                                                boolean hasNonPartitionFilters) {
+        return forPushDown(pkColumns, options, hasNonPartitionFilters, GROUP_BY_DATE,
+                aggregate(new Count1AggFunction()),
+                aggregate(new MinAggFunction(new IntType()), "hour"),
+                aggregate(new MaxAggFunction(new IntType()), "hour"));
+    }
+
+    @Test
+    public void testAggregateGroupedByPartitionColumn() {
+        LakeSoulMetadataAggregator aggregator = countMinMaxByDate(Collections.emptyList(), new HashMap<>(), false);
+        assertThat(aggregator).isNotNull();
+        DataFileInfo[] files = {
+                file("date=2023-01-01,hour=1", 10),
+                file("date=2023-01-01,hour=1", 5),
+                file("date=2023-01-01,hour=2", 7),
+                file("date=2023-01-02,hour=1", 3),
+                // partitions without rows do not take part in min and max
+                file("date=2023-01-02,hour=5", 0),
+        };
+        List<RowData> rows = aggregator.aggregate(files, PARTITION_COLUMNS);
+        assertThat(rows).containsExactly(
+                GenericRowData.of(StringData.fromString("2023-01-01"), 22L, 1, 2),
+                GenericRowData.of(StringData.fromString("2023-01-02"), 3L, 1, 1));
+    }
+
+    @Test
+    public void testCountOfNullPartitionValues() {
+        LakeSoulMetadataAggregator aggregator = forPushDown(Collections.emptyList(), new HashMap<>(), false,
+                new int[0], aggregate(new Count1AggFunction()), aggregate(new CountAggFunction(), "hour"),
+                aggregate(new MinAggFunction(new IntType()), "hour"));
+        assertThat(aggregator).isNotNull();
+        DataFileInfo[] files = {
+                file("date=2023-01-01,hour=" + DBConfig.LAKESOUL_NULL_STRING, 4),
+                file("date=2023-01-01,hour=3", 6),
+        };
+        assertThat(aggregator.aggregate(files, PARTITION_COLUMNS))
+                .containsExactly(GenericRowData.of(10L, 6L, 3));
+    }
+
+    @Test
+    public void testFilesWithoutStats() {
+        DataFileInfo[] files = {file("date=2023-01-01,hour=1", 10), fileWithoutStats("date=2023-01-01,hour=2")};
+        // row counts are unknown
+        assertThat(countMinMaxByDate(Collections.emptyList(), new HashMap<>(), false)
+                .aggregate(files, PARTITION_COLUMNS)).isNull();
+        // partition values are still known
+        LakeSoulMetadataAggregator minMax = forPushDown(Collections.emptyList(), new HashMap<>(), false,
+                GROUP_BY_DATE, aggregate(new MinAggFunction(new IntType()), "hour"),
+                aggregate(new MaxAggFunction(new IntType()), "hour"));
+        assertThat(minMax.aggregate(files, PARTITION_COLUMNS))
+                .containsExactly(GenericRowData.of(StringData.fromString("2023-01-01"), 1, 2));
+    }
+
+    @Test
+    public void testRefusePrimaryKeyTable() {
+        assertThat(countMinMaxByDate(Collections.singletonList("id"), new HashMap<>(), false)).isNull();
+        // partition values are the same whether rows are merged or not
+        assertThat(forPushDown(Collections.singletonList("id"), new HashMap<>(), false, GROUP_BY_DATE,
+                aggregate(new MaxAggFunction(new IntType()), "hour"))).isNotNull();
+    }
+
+    @Test
+    public void testRefuseCdcTable() {
+        Map<String, String> options = new HashMap<>();
+        options.put(LakeSoulSinkOptions.CDC_CHANGE_COLUMN, "rowKinds");
+        assertThat(countMinMaxByDate(Collections.emptyList(), options, false)).isNull();
+    }
+
+    @Test
+    public void testRefuseNonPartitionFilters() {
+        assertThat(countMinMaxByDate(Collections.emptyList(), new HashMap<>(), true)).isNull();
+    }
+
+    @Test
+    public void testRefuseTimeTravelReads() {
+        Map<String, String> options = new HashMap<>();
+        options.put(LakeSoulOptions.READ_TYPE(), LakeSoulOptions.ReadType$.MODULE$.FULL_READ());
+        assertThat(countMinMaxByDate(Collections.emptyList(), options, false)).isNotNull();
+
+        options.put(LakeSoulOptions.READ_TYPE(), LakeSoulOptions.ReadType$.MODULE$.SNAPSHOT_READ());
+        options.put(LakeSoulOptions.READ_END_TIME(), "2023-01-01 00:00:00");
+        assertThat(countMinMaxByDate(Collections.emptyList(), options, false)).isNull();
+
+        options.put(LakeSoulOptions.READ_TYPE(), LakeSoulOptions.ReadType$.MODULE$.INCREMENTAL_READ());
+        options.put(LakeSoulOptions.READ_START_TIME(), "2022-12-31 00:00:00");
+        assertThat(countMinMaxByDate(Collections.emptyList(), options, false)).isNull();
+    }
+
+    @Test
+    public void testRefuseNonPartitionColumns() {
+        // grouping by a data column
+        assertThat(forPushDown(Collections.emptyList(), new HashMap<>(), false, new int[]{1},
+                aggregate(new Count1AggFunction()))).isNull();
+        // aggregating a data column
+        assertThat(forPushDown(Collections.emptyList(), new HashMap<>(), false, GROUP_BY_DATE,
+                aggregate(new MaxAggFunction(new BigIntType()), "id"))).isNull();
+        // aggregates other than count, min and max
+        assertThat(forPushDown(Collections.emptyList(), new HashMap<>(), false, GROUP_BY_DATE,
+                aggregate(new SumAggFunction.IntSumAggFunction(), "hour"))).isNull();
+    }
+}
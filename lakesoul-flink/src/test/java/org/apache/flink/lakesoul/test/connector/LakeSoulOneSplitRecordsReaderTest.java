@@ -0,0 +1,153 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOBase;
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOWriter;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.lakesoul.source.LakeSoulOneSplitRecordsReader;
+import org.apache.flink.lakesoul.source.LakeSoulPartitionSplit;
+import org.apache.flink.lakesoul.tool.LakeSoulSinkOptions;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+public class LakeSoulOneSplitRecordsReaderTest {
+
+    private static final String CDC_COLUMN = LakeSoulSinkOptions.CDC_CHANGE_COLUMN_DEFAULT;
+
+    private static final RowType TABLE_ROW_TYPE = RowType.of(
+            new LogicalType[]{new IntType(), new VarCharType(VarCharType.MAX_LENGTH),
+                    new VarCharType(VarCharType.MAX_LENGTH), new VarCharType(VarCharType.MAX_LENGTH)},
+            new String[]{"id", "name", "region", CDC_COLUMN});
+
+    private static final RowType PROJECTED_ROW_TYPE = RowType.of(
+            new LogicalType[]{new IntType(), new VarCharType(VarCharType.MAX_LENGTH),
+                    new VarCharType(VarCharType.MAX_LENGTH)},
+            new String[]{"id", "name", "region"});
+
+    private static final Schema FILE_SCHEMA = new Schema(Arrays.asList(
+            Field.nullable("id", new ArrowType.Int(32, true)),
+            Field.nullable("name", new ArrowType.Utf8()),
+            Field.nullable(CDC_COLUMN, new ArrowType.Utf8())));
+
+    // cdc operation of each written row, a null operation is unknown
+    private static final String[] CDC_OPERATIONS = {
+            LakeSoulSinkOptions.INSERT, LakeSoulSinkOptions.UPDATE, LakeSoulSinkOptions.DELETE, null,
+            LakeSoulSinkOptions.INSERT};
+
+    @ClassRule
+    public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+    private static String file;
+
+    @BeforeClass
+    public static void writeFile() throws Exception {
+        assumeTrue("native io library is not found", NativeIOBase.isNativeIOLibExist());
+        File partitionDir = TEMP_FOLDER.newFolder("region=China");
+        file = "file://" + new File(partitionDir, "part-0.parquet").getAbsolutePath();
+
+        NativeIOWriter writer = new NativeIOWriter(FILE_SCHEMA);
+        writer.addFile(file);
+        writer.initializeWriter();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(FILE_SCHEMA, writer.getAllocator())) {
+            IntVector id = (IntVector) root.getVector("id");
+            VarCharVector name = (VarCharVector) root.getVector("name");
+            VarCharVector cdc = (VarCharVector) root.getVector(CDC_COLUMN);
+            root.allocateNew();
+            for (int i = 0; i < CDC_OPERATIONS.length; i++) {
+                id.setSafe(i, i);
+                name.setSafe(i, ("name" + i).getBytes(StandardCharsets.UTF_8));
+                if (CDC_OPERATIONS[i] == null) {
+                    cdc.setNull(i);
+                } else {
+                    cdc.setSafe(i, CDC_OPERATIONS[i].getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            root.setRowCount(CDC_OPERATIONS.length);
+            writer.write(root);
+        }
+        writer.flush();
+        writer.close();
+    }
+
+    private static LakeSoulOneSplitRecordsReader createReader(boolean isBounded, String cdcColumn) throws Exception {
+        LakeSoulPartitionSplit split = new LakeSoulPartitionSplit("0",
+                Collections.singletonList(new Path(file)), 0, "region=China");
+        RowType projectedRowTypeWithPk = cdcColumn.isEmpty() ? PROJECTED_ROW_TYPE : TABLE_ROW_TYPE;
+        return new LakeSoulOneSplitRecordsReader(new Configuration(), split, TABLE_ROW_TYPE, PROJECTED_ROW_TYPE,
+                projectedRowTypeWithPk, Collections.emptyList(), isBounded, cdcColumn,
+                Collections.singletonList("region"), null, null);
+    }
+
+    // the reader reuses one row for the whole batch, so values are copied out before reading the next row
+    private static List<String> readAll(LakeSoulOneSplitRecordsReader reader) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try {
+            assertThat(reader.nextSplit()).isEqualTo("0");
+            RowData row;
+            while ((row = reader.nextRecordFromSplit()) != null) {
+                assertThat(row.getArity()).isEqualTo(PROJECTED_ROW_TYPE.getFieldCount());
+                String kind = row.getRowKind() == null ? "null" : row.getRowKind().shortString();
+                rows.add(kind + "(" + row.getInt(0) + "," + row.getString(1) + "," + row.getString(2) + ")");
+            }
+        } finally {
+            reader.close();
+        }
+        return rows;
+    }
+
+    @Test
+    public void testBoundedReadDropsDeletes() throws Exception {
+        assertThat(readAll(createReader(true, CDC_COLUMN))).containsExactly(
+                "+I(0,name0,China)",
+                "+I(1,name1,China)",
+                "+I(3,name3,China)",
+                "+I(4,name4,China)");
+    }
+
+    @Test
+    public void testUnboundedReadSetsRowKind() throws Exception {
+        assertThat(readAll(createReader(false, CDC_COLUMN))).containsExactly(
+                "+I(0,name0,China)",
+                "+U(1,name1,China)",
+                "-D(2,name2,China)",
+                "null(3,name3,China)",
+                "+I(4,name4,China)");
+    }
+
+    @Test
+    public void testReadWithoutCdcColumn() throws Exception {
+        assertThat(readAll(createReader(false, ""))).containsExactly(
+                "+I(0,name0,China)",
+                "+I(1,name1,China)",
+                "+I(2,name2,China)",
+                "+I(3,name3,China)",
+                "+I(4,name4,China)");
+    }
+}
@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.lakesoul.source.LakeSoulPartitionSplit;
+import org.apache.flink.lakesoul.source.LakeSoulPendingSplits;
+import org.apache.flink.lakesoul.source.SimpleLakeSoulPendingSplitsSerializer;
+import org.apache.flink.lakesoul.source.SimpleLakeSoulSerializer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LakeSoulSplitSerializerTest {
+
+    private static final Path FILE = new Path("file:///tmp/lakesoul/table/part-0.parquet");
+
+    private static void assertSplitEquals(LakeSoulPartitionSplit actual, LakeSoulPartitionSplit expected) {
+        assertThat(actual.splitId()).isEqualTo(expected.splitId());
+        assertThat(actual.getFiles()).isEqualTo(expected.getFiles());
+        assertThat(actual.getSkipRecord()).isEqualTo(expected.getSkipRecord());
+        assertThat(actual.getBucketId()).isEqualTo(expected.getBucketId());
+        assertThat(actual.getPartitionDesc()).isEqualTo(expected.getPartitionDesc());
+        assertThat(actual.getRangeStart()).isEqualTo(expected.getRangeStart());
+        assertThat(actual.getRangeEnd()).isEqualTo(expected.getRangeEnd());
+    }
+
+    // split fields in the layout of version 1 of the split serializer and version 2 of the pending splits serializer
+    private static void writeSplitWithoutRange(DataOutputSerializer out, LakeSoulPartitionSplit split)
+            throws IOException {
+        out.writeUTF(split.splitId());
+        out.writeInt(split.getFiles().size());
+        for (Path path : split.getFiles()) {
+            path.write(out);
+        }
+        out.writeLong(split.getSkipRecord());
+        out.writeInt(split.getBucketId());
+        out.writeUTF(split.getPartitionDesc());
+    }
+
+    @Test
+    public void testSplitRoundTrip() throws IOException {
+        SimpleLakeSoulSerializer serializer = new SimpleLakeSoulSerializer();
+        LakeSoulPartitionSplit ranged = new LakeSoulPartitionSplit("1", Collections.singletonList(FILE), 5, 2,
+                "date=2023-01-01", 1024, 4096);
+        assertSplitEquals(serializer.deserialize(serializer.getVersion(), serializer.serialize(ranged)), ranged);
+        LakeSoulPartitionSplit whole = new LakeSoulPartitionSplit("2", Arrays.asList(FILE, FILE), 0, -1,
+                "-5");
+        LakeSoulPartitionSplit restored = serializer.deserialize(serializer.getVersion(), serializer.serialize(whole));
+        assertSplitEquals(restored, whole);
+        assertThat(restored.hasRange()).isFalse();
+    }
+
+    @Test
+    public void testSplitRestoredFromVersion1() throws IOException {
+        LakeSoulPartitionSplit split = new LakeSoulPartitionSplit("1", Collections.singletonList(FILE), 3, 1,
+                "date=2023-01-01");
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        writeSplitWithoutRange(out, split);
+        LakeSoulPartitionSplit restored = new SimpleLakeSoulSerializer().deserialize(1, out.getCopyOfBuffer());
+        assertSplitEquals(restored, split);
+        assertThat(restored.hasRange()).isFalse();
+    }
+
+    @Test
+    public void testPendingSplitsRoundTrip() throws IOException {
+        SimpleLakeSoulPendingSplitsSerializer serializer = new SimpleLakeSoulPendingSplitsSerializer();
+        LakeSoulPartitionSplit ranged = new LakeSoulPartitionSplit("1", Collections.singletonList(FILE), 7, 0,
+                "date=2023-01-01", 0, 128 * 1024 * 1024L);
+        LakeSoulPartitionSplit whole = new LakeSoulPartitionSplit("2", Collections.singletonList(FILE), 0, 1,
+                "date=2023-01-02");
+        LakeSoulPendingSplits pending = new LakeSoulPendingSplits(Arrays.asList(ranged, whole), 100L, "table_id",
+                "", 30000L, 2);
+        LakeSoulPendingSplits restored = serializer.deserialize(serializer.getVersion(),
+                serializer.serialize(pending));
+
+        assertThat(restored.getSplits()).hasSize(2);
+        assertSplitEquals(restored.getSplits().get(0), ranged);
+        assertSplitEquals(restored.getSplits().get(1), whole);
+        assertThat(restored.getLastReadTimestamp()).isEqualTo(100L);
+        assertThat(restored.getTableId()).isEqualTo("table_id");
+        assertThat(restored.getParDesc()).isEmpty();
+        assertThat(restored.getDiscoverInterval()).isEqualTo(30000L);
+        assertThat(restored.getHashBucketNum()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPendingSplitsRestoredFromVersion2() throws IOException {
+        LakeSoulPartitionSplit split = new LakeSoulPartitionSplit("1", Collections.singletonList(FILE), 7, 0,
+                "date=2023-01-01");
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        out.writeLong(100L);
+        out.writeInt(1);
+        writeSplitWithoutRange(out, split);
+        out.writeUTF("table_id");
+        out.writeUTF("");
+        out.writeLong(30000L);
+        out.writeInt(2);
+
+        LakeSoulPendingSplits restored = new SimpleLakeSoulPendingSplitsSerializer().deserialize(2,
+                out.getCopyOfBuffer());
+        assertThat(restored.getSplits()).hasSize(1);
+        assertSplitEquals(restored.getSplits().get(0), split);
+        assertThat(restored.getSplits().get(0).hasRange()).isFalse();
+        assertThat(restored.getTableId()).isEqualTo("table_id");
+        assertThat(restored.getHashBucketNum()).isEqualTo(2);
+    }
+}
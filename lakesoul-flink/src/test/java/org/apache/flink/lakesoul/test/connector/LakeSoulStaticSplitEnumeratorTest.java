@@ -0,0 +1,125 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector;
+
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.lakesoul.source.LakeSoulPartitionSplit;
+import org.apache.flink.lakesoul.source.LakeSoulSimpleSplitAssigner;
+import org.apache.flink.lakesoul.source.LakeSoulStaticSplitEnumerator;
+import org.apache.flink.lakesoul.test.MockSplitEnumeratorContext;
+import org.apache.flink.table.connector.source.DynamicFilteringData;
+import org.apache.flink.table.connector.source.DynamicFilteringEvent;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.runtime.typeutils.InternalTypeInfo;
+import org.apache.flink.table.types.logical.IntType;
+import org.apache.flink.table.types.logical.LogicalType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LakeSoulStaticSplitEnumeratorTest {
+
+    private static final List<String> FILTER_FIELDS = Arrays.asList("region", "hour");
+
+    private static final RowType FILTER_ROW_TYPE = RowType.of(
+            new LogicalType[]{new VarCharType(VarCharType.MAX_LENGTH), new IntType()},
+            FILTER_FIELDS.toArray(new String[0]));
+
+    private static final List<String> PARTITIONS = Arrays.asList(
+            "region=China,hour=1",
+            "region=China,hour=2",
+            "region=UK,hour=1",
+            "region=" + DBConfig.LAKESOUL_EMPTY_STRING + ",hour=1",
+            // values that could not be converted are kept
+            "region=UK,hour=abc");
+
+    private static List<LakeSoulPartitionSplit> splits() {
+        List<LakeSoulPartitionSplit> splits = new ArrayList<>();
+        for (int i = 0; i < PARTITIONS.size(); i++) {
+            splits.add(new LakeSoulPartitionSplit(String.valueOf(i),
+                    Arrays.asList(new Path("file:///tmp/part-" + i + ".parquet")), 0, PARTITIONS.get(i)));
+        }
+        return splits;
+    }
+
+    private static DynamicFilteringEvent filteringEvent(boolean isFiltering, RowData... rows) throws IOException {
+        InternalTypeInfo<RowData> typeInfo = InternalTypeInfo.of(FILTER_ROW_TYPE);
+        TypeSerializer<RowData> serializer = typeInfo.createSerializer(new ExecutionConfig());
+        List<byte[]> serializedRows = new ArrayList<>();
+        for (RowData row : rows) {
+            DataOutputSerializer out = new DataOutputSerializer(64);
+            serializer.serialize(row, out);
+            serializedRows.add(out.getCopyOfBuffer());
+        }
+        return new DynamicFilteringEvent(
+                new DynamicFilteringData(typeInfo, FILTER_ROW_TYPE, serializedRows, isFiltering));
+    }
+
+    private static GenericRowData row(String region, int hour) {
+        return GenericRowData.of(StringData.fromString(region), hour);
+    }
+
+    private static List<String> assignAll(MockSplitEnumeratorContext<LakeSoulPartitionSplit> context,
+                                          LakeSoulStaticSplitEnumerator enumerator) {
+        context.registerReader(0);
+        while (context.getNoMoreSplits().isEmpty()) {
+            enumerator.handleSplitRequest(0, "localhost");
+        }
+        return context.getAssignedSplits(0).stream().map(LakeSoulPartitionSplit::getPartitionDesc)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPruneSplitsOfFilteredOutPartitions() throws IOException {
+        MockSplitEnumeratorContext<LakeSoulPartitionSplit> context = new MockSplitEnumeratorContext<>(1);
+        LakeSoulStaticSplitEnumerator enumerator =
+                new LakeSoulStaticSplitEnumerator(context, new LakeSoulSimpleSplitAssigner(splits()), FILTER_FIELDS);
+        enumerator.handleSourceEvent(0, filteringEvent(true, row("China", 2), row("", 1), row("France", 1)));
+        assertThat(assignAll(context, enumerator)).containsExactly(
+                "region=China,hour=2",
+                "region=" + DBConfig.LAKESOUL_EMPTY_STRING + ",hour=1",
+                "region=UK,hour=abc");
+    }
+
+    @Test
+    public void testAssignAllSplitsWithoutFilteringEvent() {
+        MockSplitEnumeratorContext<LakeSoulPartitionSplit> context = new MockSplitEnumeratorContext<>(1);
+        LakeSoulStaticSplitEnumerator enumerator =
+                new LakeSoulStaticSplitEnumerator(context, new LakeSoulSimpleSplitAssigner(splits()), FILTER_FIELDS);
+        assertThat(assignAll(context, enumerator)).isEqualTo(PARTITIONS);
+    }
+
+    @Test
+    public void testAssignAllSplitsWhenNotFiltering() throws IOException {
+        MockSplitEnumeratorContext<LakeSoulPartitionSplit> context = new MockSplitEnumeratorContext<>(1);
+        LakeSoulStaticSplitEnumerator enumerator =
+                new LakeSoulStaticSplitEnumerator(context, new LakeSoulSimpleSplitAssigner(splits()), FILTER_FIELDS);
+        enumerator.handleSourceEvent(0, filteringEvent(false));
+        assertThat(assignAll(context, enumerator)).isEqualTo(PARTITIONS);
+    }
+
+    @Test
+    public void testIgnoreFilteringEventWithoutFilterFields() throws IOException {
+        MockSplitEnumeratorContext<LakeSoulPartitionSplit> context = new MockSplitEnumeratorContext<>(1);
+        LakeSoulStaticSplitEnumerator enumerator =
+                new LakeSoulStaticSplitEnumerator(context, new LakeSoulSimpleSplitAssigner(splits()));
+        enumerator.handleSourceEvent(0, filteringEvent(true, row("China", 2)));
+        assertThat(assignAll(context, enumerator)).isEqualTo(PARTITIONS);
+    }
+}
@@ -0,0 +1,168 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.flink.lakesoul.test.connector.sink;
+
+import org.apache.flink.core.fs.Path;
+import org.apache.flink.core.io.SimpleVersionedSerialization;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.apache.flink.lakesoul.sink.state.LakeSoulWriterBucketState;
+import org.apache.flink.lakesoul.sink.state.LakeSoulWriterBucketStateSerializer;
+import org.apache.flink.lakesoul.sink.state.TableSchemaIdentitySerializer;
+import org.apache.flink.lakesoul.sink.writer.NativeParquetWriter;
+import org.apache.flink.lakesoul.types.TableId;
+import org.apache.flink.lakesoul.types.TableSchemaIdentity;
+import org.apache.flink.streaming.api.functions.sink.filesystem.InProgressFileWriter;
+import org.apache.flink.table.types.logical.BigIntType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.table.types.logical.VarCharType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LakeSoulWriterStateSerializerTest {
+
+    private static final TableSchemaIdentity IDENTITY = new TableSchemaIdentity(
+            new TableId("lakesoul", "default", "test_table"),
+            RowType.of(new BigIntType(), new VarCharType(VarCharType.MAX_LENGTH)),
+            "file:///tmp/lakesoul/test_table", Collections.emptyList(), Collections.emptyList(), false, "");
+
+    private static final LakeSoulWriterBucketStateSerializer BUCKET_STATE_SERIALIZER =
+            new LakeSoulWriterBucketStateSerializer(
+                    NativeParquetWriter.NativeInProgressFileRecoverableSerializer.INSTANCE,
+                    NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE);
+
+    private static NativeParquetWriter.NativeWriterPendingFileRecoverable pendingFile(String path) {
+        return new NativeParquetWriter.NativeWriterPendingFileRecoverable(path, 100L, "stats", 1024L, 10L);
+    }
+
+    private static void assertPendingFileEquals(InProgressFileWriter.PendingFileRecoverable actual,
+                                                NativeParquetWriter.NativeWriterPendingFileRecoverable expected) {
+        assertThat(actual).isInstanceOf(NativeParquetWriter.NativeWriterPendingFileRecoverable.class);
+        NativeParquetWriter.NativeWriterPendingFileRecoverable file =
+                (NativeParquetWriter.NativeWriterPendingFileRecoverable) actual;
+        assertThat(file.path).isEqualTo(expected.path);
+        assertThat(file.creationTime).isEqualTo(expected.creationTime);
+        assertThat(file.fileStats).isEqualTo(expected.fileStats);
+        assertThat(file.fileSize).isEqualTo(expected.fileSize);
+        assertThat(file.numRows).isEqualTo(expected.numRows);
+        assertThat(file.mergedSegments).isEqualTo(expected.mergedSegments);
+    }
+
+    @Test
+    public void testPendingFileRoundTrip() throws IOException {
+        NativeParquetWriter.NativePendingFileRecoverableSerializer serializer =
+                NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE;
+        NativeParquetWriter.NativeWriterPendingFileRecoverable file = pendingFile("file:///tmp/part-0.parquet");
+        file.mergedSegments = Arrays.asList("file:///tmp/part-0-0.parquet", "file:///tmp/part-0-1.parquet");
+        assertPendingFileEquals(serializer.deserialize(serializer.getVersion(), serializer.serialize(file)), file);
+    }
+
+    @Test
+    public void testPendingFileRestoredFromVersion2() throws IOException {
+        NativeParquetWriter.NativeWriterPendingFileRecoverable file = pendingFile("file:///tmp/part-0.parquet");
+        DataOutputSerializer out = new DataOutputSerializer(64);
+        out.writeUTF(file.path);
+        out.writeLong(file.creationTime);
+        byte[] stats = file.fileStats.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(stats.length);
+        out.write(stats);
+        out.writeLong(file.fileSize);
+        out.writeLong(file.numRows);
+
+        InProgressFileWriter.PendingFileRecoverable restored =
+                NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE.deserialize(2,
+                        out.getCopyOfBuffer());
+        assertPendingFileEquals(restored, file);
+        assertThat(((NativeParquetWriter.NativeWriterPendingFileRecoverable) restored).mergedSegments).isEmpty();
+    }
+
+    @Test
+    public void testInProgressFileRoundTrip() throws IOException {
+        NativeParquetWriter.NativeInProgressFileRecoverableSerializer serializer =
+                NativeParquetWriter.NativeInProgressFileRecoverableSerializer.INSTANCE;
+        Map<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> segments = new HashMap<>();
+        segments.put("date=2023-01-01", Arrays.asList(pendingFile("file:///tmp/a-0.parquet"),
+                pendingFile("file:///tmp/a-1.parquet")));
+        segments.put("date=2023-01-02", Collections.singletonList(pendingFile("file:///tmp/b-0.parquet")));
+        NativeParquetWriter.NativeWriterInProgressFileRecoverable recoverable =
+                new NativeParquetWriter.NativeWriterInProgressFileRecoverable("file:///tmp/part", 100L, segments);
+
+        NativeParquetWriter.NativeWriterInProgressFileRecoverable restored =
+                (NativeParquetWriter.NativeWriterInProgressFileRecoverable) serializer.deserialize(
+                        serializer.getVersion(), serializer.serialize(recoverable));
+        assertThat(restored.path).isEqualTo(recoverable.path);
+        assertThat(restored.creationTime).isEqualTo(recoverable.creationTime);
+        assertThat(restored.segments.keySet()).isEqualTo(segments.keySet());
+        for (Map.Entry<String, List<NativeParquetWriter.NativeWriterPendingFileRecoverable>> entry :
+                segments.entrySet()) {
+            List<NativeParquetWriter.NativeWriterPendingFileRecoverable> files = restored.segments.get(entry.getKey());
+            assertThat(files).hasSameSizeAs(entry.getValue());
+            for (int i = 0; i < files.size(); i++) {
+                assertPendingFileEquals(files.get(i), entry.getValue().get(i));
+            }
+        }
+        assertThat(restored.getSize()).isEqualTo(3 * 1024L);
+    }
+
+    @Test
+    public void testBucketStateRoundTrip() throws IOException {
+        Map<String, List<InProgressFileWriter.PendingFileRecoverable>> pendingFiles = new HashMap<>();
+        pendingFiles.put("1", Arrays.asList(pendingFile("file:///tmp/part-0.parquet"),
+                pendingFile("file:///tmp/part-1.parquet")));
+        NativeParquetWriter.NativeWriterInProgressFileRecoverable inProgress =
+                new NativeParquetWriter.NativeWriterInProgressFileRecoverable("file:///tmp/part-2.parquet", 100L,
+                        Collections.singletonMap("1",
+                                Collections.singletonList(pendingFile("file:///tmp/part-2-0.parquet"))));
+        LakeSoulWriterBucketState state = new LakeSoulWriterBucketState(IDENTITY, "1",
+                new Path("file:///tmp/lakesoul/test_table"), pendingFiles, inProgress);
+
+        LakeSoulWriterBucketState restored = BUCKET_STATE_SERIALIZER.deserialize(
+                BUCKET_STATE_SERIALIZER.getVersion(), BUCKET_STATE_SERIALIZER.serialize(state));
+        assertThat(restored.getBucketId()).isEqualTo("1");
+        assertThat(restored.getBucketPath()).isEqualTo(state.getBucketPath());
+        assertThat(restored.getIdentity()).isEqualTo(IDENTITY);
+        assertThat(restored.getPendingFileRecoverableMap().get("1")).hasSize(2);
+        assertPendingFileEquals(restored.getPendingFileRecoverableMap().get("1").get(1),
+                pendingFile("file:///tmp/part-1.parquet"));
+        assertThat(restored.hasInProgressFileRecoverable()).isTrue();
+        NativeParquetWriter.NativeWriterInProgressFileRecoverable restoredInProgress =
+                (NativeParquetWriter.NativeWriterInProgressFileRecoverable) restored.getInProgressFileRecoverable();
+        assertThat(restoredInProgress.path).isEqualTo(inProgress.path);
+        assertPendingFileEquals(restoredInProgress.segments.get("1").get(0),
+                pendingFile("file:///tmp/part-2-0.parquet"));
+    }
+
+    @Test
+    public void testBucketStateRestoredFromVersion1() throws IOException {
+        // version 1 has neither the bucket id nor the in-progress file, the bucket id is taken from pending files
+        DataOutputSerializer out = new DataOutputSerializer(256);
+        out.writeInt(0x1e764b79);
+        out.writeUTF("file:///tmp/lakesoul/test_table");
+        SimpleVersionedSerialization.writeVersionAndSerialize(new TableSchemaIdentitySerializer(), IDENTITY, out);
+        out.writeInt(1);
+        out.writeUTF("3");
+        out.writeInt(1);
+        SimpleVersionedSerialization.writeVersionAndSerialize(
+                NativeParquetWriter.NativePendingFileRecoverableSerializer.INSTANCE,
+                pendingFile("file:///tmp/part-0.parquet"), out);
+
+        LakeSoulWriterBucketState restored = BUCKET_STATE_SERIALIZER.deserialize(1, out.getCopyOfBuffer());
+        assertThat(restored.getBucketId()).isEqualTo("3");
+        assertThat(restored.getBucketPath()).isEqualTo(new Path("file:///tmp/lakesoul/test_table"));
+        assertThat(restored.getIdentity()).isEqualTo(IDENTITY);
+        assertThat(restored.getPendingFileRecoverableList()).hasSize(1);
+        assertPendingFileEquals(restored.getPendingFileRecoverableList().get(0),
+                pendingFile("file:///tmp/part-0.parquet"));
+        assertThat(restored.hasInProgressFileRecoverable()).isFalse();
+    }
+}
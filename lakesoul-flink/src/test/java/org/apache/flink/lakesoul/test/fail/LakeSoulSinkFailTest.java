@@ -32,6 +32,8 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -43,6 +45,7 @@ import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.apache.flink.lakesoul.test.MockTableSource.MockSplitEnumerator.indexBound;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -56,7 +59,7 @@ public class LakeSoulSinkFailTest extends AbstractTestBase {
             "with ('connector'='lakesoul', 'path'='/', 'hashBucketNum'='2', " + "'discoveryinterval'='1000'" + ")";
     static String dropSinkSql = "drop table if exists test_sink";
     static String createSinkSqlFormat = "create table if not exists test_sink %s %s" +
-            "with ('connector'='lakesoul', 'path'='%s', 'hashBucketNum'='%d')";
+            "with ('connector'='lakesoul', 'path'='%s', 'hashBucketNum'='%d'%s)";
     private static ArrayList<Integer> indexArr;
     private static StreamExecutionEnvironment streamExecEnv;
     private static StreamTableEnvironment streamTableEnv;
@@ -126,6 +129,12 @@ public class LakeSoulSinkFailTest extends AbstractTestBase {
                                         DataTypes.STRING()),
                                 Column.physical("value", DataTypes.DOUBLE())), Collections.emptyList(), null),
                 "PARTITIONED BY (`range`)", MockTableSource.StopBehavior.STOP_POSTGRES_ON_CHECKPOINTING));
+
+        parameters.put("testLakeSoulSinkWithoutPkFailOnCheckpointingKeepingPartFiles", Tuple3.of(new ResolvedSchema(
+                        Arrays.asList(Column.physical("hash", DataTypes.INT()), Column.physical("range",
+                                        DataTypes.STRING()),
+                                Column.physical("value", DataTypes.DOUBLE())), Collections.emptyList(), null),
+                "PARTITIONED BY (`range`)", MockTableSource.StopBehavior.FAIL_ON_CHECKPOINTING));
     }
 
     public static Object generateObjectWithIndexByDatatype(Integer index, RowType.RowField field) {
@@ -321,8 +330,46 @@ public class LakeSoulSinkFailTest extends AbstractTestBase {
         assertThat(actualData.toString()).isEqualTo(expectedData.toString());
     }
 
+    @Test
+    public void testLakeSoulSinkWithoutPkFailOnCheckpointingKeepingPartFiles() throws IOException {
+        String testName = "testLakeSoulSinkWithoutPkFailOnCheckpointingKeepingPartFiles";
+        Tuple3<ResolvedSchema, String, MockTableSource.StopBehavior> tuple3 = parameters.get(testName);
+        ResolvedSchema resolvedSchema = tuple3.f0;
+
+        indexBound = (30 + new Random().nextInt(20));
+        List<String> expectedData = IntStream.range(0, indexBound).boxed().map(i -> resolvedSchema.getColumns().stream()
+                .map(col -> generateExpectedDataWithIndexByDatatype(i, col))
+                .collect(Collectors.joining(", ", "+I[", "]"))).collect(Collectors.toList());
+
+        // part files are kept open across checkpoints, so the job is restored with segments staged in its state,
+        // and only roll once idle for a while
+        MockTableSource.FAIL_OPTION = Optional.of(Tuple2.of(5000, 14000));
+        String path = tempFolder.newFolder(testName).getAbsolutePath();
+        testLakeSoulSink(resolvedSchema, tuple3.f2, tuple3.f1, path, (30 + new Random().nextInt(30)) * 1000,
+                ", 'lakesoul.file.rolling.on_checkpoint'='false', 'lakesoul.file.rolling.time.ms'='5000'");
+
+        List<String> actualData =
+                CollectionUtil.iteratorToList(batchEnv.executeSql("SELECT * FROM test_sink").collect()).stream()
+                        .map(Row::toString).sorted(Comparator.comparing(Function.identity()))
+                        .collect(Collectors.toList());
+        expectedData.sort(Comparator.comparing(Function.identity()));
+
+        assertThat(actualData.toString()).isEqualTo(expectedData.toString());
+        // segments are either merged into committed part files or deleted on restore
+        try (Stream<java.nio.file.Path> files = Files.walk(Paths.get(path))) {
+            assertThat(files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.matches(".*\\.c\\d+-\\d+\\.parquet"))).isEmpty();
+        }
+    }
+
     private void testLakeSoulSink(ResolvedSchema resolvedSchema, MockTableSource.StopBehavior behavior,
                                   String partitionBy, String path, int timeout) throws IOException {
+        testLakeSoulSink(resolvedSchema, behavior, partitionBy, path, timeout, "");
+    }
+
+    private void testLakeSoulSink(ResolvedSchema resolvedSchema, MockTableSource.StopBehavior behavior,
+                                  String partitionBy, String path, int timeout, String sinkOptions)
+            throws IOException {
         testLakeSoulCatalog.cleanForTest();
         MockLakeSoulCatalog.TestLakeSoulDynamicTableFactory testFactory =
                 new MockLakeSoulCatalog.TestLakeSoulDynamicTableFactory();
@@ -338,7 +385,8 @@ public class LakeSoulSinkFailTest extends AbstractTestBase {
 
 
         streamTableEnv.executeSql(dropSinkSql);
-        streamTableEnv.executeSql(String.format(createSinkSqlFormat, resolvedSchema, partitionBy, path, 2));
+        streamTableEnv.executeSql(String.format(createSinkSqlFormat, resolvedSchema, partitionBy, path, 2,
+                sinkOptions));
 
         streamTableEnv.getConfig().setSqlDialect(SqlDialect.DEFAULT);
         streamTableEnv.getConfig().setLocalTimeZone(TimeZone.getTimeZone("UTC").toZoneId());
@@ -373,7 +421,7 @@ public class LakeSoulSinkFailTest extends AbstractTestBase {
 
 
         streamTableEnv.executeSql(String.format(createSinkSqlFormat, resolvedSchema, "",
-                tempFolder.newFolder("testMockTableSource").getAbsolutePath(), 2));
+                tempFolder.newFolder("testMockTableSource").getAbsolutePath(), 2, ""));
 
         streamTableEnv.executeSql("DROP TABLE IF EXISTS default_catalog.default_database.test_sink");
         streamTableEnv.executeSql(
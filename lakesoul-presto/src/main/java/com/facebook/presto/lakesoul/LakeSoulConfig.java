@@ -31,6 +31,7 @@ public class LakeSoulConfig {
         this.user = config.get("fs.hdfs.user");
         this.virtualPathStyle = Boolean.parseBoolean(config.getOrDefault("fs.s3a.path.style.access", "false"));
         this.timeZone = config.getOrDefault("timezone","");
+        this.splitTargetSize = Long.parseLong(config.getOrDefault("split.target.size", "134217728"));
     }
 
     private String accessKey;
@@ -42,6 +43,7 @@ public class LakeSoulConfig {
     private String defaultFS;
     private String timeZone;
     private boolean virtualPathStyle;
+    private long splitTargetSize;
 
 
     public String getAccessKey() {
@@ -115,4 +117,12 @@ public class LakeSoulConfig {
     public void setVirtualPathStyle(boolean virtualPathStyle) {
         this.virtualPathStyle = virtualPathStyle;
     }
+
+    public long getSplitTargetSize() {
+        return splitTargetSize;
+    }
+
+    public void setSplitTargetSize(long splitTargetSize) {
+        this.splitTargetSize = splitTargetSize;
+    }
 }
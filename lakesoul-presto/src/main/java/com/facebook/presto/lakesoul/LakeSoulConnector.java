@@ -20,17 +20,17 @@ public class LakeSoulConnector implements Connector {
 
     private final LakeSoulMetadata metadata;
     private final LakeSoulSplitManager splitManager;
-    private final LakeSoulRecordSetProvider recordSetProvider;
+    private final LakeSoulPageSourceProvider pageSourceProvider;
 
 
     public LakeSoulConnector(
             LakeSoulMetadata metadata,
             LakeSoulSplitManager splitManager,
-            LakeSoulRecordSetProvider recordSetProvider
+            LakeSoulPageSourceProvider pageSourceProvider
     ){
         this.metadata = requireNonNull(metadata, "metadata should not be null");
         this.splitManager = requireNonNull(splitManager, "splitManager should not be null");
-        this.recordSetProvider = requireNonNull(recordSetProvider, "recordSetProvider should not be null");
+        this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider should not be null");
     }
 
     @Override
@@ -50,12 +50,12 @@ public class LakeSoulConnector implements Connector {
 
     @Override
     public ConnectorRecordSetProvider getRecordSetProvider() {
-        return recordSetProvider;
+        return Connector.super.getRecordSetProvider();
     }
 
     @Override
     public ConnectorPageSourceProvider getPageSourceProvider() {
-        return Connector.super.getPageSourceProvider();
+        return pageSourceProvider;
     }
 
     @Override
@@ -14,7 +14,7 @@ public class LakeSoulConnectorFactory implements ConnectorFactory {
     public static final String CONNECTOR_NAME = "lakesoul";
     private final LakeSoulMetadata metadata = new LakeSoulMetadata();
     private final LakeSoulSplitManager manager = new LakeSoulSplitManager();
-    private final LakeSoulRecordSetProvider provider = new LakeSoulRecordSetProvider();
+    private final LakeSoulPageSourceProvider provider = new LakeSoulPageSourceProvider();
     private final ConnectorHandleResolver handleResolver = new LakeSoulHandleResolver();
 
     @Override
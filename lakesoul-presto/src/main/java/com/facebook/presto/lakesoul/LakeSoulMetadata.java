@@ -16,6 +16,7 @@ import com.facebook.presto.lakesoul.handle.LakeSoulTableLayoutHandle;
 import com.facebook.presto.lakesoul.util.PrestoUtil;
 import com.facebook.presto.spi.*;
 import com.facebook.presto.spi.connector.ConnectorMetadata;
+import com.facebook.presto.spi.statistics.TableStatistics;
 import com.google.common.collect.ImmutableList;
 import org.apache.arrow.c.ArrowSchema;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -33,6 +34,8 @@ public class LakeSoulMetadata implements ConnectorMetadata {
 
     private final DBManager dbManager = new DBManager();
 
+    private final LakeSoulStatisticsProvider statisticsProvider = new LakeSoulStatisticsProvider();
+
     @Override
     public List<String> listSchemaNames(ConnectorSession session) {
         return dbManager.listNamespaces();
@@ -272,4 +275,26 @@ public class LakeSoulMetadata implements ConnectorMetadata {
         }
         return results;
     }
+
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session,
+                                              ConnectorTableHandle tableHandle,
+                                              Optional<ConnectorTableLayoutHandle> tableLayoutHandle,
+                                              List<ColumnHandle> columnHandles,
+                                              Constraint<ColumnHandle> constraint) {
+        LakeSoulTableHandle table = (LakeSoulTableHandle) tableHandle;
+        if (tableLayoutHandle.isPresent()) {
+            // scoped to the partitions left by the pruned layout
+            LakeSoulTableLayoutHandle layout = (LakeSoulTableLayoutHandle) tableLayoutHandle.get();
+            return statisticsProvider.getTableStatistics(table.getId(), layout.getPrimaryKeys(),
+                    layout.getRangeKeys(), layout.getTupleDomain(), columnHandles);
+        }
+        TableInfo tableInfo = dbManager.getTableInfoByTableId(table.getId());
+        if (tableInfo == null) {
+            throw new RuntimeException("no such table: " + table.getNames());
+        }
+        DBUtil.TablePartitionKeys partitionKeys = DBUtil.parseTableInfoPartitions(tableInfo.getPartitions());
+        return statisticsProvider.getTableStatistics(table.getId(), partitionKeys.primaryKeys,
+                partitionKeys.rangeKeys, constraint.getSummary(), columnHandles);
+    }
 }
@@ -0,0 +1,282 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.facebook.presto.lakesoul;
+
+import com.dmetasoul.lakesoul.LakeSoulArrowReader;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.block.Block;
+import com.facebook.presto.common.block.BlockBuilder;
+import com.facebook.presto.common.block.ByteArrayBlock;
+import com.facebook.presto.common.block.IntArrayBlock;
+import com.facebook.presto.common.block.LongArrayBlock;
+import com.facebook.presto.common.block.ShortArrayBlock;
+import com.facebook.presto.common.block.VariableWidthBlock;
+import com.facebook.presto.common.type.DateTimeEncoding;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.Decimals;
+import com.facebook.presto.common.type.TimeZoneKey;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.spi.ConnectorPageSource;
+import io.airlift.slice.Slices;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TimeStampVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Converts the Arrow batches of native reader into pages a column at a time. The batch vectors are reused by the
+ * reader for the next batch, so fixed-width buffers are bulk copied into the arrays backing Presto blocks instead of
+ * being read cell by cell.
+ */
+public class LakeSoulPageSource implements ConnectorPageSource {
+
+    private static final byte[] DELETE_ROW_KIND = "delete".getBytes(StandardCharsets.UTF_8);
+
+    private final LakeSoulArrowReader reader;
+
+    private final List<Type> types;
+
+    @Nullable
+    private final String cdcColumn;
+
+    private final TimeZoneKey timeZoneKey;
+
+    private long completedBytes = 0;
+
+    private long completedPositions = 0;
+
+    private long readTimeNanos = 0;
+
+    private boolean finished = false;
+
+    public LakeSoulPageSource(LakeSoulArrowReader reader, List<Type> types, @Nullable String cdcColumn,
+                              ZoneId timeZone) {
+        this.reader = requireNonNull(reader, "reader should not be null");
+        this.types = requireNonNull(types, "types should not be null");
+        this.cdcColumn = cdcColumn;
+        this.timeZoneKey = TimeZoneKey.getTimeZoneKey(timeZone.getId());
+    }
+
+    @Override
+    public long getCompletedBytes() {
+        return completedBytes;
+    }
+
+    @Override
+    public long getCompletedPositions() {
+        return completedPositions;
+    }
+
+    @Override
+    public long getReadTimeNanos() {
+        return readTimeNanos;
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public Page getNextPage() {
+        if (finished) {
+            return null;
+        }
+        long start = System.nanoTime();
+        boolean hasNext = reader.hasNext();
+        readTimeNanos += System.nanoTime() - start;
+        if (!hasNext) {
+            close();
+            return null;
+        }
+        VectorSchemaRoot root = reader.nextResultVectorSchemaRoot();
+        int rowCount = root.getRowCount();
+        for (FieldVector vector : root.getFieldVectors()) {
+            completedBytes += vector.getBufferSize();
+        }
+        completedPositions += rowCount;
+
+        Block[] blocks = new Block[types.size()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = toBlock(root.getVector(i), types.get(i), rowCount);
+        }
+        Page page = new Page(rowCount, blocks);
+        if (cdcColumn != null) {
+            page = removeDeletedRows(page, (BaseVariableWidthVector) root.getVector(cdcColumn));
+        }
+        return page;
+    }
+
+    @Override
+    public long getSystemMemoryUsage() {
+        return reader.reader().getAllocator().getAllocatedMemory();
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            reader.close();
+        }
+    }
+
+    private static Page removeDeletedRows(Page page, BaseVariableWidthVector rowKinds) {
+        int[] retained = new int[page.getPositionCount()];
+        int retainedCount = 0;
+        for (int i = 0; i < page.getPositionCount(); i++) {
+            if (!isDelete(rowKinds, i)) {
+                retained[retainedCount++] = i;
+            }
+        }
+        if (retainedCount == page.getPositionCount()) {
+            return page;
+        }
+        return page.getPositions(retained, 0, retainedCount);
+    }
+
+    private static boolean isDelete(BaseVariableWidthVector rowKinds, int index) {
+        int startOffset = rowKinds.getStartOffset(index);
+        if (rowKinds.getEndOffset(index) - startOffset != DELETE_ROW_KIND.length) {
+            return false;
+        }
+        ArrowBuf data = rowKinds.getDataBuffer();
+        for (int i = 0; i < DELETE_ROW_KIND.length; i++) {
+            if (data.getByte(startOffset + i) != DELETE_ROW_KIND[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Block toBlock(FieldVector vector, Type type, int rowCount) {
+        Optional<boolean[]> nulls = nulls(vector, rowCount);
+        if (vector instanceof BigIntVector) {
+            return new LongArrayBlock(rowCount, nulls, longs(vector.getDataBuffer(), rowCount));
+        }
+        if (vector instanceof Float8Vector) {
+            // doubles are stored as their raw long bits in Presto
+            return new LongArrayBlock(rowCount, nulls, longs(vector.getDataBuffer(), rowCount));
+        }
+        if (vector instanceof IntVector || vector instanceof DateDayVector || vector instanceof Float4Vector) {
+            // so are reals as raw int bits, and dates as days since epoch
+            int[] values = new int[rowCount];
+            littleEndian(vector.getDataBuffer(), rowCount * 4).asIntBuffer().get(values);
+            return new IntArrayBlock(rowCount, nulls, values);
+        }
+        if (vector instanceof SmallIntVector) {
+            short[] values = new short[rowCount];
+            littleEndian(vector.getDataBuffer(), rowCount * 2).asShortBuffer().get(values);
+            return new ShortArrayBlock(rowCount, nulls, values);
+        }
+        if (vector instanceof TinyIntVector) {
+            byte[] values = new byte[rowCount];
+            vector.getDataBuffer().getBytes(0, values, 0, rowCount);
+            return new ByteArrayBlock(rowCount, nulls, values);
+        }
+        if (vector instanceof BitVector) {
+            byte[] values = new byte[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                values[i] = (byte) BitVectorHelper.get(vector.getDataBuffer(), i);
+            }
+            return new ByteArrayBlock(rowCount, nulls, values);
+        }
+        if (vector instanceof BaseVariableWidthVector) {
+            int[] offsets = new int[rowCount + 1];
+            littleEndian(vector.getOffsetBuffer(), (rowCount + 1) * 4).asIntBuffer().get(offsets);
+            int base = offsets[0];
+            byte[] bytes = new byte[offsets[rowCount] - base];
+            vector.getDataBuffer().getBytes(base, bytes, 0, bytes.length);
+            if (base != 0) {
+                for (int i = 0; i <= rowCount; i++) {
+                    offsets[i] -= base;
+                }
+            }
+            return new VariableWidthBlock(rowCount, Slices.wrappedBuffer(bytes), offsets, nulls);
+        }
+        if (vector instanceof TimeStampVector) {
+            long[] values = longs(vector.getDataBuffer(), rowCount);
+            TimeUnit unit = ((ArrowType.Timestamp) vector.getField().getType()).getUnit();
+            for (int i = 0; i < rowCount; i++) {
+                values[i] = DateTimeEncoding.packDateTimeWithZone(toMillis(values[i], unit), timeZoneKey);
+            }
+            return new LongArrayBlock(rowCount, nulls, values);
+        }
+        if (vector instanceof DecimalVector) {
+            DecimalVector decimalVector = (DecimalVector) vector;
+            DecimalType decimalType = (DecimalType) type;
+            BlockBuilder builder = type.createBlockBuilder(null, rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                if (decimalVector.isNull(i)) {
+                    builder.appendNull();
+                } else if (decimalType.isShort()) {
+                    // unscaled values of short decimals fit in the low 64 bits of the little endian 128-bit value
+                    type.writeLong(builder, decimalVector.getDataBuffer().getLong((long) i * DecimalVector.TYPE_WIDTH));
+                } else {
+                    type.writeSlice(builder, Decimals.encodeScaledValue(decimalVector.getObject(i)));
+                }
+            }
+            return builder.build();
+        }
+        throw new IllegalArgumentException("Column " + vector.getName() + " of " + vector.getClass().getName() +
+                " is not supported");
+    }
+
+    private static Optional<boolean[]> nulls(FieldVector vector, int rowCount) {
+        if (vector.getNullCount() == 0) {
+            return Optional.empty();
+        }
+        boolean[] nulls = new boolean[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            nulls[i] = vector.isNull(i);
+        }
+        return Optional.of(nulls);
+    }
+
+    private static long[] longs(ArrowBuf buffer, int rowCount) {
+        long[] values = new long[rowCount];
+        littleEndian(buffer, rowCount * 8).asLongBuffer().get(values);
+        return values;
+    }
+
+    private static ByteBuffer littleEndian(ArrowBuf buffer, int length) {
+        return buffer.nioBuffer(0, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long toMillis(long value, TimeUnit unit) {
+        switch (unit) {
+            case SECOND:
+                return value * 1000;
+            case MILLISECOND:
+                return value;
+            case MICROSECOND:
+                return Math.floorDiv(value, 1000);
+            default:
+                return Math.floorDiv(value, 1000000);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.facebook.presto.lakesoul;
+
+import com.dmetasoul.lakesoul.LakeSoulArrowReader;
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOReader;
+import com.facebook.presto.common.RuntimeStats;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableColumnHandle;
+import com.facebook.presto.lakesoul.pojo.Path;
+import com.facebook.presto.lakesoul.util.ArrowUtil;
+import com.facebook.presto.lakesoul.util.PrestoUtil;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.ConnectorTableLayoutHandle;
+import com.facebook.presto.spi.SplitContext;
+import com.facebook.presto.spi.connector.ConnectorPageSourceProvider;
+import com.facebook.presto.spi.connector.ConnectorTransactionHandle;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class LakeSoulPageSourceProvider implements ConnectorPageSourceProvider {
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorTransactionHandle transactionHandle,
+                                                ConnectorSession session,
+                                                ConnectorSplit connectorSplit,
+                                                ConnectorTableLayoutHandle layout,
+                                                List<ColumnHandle> columns,
+                                                SplitContext splitContext,
+                                                RuntimeStats runtimeStats) {
+        LakeSoulSplit split = (LakeSoulSplit) connectorSplit;
+        NativeIOReader reader = new NativeIOReader();
+        // set paths, schema, pks
+        for (Path path : split.getPaths()) {
+            reader.addFile(path.getFilename());
+        }
+        LinkedHashMap<String, String> partitions = PrestoUtil.extractPartitionSpecFromPath(split.getPaths().get(0));
+
+        List<Field> fields = columns.stream().map(item -> {
+            LakeSoulTableColumnHandle columnHandle = (LakeSoulTableColumnHandle) item;
+            return Field.nullable(columnHandle.getColumnName(),
+                    ArrowUtil.convertToArrowType(columnHandle.getColumnType()));
+        }).collect(Collectors.toList());
+        HashMap<String, ColumnHandle> allcolumns = split.getLayout().getAllColumns();
+        List<String> dataCols = columns.stream().map(item -> {
+            LakeSoulTableColumnHandle columnHandle = (LakeSoulTableColumnHandle) item;
+            return columnHandle.getColumnName();
+        }).collect(Collectors.toList());
+        // add extra pks
+        List<String> prikeys = split.getLayout().getPrimaryKeys();
+        for (String item : prikeys) {
+            if (!dataCols.contains(item)) {
+                LakeSoulTableColumnHandle columnHandle = (LakeSoulTableColumnHandle) allcolumns.get(item);
+                fields.add(Field.nullable(columnHandle.getColumnName(),
+                        ArrowUtil.convertToArrowType(columnHandle.getColumnType())));
+            }
+        }
+        // add extra cdc column
+        String cdcColumn = split.getLayout().getTableParameters().getString(PrestoUtil.CDC_CHANGE_COLUMN);
+        if (cdcColumn != null) {
+            fields.add(Field.notNullable(cdcColumn, new ArrowType.Utf8()));
+        }
+
+        reader.setPrimaryKeys(prikeys);
+        reader.setSchema(new Schema(fields));
+        for (Map.Entry<String, String> partition : partitions.entrySet()) {
+            reader.setDefaultColumnValue(partition.getKey(), partition.getValue());
+        }
+        List<Type> types = columns.stream()
+                .map(item -> ((LakeSoulTableColumnHandle) item).getColumnType())
+                .collect(Collectors.toList());
+        // set filters
+        split.getLayout().getFilters().forEach((filter) -> reader.addFilter(filter.toString()));
+        // set s3 options
+        reader.setObjectStoreOptions(
+                LakeSoulConfig.getInstance().getAccessKey(),
+                LakeSoulConfig.getInstance().getAccessSecret(),
+                LakeSoulConfig.getInstance().getRegion(),
+                LakeSoulConfig.getInstance().getBucketName(),
+                LakeSoulConfig.getInstance().getEndpoint(),
+                LakeSoulConfig.getInstance().getDefaultFS(),
+                LakeSoulConfig.getInstance().getUser(),
+                LakeSoulConfig.getInstance().isVirtualPathStyle()
+        );
+
+        // init reader
+        try {
+            reader.initializeReader();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new LakeSoulPageSource(new LakeSoulArrowReader(reader), types, cdcColumn, getTimeZone());
+    }
+
+    private static ZoneId getTimeZone() {
+        String timeZone = LakeSoulConfig.getInstance().getTimeZone();
+        if (timeZone.equals("") || !ZoneId.getAvailableZoneIds().contains(timeZone)) {
+            return ZoneId.systemDefault();
+        }
+        return ZoneId.of(timeZone);
+    }
+}
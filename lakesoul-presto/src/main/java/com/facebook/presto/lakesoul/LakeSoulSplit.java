@@ -21,14 +21,17 @@ import static java.util.Objects.requireNonNull;
 public class LakeSoulSplit implements ConnectorSplit {
     private final LakeSoulTableLayoutHandle layout;
     private final List<Path> paths;
+    private final long sizeInBytes;
 
     @JsonCreator
     public LakeSoulSplit(
             @JsonProperty("layout") LakeSoulTableLayoutHandle layout,
-            @JsonProperty("paths")  List<Path> paths
+            @JsonProperty("paths")  List<Path> paths,
+            @JsonProperty("sizeInBytes") long sizeInBytes
     ){
         this.layout = requireNonNull(layout, "layout is not null") ;
         this.paths = requireNonNull(paths, "paths is not null") ;
+        this.sizeInBytes = sizeInBytes;
     }
 
     @JsonProperty
@@ -41,6 +44,11 @@ public class LakeSoulSplit implements ConnectorSplit {
         return paths;
     }
 
+    @JsonProperty
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
     @Override
     public NodeSelectionStrategy getNodeSelectionStrategy() {
         return NodeSelectionStrategy.NO_PREFERENCE;
@@ -69,7 +77,7 @@ public class LakeSoulSplit implements ConnectorSplit {
 
     @Override
     public OptionalLong getSplitSizeInBytes() {
-        return ConnectorSplit.super.getSplitSizeInBytes();
+        return OptionalLong.of(sizeInBytes);
     }
 
     @Override
@@ -4,12 +4,179 @@
 
 package com.facebook.presto.lakesoul;
 
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
+import com.dmetasoul.lakesoul.meta.DataOperation;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import com.dmetasoul.lakesoul.meta.entity.TableInfo;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableLayoutHandle;
+import com.facebook.presto.lakesoul.pojo.Path;
+import com.facebook.presto.lakesoul.util.PrestoUtil;
 import com.facebook.presto.spi.ConnectorSplit;
 import com.facebook.presto.spi.ConnectorSplitSource;
-import com.facebook.presto.spi.FixedSplitSource;
+import com.facebook.presto.spi.connector.ConnectorPartitionHandle;
 
-public class LakeSoulSplitSource extends FixedSplitSource implements ConnectorSplitSource {
-    public LakeSoulSplitSource(Iterable<? extends ConnectorSplit> splits) {
-        super(splits);
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Split source resolving the data files of one partition at a time in background, so that splits of the partitions
+ * resolved first are scheduled before the files of the whole table are listed.
+ *
+ * <p>Partitions are pruned by evaluating the tuple domain against their range partition values, and files by their
+ * column stats. Files of a hash bucket have to be merged by primary keys in one split, and small buckets, or small
+ * files of tables without hash buckets, are packed into splits of about the target size.
+ */
+public class LakeSoulSplitSource implements ConnectorSplitSource {
+
+    private final LakeSoulTableLayoutHandle layout;
+
+    private final long targetSplitSize;
+
+    private final Executor executor;
+
+    // partitions whose files are not resolved yet, null before partitions are listed
+    private Deque<PartitionInfo> pendingPartitions;
+
+    private final Deque<ConnectorSplit> pendingSplits = new ArrayDeque<>();
+
+    private boolean hashPartitioned;
+
+    private Set<String> statsColumns;
+
+    private volatile boolean closed = false;
+
+    public LakeSoulSplitSource(LakeSoulTableLayoutHandle layout, long targetSplitSize, Executor executor) {
+        this.layout = requireNonNull(layout, "layout should not be null");
+        this.targetSplitSize = targetSplitSize;
+        this.executor = requireNonNull(executor, "executor should not be null");
+    }
+
+    @Override
+    public CompletableFuture<ConnectorSplitBatch> getNextBatch(ConnectorPartitionHandle partitionHandle,
+                                                               int maxSize) {
+        return CompletableFuture.supplyAsync(() -> nextBatch(maxSize), executor);
+    }
+
+    private synchronized ConnectorSplitBatch nextBatch(int maxSize) {
+        if (pendingPartitions == null) {
+            listPartitions();
+        }
+        while (pendingSplits.size() < maxSize && !pendingPartitions.isEmpty() && !closed) {
+            resolvePartition(pendingPartitions.poll());
+        }
+        List<ConnectorSplit> batch = new ArrayList<>(Math.min(maxSize, pendingSplits.size()));
+        while (batch.size() < maxSize && !pendingSplits.isEmpty()) {
+            batch.add(pendingSplits.poll());
+        }
+        return new ConnectorSplitBatch(batch, isFinishedInternal());
+    }
+
+    private void listPartitions() {
+        String tid = layout.getTableHandle().getId();
+        TableInfo tableInfo = DataOperation.dbManager().getTableInfoByTableId(tid);
+        hashPartitioned = PrestoUtil.isExistHashPartition(tableInfo);
+        // rows of one primary key may be merged across files, so only stats of primary keys are safe for pruning
+        statsColumns = new HashSet<>(layout.getPrimaryKeys().isEmpty()
+                ? layout.getAllColumns().keySet()
+                : layout.getPrimaryKeys());
+        pendingPartitions = new ArrayDeque<>();
+        for (PartitionInfo partitionInfo : DataOperation.dbManager().getAllPartitionInfo(tid)) {
+            if (PrestoUtil.partitionMightMatch(partitionInfo.getPartitionDesc(), layout.getTupleDomain(),
+                    layout.getRangeKeys())) {
+                pendingPartitions.add(partitionInfo);
+            }
+        }
+    }
+
+    private void resolvePartition(PartitionInfo partitionInfo) {
+        DataFileInfo[] dataFileInfos = DataOperation.getTableDataInfo(Collections.singletonList(partitionInfo));
+        List<DataFileInfo> files = new ArrayList<>(dataFileInfos.length);
+        for (DataFileInfo dataFileInfo : dataFileInfos) {
+            if (PrestoUtil.mightMatch(DataFileStats.decode(dataFileInfo.file_stats()), layout.getTupleDomain(),
+                    statsColumns)) {
+                files.add(dataFileInfo);
+            }
+        }
+        List<List<DataFileInfo>> units = groupUnits(files, hashPartitioned, !layout.getPrimaryKeys().isEmpty());
+        for (List<DataFileInfo> splitFiles : packUnits(units, targetSplitSize)) {
+            List<Path> paths = new ArrayList<>(splitFiles.size());
+            long size = 0;
+            for (DataFileInfo dataFileInfo : splitFiles) {
+                paths.add(new Path(dataFileInfo.path()));
+                size += dataFileInfo.size();
+            }
+            pendingSplits.add(new LakeSoulSplit(layout, paths, size));
+        }
+    }
+
+    /**
+     * Groups files into units which could not be split: files of each hash bucket have to be read together, files
+     * of tables without primary keys could be read alone.
+     */
+    static List<List<DataFileInfo>> groupUnits(List<DataFileInfo> files, boolean hashPartitioned,
+                                               boolean hasPrimaryKeys) {
+        List<List<DataFileInfo>> units = new ArrayList<>();
+        Map<Integer, List<DataFileInfo>> buckets = new LinkedHashMap<>();
+        for (DataFileInfo dataFileInfo : files) {
+            if (hashPartitioned) {
+                buckets.computeIfAbsent(dataFileInfo.file_bucket_id(), k -> new ArrayList<>()).add(dataFileInfo);
+            } else if (!hasPrimaryKeys) {
+                units.add(Collections.singletonList(dataFileInfo));
+            } else {
+                buckets.computeIfAbsent(-1, k -> new ArrayList<>()).add(dataFileInfo);
+            }
+        }
+        units.addAll(buckets.values());
+        return units;
+    }
+
+    /**
+     * Packs units in order into splits of about the target size. A unit larger than the target size makes a split
+     * of its own.
+     */
+    static List<List<DataFileInfo>> packUnits(List<List<DataFileInfo>> units, long targetSplitSize) {
+        List<List<DataFileInfo>> splits = new ArrayList<>();
+        List<DataFileInfo> current = new ArrayList<>();
+        long size = 0;
+        for (List<DataFileInfo> unit : units) {
+            long unitSize = unit.stream().mapToLong(DataFileInfo::size).sum();
+            if (!current.isEmpty() && size + unitSize > targetSplitSize) {
+                splits.add(current);
+                current = new ArrayList<>();
+                size = 0;
+            }
+            current.addAll(unit);
+            size += unitSize;
+        }
+        if (!current.isEmpty()) {
+            splits.add(current);
+        }
+        return splits;
+    }
+
+    private boolean isFinishedInternal() {
+        return closed || (pendingPartitions != null && pendingPartitions.isEmpty() && pendingSplits.isEmpty());
+    }
+
+    @Override
+    public synchronized boolean isFinished() {
+        return isFinishedInternal();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
     }
 }
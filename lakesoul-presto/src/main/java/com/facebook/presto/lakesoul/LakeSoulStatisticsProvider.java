@@ -0,0 +1,149 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.facebook.presto.lakesoul;
+
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import com.dmetasoul.lakesoul.meta.DBUtil;
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStatsAggregate;
+import com.dmetasoul.lakesoul.meta.DataOperation;
+import com.dmetasoul.lakesoul.meta.entity.PartitionInfo;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.BigintType;
+import com.facebook.presto.common.type.DateType;
+import com.facebook.presto.common.type.DecimalType;
+import com.facebook.presto.common.type.DoubleType;
+import com.facebook.presto.common.type.IntegerType;
+import com.facebook.presto.common.type.RealType;
+import com.facebook.presto.common.type.SmallintType;
+import com.facebook.presto.common.type.TinyintType;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableColumnHandle;
+import com.facebook.presto.lakesoul.util.PrestoUtil;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.statistics.ColumnStatistics;
+import com.facebook.presto.spi.statistics.DoubleRange;
+import com.facebook.presto.spi.statistics.Estimate;
+import com.facebook.presto.spi.statistics.TableStatistics;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Derives table statistics for the cost based optimizer from the stats recorded for data files at commit time.
+ * Statistics are aggregated per partition version and cached, so only partitions committed since the last query are
+ * listed again.
+ *
+ * <p>Rows upserted into tables with primary keys are counted once per commit, so row counts, null fractions and
+ * distinct values are not reported for such tables, only sizes and value ranges.
+ */
+public class LakeSoulStatisticsProvider {
+
+    private static final long MAX_CACHED_PARTITIONS = 100000;
+
+    private final Cache<String, DataFileStatsAggregate> partitionStatsCache =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PARTITIONS).build();
+
+    /**
+     * Statistics of the partitions of the table which might match the tuple domain.
+     */
+    public TableStatistics getTableStatistics(String tableId,
+                                              List<String> primaryKeys,
+                                              List<String> rangeKeys,
+                                              TupleDomain<ColumnHandle> tupleDomain,
+                                              List<ColumnHandle> columns) {
+        DataFileStatsAggregate total = new DataFileStatsAggregate();
+        // distinct values and rows with null value of each range partition column
+        Map<String, Set<String>> partitionValues = new HashMap<>();
+        Map<String, Long> nullPartitionRows = new HashMap<>();
+        for (PartitionInfo partitionInfo : DataOperation.dbManager().getAllPartitionInfo(tableId)) {
+            if (!PrestoUtil.partitionMightMatch(partitionInfo.getPartitionDesc(), tupleDomain, rangeKeys)) {
+                continue;
+            }
+            DataFileStatsAggregate stats = getPartitionStats(tableId, partitionInfo);
+            total.merge(stats);
+            if (rangeKeys.isEmpty()) continue;
+            for (Map.Entry<String, String> entry : DBUtil.parsePartitionDesc(partitionInfo.getPartitionDesc())
+                    .entrySet()) {
+                partitionValues.computeIfAbsent(entry.getKey(), k -> new HashSet<>()).add(entry.getValue());
+                if (entry.getValue().equals(DBConfig.LAKESOUL_NULL_STRING)) {
+                    nullPartitionRows.merge(entry.getKey(), stats.getNumRows(), Long::sum);
+                }
+            }
+        }
+
+        TableStatistics.Builder builder = TableStatistics.builder();
+        builder.setTotalSize(Estimate.of(total.getTotalBytes()));
+        long rowCount = total.estimateRowCount();
+        if (rowCount < 0) {
+            return builder.build();
+        }
+        boolean hasPrimaryKeys = !primaryKeys.isEmpty();
+        if (!hasPrimaryKeys) {
+            builder.setRowCount(Estimate.of(rowCount));
+        }
+        for (ColumnHandle columnHandle : columns) {
+            LakeSoulTableColumnHandle column = (LakeSoulTableColumnHandle) columnHandle;
+            String name = column.getColumnName();
+            ColumnStatistics.Builder columnBuilder = ColumnStatistics.builder();
+            if (rangeKeys.contains(name)) {
+                Set<String> values = partitionValues.getOrDefault(name, Collections.emptySet());
+                columnBuilder.setDistinctValuesCount(Estimate.of(values.size()));
+                if (!hasPrimaryKeys) {
+                    columnBuilder.setNullsFraction(Estimate.of(rowCount == 0 ? 0 :
+                            Math.min(1, (double) nullPartitionRows.getOrDefault(name, 0L) / rowCount)));
+                }
+            } else {
+                DataFileStatsAggregate.ColumnAggregate agg = total.getColumn(name);
+                if (agg != null && agg.getNumRows() > 0) {
+                    if (!hasPrimaryKeys) {
+                        columnBuilder.setNullsFraction(Estimate.of((double) agg.getNullCount() / agg.getNumRows()));
+                    }
+                    // value ranges are only known if every file has stats of the column
+                    DoubleRange range = total.isComplete(name) ? toRange(column.getColumnType(), agg) : null;
+                    if (range != null) {
+                        columnBuilder.setRange(range);
+                    }
+                }
+            }
+            builder.setColumnStatistics(columnHandle, columnBuilder.build());
+        }
+        return builder.build();
+    }
+
+    private DataFileStatsAggregate getPartitionStats(String tableId, PartitionInfo partitionInfo) {
+        String key = tableId + "/" + partitionInfo.getPartitionDesc() + "@" + partitionInfo.getVersion();
+        try {
+            return partitionStatsCache.get(key, () -> loadPartitionStats(partitionInfo));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static DataFileStatsAggregate loadPartitionStats(PartitionInfo partitionInfo) {
+        DataFileStatsAggregate stats = new DataFileStatsAggregate();
+        for (DataFileInfo dataFileInfo : DataOperation.getTableDataInfo(Collections.singletonList(partitionInfo))) {
+            stats.addFile(dataFileInfo.size(), dataFileInfo.file_stats());
+        }
+        return stats;
+    }
+
+    private static DoubleRange toRange(Type type, DataFileStatsAggregate.ColumnAggregate agg) {
+        if (!(agg.getMin() instanceof Number) || !(agg.getMax() instanceof Number)) return null;
+        if (type instanceof BigintType || type instanceof IntegerType || type instanceof SmallintType
+                || type instanceof TinyintType || type instanceof DateType || type instanceof DoubleType
+                || type instanceof RealType || type instanceof DecimalType) {
+            return new DoubleRange(((Number) agg.getMin()).doubleValue(), ((Number) agg.getMax()).doubleValue());
+        }
+        return null;
+    }
+}
@@ -6,19 +6,31 @@ package com.facebook.presto.lakesoul.util;
 
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.meta.DBConfig;
+import com.dmetasoul.lakesoul.meta.DBUtil;
 import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import com.dmetasoul.lakesoul.meta.DataFileStats;
 import com.dmetasoul.lakesoul.meta.DataOperation;
 import com.dmetasoul.lakesoul.meta.LakeSoulOptions;
 import com.dmetasoul.lakesoul.meta.entity.TableInfo;
+import com.facebook.presto.common.predicate.Domain;
+import com.facebook.presto.common.predicate.Range;
+import com.facebook.presto.common.predicate.TupleDomain;
 import com.facebook.presto.common.type.*;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableColumnHandle;
 import com.facebook.presto.lakesoul.pojo.Path;
+import com.facebook.presto.spi.ColumnHandle;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
 import org.apache.arrow.vector.types.FloatingPointPrecision;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -107,6 +119,133 @@ public class PrestoUtil {
         return splitByRangeAndHashPartition;
     }
 
+    /**
+     * Check whether rows of a partition could be within the tuple domain according to its range partition values.
+     *
+     * @param partitionDesc partition_desc of the partition, e.g. date=2023-09-03,region=east
+     * @param tupleDomain   pushed down predicate
+     * @param rangeKeys     range partition columns of the table
+     * @return false only if no row of the partition could match
+     */
+    public static boolean partitionMightMatch(String partitionDesc, TupleDomain<ColumnHandle> tupleDomain,
+                                              List<String> rangeKeys) {
+        if (tupleDomain.isNone()) return false;
+        if (!tupleDomain.getDomains().isPresent() || rangeKeys.isEmpty()) return true;
+        Map<String, String> partitionValues = DBUtil.parsePartitionDesc(partitionDesc);
+        for (Map.Entry<ColumnHandle, Domain> entry : tupleDomain.getDomains().get().entrySet()) {
+            LakeSoulTableColumnHandle column = (LakeSoulTableColumnHandle) entry.getKey();
+            if (!rangeKeys.contains(column.getColumnName())) continue;
+            String value = partitionValues.get(column.getColumnName());
+            if (value == null) continue;
+            Object nativeValue;
+            if (value.equals(DBConfig.LAKESOUL_NULL_STRING)) {
+                nativeValue = null;
+            } else {
+                nativeValue = toNativeValue(column.getColumnType(),
+                        value.equals(DBConfig.LAKESOUL_EMPTY_STRING) ? "" : value);
+                // values of unsupported types could not be evaluated
+                if (nativeValue == null) continue;
+            }
+            if (!entry.getValue().includesNullableValue(nativeValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * convert a partition value string to presto native value, returns null if not supported
+     */
+    private static Object toNativeValue(Type type, String value) {
+        try {
+            if (type instanceof BigintType || type instanceof IntegerType || type instanceof SmallintType
+                    || type instanceof TinyintType) {
+                return Long.parseLong(value);
+            } else if (type instanceof DateType) {
+                return LocalDate.parse(value).toEpochDay();
+            } else if (type instanceof BooleanType) {
+                return Boolean.parseBoolean(value);
+            } else if (type instanceof DoubleType) {
+                return Double.parseDouble(value);
+            } else if (type instanceof RealType) {
+                return (long) Float.floatToIntBits(Float.parseFloat(value));
+            } else if (type instanceof VarcharType) {
+                return Slices.utf8Slice(value);
+            }
+        } catch (RuntimeException e) {
+            // keep the partition if its value could not be parsed
+        }
+        return null;
+    }
+
+    /**
+     * Check whether a data file could contain rows within the tuple domain according to its column stats.
+     *
+     * @param stats        column stats of the data file, null if unknown
+     * @param tupleDomain  pushed down predicate
+     * @param statsColumns columns whose stats could be used for pruning
+     * @return false only if no row of the file could match
+     */
+    public static boolean mightMatch(DataFileStats stats, TupleDomain<ColumnHandle> tupleDomain,
+                                     Set<String> statsColumns) {
+        if (stats == null || !tupleDomain.getDomains().isPresent()) return true;
+        for (Map.Entry<ColumnHandle, Domain> entry : tupleDomain.getDomains().get().entrySet()) {
+            LakeSoulTableColumnHandle column = (LakeSoulTableColumnHandle) entry.getKey();
+            if (!statsColumns.contains(column.getColumnName())) continue;
+            if (!mightMatch(stats, column.getColumnName(), column.getColumnType(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mightMatch(DataFileStats stats, String name, Type type, Domain domain) {
+        if (domain.isNullAllowed() && stats.mightBeNull(name)) return true;
+        if (domain.getValues().isNone()) return false;
+        if (domain.getValues().isAll()) return stats.mightBeNotNull(name);
+        for (Range range : domain.getValues().getRanges().getOrderedRanges()) {
+            if (range.isSingleValue()) {
+                if (stats.mightMatch(name, DataFileStats.Comparison.EQ, toStatsValue(type, range.getSingleValue()))) {
+                    return true;
+                }
+                continue;
+            }
+            boolean matched = true;
+            if (!range.isLowUnbounded()) {
+                matched = stats.mightMatch(name,
+                        range.isLowInclusive() ? DataFileStats.Comparison.GT_EQ : DataFileStats.Comparison.GT,
+                        toStatsValue(type, range.getLowBoundedValue()));
+            }
+            if (matched && !range.isHighUnbounded()) {
+                matched = stats.mightMatch(name,
+                        range.isHighInclusive() ? DataFileStats.Comparison.LT_EQ : DataFileStats.Comparison.LT,
+                        toStatsValue(type, range.getHighBoundedValue()));
+            }
+            if (matched && range.isLowUnbounded() && range.isHighUnbounded()) {
+                matched = stats.mightBeNotNull(name);
+            }
+            if (matched) return true;
+        }
+        return false;
+    }
+
+    /**
+     * convert presto native value to the value form of {@link DataFileStats}, returns null if not supported
+     */
+    private static Object toStatsValue(Type type, Object value) {
+        if (type instanceof BigintType || type instanceof IntegerType || type instanceof SmallintType
+                || type instanceof TinyintType || type instanceof DateType) {
+            return value;
+        } else if (type instanceof DoubleType) {
+            return value;
+        } else if (type instanceof RealType) {
+            return (double) Float.intBitsToFloat(((Long) value).intValue());
+        } else if (type instanceof VarcharType) {
+            return ((Slice) value).toStringUtf8();
+        }
+        return null;
+    }
+
     /**
      * conver arrow type to presto type
      *
@@ -0,0 +1,188 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.facebook.presto.lakesoul;
+
+import com.alibaba.fastjson.JSONObject;
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOBase;
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOWriter;
+import com.facebook.presto.common.Page;
+import com.facebook.presto.common.predicate.TupleDomain;
+import com.facebook.presto.common.type.Type;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableColumnHandle;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableHandle;
+import com.facebook.presto.lakesoul.handle.LakeSoulTableLayoutHandle;
+import com.facebook.presto.lakesoul.pojo.Path;
+import com.facebook.presto.lakesoul.util.PrestoUtil;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.SchemaTableName;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+
+import static com.facebook.presto.common.type.BigintType.BIGINT;
+import static com.facebook.presto.common.type.DoubleType.DOUBLE;
+import static com.facebook.presto.common.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class LakeSoulPageSourceTest {
+
+    private static final LakeSoulTableHandle TABLE_HANDLE =
+            new LakeSoulTableHandle("table_page_source_test", new SchemaTableName("default", "page_source_test"));
+
+    private static final Schema FILE_SCHEMA = new Schema(Arrays.asList(
+            Field.nullable("id", new ArrowType.Int(64, true)),
+            Field.nullable("name", new ArrowType.Utf8()),
+            Field.nullable("score", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+            Field.notNullable(PrestoUtil.CDC_CHANGE_COLUMN_DEFAULT, new ArrowType.Utf8())));
+
+    private static final List<ColumnHandle> COLUMNS = Arrays.asList(
+            new LakeSoulTableColumnHandle(TABLE_HANDLE, "id", BIGINT),
+            new LakeSoulTableColumnHandle(TABLE_HANDLE, "name", VARCHAR),
+            new LakeSoulTableColumnHandle(TABLE_HANDLE, "score", DOUBLE),
+            new LakeSoulTableColumnHandle(TABLE_HANDLE, "region", VARCHAR));
+
+    private String file;
+
+    @BeforeClass
+    public void writeFile() throws Exception {
+        if (!NativeIOBase.isNativeIOLibExist()) {
+            throw new SkipException("native io library is not found");
+        }
+        LakeSoulConfig.initInstance(new HashMap<>());
+        File partitionDir = new File(Files.createTempDirectory("lakesoul_page_source").toFile(), "region=China");
+        assertTrue(partitionDir.mkdirs());
+        file = "file://" + new File(partitionDir, "part-0.parquet").getAbsolutePath();
+
+        NativeIOWriter writer = new NativeIOWriter(FILE_SCHEMA);
+        writer.addFile(file);
+        writer.initializeWriter();
+        try (VectorSchemaRoot root = VectorSchemaRoot.create(FILE_SCHEMA, writer.getAllocator())) {
+            BigIntVector id = (BigIntVector) root.getVector("id");
+            VarCharVector name = (VarCharVector) root.getVector("name");
+            Float8Vector score = (Float8Vector) root.getVector("score");
+            VarCharVector rowKinds = (VarCharVector) root.getVector(PrestoUtil.CDC_CHANGE_COLUMN_DEFAULT);
+            root.allocateNew();
+            id.setSafe(0, 1);
+            name.setSafe(0, "a".getBytes(StandardCharsets.UTF_8));
+            score.setSafe(0, 1.5);
+            id.setSafe(1, 2);
+            name.setNull(1);
+            score.setNull(1);
+            id.setNull(2);
+            name.setSafe(2, "c".getBytes(StandardCharsets.UTF_8));
+            score.setSafe(2, 3.5);
+            id.setSafe(3, 4);
+            name.setSafe(3, "d".getBytes(StandardCharsets.UTF_8));
+            score.setSafe(3, 4.5);
+            String[] kinds = {"insert", "update", "insert", "delete"};
+            for (int i = 0; i < kinds.length; i++) {
+                rowKinds.setSafe(i, kinds[i].getBytes(StandardCharsets.UTF_8));
+            }
+            root.setRowCount(kinds.length);
+            writer.write(root);
+        }
+        writer.flush();
+        writer.close();
+    }
+
+    private ConnectorPageSource createPageSource(boolean cdc) {
+        JSONObject tableParameters = new JSONObject();
+        if (cdc) {
+            tableParameters.put(PrestoUtil.CDC_CHANGE_COLUMN, PrestoUtil.CDC_CHANGE_COLUMN_DEFAULT);
+        }
+        HashMap<String, ColumnHandle> allColumns = new HashMap<>();
+        for (ColumnHandle column : COLUMNS) {
+            allColumns.put(((LakeSoulTableColumnHandle) column).getColumnName(), column);
+        }
+        LakeSoulTableLayoutHandle layout = new LakeSoulTableLayoutHandle(TABLE_HANDLE, Optional.empty(),
+                Collections.emptyList(), Collections.singletonList("region"), tableParameters, TupleDomain.all(),
+                allColumns);
+        LakeSoulSplit split = new LakeSoulSplit(layout, Collections.singletonList(new Path(file)), 0);
+        return new LakeSoulPageSourceProvider().createPageSource(null, null, split, layout, COLUMNS, null, null);
+    }
+
+    private static List<List<Object>> readRows(ConnectorPageSource pageSource) {
+        List<List<Object>> rows = new ArrayList<>();
+        while (!pageSource.isFinished()) {
+            Page page = pageSource.getNextPage();
+            if (page == null) {
+                continue;
+            }
+            assertEquals(page.getChannelCount(), COLUMNS.size());
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                List<Object> row = new ArrayList<>();
+                for (int channel = 0; channel < COLUMNS.size(); channel++) {
+                    Type type = ((LakeSoulTableColumnHandle) COLUMNS.get(channel)).getColumnType();
+                    row.add(type.getObjectValue(null, page.getBlock(channel), position));
+                }
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void testReadPages() throws Exception {
+        ConnectorPageSource pageSource = createPageSource(false);
+        List<List<Object>> rows = readRows(pageSource);
+        // nulls of each column are kept, the partition column is filled from the path
+        assertEquals(rows, Arrays.asList(
+                Arrays.asList(1L, "a", 1.5, "China"),
+                Arrays.asList(2L, null, null, "China"),
+                Arrays.asList(null, "c", 3.5, "China"),
+                Arrays.asList(4L, "d", 4.5, "China")));
+        assertEquals(pageSource.getCompletedPositions(), 4);
+        assertTrue(pageSource.getCompletedBytes() > 0);
+
+        // at the end of data, no more pages are returned and the reader is released
+        assertTrue(pageSource.isFinished());
+        assertNull(pageSource.getNextPage());
+        pageSource.close();
+    }
+
+    @Test
+    public void testRemoveDeletedRows() throws Exception {
+        ConnectorPageSource pageSource = createPageSource(true);
+        List<List<Object>> rows = readRows(pageSource);
+        assertEquals(rows, Arrays.asList(
+                Arrays.asList(1L, "a", 1.5, "China"),
+                Arrays.asList(2L, null, null, "China"),
+                Arrays.asList(null, "c", 3.5, "China")));
+        pageSource.close();
+    }
+
+    @Test
+    public void testCloseBeforeEndOfData() throws Exception {
+        ConnectorPageSource pageSource = createPageSource(false);
+        assertFalse(pageSource.isFinished());
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        assertNull(pageSource.getNextPage());
+        // closing again does not release the reader twice
+        pageSource.close();
+    }
+}
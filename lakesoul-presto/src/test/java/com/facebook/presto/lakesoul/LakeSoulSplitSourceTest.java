@@ -0,0 +1,79 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.facebook.presto.lakesoul;
+
+import com.dmetasoul.lakesoul.meta.DataFileInfo;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+
+public class LakeSoulSplitSourceTest {
+
+    private static DataFileInfo file(String name, long size) {
+        return new DataFileInfo("", "file:/tmp/table/" + name, "add", size, -1L, "", "");
+    }
+
+    private static List<List<String>> names(List<List<DataFileInfo>> splits) {
+        return splits.stream()
+                .map(split -> split.stream()
+                        .map(f -> f.path().substring(f.path().lastIndexOf('/') + 1))
+                        .collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPackFilesWithoutPrimaryKeys() {
+        List<DataFileInfo> files = Arrays.asList(
+                file("a.parquet", 40), file("b.parquet", 40), file("c.parquet", 40),
+                file("d.parquet", 150), file("e.parquet", 10));
+        List<List<DataFileInfo>> units = LakeSoulSplitSource.groupUnits(files, false, false);
+        assertEquals(units.size(), 5);
+
+        List<List<DataFileInfo>> splits = LakeSoulSplitSource.packUnits(units, 100);
+        // a file larger than target size makes a split of its own, last partial split is kept
+        assertEquals(names(splits), Arrays.asList(
+                Arrays.asList("a.parquet", "b.parquet"),
+                Arrays.asList("c.parquet"),
+                Arrays.asList("d.parquet"),
+                Arrays.asList("e.parquet")));
+    }
+
+    @Test
+    public void testFilesOfHashBucketStayInOneSplit() {
+        List<DataFileInfo> files = Arrays.asList(
+                file("part-x_00000.parquet", 60), file("part-x_00001.parquet", 30),
+                file("part-y_00000.parquet", 60), file("part-y_00001.parquet", 30),
+                file("part-z_00002.parquet", 20));
+        List<List<DataFileInfo>> units = LakeSoulSplitSource.groupUnits(files, true, true);
+        assertEquals(names(units), Arrays.asList(
+                Arrays.asList("part-x_00000.parquet", "part-y_00000.parquet"),
+                Arrays.asList("part-x_00001.parquet", "part-y_00001.parquet"),
+                Arrays.asList("part-z_00002.parquet")));
+
+        List<List<DataFileInfo>> splits = LakeSoulSplitSource.packUnits(units, 100);
+        // bucket 0 exceeds target size alone, buckets 1 and 2 are packed together
+        assertEquals(names(splits), Arrays.asList(
+                Arrays.asList("part-x_00000.parquet", "part-y_00000.parquet"),
+                Arrays.asList("part-x_00001.parquet", "part-y_00001.parquet", "part-z_00002.parquet")));
+    }
+
+    @Test
+    public void testPrimaryKeyFilesWithoutHashBucketInOneSplit() {
+        List<DataFileInfo> files = Arrays.asList(file("a.parquet", 80), file("b.parquet", 80));
+        List<List<DataFileInfo>> splits =
+                LakeSoulSplitSource.packUnits(LakeSoulSplitSource.groupUnits(files, false, true), 100);
+        assertEquals(names(splits), Arrays.asList(Arrays.asList("a.parquet", "b.parquet")));
+    }
+
+    @Test
+    public void testNoFiles() {
+        assertEquals(LakeSoulSplitSource.packUnits(
+                LakeSoulSplitSource.groupUnits(Arrays.asList(), false, false), 100).size(), 0);
+    }
+}
@@ -185,12 +185,8 @@ public class NativeVectorizedReader extends SpecificParquetRecordReaderBase<Obje
     }
 
     public void closeCurrentBatch() {
-        if (nativeColumnVector != null) {
-            for (ColumnVector c : nativeColumnVector) {
-                c.close();
-            }
-            nativeColumnVector = null;
-        }
+        // column vectors wrap the vectors of the current batch, which are owned and closed by the native reader
+        nativeColumnVector = null;
         if (columnarBatch != null) {
             columnarBatch = null;
         }
@@ -360,7 +356,7 @@ public class NativeVectorizedReader extends SpecificParquetRecordReaderBase<Obje
 
     private int prefetchBufferSize = 1;
 
-    private int threadNum = 2;
+    private int threadNum = 0;
 
     private int awaitTimeout = 10000;
 
@@ -105,6 +105,7 @@ object MetaCommit extends Logging {
         metaDataFileInfo.setFileOp(FileOp.valueOf(file_info.file_op))
         metaDataFileInfo.setSize(file_info.size)
         metaDataFileInfo.setFileExistCols(file_info.file_exist_cols)
+        metaDataFileInfo.setFileStats(file_info.file_stats)
         fileOps.add(metaDataFileInfo.build)
       }
       metaDataCommitInfo.addAllFileOps(fileOps)
@@ -6,13 +6,15 @@ package org.apache.spark.sql.lakesoul
 
 import java.net.URI
 import org.apache.hadoop.fs.{FileStatus, Path}
-import org.apache.spark.sql.catalyst.expressions.{Cast, Expression, GenericInternalRow, Literal}
+import org.apache.spark.sql.catalyst.expressions.{And, AttributeReference, Cast, EqualTo, Expression, GenericInternalRow, GreaterThan, GreaterThanOrEqual, In, InSet, IsNotNull, IsNull, LessThan, LessThanOrEqual, Literal, Or}
 import org.apache.spark.sql.execution.datasources.{PartitionDirectory, PartitionSpec, PartitioningAwareFileIndex}
 import org.apache.spark.sql.lakesoul.LakeSoulFileIndexUtils._
 import org.apache.spark.sql.lakesoul.utils.SparkUtil
-import org.apache.spark.sql.types.StructType
 import org.apache.spark.sql.{AnalysisException, SparkSession}
-import com.dmetasoul.lakesoul.meta.{DataFileInfo, DataOperation, MetaUtils}
+import com.dmetasoul.lakesoul.meta.{DataFileInfo, DataFileStats, DataOperation, MetaUtils}
+import com.dmetasoul.lakesoul.meta.DataFileStats.Comparison
+import org.apache.spark.sql.types.{Decimal, StructType}
+import org.apache.spark.unsafe.types.UTF8String
 
 import scala.collection.mutable
 
@@ -105,9 +107,17 @@ case class DataSoulFileIndexV2(override val spark: SparkSession,
 
   override def matchingFiles(partitionFilters: Seq[Expression],
                              dataFilters: Seq[Expression]): Seq[DataFileInfo] = {
-    PartitionFilter.filesForScan(
+    val files = PartitionFilter.filesForScan(
       snapshotManagement.snapshot,
       this.partitionFilters ++ partitionFilters ++ dataFilters)
+    val tableInfo = snapshotManagement.snapshot.getTableInfo
+    // rows of one primary key may be merged across files, so only stats of primary keys are safe for pruning
+    val statsColumns = if (tableInfo.hash_partition_columns.nonEmpty) {
+      tableInfo.hash_partition_columns.toSet
+    } else {
+      tableInfo.data_schema.fieldNames.toSet
+    }
+    pruneFilesByStats(files, dataFilters, statsColumns)
   }
 
   override def inputFiles: Array[String] = {
@@ -149,6 +159,60 @@ case class BatchDataSoulFileIndexV2(override val spark: SparkSession,
 
 
 object LakeSoulFileIndexUtils {
+
+  /**
+    * Skip files whose column stats show that no row could satisfy the data filters.
+    */
+  def pruneFilesByStats(files: Seq[DataFileInfo],
+                        dataFilters: Seq[Expression],
+                        statsColumns: Set[String]): Seq[DataFileInfo] = {
+    if (dataFilters.isEmpty) return files
+    files.filter { file =>
+      val stats = DataFileStats.decode(file.file_stats)
+      stats == null || dataFilters.forall(filter => mightMatch(stats, filter, statsColumns))
+    }
+  }
+
+  private def mightMatch(stats: DataFileStats, filter: Expression, statsColumns: Set[String]): Boolean = {
+    def compare(attr: AttributeReference, op: Comparison, literal: Literal): Boolean = {
+      !statsColumns.contains(attr.name) || stats.mightMatch(attr.name, op, toStatsValue(literal.value))
+    }
+
+    filter match {
+      case And(left, right) =>
+        mightMatch(stats, left, statsColumns) && mightMatch(stats, right, statsColumns)
+      case Or(left, right) =>
+        mightMatch(stats, left, statsColumns) || mightMatch(stats, right, statsColumns)
+      case EqualTo(attr: AttributeReference, literal: Literal) => compare(attr, Comparison.EQ, literal)
+      case EqualTo(literal: Literal, attr: AttributeReference) => compare(attr, Comparison.EQ, literal)
+      case LessThan(attr: AttributeReference, literal: Literal) => compare(attr, Comparison.LT, literal)
+      case LessThan(literal: Literal, attr: AttributeReference) => compare(attr, Comparison.GT, literal)
+      case LessThanOrEqual(attr: AttributeReference, literal: Literal) => compare(attr, Comparison.LT_EQ, literal)
+      case LessThanOrEqual(literal: Literal, attr: AttributeReference) => compare(attr, Comparison.GT_EQ, literal)
+      case GreaterThan(attr: AttributeReference, literal: Literal) => compare(attr, Comparison.GT, literal)
+      case GreaterThan(literal: Literal, attr: AttributeReference) => compare(attr, Comparison.LT, literal)
+      case GreaterThanOrEqual(attr: AttributeReference, literal: Literal) => compare(attr, Comparison.GT_EQ, literal)
+      case GreaterThanOrEqual(literal: Literal, attr: AttributeReference) => compare(attr, Comparison.LT_EQ, literal)
+      case In(attr: AttributeReference, list) if list.forall(_.isInstanceOf[Literal]) =>
+        list.exists(literal => compare(attr, Comparison.EQ, literal.asInstanceOf[Literal]))
+      case InSet(attr: AttributeReference, set) =>
+        !statsColumns.contains(attr.name) ||
+          set.exists(value => stats.mightMatch(attr.name, Comparison.EQ, toStatsValue(value)))
+      case IsNull(attr: AttributeReference) =>
+        !statsColumns.contains(attr.name) || stats.mightBeNull(attr.name)
+      case IsNotNull(attr: AttributeReference) =>
+        !statsColumns.contains(attr.name) || stats.mightBeNotNull(attr.name)
+      case _ => true
+    }
+  }
+
+  // convert catalyst internal value to the value form of DataFileStats
+  private def toStatsValue(value: Any): AnyRef = value match {
+    case s: UTF8String => s.toString
+    case d: Decimal => d.toJavaBigDecimal
+    case other => other.asInstanceOf[AnyRef]
+  }
+
   def absolutePath(child: String, tableName: String): Path = {
     val p = new Path(child)
     if (p.isAbsolute) {
@@ -0,0 +1,87 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.apache.spark.sql.lakesoul
+
+import com.dmetasoul.lakesoul.meta.DataFileStats
+import org.apache.hadoop.fs.Path
+import org.apache.spark.sql.catalyst.InternalRow
+import org.apache.spark.sql.execution.datasources.{WriteJobStatsTracker, WriteTaskStats, WriteTaskStatsTracker}
+import org.apache.spark.sql.types._
+
+import scala.collection.mutable
+
+/**
+  * Encoded [[DataFileStats]] of the files written by one task, keyed by file path.
+  */
+case class LakeSoulFileStats(fileStats: Map[String, String]) extends WriteTaskStats
+
+/**
+  * Collects row count, null counts and min/max values per column of each written file,
+  * which are recorded into commit metadata and used for file pruning at read time.
+  */
+class LakeSoulFileStatsTaskTracker(dataSchema: StructType) extends WriteTaskStatsTracker {
+
+  private val builders = new mutable.HashMap[String, DataFileStats.Builder]
+
+  override def newPartition(partitionValues: InternalRow): Unit = {}
+
+  override def newFile(filePath: String): Unit = {
+    builders.getOrElseUpdate(filePath, DataFileStats.builder())
+  }
+
+  override def closeFile(filePath: String): Unit = {}
+
+  override def newRow(filePath: String, row: InternalRow): Unit = {
+    val builder = builders.getOrElseUpdate(filePath, DataFileStats.builder())
+    builder.addRows(1)
+    var i = 0
+    while (i < dataSchema.length) {
+      val field = dataSchema(i)
+      if (row.isNullAt(i)) {
+        builder.update(field.name, null)
+      } else {
+        field.dataType match {
+          case ByteType => builder.update(field.name, Byte.box(row.getByte(i)))
+          case ShortType => builder.update(field.name, Short.box(row.getShort(i)))
+          case IntegerType | DateType => builder.update(field.name, Int.box(row.getInt(i)))
+          case LongType | TimestampType => builder.update(field.name, Long.box(row.getLong(i)))
+          case FloatType => builder.update(field.name, Float.box(row.getFloat(i)))
+          case DoubleType => builder.update(field.name, Double.box(row.getDouble(i)))
+          case StringType => builder.update(field.name, row.getUTF8String(i).toString)
+          case d: DecimalType => builder.update(field.name, row.getDecimal(i, d.precision, d.scale).toJavaBigDecimal)
+          case _ => builder.invalidate(field.name)
+        }
+      }
+      i += 1
+    }
+  }
+
+  override def getFinalStats(taskCommitTime: Long): WriteTaskStats = {
+    LakeSoulFileStats(builders.map { case (path, builder) => path -> builder.build().encode() }.toMap)
+  }
+}
+
+class LakeSoulFileStatsTracker(dataSchema: StructType) extends WriteJobStatsTracker {
+
+  @transient private lazy val fileStats = new mutable.HashMap[String, String]
+
+  override def newTaskInstance(): WriteTaskStatsTracker = new LakeSoulFileStatsTaskTracker(dataSchema)
+
+  override def processStats(stats: Seq[WriteTaskStats], jobCommitTime: Long): Unit = {
+    stats.foreach {
+      case LakeSoulFileStats(files) =>
+        files.foreach { case (path, encoded) => fileStats.put(LakeSoulFileStatsTracker.statsKey(path), encoded) }
+      case _ =>
+    }
+  }
+
+  /** Encoded stats of the written file, empty if not collected */
+  def getFileStats(path: String): String = fileStats.getOrElse(LakeSoulFileStatsTracker.statsKey(path), "")
+}
+
+object LakeSoulFileStatsTracker {
+  // paths from the committer may be qualified differently, so compare them without scheme and authority
+  private def statsKey(path: String): String = new Path(path).toUri.getPath
+}
@@ -180,6 +180,9 @@ trait TransactionalWrite {
 
     val committer = getCommitter(outputPath)
 
+    val fileStatsTracker = new LakeSoulFileStatsTracker(
+      StructType.fromAttributes(output.filterNot(partitioningColumns.contains)))
+
     SQLExecution.withNewExecutionId(queryExecution) {
       val outputSpec = LakeSoulFileWriter.OutputSpec(
         outputPath.toUri.toString,
@@ -192,6 +195,7 @@ trait TransactionalWrite {
         new SerializableConfiguration(spark.sessionState.newHadoopConf()),
         BasicWriteJobStatsTracker.metrics)
       statsTrackers.append(basicWriteJobStatsTracker)
+      statsTrackers.append(fileStatsTracker)
 
 
       val hashBucketSpec = tableInfo.hash_column match {
@@ -233,7 +237,8 @@ trait TransactionalWrite {
     //Returns the absolute path to the file
     val real_write_cols = data.schema.fieldNames.filter(!partitionCols.contains(_)).mkString(LAKESOUL_RANGE_PARTITION_SPLITTER)
     (committer.addedStatuses.map(file => file.copy(
-      file_exist_cols = real_write_cols
+      file_exist_cols = real_write_cols,
+      file_stats = fileStatsTracker.getFileStats(file.path)
     )), outputPath)
   }
 }
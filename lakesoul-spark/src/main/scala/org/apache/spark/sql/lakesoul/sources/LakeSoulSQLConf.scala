@@ -127,10 +127,13 @@ object LakeSoulSQLConf {
     buildConf("native.io.thread.num")
       .doc(
         """
-          |If NATIVE_IO_ENABLE=true, tokio::runtime::Runtime will be build with NATIVE_IO_THREAD_NUM thread_num
+          |If NATIVE_IO_ENABLE=true, the tokio::runtime::Runtime shared by native readers and writers of an executor
+          |will be built with NATIVE_IO_THREAD_NUM worker threads. If not positive, the number of available processors
+          |of the executor, or LAKESOUL_NATIVE_IO_THREAD_NUM env / lakesoul.native.io.thread.num system property if
+          |set, is used.
         """.stripMargin)
       .intConf
-      .createWithDefault(2)
+      .createWithDefault(0)
 
   val NATIVE_IO_READER_AWAIT_TIMEOUT: ConfigEntry[Int] =
     buildConf("native.io.await.timeout")
@@ -7,6 +7,7 @@ package com.dmetasoul.lakesoul.lakesoul.io;
 import com.dmetasoul.lakesoul.lakesoul.io.jnr.JnrLoader;
 import com.dmetasoul.lakesoul.lakesoul.io.jnr.LibLakeSoulIO;
 import com.dmetasoul.lakesoul.lakesoul.memory.ArrowMemoryUtils;
+import com.dmetasoul.lakesoul.meta.DBUtil;
 import jnr.ffi.ObjectReferenceManager;
 import jnr.ffi.Pointer;
 import jnr.ffi.Runtime;
@@ -24,10 +25,6 @@ public class NativeIOBase implements AutoCloseable {
 
     protected Pointer config = null;
 
-    protected Pointer tokioRuntimeBuilder;
-
-    protected Pointer tokioRuntime = null;
-
     protected final LibLakeSoulIO libLakeSoulIO;
 
     protected final ObjectReferenceManager<BooleanCallback> boolReferenceManager;
@@ -42,12 +39,33 @@ public class NativeIOBase implements AutoCloseable {
 
     protected Pointer mutableBuffer = null;
 
+    private static volatile boolean sharedRuntimeInitialized = false;
+
+    // worker threads of the shared runtime requested by this instance, 0 to use DBUtil#getNativeIOThreadNum()
+    private int threadNum = 0;
+
     public static boolean isNativeIOLibExist() {
         return JnrLoader.get() != null;
     }
 
+    /**
+     * Creates the native runtime shared by all readers and writers in this JVM if it has not been created yet, with
+     * the number of worker threads set by {@link #setThreadNum(int)} or else configured by
+     * {@link DBUtil#getNativeIOThreadNum()}. The first reader or writer created in the JVM decides the thread number.
+     */
+    protected void initSharedRuntime() {
+        if (sharedRuntimeInitialized) return;
+        synchronized (NativeIOBase.class) {
+            if (!sharedRuntimeInitialized) {
+                libLakeSoulIO.init_shared_tokio_runtime(threadNum > 0 ? threadNum : DBUtil.getNativeIOThreadNum());
+                sharedRuntimeInitialized = true;
+            }
+        }
+    }
+
     public NativeIOBase(String allocatorName) {
-        this.allocator = ArrowMemoryUtils.rootAllocator.newChildAllocator(allocatorName, 32 * 1024 * 1024, Long.MAX_VALUE);
+        // no initial reservation, buffers are taken from root allocator as batches are read or written
+        this.allocator = ArrowMemoryUtils.rootAllocator.newChildAllocator(allocatorName, 0, Long.MAX_VALUE);
         this.provider = new CDataDictionaryProvider();
 
         libLakeSoulIO = JnrLoader.get();
@@ -55,13 +73,11 @@ public class NativeIOBase implements AutoCloseable {
         boolReferenceManager = Runtime.getRuntime(libLakeSoulIO).newObjectReferenceManager();
         intReferenceManager = Runtime.getRuntime(libLakeSoulIO).newObjectReferenceManager();
         ioConfigBuilder = libLakeSoulIO.new_lakesoul_io_config_builder();
-        tokioRuntimeBuilder = libLakeSoulIO.new_tokio_runtime_builder();
 
         fixedBuffer = Runtime.getRuntime(libLakeSoulIO).getMemoryManager().allocateDirect(5000L);
         mutableBuffer = Runtime.getRuntime(libLakeSoulIO).getMemoryManager().allocateDirect(1 << 12);
 
         setBatchSize(10240);
-        setThreadNum(2);
         libLakeSoulIO.rust_logger_init();
     }
 
@@ -122,8 +138,14 @@ public class NativeIOBase implements AutoCloseable {
         ffiSchema.close();
     }
 
+    /**
+     * Number of worker threads of the shared native runtime, only takes effect if this is the first reader or writer
+     * created in the JVM. Not positive values leave it to {@link DBUtil#getNativeIOThreadNum()}.
+     */
     public void setThreadNum(int threadNum) {
         assert ioConfigBuilder != null;
+        if (threadNum <= 0) return;
+        this.threadNum = threadNum;
         ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_thread_num(ioConfigBuilder, threadNum);
     }
 
@@ -170,10 +192,6 @@ public class NativeIOBase implements AutoCloseable {
 
     @Override
     public void close() throws Exception {
-        if (tokioRuntime != null) {
-            libLakeSoulIO.free_tokio_runtime(tokioRuntime);
-            tokioRuntime = null;
-        }
         if (provider != null) {
             provider.close();
             provider = null;
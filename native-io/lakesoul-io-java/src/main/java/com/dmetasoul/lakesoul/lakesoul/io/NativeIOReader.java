@@ -53,20 +53,43 @@ public class NativeIOReader extends NativeIOBase implements AutoCloseable {
         }
     }
 
+    /**
+     * Stop reading once the given number of rows are returned
+     */
+    public void setLimit(long limit) {
+        assert ioConfigBuilder != null;
+        ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_limit(ioConfigBuilder, limit);
+    }
+
+    /**
+     * Start reading after the given number of leading rows, which are located by file metadata instead of being read.
+     * Only supported for reads without primary keys and filters.
+     */
+    public void setSkipRows(long skipRows) {
+        assert ioConfigBuilder != null;
+        ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_skip_rows(ioConfigBuilder, skipRows);
+    }
+
+    /**
+     * Read only the row groups whose first column chunk has its file_offset in the byte range [start, end) of the
+     * files. Ranges covering a file without overlap read each of its row groups exactly once.
+     */
+    public void setFileRange(long start, long end) {
+        assert ioConfigBuilder != null;
+        ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_file_range(ioConfigBuilder, start, end);
+    }
+
     public void setDefaultColumnValue(String column, String value) {
         ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_default_column_value(ioConfigBuilder, column, value);
     }
 
     public void initializeReader() throws IOException {
-        assert tokioRuntimeBuilder != null;
         assert ioConfigBuilder != null;
 
-        tokioRuntime = libLakeSoulIO.create_tokio_runtime_from_builder(tokioRuntimeBuilder);
+        initSharedRuntime();
         config = libLakeSoulIO.create_lakesoul_io_config_from_builder(ioConfigBuilder);
         ioConfigBuilder = null;
-        // tokioRuntime will be moved to reader
-        reader = libLakeSoulIO.create_lakesoul_reader_from_config(config, tokioRuntime);
-        tokioRuntime = null;
+        reader = libLakeSoulIO.create_lakesoul_reader_with_shared_runtime(config);
         Pointer p = libLakeSoulIO.check_reader_created(reader);
         if (p != null) {
             throw new IOException(p.getString(0));
@@ -6,26 +6,48 @@ package com.dmetasoul.lakesoul.lakesoul.io;
 
 import jnr.ffi.Pointer;
 import jnr.ffi.Runtime;
+import jnr.ffi.byref.LongLongByReference;
 import org.apache.arrow.c.ArrowArray;
 import org.apache.arrow.c.ArrowSchema;
 import org.apache.arrow.c.Data;
 import com.dmetasoul.lakesoul.lakesoul.io.jnr.LibLakeSoulIO;
 import org.apache.arrow.vector.VectorSchemaRoot;
-import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.apache.arrow.vector.types.pojo.Schema;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
 
+    public static final int DEFAULT_MAX_IN_FLIGHT_BATCHES = 2;
+
     private Pointer writer = null;
 
+    // batches exported by writeAsync and not yet handed to native writer, also used as the lock of write states
+    private final ArrayDeque<ExportedBatch> pendingBatches = new ArrayDeque<>();
+
+    // batches exported and not yet written, including pending ones and the one being written
+    private int inFlightBatches = 0;
+
+    private int maxInFlightBatches = DEFAULT_MAX_IN_FLIGHT_BATCHES;
+
+    // only one batch is written by native writer at a time, so that batches keep their order
+    private boolean writing = false;
+
+    private String writeError = null;
+
+    // off-heap copy of the ipc stream passed to writeIpc, grown to the largest stream written
+    private Pointer ipcBuffer = null;
+
     public NativeIOWriter(Schema schema) {
         super("NativeWriter");
         setSchema(schema);
@@ -47,15 +69,19 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
         ioConfigBuilder = libLakeSoulIO.lakesoul_config_builder_set_max_row_group_size(ioConfigBuilder, rowNum);
     }
 
+    /**
+     * Max number of batches handed to writeAsync and not yet written, writeAsync blocks once it is reached.
+     */
+    public void setMaxInFlightBatches(int maxInFlightBatches) {
+        this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+    }
+
     public void initializeWriter() throws IOException {
-        assert tokioRuntimeBuilder != null;
         assert ioConfigBuilder != null;
 
-        tokioRuntime = libLakeSoulIO.create_tokio_runtime_from_builder(tokioRuntimeBuilder);
+        initSharedRuntime();
         config = libLakeSoulIO.create_lakesoul_io_config_from_builder(ioConfigBuilder);
-        writer = libLakeSoulIO.create_lakesoul_writer_from_config(config, tokioRuntime);
-        // tokioRuntime will be moved to writer, we don't need to free it
-        tokioRuntime = null;
+        writer = libLakeSoulIO.create_lakesoul_writer_with_shared_runtime(config);
         Pointer p = libLakeSoulIO.check_writer_created(writer);
         if (p != null) {
             writer = null;
@@ -63,39 +89,183 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
         }
     }
 
+    /**
+     * Writes batches of an Arrow IPC stream. The bytes are decoded by native writer, so the batches are never imported
+     * into java. Returns the number of rows written.
+     */
     public int writeIpc(byte[] encodedBatch) throws IOException {
-        int batchSize = 0;
-        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(encodedBatch), allocator)) {
-            if (reader.loadNextBatch()) {
-                ArrowArray array = ArrowArray.allocateNew(allocator);
-                ArrowSchema schema = ArrowSchema.allocateNew(allocator);
-                VectorSchemaRoot batch = reader.getVectorSchemaRoot();
-                batchSize = batch.getRowCount();
-                Data.exportVectorSchemaRoot(allocator, batch, provider, array, schema);
-                String errMsg = libLakeSoulIO.write_record_batch_blocked(writer, schema.memoryAddress(), array.memoryAddress());
+        // batches written asynchronously before have to be written first to keep the order
+        awaitInFlightBatches();
+        checkWriteError();
+        // copied off heap rather than pinning the array, which would block GC while native writer encodes and uploads
+        if (ipcBuffer == null || ipcBuffer.size() < encodedBatch.length) {
+            ipcBuffer = Runtime.getRuntime(libLakeSoulIO).getMemoryManager().allocateDirect(encodedBatch.length);
+        }
+        ipcBuffer.put(0, encodedBatch, 0, encodedBatch.length);
+        LongLongByReference rowCount = new LongLongByReference();
+        String errMsg = libLakeSoulIO.write_record_batch_ipc_blocked(writer, ipcBuffer.address(), encodedBatch.length,
+                rowCount);
+        if (errMsg != null && !errMsg.isEmpty()) {
+            throw new IOException("Native writer write batch failed with error: " + errMsg);
+        }
+        return (int) rowCount.longValue();
+    }
+
+    public void write(VectorSchemaRoot batch) throws IOException {
+        writeAsync(batch);
+        awaitInFlightBatches();
+        checkWriteError();
+    }
+
+    /**
+     * Exports the batch to native writer and returns without waiting for it to be encoded and uploaded, blocking only
+     * while the number of batches not yet written reaches the limit set by setMaxInFlightBatches. Exported buffers are
+     * retained by native writer until the batch is written, so callers should clear the root before refilling it
+     * rather than overwriting its buffers. A failure of a batch is thrown by the next write or flush.
+     */
+    public void writeAsync(VectorSchemaRoot batch) throws IOException {
+        synchronized (pendingBatches) {
+            while (inFlightBatches >= maxInFlightBatches && writeError == null) {
+                waitForWrites();
+            }
+            checkWriteError();
+            inFlightBatches++;
+        }
+        ArrowArray array = null;
+        ArrowSchema schema = null;
+        try {
+            array = ArrowArray.allocateNew(allocator);
+            schema = ArrowSchema.allocateNew(allocator);
+            Data.exportVectorSchemaRoot(allocator, batch, provider, array, schema);
+        } catch (RuntimeException | Error e) {
+            // release whatever was exported before the failure, and give up the slot taken by this batch
+            if (array != null) {
+                array.release();
                 array.close();
+            }
+            if (schema != null) {
+                schema.release();
                 schema.close();
-                if (errMsg != null && !errMsg.isEmpty()) {
-                    throw new IOException("Native writer write batch failed with error: " + errMsg);
+            }
+            synchronized (pendingBatches) {
+                inFlightBatches--;
+                pendingBatches.notifyAll();
+            }
+            throw e;
+        }
+        ExportedBatch exported = new ExportedBatch(array, schema);
+        synchronized (pendingBatches) {
+            pendingBatches.add(exported);
+        }
+        writeNext();
+    }
+
+    private void writeNext() {
+        ExportedBatch next;
+        synchronized (pendingBatches) {
+            if (writeError != null) {
+                // batches after a failed one are not written
+                while (!pendingBatches.isEmpty()) {
+                    pendingBatches.poll().release();
+                    inFlightBatches--;
                 }
+                pendingBatches.notifyAll();
+                return;
             }
+            if (writing || pendingBatches.isEmpty()) return;
+            writing = true;
+            next = pendingBatches.poll();
         }
-        return batchSize;
+        BooleanCallback nativeBooleanCallback = new BooleanCallback((status, err) -> {
+            synchronized (pendingBatches) {
+                writing = false;
+                inFlightBatches--;
+                if (!status && writeError == null) {
+                    writeError = err == null ? "unknown error" : err;
+                }
+                pendingBatches.notifyAll();
+            }
+            writeNext();
+        }, boolReferenceManager);
+        nativeBooleanCallback.registerReferenceKey();
+        // native writer takes ownership of exported buffers before returning, so the ffi structs could be closed here
+        libLakeSoulIO.write_record_batch(writer, next.schema.memoryAddress(), next.array.memoryAddress(),
+                nativeBooleanCallback);
+        next.close();
     }
 
-    public void write(VectorSchemaRoot batch) throws IOException {
-        ArrowArray array = ArrowArray.allocateNew(allocator);
-        ArrowSchema schema = ArrowSchema.allocateNew(allocator);
-        Data.exportVectorSchemaRoot(allocator, batch, provider, array, schema);
-        String errMsg = libLakeSoulIO.write_record_batch_blocked(writer, schema.memoryAddress(), array.memoryAddress());
-        array.close();
-        schema.close();
-        if (errMsg != null && !errMsg.isEmpty()) {
-            throw new IOException("Native writer write batch failed with error: " + errMsg);
+    private void waitForWrites() throws InterruptedIOException {
+        try {
+            pendingBatches.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for native writer");
+        }
+    }
+
+    private void awaitInFlightBatches() throws InterruptedIOException {
+        synchronized (pendingBatches) {
+            while (inFlightBatches > 0) {
+                waitForWrites();
+            }
+        }
+    }
+
+    private void checkWriteError() throws IOException {
+        synchronized (pendingBatches) {
+            if (writeError != null && !writeError.isEmpty()) {
+                throw new IOException("Native writer write batch failed with error: " + writeError);
+            }
         }
     }
 
+    private static final class ExportedBatch {
+        private final ArrowArray array;
+        private final ArrowSchema schema;
+
+        ExportedBatch(ArrowArray array, ArrowSchema schema) {
+            this.array = array;
+            this.schema = schema;
+        }
+
+        // releases exported buffers which are not handed to native writer
+        void release() {
+            array.release();
+            schema.release();
+            close();
+        }
+
+        void close() {
+            array.close();
+            schema.close();
+        }
+    }
+
+    /**
+     * Flush and close the writer, returns written file paths of each partition.
+     */
     public HashMap<String, List<String>> flush() throws IOException {
+        HashMap<String, List<FlushResult>> flushResults = flushWithResult();
+        if (flushResults == null) return null;
+        HashMap<String, List<String>> partitionDescAndFilesMap = new HashMap<>();
+        for (Map.Entry<String, List<FlushResult>> entry : flushResults.entrySet()) {
+            List<String> files = new ArrayList<>(entry.getValue().size());
+            for (FlushResult flushResult : entry.getValue()) {
+                files.add(flushResult.getFilePath());
+            }
+            partitionDescAndFilesMap.put(entry.getKey(), files);
+        }
+        return partitionDescAndFilesMap;
+    }
+
+    /**
+     * Flush and close the writer, returns path, size and row count of written files of each partition, so that
+     * callers do not need to stat the written files. Files of a non-partitioned writer are put under an empty
+     * partition desc.
+     */
+    public HashMap<String, List<FlushResult>> flushWithResult() throws IOException {
+        awaitInFlightBatches();
+        checkWriteError();
         AtomicReference<String> errMsg = new AtomicReference<>();
         AtomicReference<Integer> lenResult = new AtomicReference<>();
         IntegerCallback nativeIntegerCallback = new IntegerCallback((len, err) -> {
@@ -111,8 +281,40 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
         if (errMsg.get() != null && !errMsg.get().isEmpty()) {
             throw new IOException("Native writer flush failed with error: " + errMsg.get());
         }
+        return decodeFlushResult(ptrResult, lenResult.get());
+    }
+
+    /**
+     * Concatenates row groups of the files added to this writer into its last added file without decoding them,
+     * instead of initializing the writer. Files should have the same schema. Returns the concatenated file.
+     */
+    public FlushResult concatFiles() throws IOException {
+        assert ioConfigBuilder != null;
+        initSharedRuntime();
+        config = libLakeSoulIO.create_lakesoul_io_config_from_builder(ioConfigBuilder);
+        ioConfigBuilder = null;
+        AtomicReference<String> errMsg = new AtomicReference<>();
+        AtomicReference<Integer> lenResult = new AtomicReference<>();
+        IntegerCallback nativeIntegerCallback = new IntegerCallback((len, err) -> {
+            if (len < 0 && err != null) {
+                errMsg.set(err);
+            }
+            lenResult.set(len);
+        }, intReferenceManager);
+        nativeIntegerCallback.registerReferenceKey();
+        Pointer ptrResult = libLakeSoulIO.concat_parquet_files(config, nativeIntegerCallback);
+        if (errMsg.get() != null && !errMsg.get().isEmpty()) {
+            throw new IOException("Native writer concat files failed with error: " + errMsg.get());
+        }
+        HashMap<String, List<FlushResult>> results = decodeFlushResult(ptrResult, lenResult.get());
+        if (results == null || results.isEmpty() || results.values().iterator().next().isEmpty()) {
+            throw new IOException("Native writer concat files returned no file");
+        }
+        return results.values().iterator().next().get(0);
+    }
 
-        Integer len = lenResult.get();
+    private HashMap<String, List<FlushResult>> decodeFlushResult(Pointer ptrResult, Integer len) throws IOException {
+        AtomicReference<String> errMsg = new AtomicReference<>();
         if (len != null && len > 0) {
             int lenWithTail = len + 1;
             Pointer buffer = fixedBuffer;
@@ -135,16 +337,19 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
             if (exported.get() != null && exported.get()) {
                 byte[] bytes = new byte[len];
                 buffer.get(0, bytes, 0, len);
-                String decodedResult = new String(bytes);
+                String decodedResult = new String(bytes, StandardCharsets.UTF_8);
                 String[] splits = decodedResult.split("\u0001");
                 int partitionNum = Integer.parseInt(splits[0]);
                 if (partitionNum != splits.length - 1) {
                     throw new IOException("Dynamic Partitions Result [" + decodedResult + "] encode error: partition number mismatch " + partitionNum + "!=" + (splits.length - 1));
                 }
-                HashMap<String, List<String>> partitionDescAndFilesMap = new HashMap<>();
+                HashMap<String, List<FlushResult>> partitionDescAndFilesMap = new HashMap<>();
                 for (int i = 1; i < splits.length; i++) {
                     String[] partitionDescAndFiles = splits[i].split("\u0002");
-                    List<String> list = new ArrayList<>(Arrays.asList(partitionDescAndFiles).subList(1, partitionDescAndFiles.length));
+                    List<FlushResult> list = new ArrayList<>(partitionDescAndFiles.length - 1);
+                    for (String file : Arrays.asList(partitionDescAndFiles).subList(1, partitionDescAndFiles.length)) {
+                        list.add(FlushResult.decode(file));
+                    }
                     partitionDescAndFilesMap.put(partitionDescAndFiles[0], list);
 
                 }
@@ -154,7 +359,71 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
         return null;
     }
 
+    public static class FlushResult {
+        private final String filePath;
+
+        // -1 if unknown
+        private final long fileSize;
+
+        // -1 if unknown
+        private final long fileRowCount;
+
+        // encoded DataFileStats derived from row group statistics by native writer, empty if unknown
+        private final String fileStats;
+
+        public FlushResult(String filePath, long fileSize, long fileRowCount) {
+            this(filePath, fileSize, fileRowCount, "");
+        }
+
+        public FlushResult(String filePath, long fileSize, long fileRowCount, String fileStats) {
+            this.filePath = filePath;
+            this.fileSize = fileSize;
+            this.fileRowCount = fileRowCount;
+            this.fileStats = fileStats;
+        }
+
+        // native writer encodes path, size, row count and json stats of a file separated by U+0003
+        static FlushResult decode(String encoded) {
+            String[] fields = encoded.split("\u0003", -1);
+            if (fields.length < 3) {
+                return new FlushResult(encoded, -1, -1);
+            }
+            String fileStats = fields.length > 3 && !fields[3].isEmpty()
+                    ? Base64.getEncoder().encodeToString(fields[3].getBytes(StandardCharsets.UTF_8))
+                    : "";
+            return new FlushResult(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]), fileStats);
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public long getFileSize() {
+            return fileSize;
+        }
+
+        public long getFileRowCount() {
+            return fileRowCount;
+        }
+
+        public String getFileStats() {
+            return fileStats;
+        }
+
+        @Override
+        public String toString() {
+            return "FlushResult{" +
+                    "filePath='" + filePath + '\'' +
+                    ", fileSize=" + fileSize +
+                    ", fileRowCount=" + fileRowCount +
+                    ", fileStats=" + !fileStats.isEmpty() +
+                    '}';
+        }
+    }
+
     public void abort() throws IOException {
+        // native writer could not be closed while a batch is being written
+        awaitInFlightBatches();
         AtomicReference<String> errMsg = new AtomicReference<>();
         BooleanCallback nativeBooleanCallback = new BooleanCallback((status, err) -> {
             if (!status && err != null) {
@@ -174,6 +443,7 @@ public class NativeIOWriter extends NativeIOBase implements AutoCloseable {
         if (writer != null) {
             abort();
         }
+        ipcBuffer = null;
         super.close();
     }
 }
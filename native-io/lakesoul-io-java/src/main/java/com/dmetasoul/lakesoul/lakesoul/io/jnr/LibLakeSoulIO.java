@@ -9,12 +9,11 @@ import jnr.ffi.annotations.Delegate;
 import jnr.ffi.annotations.LongLong;
 import jnr.ffi.annotations.Out;
 import jnr.ffi.byref.IntByReference;
+import jnr.ffi.byref.LongLongByReference;
 
 public interface LibLakeSoulIO {
 
-    Pointer new_tokio_runtime_builder();
-
-    Pointer create_tokio_runtime_from_builder(Pointer builder);
+    boolean init_shared_tokio_runtime(int thread_num);
 
     Pointer new_lakesoul_io_config_builder();
 
@@ -52,19 +51,25 @@ public interface LibLakeSoulIO {
 
     Pointer lakesoul_config_builder_set_batch_size(Pointer builder, int batch_size);
 
+    Pointer lakesoul_config_builder_set_limit(Pointer builder, long limit);
+
+    Pointer lakesoul_config_builder_set_skip_rows(Pointer builder, long skip_rows);
+
+    Pointer lakesoul_config_builder_set_file_range(Pointer builder, long start, long end);
+
     Pointer lakesoul_config_builder_set_buffer_size(Pointer builder, int buffer_size);
 
     Pointer lakesoul_config_builder_set_max_row_group_size(Pointer builder, int row_group_size);
 
     Pointer create_lakesoul_io_config_from_builder(Pointer builder);
 
-    Pointer create_lakesoul_reader_from_config(Pointer config, Pointer runtime);
+    Pointer create_lakesoul_reader_with_shared_runtime(Pointer config);
 
     Pointer check_reader_created(Pointer reader);
 
     void lakesoul_reader_get_schema(Pointer reader, @LongLong long schemaAddr);
 
-    Pointer create_lakesoul_writer_from_config(Pointer config, Pointer runtime);
+    Pointer create_lakesoul_writer_with_shared_runtime(Pointer config);
 
     Pointer check_writer_created(Pointer writer);
 
@@ -90,15 +95,15 @@ public interface LibLakeSoulIO {
 
     String write_record_batch_blocked(Pointer writer, @LongLong long schemaAddr, @LongLong long arrayAddr);
 
-    String write_record_batch_ipc_blocked(Pointer writer, @LongLong long schemaAddr, @LongLong long arrayAddr);
+    String write_record_batch_ipc_blocked(Pointer writer, @LongLong long ipcAddr, @LongLong long len, @Out LongLongByReference rowCount);
 
     void free_lakesoul_reader(Pointer reader);
 
     Pointer flush_and_close_writer(Pointer writer, IntegerCallback callback);
 
-    void abort_and_close_writer(Pointer writer, BooleanCallback callback);
+    Pointer concat_parquet_files(Pointer config, IntegerCallback callback);
 
-    void free_tokio_runtime(Pointer runtime);
+    void abort_and_close_writer(Pointer writer, BooleanCallback callback);
 
     Pointer apply_partition_filter(IntegerCallback callback, int pbLen, long jniWrapperAddr, long schemaAddr, int filterLen, long filterAddr);
 
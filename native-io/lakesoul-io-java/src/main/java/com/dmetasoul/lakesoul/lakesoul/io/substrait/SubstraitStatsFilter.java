@@ -0,0 +1,161 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.lakesoul.io.substrait;
+
+import com.dmetasoul.lakesoul.meta.DataFileStats;
+import io.substrait.proto.Expression;
+import io.substrait.proto.FunctionArgument;
+import io.substrait.proto.Plan;
+import io.substrait.proto.PlanRel;
+import io.substrait.proto.Rel;
+import io.substrait.proto.SimpleExtensionDeclaration;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates a pushed down substrait filter against {@link DataFileStats} of a data file to decide whether the file
+ * could be skipped. Evaluation is conservative: anything that cannot be understood is treated as possibly matched.
+ */
+public class SubstraitStatsFilter {
+
+    private final Expression filter;
+
+    private final Map<Integer, String> functionNames;
+
+    // columns whose stats could be used for pruning
+    private final Set<String> columns;
+
+    private SubstraitStatsFilter(Expression filter, Map<Integer, String> functionNames, Set<String> columns) {
+        this.filter = filter;
+        this.functionNames = functionNames;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns null if the plan carries no filter.
+     */
+    public static SubstraitStatsFilter of(Plan plan, Set<String> columns) {
+        if (plan == null || plan.getRelationsCount() == 0) return null;
+        PlanRel planRel = plan.getRelations(0);
+        Rel rel = planRel.hasRoot() ? planRel.getRoot().getInput() : planRel.getRel();
+        if (!rel.hasRead() || !rel.getRead().hasFilter()) return null;
+        Map<Integer, String> functionNames = new HashMap<>();
+        for (SimpleExtensionDeclaration declaration : plan.getExtensionsList()) {
+            if (declaration.hasExtensionFunction()) {
+                String name = declaration.getExtensionFunction().getName();
+                int idx = name.indexOf(':');
+                functionNames.put(declaration.getExtensionFunction().getFunctionAnchor(),
+                        idx < 0 ? name : name.substring(0, idx));
+            }
+        }
+        return new SubstraitStatsFilter(rel.getRead().getFilter(), functionNames, columns);
+    }
+
+    public boolean mightMatch(DataFileStats stats) {
+        if (stats == null) return true;
+        return mightMatch(filter, stats);
+    }
+
+    private boolean mightMatch(Expression expr, DataFileStats stats) {
+        if (!expr.hasScalarFunction()) return true;
+        Expression.ScalarFunction function = expr.getScalarFunction();
+        String name = functionNames.get(function.getFunctionReference());
+        List<FunctionArgument> args = function.getArgumentsList();
+        if (name == null) return true;
+        switch (name) {
+            case "and":
+                return args.stream().allMatch(arg -> mightMatch(arg.getValue(), stats));
+            case "or":
+                return args.stream().anyMatch(arg -> mightMatch(arg.getValue(), stats));
+            case "is_null": {
+                String column = columnOf(args.get(0).getValue());
+                return column == null || stats.mightBeNull(column);
+            }
+            case "is_not_null": {
+                String column = columnOf(args.get(0).getValue());
+                return column == null || stats.mightBeNotNull(column);
+            }
+            case "equal":
+                return compare(args, DataFileStats.Comparison.EQ, DataFileStats.Comparison.EQ, stats);
+            case "not_equal":
+                return compare(args, DataFileStats.Comparison.NOT_EQ, DataFileStats.Comparison.NOT_EQ, stats);
+            case "lt":
+                return compare(args, DataFileStats.Comparison.LT, DataFileStats.Comparison.GT, stats);
+            case "lte":
+                return compare(args, DataFileStats.Comparison.LT_EQ, DataFileStats.Comparison.GT_EQ, stats);
+            case "gt":
+                return compare(args, DataFileStats.Comparison.GT, DataFileStats.Comparison.LT, stats);
+            case "gte":
+                return compare(args, DataFileStats.Comparison.GT_EQ, DataFileStats.Comparison.LT_EQ, stats);
+            default:
+                return true;
+        }
+    }
+
+    private boolean compare(List<FunctionArgument> args, DataFileStats.Comparison op,
+                            DataFileStats.Comparison flipped, DataFileStats stats) {
+        if (args.size() != 2) return true;
+        Expression left = args.get(0).getValue();
+        Expression right = args.get(1).getValue();
+        String column = columnOf(left);
+        if (column != null && right.hasLiteral()) {
+            return stats.mightMatch(column, op, literalValue(right.getLiteral()));
+        }
+        column = columnOf(right);
+        if (column != null && left.hasLiteral()) {
+            return stats.mightMatch(column, flipped, literalValue(left.getLiteral()));
+        }
+        return true;
+    }
+
+    private String columnOf(Expression expr) {
+        if (!expr.hasSelection() || !expr.getSelection().hasDirectReference()) return null;
+        if (!expr.getSelection().getDirectReference().hasMapKey()) return null;
+        Expression.Literal key = expr.getSelection().getDirectReference().getMapKey().getMapKey();
+        if (key.getLiteralTypeCase() != Expression.Literal.LiteralTypeCase.STRING) return null;
+        return columns.contains(key.getString()) ? key.getString() : null;
+    }
+
+    private static Object literalValue(Expression.Literal literal) {
+        switch (literal.getLiteralTypeCase()) {
+            case I8:
+                return (long) literal.getI8();
+            case I16:
+                return (long) literal.getI16();
+            case I32:
+                return (long) literal.getI32();
+            case I64:
+                return literal.getI64();
+            case FP32:
+                return (double) literal.getFp32();
+            case FP64:
+                return literal.getFp64();
+            case STRING:
+                return literal.getString();
+            case DATE:
+                return (long) literal.getDate();
+            case TIMESTAMP:
+                return literal.getTimestamp();
+            case TIMESTAMP_TZ:
+                return literal.getTimestampTz();
+            case DECIMAL: {
+                // 16 bytes two's complement little-endian unscaled value
+                byte[] bytes = literal.getDecimal().getValue().toByteArray();
+                byte[] bigEndian = new byte[bytes.length];
+                for (int i = 0; i < bytes.length; i++) {
+                    bigEndian[i] = bytes[bytes.length - 1 - i];
+                }
+                return new BigDecimal(new BigInteger(bigEndian), literal.getDecimal().getScale());
+            }
+            default:
+                return null;
+        }
+    }
+}
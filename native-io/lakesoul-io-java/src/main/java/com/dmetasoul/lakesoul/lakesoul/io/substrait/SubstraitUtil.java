@@ -48,7 +48,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -69,22 +68,15 @@ public class SubstraitUtil {
 
     private static final LibLakeSoulIO LIB;
 
-    private static final Pointer BUFFER1;
-    private static final Pointer BUFFER2;
-
     private static final NativeIOBase NATIVE_IO_BASE;
 
     private static final long TIMEOUT = 2000;
-    private static final ReentrantReadWriteLock LOCK;
 
     static {
         try {
             EXTENSIONS = SimpleExtension.loadDefaults();
             BUILDER = new SubstraitBuilder(EXTENSIONS);
             LIB = JnrLoader.get();
-            BUFFER1 = Runtime.getRuntime(LIB).getMemoryManager().allocateDirect(4096);
-            BUFFER2 = Runtime.getRuntime(LIB).getMemoryManager().allocateDirect(4096);
-            LOCK = new ReentrantReadWriteLock();
             NATIVE_IO_BASE = new NativeIOBase("Substrait");
         } catch (IOException e) {
             throw new RuntimeException("load simple extension failed");
@@ -188,6 +180,10 @@ public class SubstraitUtil {
         return io.substrait.proto.Plan.parseFrom(Base64.getDecoder().decode(base64));
     }
 
+    /**
+     * Evaluates the partition filter natively over partition descs. Only descs are sent to native side, and buffers
+     * are allocated for each call, so that concurrent callers do not share them.
+     */
     public static List<PartitionInfo> applyPartitionFilters(List<PartitionInfo> allPartitionInfo, Schema schema, io.substrait.proto.Plan partitionFilter) {
         if (allPartitionInfo.isEmpty()) {
             return Collections.emptyList();
@@ -201,15 +197,21 @@ public class SubstraitUtil {
         Data.exportSchema(ArrowMemoryUtils.rootAllocator, schema, tmpProvider, ffiSchema);
 
 
-        JniWrapper jniWrapper = JniWrapper.newBuilder().addAllPartitionInfo(allPartitionInfo).build();
-
-        byte[] jniBytes = jniWrapper.toByteArray();
-        BUFFER1.put(0, jniBytes, 0, jniBytes.length);
-        BUFFER1.putByte(jniBytes.length, (byte) 0);
+        // filter reads nothing but partition desc, so snapshots and other fields are not sent
+        JniWrapper.Builder jniWrapperBuilder = JniWrapper.newBuilder();
+        for (PartitionInfo partitionInfo : allPartitionInfo) {
+            jniWrapperBuilder.addPartitionInfo(
+                    PartitionInfo.newBuilder().setPartitionDesc(partitionInfo.getPartitionDesc()).build());
+        }
+        byte[] jniBytes = jniWrapperBuilder.build().toByteArray();
+        Pointer jniBuffer = Runtime.getRuntime(LIB).getMemoryManager().allocateDirect(jniBytes.length + 1);
+        jniBuffer.put(0, jniBytes, 0, jniBytes.length);
+        jniBuffer.putByte(jniBytes.length, (byte) 0);
 
         byte[] filterBytes = partitionFilter.toByteArray();
-        BUFFER2.put(0, filterBytes, 0, filterBytes.length);
-        BUFFER2.putByte(filterBytes.length, (byte) 0);
+        Pointer filterBuffer = Runtime.getRuntime(LIB).getMemoryManager().allocateDirect(filterBytes.length + 1);
+        filterBuffer.put(0, filterBytes, 0, filterBytes.length);
+        filterBuffer.putByte(filterBytes.length, (byte) 0);
 
         try {
             final CompletableFuture<Integer> filterFuture = new CompletableFuture<>();
@@ -221,15 +223,15 @@ public class SubstraitUtil {
                             filterFuture.completeExceptionally(new SQLException(msg));
                         }
                     }, NATIVE_IO_BASE.getIntReferenceManager()),
-                    jniBytes.length, BUFFER1.address(),
+                    jniBytes.length, jniBuffer.address(),
                     ffiSchema.memoryAddress(),
                     filterBytes.length,
-                    BUFFER2.address()
+                    filterBuffer.address()
             );
             Integer len = null;
             len = filterFuture.get(TIMEOUT, TimeUnit.MILLISECONDS);
             if (len < 0) return null;
-            Integer lenWithTail = len + 1;
+            Pointer resultBuffer = Runtime.getRuntime(LIB).getMemoryManager().allocateDirect(len + 1);
 
             final CompletableFuture<Boolean> importFuture = new CompletableFuture<>();
             LIB.export_bytes_result(
@@ -242,14 +244,20 @@ public class SubstraitUtil {
                     }, NATIVE_IO_BASE.getBoolReferenceManager()),
                     filterResult,
                     len,
-                    BUFFER1.address()
+                    resultBuffer.address()
             );
             Boolean b = importFuture.get(TIMEOUT, TimeUnit.MILLISECONDS);
             if (!b) return null;
 
             byte[] bytes = new byte[len];
-            BUFFER1.get(0, bytes, 0, len);
-            resultPartitionInfo = JniWrapper.parseFrom(bytes).getPartitionInfoList();
+            resultBuffer.get(0, bytes, 0, len);
+            Set<String> matchedPartitionDescs = new HashSet<>();
+            for (PartitionInfo partitionInfo : JniWrapper.parseFrom(bytes).getPartitionInfoList()) {
+                matchedPartitionDescs.add(partitionInfo.getPartitionDesc());
+            }
+            resultPartitionInfo = allPartitionInfo.stream()
+                    .filter(partitionInfo -> matchedPartitionDescs.contains(partitionInfo.getPartitionDesc()))
+                    .collect(Collectors.toList());
             LIB.free_bytes_result(filterResult);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
@@ -5,11 +5,31 @@
 package com.dmetasoul.lakesoul
 
 import com.dmetasoul.lakesoul.lakesoul.io.NativeIOReader
-import org.apache.arrow.c.{ArrowArray, CDataDictionaryProvider, Data}
+import org.apache.arrow.c.{ArrowArray, ArrowSchema, CDataDictionaryProvider, Data}
 import org.apache.arrow.vector.VectorSchemaRoot
 
+import java.io.IOException
+import java.util.concurrent.{LinkedBlockingQueue, TimeUnit}
+import java.util.function.BiConsumer
+
+/**
+ * Reads batches of a native reader while the consumer processes the current one. Up to `prefetchBatches` batches
+ * are decoded ahead into a ring of VectorSchemaRoots. A root returned by next() may be read by the consumer until the
+ * following hasNext, after which it is handed back to the ring and refilled with a later batch.
+ *
+ * The roots are owned by this reader and closed by close(), consumers must not close them. hasNext waits up to
+ * `timeout` milliseconds for the next batch, or without limit if `timeout` is not positive. Readers created without a
+ * timeout wait without limit, since a batch may legitimately take long, e.g. the first merged batch of a primary key
+ * table over many object store files.
+ */
 case class LakeSoulArrowReader(reader: NativeIOReader,
-                               timeout: Int = 10000) extends AutoCloseable {
+                               timeout: Int,
+                               prefetchBatches: Int) extends AutoCloseable {
+
+  def this(reader: NativeIOReader, timeout: Int) =
+    this(reader, timeout, LakeSoulArrowReader.DEFAULT_PREFETCH_BATCHES)
+
+  def this(reader: NativeIOReader) = this(reader, 0)
 
   var ex: Option[Throwable] = None
 
@@ -25,45 +45,147 @@ case class LakeSoulArrowReader(reader: NativeIOReader,
 
   val iterator = new BatchIterator
 
+  private var closed = false
+
   class BatchIterator extends Iterator[VectorSchemaRoot] {
     var finished = false
     val provider = new CDataDictionaryProvider
-    val root: VectorSchemaRoot = VectorSchemaRoot.create(reader.getSchema, reader.getAllocator)
+    // roots are either free, being filled by native reader, filled and queued, or held by consumer
+    private val roots: Array[VectorSchemaRoot] =
+      Array.fill(math.max(prefetchBatches, 1) + 1)(VectorSchemaRoot.create(reader.getSchema, reader.getAllocator))
+    private val freeRoots = new java.util.ArrayDeque[VectorSchemaRoot]()
+    // batches in the order read, with an empty root marking the end of data
+    private val filledBatches = new LinkedBlockingQueue[Either[Throwable, Option[VectorSchemaRoot]]]()
+    // only one batch is requested from native reader at a time, so that batches keep their order
+    private var fetching = false
+    private var endOfData = false
+    private var closed = false
+    private var current: VectorSchemaRoot = _
+
+    roots.foreach(freeRoots.add)
+    fetchNext()
 
     override def hasNext: Boolean = {
-      if (!finished) {
-        val consumerArray = ArrowArray.allocateNew(reader.getAllocator)
-        val rowCount = reader.nextBatchBlocked(consumerArray.memoryAddress());
-        try {
-          if (rowCount > 0) {
+      if (finished) return false
+      if (current != null) {
+        release(current)
+        current = null
+      }
+      val batch = if (timeout > 0) {
+        filledBatches.poll(timeout, TimeUnit.MILLISECONDS)
+      } else {
+        filledBatches.take()
+      }
+      batch match {
+        case null =>
+          finished = true
+          val e = new IOException(s"Native reader did not return a batch in $timeout ms")
+          ex = Some(e)
+          throw e
+        case Right(Some(root)) =>
+          current = root
+          true
+        case Right(None) =>
+          finished = true
+          false
+        case Left(e) =>
+          finished = true
+          ex = Some(e)
+          throw new IOException(e.getMessage, e)
+      }
+    }
+
+    override def next(): VectorSchemaRoot = {
+      current
+    }
+
+    private def release(root: VectorSchemaRoot): Unit = {
+      freeRoots.synchronized {
+        freeRoots.add(root)
+      }
+      fetchNext()
+    }
+
+    private def fetchNext(): Unit = {
+      val root = freeRoots.synchronized {
+        if (fetching || endOfData || closed || freeRoots.isEmpty) {
+          null
+        } else {
+          fetching = true
+          freeRoots.poll()
+        }
+      }
+      if (root == null) return
+      val consumerSchema = ArrowSchema.allocateNew(reader.getAllocator)
+      val consumerArray = ArrowArray.allocateNew(reader.getAllocator)
+      val callback: BiConsumer[Integer, String] = (rowCount, err) => {
+        val result: Either[Throwable, Option[VectorSchemaRoot]] = try {
+          if (err != null) {
+            Left(new IOException(err))
+          } else if (rowCount > 0) {
             Data.importIntoVectorSchemaRoot(reader.getAllocator, consumerArray, root, provider)
             root.setRowCount(rowCount)
-            true
+            Right(Some(root))
           } else {
-            false
+            Right(None)
           }
+        } catch {
+          case e: Throwable => Left(e)
         } finally {
           consumerArray.close()
+          consumerSchema.close()
         }
-      } else {
-        false
+        freeRoots.synchronized {
+          fetching = false
+          if (!result.exists(_.isDefined)) {
+            endOfData = true
+            freeRoots.add(root)
+          }
+          freeRoots.notifyAll()
+        }
+        filledBatches.put(result)
+        fetchNext()
+      }
+      try {
+        reader.nextBatch(callback, consumerSchema.memoryAddress(), consumerArray.memoryAddress())
+      } catch {
+        case e: Throwable =>
+          consumerArray.close()
+          consumerSchema.close()
+          freeRoots.synchronized {
+            fetching = false
+            endOfData = true
+            freeRoots.add(root)
+          }
+          filledBatches.put(Left(e))
       }
     }
 
-    override def next(): VectorSchemaRoot = {
-      root
-    }
-
-    private def finish(): Unit = {
-      if (!finished) {
-        finished = true
+    /**
+     * Stops prefetching and waits for the batch being read by native reader, which writes into memory owned here.
+     * The roots, including the one returned by the last next(), are closed.
+     */
+    def close(): Unit = {
+      freeRoots.synchronized {
+        if (closed) return
+        closed = true
+        while (fetching) {
+          freeRoots.wait()
+        }
       }
+      roots.foreach(_.close())
+      provider.close()
     }
   }
 
   override def close(): Unit = {
-    iterator.root.close()
-    iterator.provider.close()
+    if (closed) return
+    closed = true
+    iterator.close()
     reader.close()
   }
 }
+
+object LakeSoulArrowReader {
+  val DEFAULT_PREFETCH_BATCHES = 2
+}
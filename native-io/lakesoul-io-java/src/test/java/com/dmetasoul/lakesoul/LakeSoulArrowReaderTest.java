@@ -0,0 +1,202 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul;
+
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOBase;
+import com.dmetasoul.lakesoul.lakesoul.io.NativeIOReader;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class LakeSoulArrowReaderTest {
+
+    private static final Schema SCHEMA = new Schema(Collections.singletonList(
+            Field.notNullable("id", new ArrowType.Int(64, true))));
+
+    private static final String SAMPLE_FILE =
+            "sample-parquet-files/part-00000-a9e77425-5fb4-456f-ba52-f821123bd193-c000.snappy.parquet";
+
+    @Before
+    public void checkNativeLib() {
+        assumeTrue("native io library is not found", NativeIOBase.isNativeIOLibExist());
+    }
+
+    private static NativeIOReader sampleReader() throws Exception {
+        NativeIOReader reader = new NativeIOReader();
+        reader.addFile(new File(LakeSoulArrowReaderTest.class.getClassLoader().getResource(SAMPLE_FILE).toURI())
+                .getAbsolutePath());
+        reader.setSchema(SCHEMA);
+        reader.setBatchSize(7);
+        reader.initializeReader();
+        return reader;
+    }
+
+    private static List<Long> readIds(int prefetchBatches, long consumeMillis) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        try (LakeSoulArrowReader reader = new LakeSoulArrowReader(sampleReader(), 10000, prefetchBatches)) {
+            while (reader.hasNext()) {
+                VectorSchemaRoot root = reader.nextResultVectorSchemaRoot();
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    ids.add(id.get(i));
+                }
+                // let the prefetched batches pile up
+                Thread.sleep(consumeMillis);
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void testBatchOrderWithPrefetch() throws Exception {
+        List<Long> expected = readIds(1, 0);
+        assertEquals(1000, expected.size());
+        assertEquals(expected, readIds(3, 1));
+    }
+
+    /**
+     * Native reader which answers each batch request by running the given handler on another thread.
+     */
+    private static class StubReader extends NativeIOReader {
+        private final BatchRequestHandler handler;
+
+        private final AtomicInteger closeCount = new AtomicInteger();
+
+        StubReader(BatchRequestHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public Schema getSchema() {
+            return SCHEMA;
+        }
+
+        @Override
+        public void nextBatch(BiConsumer<Integer, String> callback, long schemaAddr, long arrayAddr) {
+            new Thread(() -> handler.run(callback)).start();
+        }
+
+        @Override
+        public void close() throws Exception {
+            closeCount.incrementAndGet();
+            // fails if any root of the arrow reader is left open
+            super.close();
+        }
+    }
+
+    private interface BatchRequestHandler {
+        void run(BiConsumer<Integer, String> callback);
+    }
+
+    @Test
+    public void testCallbackErrorPropagates() throws Exception {
+        StubReader stub = new StubReader(callback -> callback.accept(0, "read failed"));
+        LakeSoulArrowReader reader = new LakeSoulArrowReader(stub, 10000, 3);
+        try {
+            reader.hasNext();
+            fail("error of native reader is not propagated");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("read failed"));
+        }
+        assertTrue(reader.ex().isDefined());
+        assertFalse(reader.hasNext());
+        reader.close();
+        assertEquals(1, stub.closeCount.get());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StubReader stub = new StubReader(callback -> {
+            awaitQuietly(release);
+            callback.accept(0, null);
+        });
+        LakeSoulArrowReader reader = new LakeSoulArrowReader(stub, 100, 2);
+        try {
+            reader.hasNext();
+            fail("hasNext does not time out");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("100 ms"));
+        }
+        release.countDown();
+        reader.close();
+    }
+
+    @Test
+    public void testWaitWithoutTimeout() throws Exception {
+        StubReader stub = new StubReader(callback -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            callback.accept(0, null);
+        });
+        // a reader created without a timeout waits as long as the batch takes
+        LakeSoulArrowReader reader = new LakeSoulArrowReader(stub);
+        assertEquals(0, reader.timeout());
+        assertFalse(reader.hasNext());
+        assertFalse(reader.ex().isDefined());
+        reader.close();
+    }
+
+    @Test
+    public void testCloseWhileFetching() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StubReader stub = new StubReader(callback -> {
+            fetchStarted.countDown();
+            awaitQuietly(release);
+            callback.accept(0, null);
+        });
+        LakeSoulArrowReader reader = new LakeSoulArrowReader(stub, 10000, 2);
+        assertTrue(fetchStarted.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch closed = new CountDownLatch(1);
+        Thread closer = new Thread(() -> {
+            reader.close();
+            closed.countDown();
+        });
+        closer.start();
+        // the batch being fetched writes into a root of the reader, which is kept until the fetch returns
+        assertFalse(closed.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(0, stub.closeCount.get());
+
+        release.countDown();
+        assertTrue(closed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, stub.closeCount.get());
+        // closing again releases nothing twice
+        reader.close();
+        assertEquals(1, stub.closeCount.get());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package com.dmetasoul.lakesoul.lakesoul.io;
+
+import com.dmetasoul.lakesoul.LakeSoulArrowReader;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+public class NativeIOWriterTest {
+
+    private static final Schema SCHEMA = new Schema(Collections.singletonList(
+            Field.nullable("id", new ArrowType.Int(64, true))));
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Before
+    public void checkNativeLib() {
+        assumeTrue("native io library is not found", NativeIOBase.isNativeIOLibExist());
+    }
+
+    private NativeIOWriter createWriter(String file, int maxInFlightBatches) throws Exception {
+        NativeIOWriter writer = new NativeIOWriter(SCHEMA);
+        writer.addFile(file);
+        writer.setMaxInFlightBatches(maxInFlightBatches);
+        writer.initializeWriter();
+        return writer;
+    }
+
+    private static VectorSchemaRoot batch(NativeIOWriter writer, long from, long to) {
+        VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, writer.getAllocator());
+        BigIntVector id = (BigIntVector) root.getVector("id");
+        id.allocateNew((int) (to - from));
+        for (long i = from; i < to; i++) {
+            id.set((int) (i - from), i);
+        }
+        root.setRowCount((int) (to - from));
+        return root;
+    }
+
+    private static List<Long> readIds(String file) throws Exception {
+        NativeIOReader reader = new NativeIOReader();
+        reader.addFile(file);
+        reader.setSchema(SCHEMA);
+        reader.initializeReader();
+        List<Long> ids = new ArrayList<>();
+        try (LakeSoulArrowReader arrowReader = new LakeSoulArrowReader(reader)) {
+            while (arrowReader.hasNext()) {
+                VectorSchemaRoot root = arrowReader.nextResultVectorSchemaRoot();
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    ids.add(id.get(i));
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Test
+    public void testWriteAsyncKeepsBatchOrder() throws Exception {
+        String file = "file://" + new File(tempFolder.getRoot(), "async.parquet").getAbsolutePath();
+        NativeIOWriter writer = createWriter(file, 2);
+        for (int i = 0; i < 10; i++) {
+            // exported buffers are retained by native writer, so the root could be closed at once
+            try (VectorSchemaRoot root = batch(writer, i * 100L, (i + 1) * 100L)) {
+                writer.writeAsync(root);
+            }
+        }
+        writer.flush();
+        writer.close();
+        assertEquals(LongStream.range(0, 1000).boxed().collect(Collectors.toList()), readIds(file));
+    }
+
+    @Test
+    public void testFailedExportReleasesInFlightSlot() throws Exception {
+        String file = "file://" + new File(tempFolder.getRoot(), "failed.parquet").getAbsolutePath();
+        NativeIOWriter writer = createWriter(file, 1);
+        // a dictionary encoded field whose dictionary is unknown to the writer could not be exported
+        Field encoded = new Field("id", new FieldType(true, new ArrowType.Int(32, true),
+                new DictionaryEncoding(1L, false, null)), null);
+        try (VectorSchemaRoot invalid = new VectorSchemaRoot(Collections.singletonList(
+                new IntVector(encoded, writer.getAllocator())))) {
+            writer.writeAsync(invalid);
+            fail("batch with unknown dictionary is exported");
+        } catch (RuntimeException expected) {
+            // the only in-flight slot is given back, so the next write does not block
+        }
+        try (VectorSchemaRoot root = batch(writer, 0, 10)) {
+            writer.writeAsync(root);
+        }
+        writer.flush();
+        writer.close();
+        assertEquals(LongStream.range(0, 10).boxed().collect(Collectors.toList()), readIds(file));
+    }
+}
@@ -54,9 +54,17 @@ $$
                 path            text,
                 file_op         text,
                 size            bigint,
-                file_exist_cols text
+                file_exist_cols text,
+                file_stats      text
             );
         END IF;
+        IF NOT EXISTS (SELECT 1
+                       FROM pg_attribute a
+                                JOIN pg_type t ON a.attrelid = t.typrelid
+                       WHERE t.typname = 'data_file_op'
+                         AND a.attname = 'file_stats') THEN
+            alter type data_file_op add attribute file_stats text;
+        END IF;
     END
 $$;
 
@@ -86,6 +94,8 @@ create table if not exists partition_info
     primary key (table_id, partition_desc, version)
 );
 
+create index if not exists partition_info_timestamp on partition_info (table_id, timestamp);
+
 CREATE OR REPLACE FUNCTION partition_insert() RETURNS TRIGGER AS
 $$
 DECLARE
@@ -93,6 +103,8 @@ DECLARE
     rs_table_path      text;
     rs_table_namespace text;
 BEGIN
+    -- wake up streaming readers of the table, notifications are delivered on commit
+    perform pg_notify('lakesoul_partition_change_notify', NEW.table_id);
     if NEW.commit_op <> 'CompactionCommit' then
         select version
         INTO rs_version
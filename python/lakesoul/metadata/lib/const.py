@@ -40,9 +40,11 @@ class DaoType:
     ListPartitionVersionByTableIdAndPartitionDescAndVersionRange = DAO_TYPE_QUERY_LIST_OFFSET + 7,
     ListPartitionVersionByTableIdAndPartitionDescAndTimestampRange = DAO_TYPE_QUERY_LIST_OFFSET + 8,
     ListCommitOpsBetweenVersions = DAO_TYPE_QUERY_LIST_OFFSET + 9,
+    ListPartitionByTableIdChangedSince = DAO_TYPE_QUERY_LIST_OFFSET + 12,
 
     # // Query DataCommitInfo List
     ListDataCommitInfoByTableIdAndPartitionDescAndCommitList = DAO_TYPE_QUERY_LIST_OFFSET + 10,
+    ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime = DAO_TYPE_QUERY_LIST_OFFSET + 11,
 
     # // ==== Insert One ====
     InsertNamespace = DAO_TYPE_INSERT_ONE_OFFSET,
@@ -100,6 +100,14 @@ IOConfigBuilder *lakesoul_config_builder_set_inferring_schema(IOConfigBuilder *b
 IOConfigBuilder *lakesoul_config_builder_set_batch_size(IOConfigBuilder *builder,
                                                         c_size_t batch_size);
 
+IOConfigBuilder *lakesoul_config_builder_set_limit(IOConfigBuilder *builder, c_size_t limit);
+
+IOConfigBuilder *lakesoul_config_builder_set_skip_rows(IOConfigBuilder *builder, c_size_t skip_rows);
+
+IOConfigBuilder *lakesoul_config_builder_set_file_range(IOConfigBuilder *builder,
+                                                        int64_t start,
+                                                        int64_t end);
+
 IOConfigBuilder *lakesoul_config_builder_set_max_row_group_size(IOConfigBuilder *builder,
                                                                 c_size_t max_row_group_size);
 
@@ -139,6 +147,8 @@ IOConfig *create_lakesoul_io_config_from_builder(IOConfigBuilder *builder);
 
 CResult<Reader> *create_lakesoul_reader_from_config(IOConfig *config, TokioRuntime *runtime);
 
+CResult<Reader> *create_lakesoul_reader_with_shared_runtime(IOConfig *config);
+
 const char *check_reader_created(CResult<Reader> *reader);
 
 void start_reader(CResult<Reader> *reader, ResultCallback callback);
@@ -164,6 +174,8 @@ void free_lakesoul_reader(CResult<Reader> *reader);
 
 CResult<Writer> *create_lakesoul_writer_from_config(IOConfig *config, TokioRuntime *runtime);
 
+CResult<Writer> *create_lakesoul_writer_with_shared_runtime(IOConfig *config);
+
 const char *check_writer_created(CResult<Reader> *writer);
 
 void write_record_batch(CResult<Writer> *writer,
@@ -175,6 +187,11 @@ const char *write_record_batch_blocked(CResult<Writer> *writer,
                                        c_ptrdiff_t schema_addr,
                                        c_ptrdiff_t array_addr);
 
+const char *write_record_batch_ipc_blocked(CResult<Writer> *writer,
+                                           c_ptrdiff_t ipc_addr,
+                                           int64_t len,
+                                           int64_t *row_count);
+
 void export_bytes_result(void (*callback)(bool, const char*),
                          CResult<BytesResult> *bytes,
                          int32_t len,
@@ -182,6 +199,8 @@ void export_bytes_result(void (*callback)(bool, const char*),
 
 CResult<BytesResult> *flush_and_close_writer(CResult<Writer> *writer, I32ResultCallback callback);
 
+CResult<BytesResult> *concat_parquet_files(IOConfig *config, I32ResultCallback callback);
+
 void abort_and_close_writer(CResult<Writer> *writer, ResultCallback callback);
 
 TokioRuntimeBuilder *new_tokio_runtime_builder();
@@ -193,6 +212,8 @@ TokioRuntime *create_tokio_runtime_from_builder(TokioRuntimeBuilder *builder);
 
 void free_tokio_runtime(CResult<TokioRuntime> *runtime);
 
+bool init_shared_tokio_runtime(c_size_t thread_num);
+
 CResult<BytesResult> *apply_partition_filter(void (*callback)(int32_t, const char*),
                                              int32_t len,
                                              c_ptrdiff_t jni_wrapper_addr,
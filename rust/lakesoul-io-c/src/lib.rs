@@ -5,11 +5,12 @@
 #![allow(clippy::not_unsafe_ptr_arg_deref)]
 extern crate core;
 
+use std::collections::HashMap;
 use std::ffi::{c_char, c_int, c_uchar, c_void, CStr, CString};
 use std::io::Write;
 use std::ptr::NonNull;
 use std::slice;
-use std::sync::Arc;
+use std::sync::{Arc, OnceLock};
 
 use bytes::BufMut;
 
@@ -252,6 +253,31 @@ pub extern "C" fn lakesoul_config_builder_set_batch_size(
     convert_to_opaque(from_opaque::<IOConfigBuilder, LakeSoulIOConfigBuilder>(builder).with_batch_size(batch_size))
 }
 
+#[no_mangle]
+pub extern "C" fn lakesoul_config_builder_set_limit(
+    builder: NonNull<IOConfigBuilder>,
+    limit: c_size_t,
+) -> NonNull<IOConfigBuilder> {
+    convert_to_opaque(from_opaque::<IOConfigBuilder, LakeSoulIOConfigBuilder>(builder).with_limit(limit))
+}
+
+#[no_mangle]
+pub extern "C" fn lakesoul_config_builder_set_skip_rows(
+    builder: NonNull<IOConfigBuilder>,
+    skip_rows: c_size_t,
+) -> NonNull<IOConfigBuilder> {
+    convert_to_opaque(from_opaque::<IOConfigBuilder, LakeSoulIOConfigBuilder>(builder).with_skip_rows(skip_rows))
+}
+
+#[no_mangle]
+pub extern "C" fn lakesoul_config_builder_set_file_range(
+    builder: NonNull<IOConfigBuilder>,
+    start: i64,
+    end: i64,
+) -> NonNull<IOConfigBuilder> {
+    convert_to_opaque(from_opaque::<IOConfigBuilder, LakeSoulIOConfigBuilder>(builder).with_file_range(start, end))
+}
+
 #[no_mangle]
 pub extern "C" fn lakesoul_config_builder_set_max_row_group_size(
     builder: NonNull<IOConfigBuilder>,
@@ -404,6 +430,19 @@ pub extern "C" fn create_lakesoul_reader_from_config(
     convert_to_nonnull(result)
 }
 
+#[no_mangle]
+pub extern "C" fn create_lakesoul_reader_with_shared_runtime(config: NonNull<IOConfig>) -> NonNull<CResult<Reader>> {
+    let config: LakeSoulIOConfig = from_opaque(config);
+    let result = match LakeSoulReader::new(config) {
+        Ok(reader) => CResult::<Reader>::new(SyncSendableMutableLakeSoulReader::with_shared_runtime(
+            reader,
+            shared_tokio_runtime(),
+        )),
+        Err(e) => CResult::<Reader>::error(format!("{}", e).as_str()),
+    };
+    convert_to_nonnull(result)
+}
+
 #[no_mangle]
 pub extern "C" fn check_reader_created(reader: NonNull<CResult<Reader>>) -> *const c_char {
     unsafe {
@@ -679,6 +718,16 @@ pub extern "C" fn create_lakesoul_writer_from_config(
     convert_to_nonnull(result)
 }
 
+#[no_mangle]
+pub extern "C" fn create_lakesoul_writer_with_shared_runtime(config: NonNull<IOConfig>) -> NonNull<CResult<Writer>> {
+    let config: LakeSoulIOConfig = from_opaque(config);
+    let result = match SyncSendableMutableLakeSoulWriter::try_new_with_shared_runtime(config, shared_tokio_runtime()) {
+        Ok(writer) => CResult::<Writer>::new(writer),
+        Err(e) => CResult::<Writer>::error(format!("{}", e).as_str()),
+    };
+    convert_to_nonnull(result)
+}
+
 #[no_mangle]
 pub extern "C" fn check_writer_created(writer: NonNull<CResult<Reader>>) -> *const c_char {
     unsafe {
@@ -703,16 +752,26 @@ pub extern "C" fn write_record_batch(
         (array_addr as *mut FFI_ArrowArray).copy_to(&mut ffi_array as *mut FFI_ArrowArray, 1);
         let mut ffi_schema = FFI_ArrowSchema::empty();
         (schema_addr as *mut FFI_ArrowSchema).copy_to(&mut ffi_schema as *mut FFI_ArrowSchema, 1);
+        // batch is imported before returning, so that caller could release the ffi structs at once,
+        // and written in background, the callback is called after the batch is written
         let result_fn = move || {
             let array_data = from_ffi(ffi_array, &ffi_schema)?;
             let struct_array = StructArray::from(array_data);
-            let rb = RecordBatch::from(struct_array);
-            writer.as_ref().write_batch(rb)?;
-            Ok(())
+            Ok(RecordBatch::from(struct_array))
         };
-        let result: lakesoul_io::Result<()> = result_fn();
+        let result: lakesoul_io::Result<RecordBatch> = result_fn();
         match result {
-            Ok(_) => call_result_callback(callback, true, std::ptr::null()),
+            Ok(rb) => {
+                let f = move |result: lakesoul_io::Result<()>| match result {
+                    Ok(_) => call_result_callback(callback, true, std::ptr::null()),
+                    Err(e) => call_result_callback(
+                        callback,
+                        false,
+                        CString::new(format!("{}", e).as_str()).unwrap().into_raw(),
+                    ),
+                };
+                writer.as_ref().write_batch_callback(rb, Box::new(f));
+            }
             Err(e) => call_result_callback(
                 callback,
                 false,
@@ -749,6 +808,42 @@ pub extern "C" fn write_record_batch_blocked(
     }
 }
 
+// writes batches of an arrow ipc stream, decoded by native reader so that caller needs not to import them.
+// body of each message is read into an aligned buffer once, and arrays of the batch are slices of it,
+// so the len bytes at ipc_addr are only read during this call.
+#[no_mangle]
+pub extern "C" fn write_record_batch_ipc_blocked(
+    writer: NonNull<CResult<Writer>>,
+    ipc_addr: c_ptrdiff_t,
+    len: i64,
+    row_count: *mut i64,
+) -> *const c_char {
+    unsafe {
+        let writer = NonNull::new_unchecked(writer.as_ref().ptr as *mut SyncSendableMutableLakeSoulWriter);
+        let ipc = slice::from_raw_parts(ipc_addr as *const u8, len as usize);
+        let result_fn = move || {
+            let reader = arrow::ipc::reader::StreamReader::try_new(std::io::Cursor::new(ipc), None)?;
+            let mut rows = 0;
+            for rb in reader {
+                let rb = rb?;
+                rows += rb.num_rows() as i64;
+                writer.as_ref().write_batch(rb)?;
+            }
+            Ok(rows)
+        };
+        let result: lakesoul_io::Result<i64> = result_fn();
+        match result {
+            Ok(rows) => {
+                if !row_count.is_null() {
+                    *row_count = rows;
+                }
+                std::ptr::null()
+            }
+            Err(e) => CString::new(format!("{}", e).as_str()).unwrap().into_raw(),
+        }
+    }
+}
+
 #[no_mangle]
 pub extern "C" fn export_bytes_result(
     callback: extern "C" fn(bool, *const c_char),
@@ -807,6 +902,32 @@ pub extern "C" fn flush_and_close_writer(
     }
 }
 
+// concatenates parquet files of config into its last file, the result is encoded as the result of flush_and_close_writer
+#[no_mangle]
+pub extern "C" fn concat_parquet_files(
+    config: NonNull<IOConfig>,
+    callback: I32ResultCallback,
+) -> NonNull<CResult<BytesResult>> {
+    let config: LakeSoulIOConfig = from_opaque(config);
+    let result = shared_tokio_runtime()
+        .block_on(lakesoul_io::lakesoul_writer::concat_parquet_files(config))
+        .map(|file| lakesoul_io::lakesoul_writer::encode_flushed_files(&HashMap::from([(String::new(), vec![file])])));
+    match result {
+        Ok(bytes) => {
+            call_i32_result_callback(callback, bytes.len() as i32, std::ptr::null());
+            convert_to_nonnull(CResult::<BytesResult>::new::<Vec<u8>>(bytes))
+        }
+        Err(e) => {
+            call_i32_result_callback(
+                callback,
+                -1,
+                CString::new(format!("{}", e).as_str()).unwrap().into_raw(),
+            );
+            convert_to_nonnull(CResult::<BytesResult>::new::<Vec<u8>>(vec![]))
+        }
+    }
+}
+
 // consumes the writer pointer
 // this writer cannot be used again
 #[no_mangle]
@@ -839,6 +960,8 @@ pub struct TokioRuntime {
     private: [u8; 0],
 }
 
+// a runtime owned by one reader or writer created with create_lakesoul_{reader,writer}_from_config,
+// kept for callers managing their own runtimes such as the cpp reader, java uses the shared runtime instead
 #[no_mangle]
 pub extern "C" fn new_tokio_runtime_builder() -> NonNull<TokioRuntimeBuilder> {
     let mut builder = Builder::new_multi_thread();
@@ -872,6 +995,44 @@ pub extern "C" fn free_tokio_runtime(runtime: NonNull<CResult<TokioRuntime>>) {
     from_nonnull(runtime).free::<Runtime>();
 }
 
+// process-wide runtime shared by all readers and writers created with the *_with_shared_runtime functions,
+// so that the number of native threads does not grow with the number of open readers and writers
+static SHARED_TOKIO_RUNTIME: OnceLock<Arc<Runtime>> = OnceLock::new();
+
+
+fn build_shared_tokio_runtime(thread_num: usize) -> Arc<Runtime> {
+    let thread_num = thread_num.max(1);
+    let mut builder = Builder::new_multi_thread();
+    builder.enable_all();
+    builder.worker_threads(thread_num);
+    builder.max_blocking_threads(thread_num * 4);
+    builder.thread_name("lakesoul-io");
+    Arc::new(builder.build().unwrap())
+}
+
+// one worker per available cpu if the runtime is used before init_shared_tokio_runtime
+fn default_shared_runtime_thread_num() -> usize {
+    std::thread::available_parallelism().map(|n| n.get()).unwrap_or(2)
+}
+
+fn shared_tokio_runtime() -> Arc<Runtime> {
+    SHARED_TOKIO_RUNTIME
+        .get_or_init(|| build_shared_tokio_runtime(default_shared_runtime_thread_num()))
+        .clone()
+}
+
+// creates the shared runtime with the given number of worker threads,
+// returns false if it has already been created, in which case thread_num takes no effect
+#[no_mangle]
+pub extern "C" fn init_shared_tokio_runtime(thread_num: c_size_t) -> bool {
+    let mut created = false;
+    SHARED_TOKIO_RUNTIME.get_or_init(|| {
+        created = true;
+        build_shared_tokio_runtime(thread_num)
+    });
+    created
+}
+
 #[no_mangle]
 pub extern "C" fn apply_partition_filter(
     callback: extern "C" fn(i32, *const c_char),
@@ -916,19 +1077,32 @@ pub extern "C" fn free_bytes_result(bytes: NonNull<CResult<BytesResult>>) {
 mod tests {
     use core::ffi::c_ptrdiff_t;
     use std::ffi::{CStr, CString};
+    use std::fs::File;
     use std::os::raw::c_char;
     use std::ptr::NonNull;
-    use std::sync::{Condvar, Mutex};
+    use std::sync::atomic::{AtomicI32, Ordering};
+    use std::sync::{Arc, Condvar, Mutex};
 
+    use arrow::array::{Array, ArrayRef, Int64Array, StringArray, StructArray};
+    use arrow::datatypes::Schema;
     use arrow::ffi::{FFI_ArrowArray, FFI_ArrowSchema};
+    use arrow::record_batch::RecordBatch;
+    use parquet::arrow::arrow_reader::ParquetRecordBatchReader;
+    use parquet::file::reader::FileReader;
+    use parquet::file::serialized_reader::SerializedFileReader;
 
     use crate::{
-        create_lakesoul_io_config_from_builder, create_lakesoul_reader_from_config, create_lakesoul_writer_from_config,
-        flush_and_close_writer, free_lakesoul_reader, lakesoul_config_builder_add_single_file,
+        check_reader_created, check_writer_created, concat_parquet_files, create_lakesoul_io_config_from_builder,
+        create_lakesoul_reader_from_config, create_lakesoul_reader_with_shared_runtime,
+        create_lakesoul_writer_from_config, create_lakesoul_writer_with_shared_runtime, flush_and_close_writer,
+        free_bytes_result, free_lakesoul_reader, init_shared_tokio_runtime, lakesoul_config_builder_add_single_file,
         lakesoul_config_builder_add_single_primary_key, lakesoul_config_builder_set_batch_size,
+        lakesoul_config_builder_set_file_range, lakesoul_config_builder_set_limit,
         lakesoul_config_builder_set_max_row_group_size, lakesoul_config_builder_set_object_store_option,
-        lakesoul_config_builder_set_schema, lakesoul_config_builder_set_thread_num, lakesoul_reader_get_schema,
-        next_record_batch, start_reader, tokio_runtime_builder_set_thread_num, write_record_batch, IOConfigBuilder,
+        lakesoul_config_builder_set_schema, lakesoul_config_builder_set_skip_rows,
+        lakesoul_config_builder_set_thread_num, lakesoul_reader_get_schema, next_record_batch,
+        next_record_batch_blocked, start_reader, tokio_runtime_builder_set_thread_num, write_record_batch,
+        write_record_batch_ipc_blocked, CResult, IOConfigBuilder, Writer,
     };
 
     fn set_object_store_kv(builder: NonNull<IOConfigBuilder>, key: &str, value: &str) -> NonNull<IOConfigBuilder> {
@@ -1033,6 +1207,334 @@ mod tests {
         }
     }
 
+    extern "C" fn ignore_i32_callback(_status: i32, _err: *const c_char) {}
+
+    extern "C" fn ignore_result_callback(_status: bool, _err: *const c_char) {}
+
+    // config builder of a local file, for tests not depending on an object store
+    fn local_config_builder(schema: &Schema, file: &str) -> NonNull<IOConfigBuilder> {
+        let mut schema_ffi = FFI_ArrowSchema::try_from(schema).unwrap();
+        let mut builder = crate::new_lakesoul_io_config_builder();
+        builder = lakesoul_config_builder_set_schema(builder, std::ptr::addr_of_mut!(schema_ffi) as c_ptrdiff_t);
+        let file = CString::new(file).unwrap();
+        lakesoul_config_builder_add_single_file(builder, file.as_ptr())
+    }
+
+    // writer of a local file on the shared runtime
+    fn create_local_writer(schema: &Schema, file: &str) -> NonNull<CResult<Writer>> {
+        create_local_writer_from_builder(local_config_builder(schema, file))
+    }
+
+    fn create_local_writer_from_builder(builder: NonNull<IOConfigBuilder>) -> NonNull<CResult<Writer>> {
+        let writer = create_lakesoul_writer_with_shared_runtime(create_lakesoul_io_config_from_builder(builder));
+        let err = check_writer_created(writer.cast());
+        assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+        writer
+    }
+
+    // reads all batches through the c interface of reader
+    fn read_with_native_reader(builder: NonNull<IOConfigBuilder>) -> Vec<RecordBatch> {
+        let reader = create_lakesoul_reader_with_shared_runtime(create_lakesoul_io_config_from_builder(builder));
+        let err = check_reader_created(reader);
+        assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+        start_reader(reader, ignore_result_callback);
+        let ffi_schema = FFI_ArrowSchema::empty();
+        lakesoul_reader_get_schema(reader, std::ptr::addr_of!(ffi_schema) as c_ptrdiff_t);
+        let mut batches = vec![];
+        loop {
+            let mut ffi_array = FFI_ArrowArray::empty();
+            let mut count = 0;
+            let err = next_record_batch_blocked(
+                reader,
+                std::ptr::addr_of_mut!(ffi_array) as c_ptrdiff_t,
+                std::ptr::addr_of_mut!(count),
+            );
+            assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+            if count == 0 {
+                break;
+            }
+            let data = unsafe { arrow::ffi::from_ffi(ffi_array, &ffi_schema).unwrap() };
+            batches.push(RecordBatch::from(StructArray::from(data)));
+        }
+        free_lakesoul_reader(reader);
+        batches
+    }
+
+    fn read_local_file(file: &str) -> Vec<RecordBatch> {
+        ParquetRecordBatchReader::try_new(File::open(file).unwrap(), 1024)
+            .unwrap()
+            .collect::<Result<Vec<_>, _>>()
+            .unwrap()
+    }
+
+    fn test_batch(ids: Vec<i64>) -> RecordBatch {
+        let names = StringArray::from_iter_values(ids.iter().map(|id| format!("name-{}", id)));
+        RecordBatch::try_from_iter([
+            ("id", Arc::new(Int64Array::from(ids)) as ArrayRef),
+            ("name", Arc::new(names) as ArrayRef),
+        ])
+        .unwrap()
+    }
+
+    #[test]
+    fn test_write_record_batch_ipc_blocked() {
+        let batches = vec![test_batch(vec![1, 2, 3]), test_batch(vec![4, 5])];
+        let schema = batches[0].schema();
+        let mut ipc = Vec::new();
+        {
+            let mut ipc_writer = arrow::ipc::writer::StreamWriter::try_new(&mut ipc, &schema).unwrap();
+            for batch in batches.iter() {
+                ipc_writer.write(batch).unwrap();
+            }
+            ipc_writer.finish().unwrap();
+        }
+        let dir = tempfile::tempdir().unwrap();
+        let file = dir.path().join("ipc.parquet").into_os_string().into_string().unwrap();
+        let writer = create_local_writer(&schema, &file);
+
+        let mut row_count = 0i64;
+        let err = write_record_batch_ipc_blocked(
+            writer,
+            ipc.as_ptr() as c_ptrdiff_t,
+            ipc.len() as i64,
+            std::ptr::addr_of_mut!(row_count),
+        );
+        assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+        // the stream is only read during the call, so the caller may release it right away
+        drop(ipc);
+        assert_eq!(row_count, 5);
+        flush_and_close_writer(writer, ignore_i32_callback);
+
+        let expected = arrow::compute::concat_batches(&schema, &batches).unwrap();
+        let actual = arrow::compute::concat_batches(&schema, &read_local_file(&file)).unwrap();
+        assert_eq!(expected, actual);
+    }
+
+    #[test]
+    fn test_set_skip_rows() {
+        let batch = test_batch((0..7).collect());
+        let schema = batch.schema();
+        let dir = tempfile::tempdir().unwrap();
+        let file = dir.path().join("seek.parquet").into_os_string().into_string().unwrap();
+        // row groups of 2 rows, so that rows are skipped by whole row groups and within one
+        let writer = create_local_writer_from_builder(lakesoul_config_builder_set_max_row_group_size(
+            local_config_builder(&schema, &file),
+            2,
+        ));
+        let mut ipc = Vec::new();
+        {
+            let mut ipc_writer = arrow::ipc::writer::StreamWriter::try_new(&mut ipc, &schema).unwrap();
+            ipc_writer.write(&batch).unwrap();
+            ipc_writer.finish().unwrap();
+        }
+        let mut row_count = 0i64;
+        let err = write_record_batch_ipc_blocked(
+            writer,
+            ipc.as_ptr() as c_ptrdiff_t,
+            ipc.len() as i64,
+            std::ptr::addr_of_mut!(row_count),
+        );
+        assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+        flush_and_close_writer(writer, ignore_i32_callback);
+
+        let read_ids = |skip_rows: usize, limit: Option<usize>| -> Vec<i64> {
+            let mut builder = lakesoul_config_builder_set_skip_rows(local_config_builder(&schema, &file), skip_rows);
+            if let Some(limit) = limit {
+                builder = lakesoul_config_builder_set_limit(builder, limit);
+            }
+            read_with_native_reader(builder)
+                .iter()
+                .flat_map(|rb| {
+                    rb.column_by_name("id")
+                        .unwrap()
+                        .as_any()
+                        .downcast_ref::<Int64Array>()
+                        .unwrap()
+                        .values()
+                        .to_vec()
+                })
+                .collect()
+        };
+        assert_eq!(read_ids(0, None), (0..7).collect::<Vec<i64>>());
+        assert_eq!(read_ids(4, None), vec![4, 5, 6]);
+        assert_eq!(read_ids(3, None), vec![3, 4, 5, 6]);
+        // the limit applies to the rows after the skipped ones
+        assert_eq!(read_ids(3, Some(2)), vec![3, 4]);
+        assert!(read_ids(7, None).is_empty());
+    }
+
+    #[test]
+    fn test_init_shared_tokio_runtime() {
+        // the runtime is created by whichever comes first, once for the whole process
+        let runtime = crate::shared_tokio_runtime();
+        assert!(!init_shared_tokio_runtime(1));
+        assert!(Arc::ptr_eq(&runtime, &crate::shared_tokio_runtime()));
+        assert_eq!(runtime.block_on(async { 1 + 1 }), 2);
+    }
+
+    #[test]
+    fn test_set_file_range() {
+        let batch = test_batch((0..4).collect());
+        let schema = batch.schema();
+        let dir = tempfile::tempdir().unwrap();
+        let file = dir.path().join("range.parquet").into_os_string().into_string().unwrap();
+        let writer = create_local_writer_from_builder(lakesoul_config_builder_set_max_row_group_size(
+            local_config_builder(&schema, &file),
+            2,
+        ));
+        let mut ipc = Vec::new();
+        {
+            let mut ipc_writer = arrow::ipc::writer::StreamWriter::try_new(&mut ipc, &schema).unwrap();
+            ipc_writer.write(&batch).unwrap();
+            ipc_writer.finish().unwrap();
+        }
+        let mut row_count = 0i64;
+        let err = write_record_batch_ipc_blocked(
+            writer,
+            ipc.as_ptr() as c_ptrdiff_t,
+            ipc.len() as i64,
+            std::ptr::addr_of_mut!(row_count),
+        );
+        assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+        flush_and_close_writer(writer, ignore_i32_callback);
+
+        // ParquetExec assigns a row group to the range containing the file_offset of its first column chunk. The
+        // parquet writer records the end of the column chunk there, not where the chunk and the row group start.
+        let file_reader = SerializedFileReader::new(File::open(&file).unwrap()).unwrap();
+        assert_eq!(file_reader.metadata().num_row_groups(), 2);
+        let row_group_start = file_reader.metadata().row_group(1).column(0).byte_range().0 as i64;
+        let row_group_offset = file_reader.metadata().row_group(1).column(0).file_offset();
+        let file_len = std::fs::metadata(&file).unwrap().len() as i64;
+        assert!(row_group_start < row_group_offset && row_group_offset < file_len);
+
+        let read_ids = |start: i64, end: i64| -> Vec<i64> {
+            let builder = lakesoul_config_builder_set_file_range(local_config_builder(&schema, &file), start, end);
+            read_with_native_reader(builder)
+                .iter()
+                .flat_map(|rb| {
+                    rb.column_by_name("id")
+                        .unwrap()
+                        .as_any()
+                        .downcast_ref::<Int64Array>()
+                        .unwrap()
+                        .values()
+                        .to_vec()
+                })
+                .collect()
+        };
+        assert_eq!(read_ids(0, file_len), vec![0, 1, 2, 3]);
+        assert_eq!(read_ids(0, row_group_offset), vec![0, 1]);
+        assert_eq!(read_ids(row_group_offset, file_len), vec![2, 3]);
+        // a split inside the first column chunk of the second row group leaves it to the range after the split
+        assert_eq!(read_ids(0, row_group_start + 1), vec![0, 1]);
+        assert_eq!(read_ids(row_group_start + 1, file_len), vec![2, 3]);
+
+        // ranges covering the whole file without overlap, as planned by the enumerator, read each row group exactly
+        // once wherever they are split
+        for num_ranges in 1..=8 {
+            let range_size = (file_len + num_ranges - 1) / num_ranges;
+            let ids: Vec<i64> = (0..file_len)
+                .step_by(range_size as usize)
+                .flat_map(|start| read_ids(start, (start + range_size).min(file_len)))
+                .collect();
+            assert_eq!(ids, vec![0, 1, 2, 3], "{} ranges", num_ranges);
+        }
+    }
+
+    static WRITE_RESULTS: (Mutex<Vec<bool>>, Condvar) = (Mutex::new(Vec::new()), Condvar::new());
+
+    extern "C" fn write_results_callback(status: bool, _err: *const c_char) {
+        let mut results = WRITE_RESULTS.0.lock().unwrap();
+        results.push(status);
+        WRITE_RESULTS.1.notify_all();
+    }
+
+    #[test]
+    fn test_write_record_batch_async() {
+        let batches = vec![test_batch(vec![1, 2, 3]), test_batch(vec![4, 5]), test_batch(vec![6])];
+        let schema = batches[0].schema();
+        let dir = tempfile::tempdir().unwrap();
+        let file = dir.path().join("async.parquet").into_os_string().into_string().unwrap();
+        let writer = create_local_writer(&schema, &file);
+
+        for (i, batch) in batches.iter().enumerate() {
+            let struct_array = StructArray::from(batch.clone());
+            let ffi_array = FFI_ArrowArray::new(&struct_array.to_data());
+            let ffi_schema = FFI_ArrowSchema::try_from(struct_array.data_type()).unwrap();
+            write_record_batch(
+                writer,
+                std::ptr::addr_of!(ffi_schema) as c_ptrdiff_t,
+                std::ptr::addr_of!(ffi_array) as c_ptrdiff_t,
+                write_results_callback,
+            );
+            // the exported batch is moved into native writer, which releases it once written
+            std::mem::forget(ffi_array);
+            std::mem::forget(ffi_schema);
+            // the next batch is only issued after the previous one is written, as NativeIOWriter does
+            let mut results = WRITE_RESULTS.0.lock().unwrap();
+            while results.len() <= i {
+                results = WRITE_RESULTS.1.wait(results).unwrap();
+            }
+            assert!(results[i], "batch {} is not written", i);
+        }
+        flush_and_close_writer(writer, ignore_i32_callback);
+
+        let expected = arrow::compute::concat_batches(&schema, &batches).unwrap();
+        let actual = arrow::compute::concat_batches(&schema, &read_local_file(&file)).unwrap();
+        assert_eq!(expected, actual);
+    }
+
+    static CONCAT_STATUS: AtomicI32 = AtomicI32::new(0);
+
+    extern "C" fn concat_status_callback(status: i32, _err: *const c_char) {
+        CONCAT_STATUS.store(status, Ordering::SeqCst);
+    }
+
+    #[test]
+    fn test_concat_parquet_files() {
+        let segments = vec![test_batch(vec![1, 2, 3]), test_batch(vec![4, 5])];
+        let schema = segments[0].schema();
+        let dir = tempfile::tempdir().unwrap();
+        let path_of = |name: &str| dir.path().join(name).into_os_string().into_string().unwrap();
+        let segment_files = vec![path_of("part-0.c000-0.parquet"), path_of("part-0.c000-1.parquet")];
+        for (batch, file) in segments.iter().zip(segment_files.iter()) {
+            let writer = create_local_writer(&schema, file);
+            let mut ipc = Vec::new();
+            {
+                let mut ipc_writer = arrow::ipc::writer::StreamWriter::try_new(&mut ipc, &schema).unwrap();
+                ipc_writer.write(batch).unwrap();
+                ipc_writer.finish().unwrap();
+            }
+            let mut row_count = 0i64;
+            let err = write_record_batch_ipc_blocked(
+                writer,
+                ipc.as_ptr() as c_ptrdiff_t,
+                ipc.len() as i64,
+                std::ptr::addr_of_mut!(row_count),
+            );
+            assert!(err.is_null(), "{}", unsafe { CStr::from_ptr(err).to_str().unwrap() });
+            flush_and_close_writer(writer, ignore_i32_callback);
+        }
+
+        // all files but the last one are the segments to concat, the last one is the output
+        let output = path_of("part-0.c000.parquet");
+        let mut builder = local_config_builder(&schema, &segment_files[0]);
+        for file in [&segment_files[1], &output] {
+            let file = CString::new(file.as_str()).unwrap();
+            builder = lakesoul_config_builder_add_single_file(builder, file.as_ptr());
+        }
+        let result = concat_parquet_files(create_lakesoul_io_config_from_builder(builder), concat_status_callback);
+        assert!(CONCAT_STATUS.load(Ordering::SeqCst) > 0, "segments are not concatenated");
+        free_bytes_result(result);
+
+        let expected = arrow::compute::concat_batches(&schema, &segments).unwrap();
+        let actual = arrow::compute::concat_batches(&schema, &read_local_file(&output)).unwrap();
+        assert_eq!(expected, actual);
+        // row groups are copied as they are
+        let file_reader = SerializedFileReader::new(File::open(&output).unwrap()).unwrap();
+        assert_eq!(file_reader.metadata().num_row_groups(), 2);
+    }
+
     #[test]
     fn test_native_read_write() {
         let mut reader_config_builder = crate::new_lakesoul_io_config_builder();
@@ -9,11 +9,14 @@ use std::sync::Arc;
 use arrow::datatypes::SchemaRef;
 
 use arrow_schema::SchemaBuilder;
+use datafusion::datasource::file_format::parquet::fetch_parquet_metadata;
 use datafusion::datasource::file_format::{parquet::ParquetFormat, FileFormat};
+use datafusion::datasource::listing::FileRange;
 use datafusion::datasource::physical_plan::{FileScanConfig, FileSinkConfig};
 use datafusion::execution::context::SessionState;
 
 use datafusion::physical_expr::PhysicalSortRequirement;
+use datafusion::physical_plan::limit::GlobalLimitExec;
 use datafusion::physical_plan::projection::ProjectionExec;
 use datafusion::physical_plan::{ExecutionPlan, PhysicalExpr};
 use datafusion_common::{project_schema, FileType, Result, Statistics};
@@ -86,9 +89,17 @@ impl FileFormat for LakeSoulParquetFormat {
     async fn create_physical_plan(
         &self,
         state: &SessionState,
-        conf: FileScanConfig,
+        mut conf: FileScanConfig,
         filters: Option<&Arc<dyn PhysicalExpr>>,
     ) -> Result<Arc<dyn ExecutionPlan>> {
+        // read only the row groups of a split of a large file, ParquetExec reads a row group if the file_offset of its
+        // first column chunk is within the byte range
+        if let Some((start, end)) = self.conf.file_range {
+            for file in conf.file_groups.iter_mut().flatten() {
+                file.range = Some(FileRange { start, end });
+            }
+        }
+
         // If enable pruning then combine the filters to build the predicate.
         // If disable pruning then set the predicate to None, thus readers
         // will not prune data based on the statistics.
@@ -110,8 +121,11 @@ impl FileFormat for LakeSoulParquetFormat {
         );
         let merged_schema = project_schema(&table_schema, merged_projection.as_ref())?;
 
+        let object_store_url = conf.object_store_url.clone();
+        let metadata_size_hint = self.parquet_format.metadata_size_hint(state.config_options());
+
         // files to read
-        let flatten_conf = flatten_file_scan_config(
+        let mut flatten_conf = flatten_file_scan_config(
             state,
             self.parquet_format.clone(),
             conf,
@@ -121,14 +135,29 @@ impl FileFormat for LakeSoulParquetFormat {
         )
         .await?;
 
+        // resume from a row position by skipping the files and row groups before it
+        let mut skip_rows_in_row_group = 0;
+        if self.conf.skip_rows > 0 {
+            let store = state.runtime_env().object_store(object_store_url)?;
+            let (seeked_conf, skip_rows) =
+                seek_file_scan_config(store.as_ref(), flatten_conf, self.conf.skip_rows, metadata_size_hint).await?;
+            flatten_conf = seeked_conf;
+            skip_rows_in_row_group = skip_rows;
+        }
+
         // merge on read files
-        let merge_exec = Arc::new(MergeParquetExec::new(
+        let merge_exec: Arc<dyn ExecutionPlan> = Arc::new(MergeParquetExec::new(
             merged_schema.clone(),
             flatten_conf,
             predicate,
-            self.parquet_format.metadata_size_hint(state.config_options()),
+            metadata_size_hint,
             self.conf.clone(),
         )?);
+        let merge_exec: Arc<dyn ExecutionPlan> = if skip_rows_in_row_group > 0 {
+            Arc::new(GlobalLimitExec::new(merge_exec, skip_rows_in_row_group, None))
+        } else {
+            merge_exec
+        };
 
         if target_schema.fields().len() < merged_schema.fields().len() {
             let mut projection_expr = vec![];
@@ -214,6 +243,50 @@ pub async fn flatten_file_scan_config(
     Ok(flatten_configs)
 }
 
+/// Skips the leading `skip_rows` rows of files that are read in order without merging or filtering. Files and row
+/// groups before the position are located by parquet metadata and not read at all. Returns the configs left to read
+/// and the number of rows still to skip at the start of the first row group read.
+async fn seek_file_scan_config(
+    store: &dyn ObjectStore,
+    flatten_configs: Vec<FileScanConfig>,
+    skip_rows: usize,
+    metadata_size_hint: Option<usize>,
+) -> Result<(Vec<FileScanConfig>, usize)> {
+    let mut remaining = skip_rows;
+    let mut found = false;
+    let mut seeked_configs = Vec::with_capacity(flatten_configs.len());
+    for mut config in flatten_configs {
+        if found {
+            seeked_configs.push(config);
+            continue;
+        }
+        let file = &mut config.file_groups[0][0];
+        let metadata = fetch_parquet_metadata(store, &file.object_meta, metadata_size_hint).await?;
+        for row_group in metadata.row_groups() {
+            // the offset by which ParquetExec assigns a row group to a file range
+            let offset = row_group.column(0).file_offset();
+            if let Some(range) = &file.range {
+                if offset < range.start || offset >= range.end {
+                    continue;
+                }
+            }
+            let num_rows = row_group.num_rows() as usize;
+            if remaining >= num_rows {
+                remaining -= num_rows;
+            } else {
+                let end = file.range.as_ref().map_or(file.object_meta.size as i64, |range| range.end);
+                file.range = Some(FileRange { start: offset, end });
+                found = true;
+                break;
+            }
+        }
+        if found {
+            seeked_configs.push(config);
+        }
+    }
+    Ok((seeked_configs, remaining))
+}
+
 pub fn compute_project_column_indices(
     schema: SchemaRef,
     projected_schema: SchemaRef,
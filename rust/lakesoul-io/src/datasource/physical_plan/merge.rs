@@ -279,6 +279,7 @@ pub async fn prune_filter_and_execute(
     request_schema: SchemaRef,
     filters: Vec<Expr>,
     batch_size: usize,
+    limit: Option<usize>,
 ) -> Result<SendableRecordBatchStream> {
     debug!("filters: {:?}", filters);
     let df_schema = df.schema().clone();
@@ -286,12 +287,21 @@ pub async fn prune_filter_and_execute(
     let cols = schema_intersection(Arc::new(df_schema.clone()), request_schema.clone());
     debug!("cols: {:?}", cols);
     if cols.is_empty() {
-        return Ok(Box::pin(EmptySchemaStream::new(batch_size, df.count().await?)));
+        let count = df.count().await?;
+        return Ok(Box::pin(EmptySchemaStream::new(
+            batch_size,
+            limit.map_or(count, |limit| count.min(limit)),
+        )));
     }
     // row filtering should go first since filter column may not in the selected cols
     let df = filters.into_iter().try_fold(df, |df, f| df.filter(f))?;
     // column pruning
     let df = df.select(cols)?;
+    // stop reading once enough rows are produced
+    let df = match limit {
+        Some(limit) => df.limit(0, Some(limit))?,
+        None => df,
+    };
     // return a stream
     df.execute_stream().await
 }
@@ -0,0 +1,322 @@
+// SPDX-FileCopyrightText: 2023 LakeSoul Contributors
+//
+// SPDX-License-Identifier: Apache-2.0
+
+//! Column stats of a written parquet file, aggregated from the row group statistics in its footer.
+//!
+//! Stats are encoded in the json form of `DataFileStats` on the jvm side:
+//! `{"numRows":n,"columns":{"col":{"nullCount":n,"min":v,"max":v}}}`.
+//! Integral, date (days since epoch) and timestamp (microseconds since epoch) values are encoded as integers,
+//! floating point values and decimals as json numbers and strings as json strings.
+//! Columns of other types, and nested columns, only carry null counts or are omitted.
+
+use std::cmp::Ordering;
+use std::sync::Arc;
+
+use datafusion::error::Result;
+use parquet::basic::{LogicalType, TimeUnit};
+use parquet::file::metadata::RowGroupMetaData;
+use parquet::file::statistics::Statistics;
+use parquet::format::FileMetaData;
+use parquet::schema::types::{from_thrift, ColumnDescriptor, SchemaDescriptor};
+
+// min/max of longer strings are dropped to keep the commit metadata small, same as DataFileStats
+const MAX_STRING_STATS_LENGTH: usize = 256;
+
+#[derive(Debug, Clone, PartialEq)]
+enum StatValue {
+    Long(i64),
+    Double(f64),
+    // unscaled value and scale
+    Decimal(i128, i32),
+    String(String),
+}
+
+impl StatValue {
+    fn compare(&self, other: &StatValue) -> Option<Ordering> {
+        match (self, other) {
+            (StatValue::Long(l), StatValue::Long(r)) => Some(l.cmp(r)),
+            (StatValue::Double(l), StatValue::Double(r)) => l.partial_cmp(r),
+            (StatValue::Decimal(l, ls), StatValue::Decimal(r, rs)) if ls == rs => Some(l.cmp(r)),
+            // utf8 bytes order, the order of parquet statistics
+            (StatValue::String(l), StatValue::String(r)) => Some(l.as_bytes().cmp(r.as_bytes())),
+            _ => None,
+        }
+    }
+
+    fn to_json(&self) -> String {
+        match self {
+            StatValue::Long(v) => v.to_string(),
+            StatValue::Double(v) => {
+                let s = v.to_string();
+                // keep it a floating point number on jvm side
+                if s.contains('.') {
+                    s
+                } else {
+                    s + ".0"
+                }
+            }
+            StatValue::Decimal(unscaled, scale) => decimal_to_string(*unscaled, *scale),
+            StatValue::String(v) => serde_json::Value::String(v.clone()).to_string(),
+        }
+    }
+}
+
+#[derive(Default)]
+struct ColumnStatsAgg {
+    null_count: u64,
+    min: Option<StatValue>,
+    max: Option<StatValue>,
+    // min/max could not be derived for some row group with non null values
+    min_max_invalid: bool,
+    // some row group has no statistics at all
+    unknown: bool,
+}
+
+impl ColumnStatsAgg {
+    fn update(&mut self, min: Option<StatValue>, max: Option<StatValue>) {
+        let (min, max) = match (min, max) {
+            (Some(min), Some(max)) => (min, max),
+            _ => {
+                self.min_max_invalid = true;
+                return;
+            }
+        };
+        self.min = match self.min.take() {
+            None => Some(min),
+            Some(current) => match min.compare(&current) {
+                Some(Ordering::Less) => Some(min),
+                Some(_) => Some(current),
+                None => {
+                    self.min_max_invalid = true;
+                    Some(current)
+                }
+            },
+        };
+        self.max = match self.max.take() {
+            None => Some(max),
+            Some(current) => match max.compare(&current) {
+                Some(Ordering::Greater) => Some(max),
+                Some(_) => Some(current),
+                None => {
+                    self.min_max_invalid = true;
+                    Some(current)
+                }
+            },
+        };
+    }
+}
+
+/// Aggregate row group statistics of the file into the json form of `DataFileStats`
+pub fn file_stats_json(metadata: &FileMetaData) -> Result<String> {
+    let schema = Arc::new(SchemaDescriptor::new(from_thrift(&metadata.schema)?));
+    let mut columns = (0..schema.num_columns())
+        .map(|_| ColumnStatsAgg::default())
+        .collect::<Vec<_>>();
+    for row_group in &metadata.row_groups {
+        let row_group = RowGroupMetaData::from_thrift(schema.clone(), row_group.clone())?;
+        for (idx, column) in row_group.columns().iter().enumerate() {
+            let agg = &mut columns[idx];
+            match column.statistics() {
+                None => agg.unknown = true,
+                Some(stats) => {
+                    agg.null_count += stats.null_count();
+                    if stats.has_min_max_set() {
+                        let descr = column.column_descr();
+                        agg.update(stat_value(descr, stats, true), stat_value(descr, stats, false));
+                    } else if stats.null_count() < row_group.num_rows() as u64 {
+                        agg.min_max_invalid = true;
+                    }
+                }
+            }
+        }
+    }
+
+    let mut encoded_columns = Vec::new();
+    for (idx, agg) in columns.iter().enumerate() {
+        let descr = schema.column(idx);
+        // stats of nested columns could not be matched to top level columns
+        if agg.unknown || descr.path().parts().len() != 1 {
+            continue;
+        }
+        let mut encoded = format!("\"nullCount\":{}", agg.null_count);
+        if let (false, Some(min), Some(max)) = (agg.min_max_invalid, &agg.min, &agg.max) {
+            encoded += format!(",\"min\":{},\"max\":{}", min.to_json(), max.to_json()).as_str();
+        }
+        encoded_columns.push(format!(
+            "{}:{{{}}}",
+            serde_json::Value::String(descr.name().to_string()),
+            encoded
+        ));
+    }
+    Ok(format!(
+        "{{\"numRows\":{},\"columns\":{{{}}}}}",
+        metadata.num_rows,
+        encoded_columns.join(",")
+    ))
+}
+
+fn stat_value(descr: &ColumnDescriptor, stats: &Statistics, min: bool) -> Option<StatValue> {
+    match (stats, descr.logical_type()) {
+        (Statistics::Int32(s), Some(LogicalType::Decimal { scale, .. })) => {
+            Some(StatValue::Decimal(*pick(s.min(), s.max(), min) as i128, scale))
+        }
+        (Statistics::Int64(s), Some(LogicalType::Decimal { scale, .. })) => {
+            Some(StatValue::Decimal(*pick(s.min(), s.max(), min) as i128, scale))
+        }
+        (Statistics::FixedLenByteArray(s), Some(LogicalType::Decimal { scale, .. })) => {
+            be_bytes_to_i128(pick(s.min(), s.max(), min).data()).map(|v| StatValue::Decimal(v, scale))
+        }
+        (Statistics::ByteArray(s), Some(LogicalType::Decimal { scale, .. })) => {
+            be_bytes_to_i128(pick(s.min(), s.max(), min).data()).map(|v| StatValue::Decimal(v, scale))
+        }
+        (Statistics::Int32(_) | Statistics::Int64(_), Some(LogicalType::Integer { is_signed: false, .. })) => None,
+        (Statistics::Int32(_) | Statistics::Int64(_), Some(LogicalType::Time { .. })) => None,
+        (Statistics::Int32(s), _) => Some(StatValue::Long(*pick(s.min(), s.max(), min) as i64)),
+        (Statistics::Int64(s), Some(LogicalType::Timestamp { unit, .. })) => {
+            let v = *pick(s.min(), s.max(), min);
+            match unit {
+                TimeUnit::MILLIS(_) => v.checked_mul(1000).map(StatValue::Long),
+                TimeUnit::MICROS(_) => Some(StatValue::Long(v)),
+                TimeUnit::NANOS(_) => None,
+            }
+        }
+        (Statistics::Int64(s), _) => Some(StatValue::Long(*pick(s.min(), s.max(), min))),
+        (Statistics::Float(s), _) => finite(*pick(s.min(), s.max(), min) as f64),
+        (Statistics::Double(s), _) => finite(*pick(s.min(), s.max(), min)),
+        (Statistics::ByteArray(s), Some(LogicalType::String)) => {
+            let v = std::str::from_utf8(pick(s.min(), s.max(), min).data()).ok()?;
+            if v.chars().count() > MAX_STRING_STATS_LENGTH {
+                None
+            } else {
+                Some(StatValue::String(v.to_string()))
+            }
+        }
+        _ => None,
+    }
+}
+
+fn pick<'a, T>(min_value: &'a T, max_value: &'a T, min: bool) -> &'a T {
+    if min {
+        min_value
+    } else {
+        max_value
+    }
+}
+
+fn finite(v: f64) -> Option<StatValue> {
+    if v.is_finite() {
+        Some(StatValue::Double(v))
+    } else {
+        None
+    }
+}
+
+/// Decode a big-endian two's complement integer of at most 16 bytes
+fn be_bytes_to_i128(bytes: &[u8]) -> Option<i128> {
+    if bytes.is_empty() || bytes.len() > 16 {
+        return None;
+    }
+    let fill = if bytes[0] & 0x80 != 0 { 0xff } else { 0 };
+    let mut buf = [fill; 16];
+    buf[16 - bytes.len()..].copy_from_slice(bytes);
+    Some(i128::from_be_bytes(buf))
+}
+
+fn decimal_to_string(unscaled: i128, scale: i32) -> String {
+    if scale <= 0 {
+        return format!("{}{}", unscaled, "0".repeat((-scale) as usize));
+    }
+    let digits = unscaled.unsigned_abs().to_string();
+    let scale = scale as usize;
+    let padded = if digits.len() <= scale {
+        format!("{}{}", "0".repeat(scale + 1 - digits.len()), digits)
+    } else {
+        digits
+    };
+    let (int_part, frac_part) = padded.split_at(padded.len() - scale);
+    format!("{}{}.{}", if unscaled < 0 { "-" } else { "" }, int_part, frac_part)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use arrow::array::{ArrayRef, Decimal128Array, Float64Array, Int32Array, StringArray};
+    use arrow::record_batch::RecordBatch;
+    use parquet::arrow::ArrowWriter;
+    use parquet::file::properties::WriterProperties;
+    use serde_json::Value;
+
+    fn write_stats(batches: Vec<RecordBatch>) -> Result<Value> {
+        let mut buf = Vec::new();
+        let mut writer = ArrowWriter::try_new(
+            &mut buf,
+            batches[0].schema(),
+            Some(WriterProperties::builder().set_max_row_group_size(2).build()),
+        )?;
+        for batch in &batches {
+            writer.write(batch)?;
+        }
+        let metadata = writer.close()?;
+        Ok(serde_json::from_str(&file_stats_json(&metadata)?).unwrap())
+    }
+
+    #[test]
+    fn test_file_stats_from_row_groups() -> Result<()> {
+        let batch = RecordBatch::try_from_iter(vec![
+            ("i", Arc::new(Int32Array::from(vec![Some(3), None, Some(-7), Some(10), None])) as ArrayRef),
+            (
+                "s",
+                Arc::new(StringArray::from(vec![Some("b"), Some("a"), None, Some("\u{ff61}"), Some("\u{1f600}")]))
+                    as ArrayRef,
+            ),
+            ("d", Arc::new(Float64Array::from(vec![1.5, -2.0, 0.0, 3.25, 1.0])) as ArrayRef),
+            (
+                "dec",
+                Arc::new(
+                    Decimal128Array::from(vec![Some(12345), Some(-5), None, Some(100), Some(7)])
+                        .with_precision_and_scale(10, 2)?,
+                ) as ArrayRef,
+            ),
+        ])?;
+        let stats = write_stats(vec![batch])?;
+        assert_eq!(stats["numRows"], 5);
+        let columns = &stats["columns"];
+        assert_eq!(columns["i"]["nullCount"], 2);
+        assert_eq!(columns["i"]["min"], -7);
+        assert_eq!(columns["i"]["max"], 10);
+        assert_eq!(columns["s"]["nullCount"], 1);
+        assert_eq!(columns["s"]["min"], "a");
+        // compared by utf8 bytes, not utf16 code units
+        assert_eq!(columns["s"]["max"], "\u{1f600}");
+        assert_eq!(columns["d"]["min"], -2.0);
+        assert_eq!(columns["d"]["max"], 3.25);
+        assert_eq!(columns["dec"]["nullCount"], 1);
+        assert_eq!(columns["dec"]["min"].to_string(), "-0.05");
+        assert_eq!(columns["dec"]["max"].to_string(), "123.45");
+        Ok(())
+    }
+
+    #[test]
+    fn test_all_null_row_group_keeps_min_max() -> Result<()> {
+        let batch = RecordBatch::try_from_iter(vec![(
+            "i",
+            Arc::new(Int32Array::from(vec![None, None, Some(4), Some(2)])) as ArrayRef,
+        )])?;
+        let stats = write_stats(vec![batch])?;
+        assert_eq!(stats["columns"]["i"]["nullCount"], 2);
+        assert_eq!(stats["columns"]["i"]["min"], 2);
+        assert_eq!(stats["columns"]["i"]["max"], 4);
+        Ok(())
+    }
+
+    #[test]
+    fn test_decimal_to_string() {
+        assert_eq!(decimal_to_string(12345, 2), "123.45");
+        assert_eq!(decimal_to_string(-5, 2), "-0.05");
+        assert_eq!(decimal_to_string(5, 0), "5");
+        assert_eq!(decimal_to_string(5, -2), "500");
+        assert_eq!(be_bytes_to_i128(&[0xff, 0xfe]), Some(-2));
+        assert_eq!(be_bytes_to_i128(&[0x01, 0x00]), Some(256));
+    }
+}
@@ -417,7 +417,9 @@ pub async fn infer_schema(
 }
 
 pub fn apply_partition_filter(wrapper: JniWrapper, schema: SchemaRef, filter: Plan) -> Result<JniWrapper> {
-    tokio::runtime::Runtime::new()?.block_on(async {
+    // filter runs over a single in-memory batch, so the calling thread is enough to drive it
+    let runtime = tokio::runtime::Builder::new_current_thread().build()?;
+    runtime.block_on(async {
         let context = SessionContext::default();
         let index_filed_name = rand::distributions::Alphanumeric.sample_string(&mut rand::thread_rng(), 8);
         let index_filed = Field::new(index_filed_name, DataType::UInt32, false);
@@ -68,6 +68,12 @@ pub struct LakeSoulIOConfig {
     // read or write batch size
     #[derivative(Default(value = "8192"))]
     pub(crate) batch_size: usize,
+    // max number of rows to read, unlimited if none
+    pub(crate) limit: Option<usize>,
+    // byte range [start, end) of files to read, row groups whose first column chunk has its file_offset in it are read
+    pub(crate) file_range: Option<(i64, i64)>,
+    // number of leading rows to skip, found by file metadata instead of reading them
+    pub(crate) skip_rows: usize,
     // write row group max row num
     #[derivative(Default(value = "250000"))]
     pub(crate) max_row_group_size: usize,
@@ -120,6 +126,15 @@ impl LakeSoulIOConfig {
         &self.primary_keys
     }
 
+    /// Whether rows are returned in file order as they are stored, i.e. neither merged by primary keys nor
+    /// filtered, so that a row position could be located by file metadata.
+    pub fn is_seekable(&self) -> bool {
+        self.primary_keys.is_empty()
+            && self.filter_strs.is_empty()
+            && self.filters.is_empty()
+            && self.filter_protos.is_empty()
+    }
+
     pub fn range_partitions_slice(&self) -> &[String] {
         &self.range_partitions
     }
@@ -201,6 +216,21 @@ impl LakeSoulIOConfigBuilder {
         self
     }
 
+    pub fn with_limit(mut self, limit: usize) -> Self {
+        self.config.limit = Some(limit);
+        self
+    }
+
+    pub fn with_file_range(mut self, start: i64, end: i64) -> Self {
+        self.config.file_range = Some((start, end));
+        self
+    }
+
+    pub fn with_skip_rows(mut self, skip_rows: usize) -> Self {
+        self.config.skip_rows = skip_rows;
+        self
+    }
+
     pub fn with_max_row_group_size(mut self, max_row_group_size: usize) -> Self {
         self.config.max_row_group_size = max_row_group_size;
         self
@@ -51,6 +51,10 @@ impl LakeSoulReader {
             Err(DataFusionError::Internal(
                 "LakeSoulReader has wrong number of file".to_string(),
             ))
+        } else if self.config.skip_rows > 0 && !self.config.is_seekable() {
+            Err(DataFusionError::Internal(
+                "LakeSoulReader could only skip rows without primary keys and filters".to_string(),
+            ))
         } else {
             let file_format = Arc::new(LakeSoulParquetFormat::new(
                 Arc::new(ParquetFormat::new()),
@@ -70,8 +74,14 @@ impl LakeSoulReader {
                 self.config.filter_strs.clone(),
                 self.config.filter_protos.clone(),
             )?;
-            let stream =
-                prune_filter_and_execute(dataframe, target_schema.clone(), filters, self.config.batch_size).await?;
+            let stream = prune_filter_and_execute(
+                dataframe,
+                target_schema.clone(),
+                filters,
+                self.config.batch_size,
+                self.config.limit,
+            )
+            .await?;
             self.schema = Some(stream.schema());
             self.stream = Some(stream);
 
@@ -98,9 +108,14 @@ pub struct SyncSendableMutableLakeSoulReader {
 
 impl SyncSendableMutableLakeSoulReader {
     pub fn new(reader: LakeSoulReader, runtime: Runtime) -> Self {
+        Self::with_shared_runtime(reader, Arc::new(runtime))
+    }
+
+    // runtime may be shared with other readers and writers
+    pub fn with_shared_runtime(reader: LakeSoulReader, runtime: Arc<Runtime>) -> Self {
         SyncSendableMutableLakeSoulReader {
             inner: Arc::new(AtomicRefCell::new(Mutex::new(reader))),
-            runtime: Arc::new(runtime),
+            runtime,
             schema: None,
         }
     }
@@ -2,6 +2,7 @@
 //
 // SPDX-License-Identifier: Apache-2.0
 
+use crate::file_stats::file_stats_json;
 use crate::helpers::{columnar_values_to_partition_desc, columnar_values_to_sub_path, get_columnar_values};
 use crate::lakesoul_io_config::{create_session_context, IOSchema, LakeSoulIOConfig, LakeSoulIOConfigBuilder};
 use crate::repartition::RepartitionByRangeAndHashExec;
@@ -27,7 +28,10 @@ use object_store::path::Path;
 use object_store::{MultipartId, ObjectStore};
 use parquet::arrow::ArrowWriter;
 use parquet::basic::Compression;
+use parquet::column::writer::ColumnCloseResult;
+use parquet::file::footer::parse_metadata;
 use parquet::file::properties::WriterProperties;
+use parquet::file::writer::SerializedFileWriter;
 use rand::distributions::DistString;
 use std::any::Any;
 use std::borrow::Borrow;
@@ -35,6 +39,7 @@ use std::collections::{HashMap, VecDeque};
 use std::fmt::{Debug, Formatter};
 use std::io::ErrorKind::AddrInUse;
 use std::io::Write;
+use std::sync::atomic::{AtomicU64, Ordering};
 use std::sync::Arc;
 use tokio::io::AsyncWrite;
 use tokio::io::AsyncWriteExt;
@@ -98,15 +103,23 @@ pub struct PartitioningAsyncWriter {
     err: Option<DataFusionError>,
 }
 
-/// A VecDeque which is both std::io::Write and bytes::Buf
+/// A VecDeque which is both std::io::Write and bytes::Buf,
+/// also counting the total bytes ever written into it, i.e. the size of the written file
 #[derive(Clone)]
-struct InMemBuf(Arc<AtomicRefCell<VecDeque<u8>>>);
+struct InMemBuf(Arc<AtomicRefCell<VecDeque<u8>>>, Arc<AtomicU64>);
+
+impl InMemBuf {
+    fn bytes_written(&self) -> u64 {
+        self.1.load(Ordering::Acquire)
+    }
+}
 
 impl Write for InMemBuf {
     #[inline]
     fn write(&mut self, buf: &[u8]) -> std::io::Result<usize> {
         let mut v = self.0.try_borrow_mut().map_err(|_| std::io::Error::from(AddrInUse))?;
         v.extend(buf);
+        self.1.fetch_add(buf.len() as u64, Ordering::AcqRel);
         Ok(buf.len())
     }
 
@@ -119,10 +132,38 @@ impl Write for InMemBuf {
     fn write_all(&mut self, buf: &[u8]) -> std::io::Result<()> {
         let mut v = self.0.try_borrow_mut().map_err(|_| std::io::Error::from(AddrInUse))?;
         v.extend(buf);
+        self.1.fetch_add(buf.len() as u64, Ordering::AcqRel);
         Ok(())
     }
 }
 
+/// A file completely written by the writer, reported in the result of `flush_and_close`
+/// so that callers do not need to stat the file for its size
+#[derive(Debug, Clone)]
+pub struct FlushedFile {
+    pub path: String,
+    pub size: u64,
+    pub num_rows: u64,
+    /// column stats in the json form of `DataFileStats`, empty if unknown
+    pub stats: String,
+}
+
+/// Encode files written for each partition into the result bytes of `flush_and_close`:
+/// `{partition_num}\x01{partition_desc}\x02{file}\x02{file}...\x01{partition_desc}...`,
+/// where each file is encoded as `{path}\x03{size}\x03{num_rows}\x03{stats}`
+pub fn encode_flushed_files(flushed_files: &HashMap<String, Vec<FlushedFile>>) -> Vec<u8> {
+    let mut summary = format!("{}", flushed_files.len());
+    for (partition_desc, files) in flushed_files.iter() {
+        summary += "\x01";
+        summary += partition_desc.as_str();
+        for file in files {
+            summary += "\x02";
+            summary += format!("{}\x03{}\x03{}\x03{}", file.path, file.size, file.num_rows, file.stats).as_str();
+        }
+    }
+    summary.into_bytes()
+}
+
 pub struct ReceiverStreamExec {
     receiver_stream_builder: AtomicRefCell<Option<RecordBatchReceiverStreamBuilder>>,
     schema: SchemaRef,
@@ -208,9 +249,12 @@ impl MultiPartAsyncWriter {
 
         // get underlying multipart uploader
         let (multipart_id, async_writer) = object_store.put_multipart(&path).await?;
-        let in_mem_buf = InMemBuf(Arc::new(AtomicRefCell::new(VecDeque::<u8>::with_capacity(
-            16 * 1024 * 1024, // 16kb
-        ))));
+        let in_mem_buf = InMemBuf(
+            Arc::new(AtomicRefCell::new(VecDeque::<u8>::with_capacity(
+                16 * 1024 * 1024, // 16kb
+            ))),
+            Arc::new(AtomicU64::new(0)),
+        );
         let schema = uniform_schema(config.target_schema.0.clone());
 
         // O(nm), n = number of fields, m = number of range partitions
@@ -299,6 +343,38 @@ impl MultiPartAsyncWriter {
     pub fn task_ctx(&self) -> Arc<TaskContext> {
         self.task_context.clone()
     }
+
+    /// Flush remaining rows, complete the upload and return the written file
+    pub async fn close(self) -> Result<FlushedFile> {
+        // close arrow writer to flush remaining rows
+        let mut this = self;
+        let arrow_writer = this.arrow_writer;
+        let metadata = arrow_writer.close()?;
+        // stats are only an optimization for readers, so failing to derive them does not fail the write
+        let stats = file_stats_json(&metadata).unwrap_or_else(|e| {
+            debug!("failed to derive stats of {}: {}", this.absolute_path, e);
+            String::new()
+        });
+        {
+            let mut v = this
+                .in_mem_buf
+                .0
+                .try_borrow_mut()
+                .map_err(|e| Internal(format!("{:?}", e)))?;
+            if v.len() > 0 {
+                MultiPartAsyncWriter::write_part(&mut this.writer, &mut v).await?;
+            }
+        }
+        // shutdown multi-part async writer to complete the upload
+        this.writer.flush().await?;
+        this.writer.shutdown().await?;
+        Ok(FlushedFile {
+            path: this.absolute_path,
+            size: this.in_mem_buf.bytes_written(),
+            num_rows: this.num_rows,
+            stats,
+        })
+    }
 }
 
 #[async_trait]
@@ -310,22 +386,8 @@ impl AsyncBatchWriter for MultiPartAsyncWriter {
     }
 
     async fn flush_and_close(self: Box<Self>) -> Result<Vec<u8>> {
-        // close arrow writer to flush remaining rows
-        let mut this = *self;
-        let arrow_writer = this.arrow_writer;
-        arrow_writer.close()?;
-        let mut v = this
-            .in_mem_buf
-            .0
-            .try_borrow_mut()
-            .map_err(|e| Internal(format!("{:?}", e)))?;
-        if v.len() > 0 {
-            MultiPartAsyncWriter::write_part(&mut this.writer, &mut v).await?;
-        }
-        // shutdown multi-part async writer to complete the upload
-        this.writer.flush().await?;
-        this.writer.shutdown().await?;
-        Ok(vec![])
+        let flushed_file = self.close().await?;
+        Ok(encode_flushed_files(&HashMap::from([(String::new(), vec![flushed_file])])))
     }
 
     async fn abort_and_close(self: Box<Self>) -> Result<Vec<u8>> {
@@ -421,8 +483,7 @@ impl SortAsyncWriter {
                     ))),
                 }
             } else {
-                async_writer.flush_and_close().await?;
-                Ok(vec![])
+                async_writer.flush_and_close().await
             }
         });
 
@@ -490,7 +551,7 @@ impl AsyncBatchWriter for SortAsyncWriter {
     }
 }
 
-type PartitionedWriterInfo = Arc<Mutex<HashMap<String, (Vec<String>, u64)>>>;
+type PartitionedWriterInfo = Arc<Mutex<HashMap<String, Vec<FlushedFile>>>>;
 
 impl PartitioningAsyncWriter {
     pub fn try_new(task_context: Arc<TaskContext>, config: LakeSoulIOConfig, runtime: Arc<Runtime>) -> Result<Self> {
@@ -507,7 +568,7 @@ impl PartitioningAsyncWriter {
 
         let write_id = rand::distributions::Alphanumeric.sample_string(&mut rand::thread_rng(), 16);
 
-        let partitioned_file_path_and_row_count = Arc::new(Mutex::new(HashMap::<String, (Vec<String>, u64)>::new()));
+        let partitioned_file_path_and_row_count = Arc::new(Mutex::new(HashMap::<String, Vec<FlushedFile>>::new()));
         for i in 0..partitioning_exec.output_partitioning().partition_count() {
             let sink_task = tokio::spawn(Self::pull_and_sink(
                 partitioning_exec.clone(),
@@ -694,18 +755,11 @@ impl PartitioningAsyncWriter {
             Ok(row_count as u64)
         } else {
             for (partition_desc, writer) in partitioned_writer.into_iter() {
-                let file_absolute_path = writer.absolute_path();
-                let num_rows = writer.nun_rows();
-                if let Some(file_path_and_row_count) =
-                    partitioned_file_path_and_row_count_locked.get_mut(&partition_desc)
-                {
-                    file_path_and_row_count.0.push(file_absolute_path);
-                    file_path_and_row_count.1 += num_rows;
-                } else {
-                    partitioned_file_path_and_row_count_locked
-                        .insert(partition_desc.clone(), (vec![file_absolute_path], num_rows));
-                }
-                writer.flush_and_close().await?;
+                let flushed_file = writer.close().await?;
+                partitioned_file_path_and_row_count_locked
+                    .entry(partition_desc)
+                    .or_default()
+                    .push(flushed_file);
             }
             Ok(row_count as u64)
         }
@@ -725,15 +779,7 @@ impl PartitioningAsyncWriter {
                     Err(e) => Err(DataFusionError::Execution(format!("{}", e))),
                 })?;
         let partitioned_file_path_and_row_count = partitioned_file_path_and_row_count.lock().await;
-
-        let mut summary = format!("{}", partitioned_file_path_and_row_count.len());
-        for (partition_desc, (files, _)) in partitioned_file_path_and_row_count.iter() {
-            summary += "\x01";
-            summary += partition_desc.as_str();
-            summary += "\x02";
-            summary += files.join("\x02").as_str();
-        }
-        Ok(summary.into_bytes())
+        Ok(encode_flushed_files(&partitioned_file_path_and_row_count))
     }
 }
 
@@ -815,7 +861,11 @@ pub struct SyncSendableMutableLakeSoulWriter {
 
 impl SyncSendableMutableLakeSoulWriter {
     pub fn try_new(config: LakeSoulIOConfig, runtime: Runtime) -> Result<Self> {
-        let runtime = Arc::new(runtime);
+        Self::try_new_with_shared_runtime(config, Arc::new(runtime))
+    }
+
+    // runtime may be shared with other readers and writers
+    pub fn try_new_with_shared_runtime(config: LakeSoulIOConfig, runtime: Arc<Runtime>) -> Result<Self> {
         runtime.clone().block_on(async move {
             // if aux sort cols exist, we need to adjust the schema of final writer
             // to exclude all aux sort cols
@@ -872,6 +922,25 @@ impl SyncSendableMutableLakeSoulWriter {
         })
     }
 
+    // non-blocking method for writing record batch, f is called with the result once the batch is written.
+    // callers should not issue the next write before f is called, so that batches keep their order
+    pub fn write_batch_callback(
+        &self,
+        record_batch: RecordBatch,
+        f: Box<dyn FnOnce(Result<()>) + Send + Sync>,
+    ) -> JoinHandle<()> {
+        let inner_writer = self.inner.clone();
+        self.runtime.spawn(async move {
+            let result = {
+                let mut writer = inner_writer.lock().await;
+                writer.write_record_batch(record_batch).await
+            };
+            // release inner writer before calling back, so that flush_and_close could take ownership of it
+            drop(inner_writer);
+            f(result);
+        })
+    }
+
     pub fn flush_and_close(self) -> Result<Vec<u8>> {
         let inner_writer = match Arc::try_unwrap(self.inner) {
             Ok(inner) => inner,
@@ -901,6 +970,137 @@ impl SyncSendableMutableLakeSoulWriter {
     }
 }
 
+/// Concatenates row groups of parquet files of the same schema into one file, e.g. segments of a file staged
+/// at checkpoints. Column chunks are copied as they are without decoding, so the output keeps the order of rows.
+/// All but the last of `config.files` are the input files, and the last one is the output file.
+pub async fn concat_parquet_files(mut config: LakeSoulIOConfig) -> Result<FlushedFile> {
+    if config.files.len() < 2 {
+        return Err(Internal(
+            "input files and an output file should be provided to concat parquet files".to_string(),
+        ));
+    }
+    let task_context = create_session_context(&mut config)?.task_ctx();
+    let mut input_files = config.files.clone();
+    let output_file = input_files
+        .pop()
+        .ok_or(DataFusionError::Internal("wrong file name".to_string()))?;
+    let (object_store, path) = object_store_and_path(&task_context, &output_file)?;
+    let (multipart_id, mut async_writer) = object_store.put_multipart(&path).await?;
+    let in_mem_buf = InMemBuf(
+        Arc::new(AtomicRefCell::new(VecDeque::<u8>::new())),
+        Arc::new(AtomicU64::new(0)),
+    );
+    match copy_row_groups(&task_context, &input_files, in_mem_buf.clone(), &mut async_writer).await {
+        Ok((num_rows, stats)) => Ok(FlushedFile {
+            path: output_file,
+            size: in_mem_buf.bytes_written(),
+            num_rows,
+            stats,
+        }),
+        Err(e) => {
+            object_store
+                .abort_multipart(&path, &multipart_id)
+                .await
+                .map_err(DataFusionError::ObjectStore)?;
+            Err(e)
+        }
+    }
+}
+
+async fn copy_row_groups(
+    task_context: &TaskContext,
+    input_files: &[String],
+    in_mem_buf: InMemBuf,
+    async_writer: &mut Box<dyn AsyncWrite + Unpin + Send>,
+) -> Result<(u64, String)> {
+    let mut file_writer: Option<SerializedFileWriter<InMemBuf>> = None;
+    // root schema of the first file, which all following files should share
+    let mut root_schema = None;
+    let mut num_rows = 0;
+    for file in input_files {
+        let (object_store, path) = object_store_and_path(task_context, file)?;
+        let bytes = object_store.get(&path).await?.bytes().await?;
+        let metadata = parse_metadata(&bytes)?;
+        let file_metadata = metadata.file_metadata();
+        match &root_schema {
+            Some(schema) => {
+                if schema != &file_metadata.schema_descr().root_schema_ptr() {
+                    return Err(Internal(format!("schema of {} differs from previous files", file)));
+                }
+            }
+            None => {
+                root_schema = Some(file_metadata.schema_descr().root_schema_ptr());
+                // keep arrow schema and other metadata written by ArrowWriter
+                let properties = WriterProperties::builder()
+                    .set_key_value_metadata(file_metadata.key_value_metadata().cloned())
+                    .build();
+                file_writer = Some(SerializedFileWriter::new(
+                    in_mem_buf.clone(),
+                    file_metadata.schema_descr().root_schema_ptr(),
+                    Arc::new(properties),
+                )?);
+            }
+        }
+        let writer = file_writer
+            .as_mut()
+            .ok_or(Internal("parquet writer is not created".to_string()))?;
+        for row_group in metadata.row_groups() {
+            let mut row_group_writer = writer.next_row_group()?;
+            for column in row_group.columns() {
+                row_group_writer.append_column(
+                    &bytes,
+                    ColumnCloseResult {
+                        bytes_written: column.compressed_size() as u64,
+                        rows_written: row_group.num_rows() as u64,
+                        metadata: column.clone(),
+                        bloom_filter: None,
+                        column_index: None,
+                        offset_index: None,
+                    },
+                )?;
+            }
+            row_group_writer.close()?;
+            num_rows += row_group.num_rows() as u64;
+            let mut v = in_mem_buf
+                .0
+                .try_borrow_mut()
+                .map_err(|e| Internal(format!("{:?}", e)))?;
+            if v.len() > 0 {
+                MultiPartAsyncWriter::write_part(async_writer, &mut v).await?;
+            }
+        }
+    }
+    let writer = file_writer.ok_or(Internal("no input file to concat".to_string()))?;
+    // write footer
+    let metadata = writer.close()?;
+    let stats = file_stats_json(&metadata).unwrap_or_default();
+    {
+        let mut v = in_mem_buf
+            .0
+            .try_borrow_mut()
+            .map_err(|e| Internal(format!("{:?}", e)))?;
+        if v.len() > 0 {
+            MultiPartAsyncWriter::write_part(async_writer, &mut v).await?;
+        }
+    }
+    async_writer.flush().await?;
+    async_writer.shutdown().await?;
+    Ok((num_rows, stats))
+}
+
+// local style path should have already been handled in create_session_context
+fn object_store_and_path(task_context: &TaskContext, file_name: &str) -> Result<(Arc<dyn ObjectStore>, Path)> {
+    match Url::parse(file_name) {
+        Ok(url) => Ok((
+            task_context
+                .runtime_env()
+                .object_store(ObjectStoreUrl::parse(&url[..url::Position::BeforePath])?)?,
+            Path::from_url_path(url.path())?,
+        )),
+        Err(e) => Err(DataFusionError::External(Box::new(e))),
+    }
+}
+
 #[cfg(test)]
 mod tests {
     use crate::lakesoul_io_config::LakeSoulIOConfigBuilder;
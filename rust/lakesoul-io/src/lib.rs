@@ -3,6 +3,7 @@
 // SPDX-License-Identifier: Apache-2.0
 
 pub mod datasource;
+pub mod file_stats;
 pub mod filter;
 pub mod hash_utils;
 pub mod helpers;
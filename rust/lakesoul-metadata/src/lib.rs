@@ -49,6 +49,7 @@ struct DataFileOp {
     file_op: String,
     size: i64,
     file_exist_cols: String,
+    file_stats: Option<String>,
 }
 
 impl DataFileOp {
@@ -60,6 +61,11 @@ impl DataFileOp {
                 .to_string(),
             size: data_file_op.size,
             file_exist_cols: data_file_op.file_exist_cols.clone(),
+            file_stats: if data_file_op.file_stats.is_empty() {
+                None
+            } else {
+                Some(data_file_op.file_stats.clone())
+            },
         })
     }
 
@@ -70,6 +76,7 @@ impl DataFileOp {
                 .ok_or(LakeSoulMetaDataError::Internal("unknown file_op".into()))? as i32,
             size: self.size,
             file_exist_cols: self.file_exist_cols.clone(),
+            file_stats: self.file_stats.clone().unwrap_or_default(),
         })
     }
 }
@@ -103,9 +110,11 @@ pub enum DaoType {
     ListPartitionVersionByTableIdAndPartitionDescAndVersionRange = DAO_TYPE_QUERY_LIST_OFFSET + 7,
     ListPartitionVersionByTableIdAndPartitionDescAndTimestampRange = DAO_TYPE_QUERY_LIST_OFFSET + 8,
     ListCommitOpsBetweenVersions = DAO_TYPE_QUERY_LIST_OFFSET + 9,
+    ListPartitionByTableIdChangedSince = DAO_TYPE_QUERY_LIST_OFFSET + 12,
 
     // Query DataCommitInfo List
     ListDataCommitInfoByTableIdAndPartitionDescAndCommitList = DAO_TYPE_QUERY_LIST_OFFSET + 10,
+    ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime = DAO_TYPE_QUERY_LIST_OFFSET + 11,
 
     // ==== Insert One ====
     InsertNamespace = DAO_TYPE_INSERT_ONE_OFFSET,
@@ -238,6 +247,13 @@ async fn get_prepared_statement(
                         group by table_id,partition_desc) t
                     left join partition_info m
                     on t.table_id = m.table_id and t.partition_desc = m.partition_desc and t.max = m.version",
+                // latest version of each partition that has a version newer than $2
+                DaoType::ListPartitionByTableIdChangedSince =>
+                    "select distinct on (partition_desc)
+                        table_id, partition_desc, version, commit_op, snapshot, timestamp, expression, domain
+                    from partition_info
+                    where table_id = $1::TEXT and timestamp > $2::BIGINT
+                    order by partition_desc, version desc",
                 DaoType::ListPartitionVersionByTableIdAndPartitionDescAndTimestampRange =>
                     "select table_id, partition_desc, version, commit_op, snapshot, timestamp, expression, domain
                     from partition_info
@@ -256,6 +272,19 @@ async fn get_prepared_statement(
                     "select table_id, partition_desc, commit_id, file_ops, commit_op, timestamp, committed, domain
                     from data_commit_info
                     where table_id = $1::TEXT and partition_desc = $2::TEXT and commit_id = $3::UUID",
+                // data commits of the latest version up to a timestamp of each partition, empty $2 for all partitions
+                DaoType::ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime =>
+                    "select d.table_id, d.partition_desc, d.commit_id, d.file_ops, d.commit_op, d.timestamp, d.committed, d.domain
+                    from (
+                        select distinct on (partition_desc) partition_desc, snapshot
+                        from partition_info
+                        where table_id = $1::TEXT and timestamp <= $3::BIGINT
+                        and ($2::TEXT = '' or partition_desc = any(string_to_array($2::TEXT, '_DELIM_')))
+                        order by partition_desc, version desc) p
+                    cross join lateral unnest(p.snapshot) with ordinality as s(commit_id, idx)
+                    join data_commit_info d
+                    on d.table_id = $1::TEXT and d.partition_desc = p.partition_desc and d.commit_id = s.commit_id
+                    order by p.partition_desc, s.idx",
 
 
                 // Insert
@@ -579,6 +608,24 @@ pub async fn execute_query(
                 Err(e) => return Err(LakeSoulMetaDataError::from(e)),
             }
         }
+        DaoType::ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime if params.len() == 3 => {
+            let result = client
+                .query(&statement, &[&params[0], &params[1], &i64::from_str(&params[2])?])
+                .await;
+            match result {
+                Ok(rows) => rows,
+                Err(e) => return Err(LakeSoulMetaDataError::from(e)),
+            }
+        }
+        DaoType::ListPartitionByTableIdChangedSince if params.len() == 2 => {
+            let result = client
+                .query(&statement, &[&params[0], &i64::from_str(&params[1])?])
+                .await;
+            match result {
+                Ok(rows) => rows,
+                Err(e) => return Err(LakeSoulMetaDataError::from(e)),
+            }
+        }
         DaoType::ListDataCommitInfoByTableIdAndPartitionDescAndCommitList if params.len() == 3 => {
             let concated_uuid = &params[2];
             if concated_uuid.len() % 32 != 0 {
@@ -634,10 +681,12 @@ pub async fn execute_query(
         | DaoType::SelectOnePartitionVersionByTableIdAndDesc
         | DaoType::ListPartitionByTableIdAndDesc
         | DaoType::ListPartitionVersionByTableIdAndPartitionDescAndTimestampRange
-        | DaoType::ListPartitionVersionByTableIdAndPartitionDescAndVersionRange => ResultType::PartitionInfo,
+        | DaoType::ListPartitionVersionByTableIdAndPartitionDescAndVersionRange
+        | DaoType::ListPartitionByTableIdChangedSince => ResultType::PartitionInfo,
 
         DaoType::SelectOneDataCommitInfoByTableIdAndPartitionDescAndCommitId
-        | DaoType::ListDataCommitInfoByTableIdAndPartitionDescAndCommitList => ResultType::DataCommitInfo,
+        | DaoType::ListDataCommitInfoByTableIdAndPartitionDescAndCommitList
+        | DaoType::ListSnapshotDataCommitInfoByTableIdAndPartitionDescListUpToTime => ResultType::DataCommitInfo,
 
         DaoType::ListAllPathTablePathByNamespace => ResultType::TablePathIdWithOnlyPath,
 